@@ -163,6 +163,7 @@ public class Constants {
     public static final String FLOW_KILL_DURATION = "flowKillDuration";
     public static final String FLOW_PAUSE_DURATION = "flowPauseDuration";
     public static final String FLOW_PREPARATION_DURATION = "flowPreparationDuration";
+    public static final String FLOW_CONTAINER_STARTUP_PHASES = "flowContainerStartupPhases";
     public static final String SLA_OPTIONS = "slaOptions";
     public static final String VERSION_SET = "versionSet";
     public static final String EXECUTOR_TYPE = "executorType";
@@ -293,6 +294,23 @@ public class Constants {
     public static final String JETTY_USE_SSL = "jetty.use.ssl";
     public static final String JETTY_SSL_PORT = "jetty.ssl.port";
     public static final String JETTY_PORT = "jetty.port";
+    public static final String JETTY_MAX_THREADS = "jetty.maxThreads";
+    public static final String JETTY_MIN_THREADS = "jetty.minThreads";
+    // Time after which threads above jetty.minThreads are stopped when idle
+    public static final String JETTY_THREAD_MAX_IDLE_TIME_MS = "jetty.threadMaxIdleTimeMs";
+    // Number of connections the OS queues before they are accepted by the connector
+    public static final String JETTY_ACCEPT_QUEUE_SIZE = "jetty.acceptQueueSize";
+    public static final String JETTY_ACCEPTORS = "jetty.acceptors";
+    public static final String JETTY_CONNECTOR_MAX_IDLE_TIME_MS = "jetty.connector.maxIdleTimeMs";
+
+    // Comma separated names of the request bulkheads of the web server. A bulkhead bounds the
+    // number of concurrent requests to a group of routes, so that slow routes can't take all the
+    // jetty threads from the others. Requests it can't admit are rejected with 429.
+    public static final String AZKABAN_WEBSERVER_BULKHEADS = "azkaban.webserver.bulkheads";
+    // Prefix of the settings of each bulkhead: azkaban.webserver.bulkhead.<name>.routes (comma
+    // separated servlet paths, e.g. /manager,/history), .max.concurrent, .max.queued and
+    // .max.wait.ms
+    public static final String AZKABAN_WEBSERVER_BULKHEAD_PREFIX = "azkaban.webserver.bulkhead.";
 
     public static final String EXECUTOR_PORT_FILE = "executor.portfile";
     // To set a fixed port for executor-server. Otherwise some available port is used.
@@ -317,6 +335,11 @@ public class Constants {
     public static final String AZKABAN_DEPENDENCY_MAX_DOWNLOAD_TRIES = "azkaban.dependency.max.download.tries";
     public static final String AZKABAN_DEPENDENCY_DOWNLOAD_THREADPOOL_SIZE =
         "azkaban.dependency.download.threadpool.size";
+    // Maximum number of dependencies downloaded concurrently from the same origin host. The other
+    // downloads from this host wait in a queue without holding a thread of the download pool.
+    // Defaults to the size of the download pool.
+    public static final String AZKABAN_DEPENDENCY_MAX_DOWNLOADS_PER_ORIGIN =
+        "azkaban.dependency.max.downloads.per.origin";
     public static final String AZKABAN_STORAGE_TYPE = "azkaban.storage.type";
     public static final String AZKABAN_STORAGE_LOCAL_BASEDIR = "azkaban.storage.local.basedir";
     public static final String HADOOP_CONF_DIR_PATH = "hadoop.conf.dir.path";
@@ -325,6 +348,27 @@ public class Constants {
     public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_ENABLED = "azkaban.storage.cache.dependency.enabled";
     public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_ROOT_URI = "azkaban.storage.cache.dependency_root.uri";
     public static final String AZKABAN_STORAGE_ORIGIN_DEPENDENCY_ROOT_URI = "azkaban.storage.origin.dependency_root.uri";
+    // Directory of an optional node-local cache of dependencies, in front of the dependency cache
+    // root. The least recently used dependencies are deleted above the max size in bytes.
+    public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_DIR =
+        "azkaban.storage.cache.dependency.local.dir";
+    public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_MAX_BYTES =
+        "azkaban.storage.cache.dependency.local.max.bytes";
+    // How long the size of a dependency is remembered in memory to avoid calls to the dependency
+    // cache and origin. 0 disables it.
+    public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_STATUS_TTL_MS =
+        "azkaban.storage.cache.dependency.status.ttl.ms";
+    // How long a dependency which the origin doesn't have is remembered in memory, so that looking
+    // it up again fails without calling the origin. Disabled (0) by default.
+    public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_MISSING_TTL_MS =
+        "azkaban.storage.cache.dependency.missing.ttl.ms";
+    // Store project versions as a manifest plus content addressed file blobs, so that the files
+    // shared by versions of a project are uploaded and stored once. Not supported by db storage.
+    public static final String AZKABAN_STORAGE_PROJECT_DEDUP_ENABLED =
+        "azkaban.storage.project.dedup.enabled";
+    // Number of threads uploading or downloading the blobs of a deduplicated project version.
+    public static final String AZKABAN_STORAGE_PROJECT_DEDUP_PARALLELISM =
+        "azkaban.storage.project.dedup.parallelism";
     public static final String AZKABAN_KERBEROS_PRINCIPAL = "azkaban.kerberos.principal";
     public static final String AZKABAN_KEYTAB_PATH = "azkaban.keytab.path";
     public static final String PROJECT_TEMP_DIR = "project.temp.dir";
@@ -383,6 +427,30 @@ public class Constants {
         "azkaban.concurrent.runs.oneflow.whitelist";
 
     public static final String WEBSERVER_QUEUE_SIZE = "azkaban.webserver.queue.size";
+
+    // Max number of executable nodes of the ExecutableFlows the web server keeps in memory to
+    // serve execution page polling. 0 disables the cache.
+    public static final String WEBSERVER_EXECUTABLE_FLOW_CACHE_MAX_NODES =
+        "azkaban.webserver.executable.flow.cache.max.nodes";
+
+    // Interval at which the web server reads the status of executions watched by long-polling
+    // execution pages, and the max number of long-polls it holds at a time. 0 subscribers
+    // disables long-polling; pages then fall back to periodic polling.
+    public static final String WEBSERVER_EXECUTION_UPDATES_POLL_INTERVAL_MS =
+        "azkaban.webserver.execution.updates.poll.interval.ms";
+    public static final String WEBSERVER_EXECUTION_UPDATES_MAX_SUBSCRIBERS =
+        "azkaban.webserver.execution.updates.max.subscribers";
+
+    // Max number of streamExecLogs requests with follow=true the web server holds at a time. Each
+    // of them holds a web server thread and an executor thread while it waits for the log to grow.
+    // Further followers are rejected with 429 until one of them returns.
+    public static final String WEBSERVER_LOG_STREAM_MAX_FOLLOWERS =
+        "azkaban.webserver.log.stream.max.followers";
+
+    // Whether the web server compresses large JSON responses with gzip or deflate when the client
+    // accepts it.
+    public static final String WEBSERVER_RESPONSE_COMPRESSION_ENABLED =
+        "azkaban.webserver.response.compression.enabled";
     public static final String ACTIVE_EXECUTOR_REFRESH_IN_MS =
         "azkaban.activeexecutor.refresh.milisecinterval";
     public static final String ACTIVE_EXECUTOR_REFRESH_IN_NUM_FLOW =
@@ -409,9 +477,34 @@ public class Constants {
     public static final String PROJECT_CACHE_THROTTLE_PERCENTAGE =
         "azkaban.project_cache_throttle_percentage";
 
+    // size of shared project dir (percentage of partition size) down to which the least recently
+    // used projects are deleted once the cache size percentage is exceeded, e.g 0.7. Defaults to
+    // the cache size percentage.
+    public static final String PROJECT_CACHE_LOW_WATERMARK_PERCENTAGE =
+        "azkaban.project_cache_low_watermark_percentage";
+
+    // how the execution dirs are populated from the project cache: hardlink (default) or reflink,
+    // which requires a file system supporting copy on write such as btrfs or xfs
+    public static final String EXECUTION_DIR_MATERIALIZATION =
+        "azkaban.execution.dir.materialization";
+
+    // whether the jobs of the same jobtype and cluster share a class loader on an executor instead
+    // of creating one per job. Disabled by default.
+    public static final String JOBTYPE_CLASSLOADER_CACHE_ENABLED =
+        "azkaban.jobtype.classloader.cache.enabled";
+
+    // whether a flow container only loads the jobtype plugins used by its flow on startup, the
+    // other plugins being loaded if a job uses them
+    public static final String FLOW_CONTAINER_LOAD_USED_JOBTYPES_ONLY =
+        "azkaban.flow.container.load.used.jobtypes.only";
+
     // how many older versions of project files are kept in DB before deleting them
     public static final String PROJECT_VERSION_RETENTION = "project.version.retention";
 
+    // number of threads reading the files of an uploaded project concurrently. 1 reads them one
+    // after the other.
+    public static final String PROJECT_UPLOAD_PARALLELISM = "project.upload.parallelism";
+
     // number of rows to be displayed on the executions page.
     public static final String DISPLAY_EXECUTION_PAGE_SIZE = "azkaban.display.execution_page_size";
 
@@ -442,6 +535,24 @@ public class Constants {
     public static final String EXECUTION_LOGS_CLEANUP_RECORD_LIMIT =
         "execution.logs.cleanup.record.limit";
 
+    // Exec-id range based retention of execution_logs, execution_jobs, execution_flows and
+    // executor_events. When disabled, execution_logs are cleaned up by upload_time only.
+    public static final String EXECUTION_RETENTION_ENGINE_ENABLED =
+        "azkaban.execution.retention.engine.enabled";
+    // Retention of execution_flows, execution_jobs and executor_events rows. Those tables are not
+    // cleaned up unless this is set.
+    public static final String EXECUTION_RETENTION_MS = "azkaban.execution.retention.ms";
+    public static final String EXECUTION_RETENTION_MIN_BATCH_SIZE =
+        "azkaban.execution.retention.batch.min";
+    public static final String EXECUTION_RETENTION_MAX_BATCH_SIZE =
+        "azkaban.execution.retention.batch.max";
+    // Batches faster than this get larger, slower batches get smaller.
+    public static final String EXECUTION_RETENTION_TARGET_BATCH_MS =
+        "azkaban.execution.retention.batch.target.ms";
+    // Pause between two delete batches, to let replicas catch up.
+    public static final String EXECUTION_RETENTION_BATCH_PAUSE_MS =
+        "azkaban.execution.retention.batch.pause.ms";
+
     // Oauth2.0 configuration keys. If missing, no OAuth will be attempted, and the old
     // username/password{+2FA} prompt will be given for interactive login:
     public static final String OAUTH_PROVIDER_URI_KEY = "oauth.provider_uri";  // where to send user for OAuth flow, e.g.:
@@ -463,6 +574,11 @@ public class Constants {
     public static final String EXECUTOR_PROPS_RESOLVE_OVERRIDE_EXISTING_ENABLED =
         "executor.props.resolve.overrideExisting.enabled";
 
+    // If true, the execution_jobs rows of all jobs which become ready together are inserted with
+    // multi-row statements by the flow runner, instead of one insert per job by each job runner.
+    public static final String EXECUTOR_BULK_JOB_REGISTRATION_ENABLED =
+        "executor.jobs.bulk.registration.enabled";
+
     // Executor client TLS properties
     public static final String EXECUTOR_CLIENT_TLS_ENABLED = "azkaban.executor.client.tls.enabled";
     public static final String EXECUTOR_CLIENT_TRUSTSTORE_PATH = "azkaban.executor.client.truststore";
@@ -582,6 +698,15 @@ public class Constants {
         AZKABAN_CONTAINERIZED_PREFIX + "execution.processing.thread.pool.size";
     public static final String CONTAINERIZED_CREATION_RATE_LIMIT =
         AZKABAN_CONTAINERIZED_PREFIX + "creation.rate.limit";
+    // Maximum number of executions being dispatched to containers at a time. Defaults to the size
+    // of the dispatch thread pool.
+    public static final String CONTAINERIZED_DISPATCH_MAX_IN_FLIGHT =
+        AZKABAN_CONTAINERIZED_PREFIX + "dispatch.max.in.flight";
+    // Interval at which the in-memory snapshot of image rampups and versions used to select the
+    // image versions of a dispatch is reloaded. Setting it to 0 queries the database on each
+    // dispatch.
+    public static final String CONTAINERIZED_IMAGE_RAMPUP_SNAPSHOT_REFRESH_INTERVAL_SEC =
+        AZKABAN_CONTAINERIZED_PREFIX + "image.rampup.snapshot.refresh.interval.sec";
     public static final String CONTAINERIZED_RAMPUP =
         AZKABAN_CONTAINERIZED_PREFIX + "rampup";
     public static final String CONTAINERIZED_JOBTYPE_ALLOWLIST =
@@ -627,6 +752,22 @@ public class Constants {
         KUBERNETES_FLOW_CONTAINER_PREFIX + "secret.volume";
     public static final String KUBERNETES_FLOW_CONTAINER_SECRET_MOUNTPATH =
         KUBERNETES_FLOW_CONTAINER_PREFIX + "secret.mountpath";
+    // Path in the flow container image of a class data sharing archive created when the image is
+    // built. The flow container JVM maps it to start faster when it is set.
+    public static final String KUBERNETES_FLOW_CONTAINER_CDS_ARCHIVE_PATH =
+        KUBERNETES_FLOW_CONTAINER_PREFIX + "cds.archive.path";
+    // Number of standby flow containers, started and waiting for an execution, kept for each
+    // combination of image versions, jobtypes and resource requests recently dispatched. Setting it
+    // to 0 disables the standby flow containers.
+    public static final String KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_SIZE =
+        KUBERNETES_FLOW_CONTAINER_PREFIX + "standby.pool.size";
+    // Maximum number of combinations for which standby flow containers are kept
+    public static final String KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_MAX_KEYS =
+        KUBERNETES_FLOW_CONTAINER_PREFIX + "standby.pool.max.keys";
+    // Time after which the standby flow containers of a combination which is not dispatched
+    // anymore are deleted
+    public static final String KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_IDLE_TIMEOUT_MIN =
+        KUBERNETES_FLOW_CONTAINER_PREFIX + "standby.pool.idle.timeout.min";
 
     public static final String KUBERNETES_INIT_MOUNT_PATH_FOR_JOBTYPES =
         KUBERNETES_FLOW_CONTAINER_PREFIX + "init.jobtypes.mount.path";
@@ -634,6 +775,10 @@ public class Constants {
         KUBERNETES_FLOW_CONTAINER_PREFIX + "jobtypes.mount.path";
     public static final String KUBERNETES_POD_TEMPLATE_PATH =
         KUBERNETES_POD_PREFIX + "template.path";
+    // Maximum number of prebuilt pod specs cached per combination of image versions, jobtypes and
+    // resource requests. Setting it to 0 disables the cache.
+    public static final String KUBERNETES_POD_SPEC_TEMPLATE_CACHE_SIZE =
+        KUBERNETES_POD_PREFIX + "spec.template.cache.size";
 
     // Kubernetes service related properties
     public static final String KUBERNETES_SERVICE_PREFIX = AZKABAN_KUBERNETES_PREFIX + "service.";
@@ -659,6 +804,8 @@ public class Constants {
     public static final String ENV_FLOW_EXECUTION_ID = "FLOW_EXECUTION_ID";
     public static final String ENV_JAVA_ENABLE_DEBUG = "JAVA_ENABLE_DEBUG";
     public static final String ENV_ENABLE_DEV_POD = "ENABLE_DEV_POD";
+    public static final String ENV_JAVA_CDS_ARCHIVE = "JAVA_CDS_ARCHIVE";
+    public static final String ENV_FLOW_CONTAINER_STANDBY = "FLOW_CONTAINER_STANDBY";
   }
 
   public static class ImageMgmtConstants {
@@ -20,6 +20,7 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -54,7 +55,10 @@ public enum HashUtils {
     return type;
   }
 
-  private MessageDigest getDigest() {
+  /**
+   * @return a new digest of this type, to hash content while it is streamed.
+   */
+  public MessageDigest getDigest() {
     MessageDigest digest;
     try {
       digest = MessageDigest.getInstance(getName());
@@ -80,10 +84,18 @@ public enum HashUtils {
   }
 
   public byte[] getHashBytes(final File file) throws IOException {
+    try (final FileInputStream fStream = new FileInputStream(file)) {
+      return getHashBytes(fStream);
+    }
+  }
+
+  /**
+   * Hash the remaining content of the stream. The stream is not closed.
+   */
+  public byte[] getHashBytes(final InputStream stream) throws IOException {
     final MessageDigest digest = getDigest();
 
-    final FileInputStream fStream = new FileInputStream(file);
-    final BufferedInputStream bStream = new BufferedInputStream(fStream);
+    final BufferedInputStream bStream = new BufferedInputStream(stream);
     final DigestInputStream blobStream = new DigestInputStream(bStream, digest);
 
     final byte[] buffer = new byte[BYTE_BUFFER_SIZE];
@@ -93,8 +105,6 @@ public enum HashUtils {
       num = blobStream.read(buffer);
     } while (num > 0);
 
-    bStream.close();
-
     return digest.digest();
   }
 
@@ -30,7 +30,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import org.apache.commons.io.IOUtils;
+import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -41,6 +43,9 @@ import org.slf4j.LoggerFactory;
 public class JSONUtils {
 
   private static final Logger log = LoggerFactory.getLogger(JSONUtils.class);
+  // Shared by the writers below. ObjectMapper is thread-safe once configured, and reusing it
+  // avoids rebuilding its serializer caches for every response.
+  private static final ObjectMapper WRITER_MAPPER = new ObjectMapper();
 
   /**
    * The constructor. Cannot construct this class.
@@ -53,7 +58,7 @@ public class JSONUtils {
   }
 
   public static String toJSON(final Object obj, final boolean prettyPrint) {
-    final ObjectMapper mapper = new ObjectMapper();
+    final ObjectMapper mapper = WRITER_MAPPER;
 
     try {
       if (prettyPrint) {
@@ -72,7 +77,7 @@ public class JSONUtils {
 
   public static void toJSON(final Object obj, final OutputStream stream,
       final boolean prettyPrint) {
-    final ObjectMapper mapper = new ObjectMapper();
+    final ObjectMapper mapper = WRITER_MAPPER;
     try {
       if (prettyPrint) {
         final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
@@ -85,6 +90,16 @@ public class JSONUtils {
     }
   }
 
+  /**
+   * Create a compact UTF-8 generator on the stream, for writing large JSON documents field by
+   * field instead of building them as maps first. Objects written with
+   * {@link JsonGenerator#writeObject} are serialized as by {@link #toJSON(Object)}. Closing the
+   * generator closes the stream.
+   */
+  public static JsonGenerator createGenerator(final OutputStream stream) throws IOException {
+    return WRITER_MAPPER.getJsonFactory().createJsonGenerator(stream, JsonEncoding.UTF8);
+  }
+
   public static void toJSON(final Object obj, final File file) throws IOException {
     toJSON(obj, file, false);
   }
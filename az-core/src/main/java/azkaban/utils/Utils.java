@@ -15,6 +15,8 @@
  */
 package azkaban.utils;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -28,14 +30,25 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Random;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -52,6 +65,9 @@ public class Utils {
 
   private static final Random RANDOM = new Random();
   private static final Logger logger = Logger.getLogger(Utils.class);
+  // Number of files extracted concurrently from a zip file by default
+  private static final int DEFAULT_UNZIP_PARALLELISM =
+      Math.min(4, Runtime.getRuntime().availableProcessors());
 
   /**
    * Private constructor.
@@ -200,34 +216,91 @@ public class Utils {
     }
   }
 
-  public static void unzip(final ZipFile source, final File dest) throws IOException {
-    final Enumeration<?> entries = source.entries();
+  /**
+   * Extract a zip file, with the default parallelism.
+   *
+   * @return the total size in bytes of the extracted files
+   * @see #unzip(ZipFile, File, int)
+   */
+  public static long unzip(final ZipFile source, final File dest) throws IOException {
+    return unzip(source, dest, DEFAULT_UNZIP_PARALLELISM);
+  }
+
+  /**
+   * Extract a zip file. The directories are created first, then the files are extracted by up to
+   * {@code parallelism} threads, since inflating the entries and writing the files can run
+   * concurrently.
+   *
+   * @param parallelism maximum number of files extracted concurrently
+   * @return the total size in bytes of the extracted files, so that the extracted dir doesn't
+   *     need to be walked to get it
+   * @throws IOException if an entry would be extracted outside of the destination dir, or if an
+   *     entry can't be extracted
+   */
+  public static long unzip(final ZipFile source, final File dest, final int parallelism)
+      throws IOException {
+    final Path destPath = dest.getCanonicalFile().toPath();
+    // When an entry is repeated the last one wins, as when extracting the entries in order
+    final Map<Path, ZipEntry> files = new LinkedHashMap<>();
+    final Set<Path> dirs = new TreeSet<>();
+    final Enumeration<? extends ZipEntry> entries = source.entries();
     while (entries.hasMoreElements()) {
-      final ZipEntry entry = (ZipEntry) entries.nextElement();
-      final File newFile = new File(dest, entry.getName());
-      if (!newFile.getCanonicalPath().startsWith(dest.getCanonicalPath())) {
+      final ZipEntry entry = entries.nextElement();
+      final Path newPath = destPath.resolve(entry.getName()).normalize();
+      if (!newPath.startsWith(destPath)) {
         throw new IOException(
             "Extracting zip entry would have resulted in a file outside the specified destination"
                 + " directory.");
       }
-
       if (entry.isDirectory()) {
-        newFile.mkdirs();
+        dirs.add(newPath);
       } else {
-        newFile.getParentFile().mkdirs();
-        final InputStream src = source.getInputStream(entry);
-        try {
-          final OutputStream output =
-              new BufferedOutputStream(new FileOutputStream(newFile));
-          try {
-            IOUtils.copy(src, output);
-          } finally {
-            output.close();
-          }
-        } finally {
-          src.close();
-        }
+        dirs.add(newPath.getParent());
+        files.put(newPath, entry);
+      }
+    }
+    // Sorted, so that the parent dirs are created first
+    for (final Path dir : dirs) {
+      Files.createDirectories(dir);
+    }
+
+    if (parallelism <= 1 || files.size() <= 1) {
+      long totalSize = 0;
+      for (final Entry<Path, ZipEntry> file : files.entrySet()) {
+        totalSize += extractEntry(source, file.getValue(), file.getKey());
+      }
+      return totalSize;
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(parallelism, files.size()),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("azk-unzip-%d").build());
+    try {
+      final List<Future<Long>> extractions = new ArrayList<>(files.size());
+      for (final Entry<Path, ZipEntry> file : files.entrySet()) {
+        extractions.add(executor.submit(
+            () -> extractEntry(source, file.getValue(), file.getKey())));
       }
+      long totalSize = 0;
+      for (final Future<Long> extraction : extractions) {
+        totalSize += extraction.get();
+      }
+      return totalSize;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while extracting " + source.getName(), e);
+    } catch (final ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      throw new IOException("Error when extracting " + source.getName(), e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static long extractEntry(final ZipFile source, final ZipEntry entry, final Path dest)
+      throws IOException {
+    try (final InputStream src = source.getInputStream(entry);
+        final OutputStream output = new BufferedOutputStream(Files.newOutputStream(dest))) {
+      return IOUtils.copyLarge(src, output);
     }
   }
 
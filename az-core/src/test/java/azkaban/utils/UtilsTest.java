@@ -15,17 +15,26 @@
  */
 package azkaban.utils;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
 import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 
 /**
@@ -33,6 +42,11 @@ import org.junit.Test;
  */
 public class UtilsTest {
 
+  private static final Logger logger = Logger.getLogger(UtilsTest.class);
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   /**
    * An insecure zip file may hold path traversal filenames. During unzipping, the filename gets
    * concatenated to the target directory. The final path may end up outside the target directory,
@@ -61,6 +75,69 @@ public class UtilsTest {
     }
   }
 
+  @Test
+  public void testUnzip() throws IOException {
+    final File zipFile = this.temp.newFile("project.zip");
+    try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+      out.putNextEntry(new ZipEntry("lib/"));
+      out.putNextEntry(new ZipEntry("lib/a.jar"));
+      out.write(new byte[100]);
+      out.putNextEntry(new ZipEntry("flows/basic/basic.flow"));
+      out.write("nodes:".getBytes(StandardCharsets.UTF_8));
+      out.putNextEntry(new ZipEntry("empty/"));
+      out.putNextEntry(new ZipEntry("top.properties"));
+      out.write(new byte[10]);
+    }
+
+    try (final ZipFile source = new ZipFile(zipFile)) {
+      for (final int parallelism : new int[]{1, 4}) {
+        final File dest = this.temp.newFolder("dest" + parallelism);
+        assertThat(Utils.unzip(source, dest, parallelism)).isEqualTo(116);
+        assertThat(dest.list()).containsOnly("lib", "flows", "empty", "top.properties");
+        assertThat(new File(dest, "lib/a.jar")).hasBinaryContent(new byte[100]);
+        assertThat(new File(dest, "flows/basic/basic.flow")).hasContent("nodes:");
+        assertThat(new File(dest, "empty").list()).isEmpty();
+        assertThat(FileUtils.sizeOfDirectory(dest)).isEqualTo(116);
+      }
+    }
+  }
+
+  /**
+   * Compare the time taken to extract fat archives of different sizes sequentially and
+   * concurrently. The times are only logged since they depend on the host.
+   */
+  @Ignore("Slow test - run manually to compare the unzip parallelisms")
+  @Test
+  public void testUnzipFatArchives() throws IOException {
+    final Random random = new Random(0);
+    // Number of files, and size of each file in bytes
+    final int[][] archives = {{1000, 10 * 1024}, {100, 1024 * 1024}, {20, 20 * 1024 * 1024}};
+    for (final int[] archive : archives) {
+      final File zipFile = this.temp.newFile("fat-" + archive[0] + ".zip");
+      try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+        final byte[] content = new byte[archive[1]];
+        for (int i = 0; i < archive[0]; i++) {
+          // Half random, so that the content is compressed but not too much
+          random.nextBytes(content);
+          Arrays.fill(content, 0, content.length / 2, (byte) 0);
+          out.putNextEntry(new ZipEntry("lib" + i % 10 + "/file" + i + ".jar"));
+          out.write(content);
+        }
+      }
+      try (final ZipFile source = new ZipFile(zipFile)) {
+        for (final int parallelism : new int[]{1, 2, 4, 8}) {
+          final File dest = this.temp.newFolder();
+          final long start = System.currentTimeMillis();
+          final long size = Utils.unzip(source, dest, parallelism);
+          logger.info(String.format("Extracted %d files, %d MB in total, with parallelism %d in "
+                  + "%d ms", archive[0], size / (1024 * 1024), parallelism,
+              System.currentTimeMillis() - start));
+          FileUtils.deleteDirectory(dest);
+        }
+      }
+    }
+  }
+
   @Test
   public void testRunProcess() throws IOException, InterruptedException {
     ArrayList<String> result =
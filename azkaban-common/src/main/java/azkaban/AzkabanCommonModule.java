@@ -24,8 +24,10 @@ import static azkaban.Constants.ImageMgmtConstants.IMAGE_VERSION;
 
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.AzkabanDataSource;
+import azkaban.db.DatabaseOperator;
 import azkaban.db.H2FileDataSource;
 import azkaban.db.MySQLDataSource;
+import azkaban.db.MySQLReadReplicaDataSource;
 import azkaban.executor.ExecutorLoader;
 import azkaban.executor.JdbcExecutorLoader;
 import azkaban.imagemgmt.converters.Converter;
@@ -91,6 +93,7 @@ public class AzkabanCommonModule extends AbstractModule {
     install(new AzkabanCoreModule(this.props));
     bind(Storage.class).to(resolveStorageClassType());
     bind(AzkabanDataSource.class).to(resolveDataSourceType());
+    bindReadReplicaDataSource();
     bind(TriggerLoader.class).to(JdbcTriggerImpl.class);
     bind(ProjectLoader.class).to(JdbcProjectImpl.class);
     bind(ExecutorLoader.class).to(JdbcExecutorLoader.class);
@@ -138,6 +141,20 @@ public class AzkabanCommonModule extends AbstractModule {
     }
   }
 
+  /**
+   * Bind the optional MySQL read replica used by {@link DatabaseOperator#queryReadOnly}. It is
+   * only enabled when "mysql.replica.host" is set.
+   */
+  private void bindReadReplicaDataSource() {
+    if (resolveDataSourceType() == MySQLDataSource.class
+        && this.props.containsKey(MySQLReadReplicaDataSource.REPLICA_HOST)) {
+      logger.info("Routing read-only queries to replica "
+          + this.props.getString(MySQLReadReplicaDataSource.REPLICA_HOST));
+      bind(AzkabanDataSource.class).annotatedWith(Names.named(DatabaseOperator.READ_REPLICA))
+          .to(MySQLReadReplicaDataSource.class).in(Scopes.SINGLETON);
+    }
+  }
+
   @Provides
   public QueryRunner createQueryRunner(final AzkabanDataSource dataSource) {
     return new QueryRunner(dataSource);
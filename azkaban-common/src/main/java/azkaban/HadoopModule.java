@@ -17,13 +17,19 @@
 
 package azkaban;
 
+import static azkaban.Constants.ConfigurationKeys.AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_DIR;
+import static azkaban.Constants.ConfigurationKeys.AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_MAX_BYTES;
+import static azkaban.Constants.ConfigurationKeys.AZKABAN_STORAGE_CACHE_DEPENDENCY_MISSING_TTL_MS;
+import static azkaban.Constants.ConfigurationKeys.AZKABAN_STORAGE_CACHE_DEPENDENCY_STATUS_TTL_MS;
 import static azkaban.Constants.ConfigurationKeys.HADOOP_CONF_DIR_PATH;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import azkaban.cachedhttpfilesystem.CachedHttpFileSystem;
+import azkaban.metrics.MetricsManager;
 import azkaban.spi.AzkabanException;
 import azkaban.storage.AbstractHdfsAuth;
+import azkaban.utils.Props;
 import azkaban.utils.Utils;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
@@ -144,6 +150,24 @@ public class HadoopModule extends AbstractModule {
       // If caching is disabled, tell the CachedHttpFileSystem to disable caching
       conf.set(CachedHttpFileSystem.CACHE_ENABLED_FLAG, "false");
     }
+
+    final Props props = azConfig.getProps();
+    if (props.containsKey(AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_DIR)) {
+      conf.set(CachedHttpFileSystem.LOCAL_CACHE_DIR,
+          props.getString(AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_DIR));
+    }
+    if (props.containsKey(AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_MAX_BYTES)) {
+      conf.setLong(CachedHttpFileSystem.LOCAL_CACHE_MAX_BYTES,
+          props.getLong(AZKABAN_STORAGE_CACHE_DEPENDENCY_LOCAL_MAX_BYTES));
+    }
+    if (props.containsKey(AZKABAN_STORAGE_CACHE_DEPENDENCY_STATUS_TTL_MS)) {
+      conf.setLong(CachedHttpFileSystem.STATUS_CACHE_TTL_MS,
+          props.getLong(AZKABAN_STORAGE_CACHE_DEPENDENCY_STATUS_TTL_MS));
+    }
+    if (props.containsKey(AZKABAN_STORAGE_CACHE_DEPENDENCY_MISSING_TTL_MS)) {
+      conf.setLong(CachedHttpFileSystem.MISSING_STATUS_CACHE_TTL_MS,
+          props.getLong(AZKABAN_STORAGE_CACHE_DEPENDENCY_MISSING_TTL_MS));
+    }
     return conf;
   }
 
@@ -187,7 +211,8 @@ public class HadoopModule extends AbstractModule {
       @Named(HADOOP_FS_AUTH) final AbstractHdfsAuth auth,
       @Named(HADOOP_FILE_CONTEXT) final FileContext fileContext,
       @Named(HTTP_CONF) @Nullable final Configuration httpConf,
-      final AzkabanCommonModuleConfig azConfig) {
+      final AzkabanCommonModuleConfig azConfig,
+      final MetricsManager metricsManager) {
     if (httpConf == null) {
       return null;
     }
@@ -204,7 +229,7 @@ public class HadoopModule extends AbstractModule {
     finalConf.addResource(httpConf);
 
     auth.authorize();
-    return getCachedHttpFileSystem(finalConf, azConfig);
+    return getCachedHttpFileSystem(finalConf, azConfig, metricsManager, "HdfsCachedHttpFileSystem");
   }
 
   @Inject
@@ -214,7 +239,8 @@ public class HadoopModule extends AbstractModule {
   public FileSystem createLocalCachedHttpFileSystem(
       @Named(LOCAL_CONF) final Configuration localConf,
       @Named(HTTP_CONF) @Nullable final Configuration httpConf,
-      final AzkabanCommonModuleConfig azConfig) {
+      final AzkabanCommonModuleConfig azConfig,
+      final MetricsManager metricsManager) {
     if (httpConf == null) {
       return null;
     }
@@ -228,11 +254,13 @@ public class HadoopModule extends AbstractModule {
     finalConf.addResource(localConf);
     finalConf.addResource(httpConf);
 
-    return getCachedHttpFileSystem(finalConf, azConfig);
+    return getCachedHttpFileSystem(finalConf, azConfig, metricsManager,
+        "LocalCachedHttpFileSystem");
   }
 
   private static FileSystem getCachedHttpFileSystem(final Configuration conf,
-      final AzkabanCommonModuleConfig azConfig) {
+      final AzkabanCommonModuleConfig azConfig, final MetricsManager metricsManager,
+      final String metricsPrefix) {
     // Ensure the necessary props are not specified to enable CachedHttpFileSystem
     if (azConfig.getOriginDependencyRootUri() == null) {
       return null;
@@ -242,13 +270,30 @@ public class HadoopModule extends AbstractModule {
     validateURI(azConfig.getOriginDependencyRootUri(), CHTTP_SCHEME, true);
 
     try {
-      return FileSystem.get(azConfig.getOriginDependencyRootUri(), conf);
+      final FileSystem fs = FileSystem.get(azConfig.getOriginDependencyRootUri(), conf);
+      if (fs instanceof CachedHttpFileSystem) {
+        registerCacheMetrics((CachedHttpFileSystem) fs, metricsManager, metricsPrefix);
+      }
+      return fs;
     } catch (final IOException e) {
       log.error("Unable to initialize CachedHttpFileSystem.", e);
       throw new AzkabanException(e);
     }
   }
 
+  /**
+   * Expose the hits of each tier of the dependency cache, so that their hit rates can be computed.
+   */
+  private static void registerCacheMetrics(final CachedHttpFileSystem fs,
+      final MetricsManager metricsManager, final String prefix) {
+    metricsManager.addGauge(prefix + "-local-hits", fs::getLocalHitCount);
+    metricsManager.addGauge(prefix + "-cache-hits", fs::getCacheHitCount);
+    metricsManager.addGauge(prefix + "-origin-downloads", fs::getOriginDownloadCount);
+    metricsManager.addGauge(prefix + "-negative-hits", fs::getNegativeHitCount);
+    metricsManager.addGauge(prefix + "-load-waits", fs::getLoadWaitCount);
+    metricsManager.addGauge(prefix + "-local-size-bytes", fs::getLocalCacheSizeInBytes);
+  }
+
   /**
    * Ensure a URI is valid for a given scheme and contains an authority (if required).
    */
@@ -32,6 +32,8 @@ import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,6 +46,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpResponseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -501,6 +505,64 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     return getJobLogData(exFlow, jobId, offset, length, attempt, pair);
   }
 
+  @Override
+  public void streamExecutionLog(final ExecutableFlow exFlow, final String jobId,
+      final int offset, final int length, final int attempt, final boolean follow,
+      final LogStreamHandler handler) throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair = this.executorLoader
+        .fetchActiveFlowByExecId(exFlow.getExecutionId());
+    if (pair == null) {
+      // Finished executions are served from the DB, where logs are stored in compressed chunks.
+      final LogData data = this.executorLoader.fetchLogs(exFlow.getExecutionId(),
+          jobId == null ? "" : jobId, jobId == null ? 0 : attempt, offset, length);
+      writeLogData(data, offset, handler);
+      return;
+    }
+
+    final List<Pair<String, String>> params = new ArrayList<>();
+    if (jobId == null) {
+      params.add(new Pair<>("type", "flow"));
+    } else {
+      params.add(new Pair<>("type", "job"));
+      params.add(new Pair<>("jobId", jobId));
+      params.add(new Pair<>("attempt", String.valueOf(attempt)));
+    }
+    params.add(new Pair<>("offset", String.valueOf(offset)));
+    params.add(new Pair<>("length", String.valueOf(length)));
+    params.add(new Pair<>(ConnectorParams.LOG_FOLLOW_PARAM, String.valueOf(follow)));
+    this.apiGateway.callForStreamWithReference(pair.getFirst(),
+        ConnectorParams.LOG_STREAM_ACTION, response -> {
+          final StatusLine statusLine = response.getStatusLine();
+          if (statusLine.getStatusCode() >= 300) {
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                statusLine.getReasonPhrase());
+          }
+          final long rangeOffset = Long.parseLong(
+              response.getFirstHeader(ConnectorParams.LOG_OFFSET_HEADER).getValue());
+          final int rangeLength = Integer.parseInt(
+              response.getFirstHeader(ConnectorParams.LOG_LENGTH_HEADER).getValue());
+          final OutputStream out = handler.open(rangeOffset, rangeLength);
+          if (response.getEntity() != null) {
+            response.getEntity().writeTo(out);
+          }
+          return null;
+        }, params);
+  }
+
+  private static void writeLogData(final LogData data, final int defaultOffset,
+      final LogStreamHandler handler) throws ExecutorManagerException {
+    try {
+      if (data == null) {
+        handler.open(defaultOffset, 0);
+        return;
+      }
+      final byte[] bytes = data.getData().getBytes(StandardCharsets.UTF_8);
+      handler.open(data.getOffset(), bytes.length).write(bytes);
+    } catch (final IOException e) {
+      throw new ExecutorManagerException(e);
+    }
+  }
+
   @Override
   public List<Object> getExecutionJobStats(final ExecutableFlow exFlow, final String jobId,
       final int attempt) throws ExecutorManagerException {
@@ -34,6 +34,7 @@ public interface ConnectorParams {
   public static final String LOG_ACTION = "log";
   public static final String ATTACHMENTS_ACTION = "attachments";
   public static final String METADATA_ACTION = "metadata";
+  public static final String LOG_STREAM_ACTION = "logStream";
   public static final String RELOAD_JOBTYPE_PLUGINS_ACTION = "reloadJobTypePlugins";
   public static final String ACTIVATE = "activate";
   public static final String DEACTIVATE = "deactivate";
@@ -50,6 +51,11 @@ public interface ConnectorParams {
   public static final String POLLING_INTERVAL_MILLIS_PROPERTY_NAME = "pollingIntervalMillis";
   public static final String PROPERTY_VALUE_PARAM = "propertyValue";
 
+  public static final String LOG_FOLLOW_PARAM = "follow";
+  public static final String LOG_FOLLOW_TIMEOUT_PARAM = "followTimeoutMs";
+  public static final String LOG_OFFSET_HEADER = "X-Azkaban-Log-Offset";
+  public static final String LOG_LENGTH_HEADER = "X-Azkaban-Log-Length";
+
   public static final String START_PARAM = "start";
   public static final String END_PARAM = "end";
   public static final String STATUS_PARAM = "status";
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Pair;
+import azkaban.utils.Props;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Read-only cache of ExecutableFlows for the execution pages of the web server, which poll the
+ * same executions every few seconds from every open browser tab.
+ *
+ * A cached flow is stamped with the (update_time, status) of its execution_flows row. Each lookup
+ * still reads that version from the DB, which is a primary key lookup, but only re-reads and
+ * decodes flow_data when it has changed. Concurrent lookups of the same version of an execution
+ * share a single load.
+ *
+ * The cache is bounded by the total number of executable nodes of the cached flows,
+ * {@link ConfigurationKeys#WEBSERVER_EXECUTABLE_FLOW_CACHE_MAX_NODES}, and entries expire when
+ * they are not accessed for a while. It is disabled when the bound is 0, which is the default.
+ *
+ * Flows returned by the cache are shared between callers and must not be modified.
+ */
+@Singleton
+public class ExecutableFlowCache {
+
+  private static final long DEFAULT_MAX_NODES = 0;
+  private static final long EXPIRE_AFTER_ACCESS_MINUTES = 10;
+
+  private final ExecutorLoader executorLoader;
+  private final boolean enabled;
+  private final Cache<Integer, CachedFlow> cache;
+  private final ConcurrentMap<Integer, CachedFlow> loading = new ConcurrentHashMap<>();
+  private final AtomicLong cachedNodes = new AtomicLong();
+  private final Meter hitMeter;
+  private final Meter missMeter;
+  private final Histogram loadTimeMs;
+
+  @Inject
+  public ExecutableFlowCache(final Props props, final ExecutorLoader executorLoader,
+      final MetricsManager metricsManager) {
+    this.executorLoader = executorLoader;
+    final long maxNodes = props.getLong(
+        ConfigurationKeys.WEBSERVER_EXECUTABLE_FLOW_CACHE_MAX_NODES, DEFAULT_MAX_NODES);
+    this.enabled = maxNodes > 0;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(Math.max(0, maxNodes))
+        .weigher((final Integer execId, final CachedFlow cached) -> cached.weight)
+        .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+        .removalListener(notification -> this.cachedNodes.addAndGet(
+            -notification.getValue().weight))
+        .build();
+    this.hitMeter = metricsManager.addMeter("ExecutableFlowCache-hit-meter");
+    this.missMeter = metricsManager.addMeter("ExecutableFlowCache-miss-meter");
+    this.loadTimeMs = metricsManager.addHistogram("ExecutableFlowCache-loadTimeMs");
+    metricsManager.addGauge("ExecutableFlowCache-size", this.cache::size);
+    metricsManager.addGauge("ExecutableFlowCache-nodes", this.cachedNodes::get);
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Get the latest version of the flow of an execution.
+   *
+   * @return the flow, which must not be modified, or null if the execution doesn't exist.
+   */
+  public ExecutableFlow getExecutableFlow(final int execId) throws ExecutorManagerException {
+    if (!this.enabled) {
+      return this.executorLoader.fetchExecutableFlow(execId);
+    }
+    final Pair<Long, Status> version = this.executorLoader.fetchExecutableFlowVersion(execId);
+    if (version == null) {
+      return null;
+    }
+    final CachedFlow cached = this.cache.getIfPresent(execId);
+    if (cached != null && cached.version.equals(version)) {
+      this.hitMeter.mark();
+      return cached.flow;
+    }
+    this.missMeter.mark();
+    return load(execId, version);
+  }
+
+  private ExecutableFlow load(final int execId, final Pair<Long, Status> version)
+      throws ExecutorManagerException {
+    final CachedFlow candidate = new CachedFlow(version);
+    final CachedFlow inFlight = this.loading.putIfAbsent(execId, candidate);
+    if (inFlight != null && inFlight.version.equals(version)) {
+      return inFlight.await();
+    }
+    if (inFlight != null) {
+      // A load of another version is in flight. Don't wait for it and don't replace it.
+      return this.executorLoader.fetchExecutableFlow(execId);
+    }
+
+    try {
+      final long startMs = System.currentTimeMillis();
+      final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(execId);
+      this.loadTimeMs.update(System.currentTimeMillis() - startMs);
+      candidate.complete(flow);
+      if (flow != null) {
+        this.cachedNodes.addAndGet(candidate.weight);
+        this.cache.put(execId, candidate);
+      }
+      return flow;
+    } catch (final ExecutorManagerException | RuntimeException e) {
+      candidate.future.completeExceptionally(e);
+      throw e;
+    } finally {
+      this.loading.remove(execId, candidate);
+    }
+  }
+
+  @VisibleForTesting
+  long getCachedNodes() {
+    return this.cachedNodes.get();
+  }
+
+  private static int countNodes(final ExecutableFlowBase flow) {
+    int count = 0;
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      count++;
+      if (node instanceof ExecutableFlowBase) {
+        count += countNodes((ExecutableFlowBase) node);
+      }
+    }
+    return count;
+  }
+
+  private static final class CachedFlow {
+
+    private final Pair<Long, Status> version;
+    private final CompletableFuture<ExecutableFlow> future = new CompletableFuture<>();
+    private volatile ExecutableFlow flow;
+    private volatile int weight = 1;
+
+    private CachedFlow(final Pair<Long, Status> version) {
+      this.version = version;
+    }
+
+    private void complete(final ExecutableFlow flow) {
+      this.flow = flow;
+      if (flow != null) {
+        this.weight = Math.max(1, countNodes(flow));
+      }
+      this.future.complete(flow);
+    }
+
+    private ExecutableFlow await() throws ExecutorManagerException {
+      try {
+        return this.future.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ExecutorManagerException("Interrupted while loading flow", e);
+      } catch (final ExecutionException e) {
+        if (e.getCause() instanceof ExecutorManagerException) {
+          throw (ExecutorManagerException) e.getCause();
+        }
+        throw new ExecutorManagerException(e.getCause().getMessage(), e.getCause());
+      }
+    }
+  }
+}
@@ -18,6 +18,7 @@ package azkaban.executor;
 import azkaban.flow.CommonJobProperties;
 import azkaban.flow.ConditionOnJobStatus;
 import azkaban.flow.Node;
+import azkaban.utils.ConditionExpression;
 import azkaban.utils.Props;
 import azkaban.utils.PropsUtils;
 import azkaban.utils.TypedMapWrapper;
@@ -75,6 +76,8 @@ public class ExecutableNode {
   private long delayExecution = 0;
   private List<ExecutionAttempt> pastAttempts = new ArrayList<>();
   private String condition;
+  // Compiled on first use
+  private volatile ConditionExpression conditionExpression;
   private ConditionOnJobStatus conditionOnJobStatus = ConditionOnJobStatus.ALL_SUCCESS;
 
   private String modifiedBy = "unknown";
@@ -494,6 +497,20 @@ public class ExecutableNode {
 
   public void setCondition(final String condition) {
     this.condition = condition;
+    this.conditionExpression = null;
+  }
+
+  /**
+   * @return the compiled condition of the node, null if the node has no condition.
+   * @throws IllegalArgumentException if the condition is not valid.
+   */
+  public ConditionExpression getConditionExpression() {
+    ConditionExpression expression = this.conditionExpression;
+    if (expression == null && this.condition != null) {
+      expression = ConditionExpression.compile(this.condition);
+      this.conditionExpression = expression;
+    }
+    return expression;
   }
 
   public ConditionOnJobStatus getConditionOnJobStatus() {
@@ -48,14 +48,17 @@ public class ExecutionFlowDao {
   private static final Logger logger = Logger.getLogger(ExecutionFlowDao.class);
   private final DatabaseOperator dbOperator;
   private final MysqlNamedLock mysqlNamedLock;
+  private final ExecutionSearchIndex searchIndex;
 
   private static final String POLLING_LOCK_NAME = "execution_flows_polling";
   private static final int GET_LOCK_TIMEOUT_IN_SECONDS = 5;
 
   @Inject
-  public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock) {
+  public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock,
+      final ExecutionSearchIndex searchIndex) {
     this.dbOperator = dbOperator;
     this.mysqlNamedLock = mysqlNamedLock;
+    this.searchIndex = searchIndex;
   }
 
   public void uploadExecutableFlow(final ExecutableFlow flow)
@@ -101,12 +104,14 @@ public class ExecutionFlowDao {
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error creating execution.", e);
     }
+    this.searchIndex.indexExecution(flow);
   }
 
   List<ExecutableFlow> fetchFlowHistory(final int skip, final int num)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_ALL_EXECUTABLE_FLOW_HISTORY,
+      return this.dbOperator.queryReadOnly(
+          FetchExecutableFlows.FETCH_ALL_EXECUTABLE_FLOW_HISTORY,
           new FetchExecutableFlows(), skip, num);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching flow History", e);
@@ -117,7 +122,7 @@ public class ExecutionFlowDao {
       final int skip, final int num)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_HISTORY,
+      return this.dbOperator.queryReadOnly(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_HISTORY,
           new FetchExecutableFlows(), projectId, flowId, skip, num);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching flow history", e);
@@ -189,7 +194,7 @@ public class ExecutionFlowDao {
       final int skip, final int num, final Status status)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_BY_STATUS,
+      return this.dbOperator.queryReadOnly(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_BY_STATUS,
           new FetchExecutableFlows(), projectId, flowId, status.getNumVal(), skip, num);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flows", e);
@@ -208,76 +213,63 @@ public class ExecutionFlowDao {
     }
   }
 
+  /**
+   * Search the executions whose project, flow and submit user contain the given strings, using
+   * the {@link ExecutionSearchIndex} when it can answer the search.
+   */
   List<ExecutableFlow> fetchFlowHistory(final String projectNameContains,
       final String flowNameContains, final String userNameContains, final int status,
       final long startTime, final long endTime, final int skip, final int num)
       throws ExecutorManagerException {
-    String query = FetchExecutableFlows.FETCH_BASE_EXECUTABLE_FLOW_QUERY;
+    final List<String> conditions = new ArrayList<>();
     final List<Object> params = new ArrayList<>();
 
-    boolean first = true;
-    if (projectNameContains != null && !projectNameContains.isEmpty()) {
-      query += " JOIN projects p ON ef.project_id = p.id WHERE name LIKE ?";
-      params.add('%' + projectNameContains + '%');
-      first = false;
-    }
-
-    // todo kunkun-tang: we don't need the below complicated logics. We should just use a simple way.
-    if (flowNameContains != null && !flowNameContains.isEmpty()) {
-      if (first) {
-        query += " WHERE ";
-        first = false;
-      } else {
-        query += " AND ";
+    try {
+      if (projectNameContains != null && !projectNameContains.isEmpty()) {
+        final List<Integer> projectIds = this.searchIndex.findProjectIds(projectNameContains);
+        if (projectIds == null) {
+          conditions.add("ef.project_id IN (SELECT id FROM projects WHERE name LIKE ?)");
+          params.add('%' + projectNameContains + '%');
+        } else if (projectIds.isEmpty()) {
+          return new ArrayList<>();
+        } else {
+          conditions.add("ef.project_id IN (" + placeholders(projectIds.size()) + ")");
+          params.addAll(projectIds);
+        }
       }
 
-      query += " flow_id LIKE ?";
-      params.add('%' + flowNameContains + '%');
-    }
-
-    if (userNameContains != null && !userNameContains.isEmpty()) {
-      if (first) {
-        query += " WHERE ";
-        first = false;
-      } else {
-        query += " AND ";
+      if (!addSearchCondition(ExecutionSearchIndex.Field.FLOW_ID, flowNameContains, conditions,
+          params)) {
+        return new ArrayList<>();
       }
-      query += " submit_user LIKE ?";
-      params.add('%' + userNameContains + '%');
+      if (!addSearchCondition(ExecutionSearchIndex.Field.SUBMIT_USER, userNameContains,
+          conditions, params)) {
+        return new ArrayList<>();
+      }
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error searching the execution index", e);
     }
 
     if (status != 0) {
-      if (first) {
-        query += " WHERE ";
-        first = false;
-      } else {
-        query += " AND ";
-      }
-      query += " status = ?";
+      conditions.add("status = ?");
       params.add(status);
     }
 
     if (startTime > 0) {
-      if (first) {
-        query += " WHERE ";
-        first = false;
-      } else {
-        query += " AND ";
-      }
-      query += " start_time > ?";
+      conditions.add("start_time > ?");
       params.add(startTime);
     }
 
     if (endTime > 0) {
-      if (first) {
-        query += " WHERE ";
-      } else {
-        query += " AND ";
-      }
-      query += " end_time < ?";
+      conditions.add("end_time < ?");
       params.add(endTime);
     }
 
+    String query = FetchExecutableFlows.FETCH_BASE_EXECUTABLE_FLOW_QUERY;
+    if (!conditions.isEmpty()) {
+      query += " WHERE " + String.join(" AND ", conditions);
+    }
+
     if (skip > -1 && num > 0) {
       query += "  ORDER BY exec_id DESC LIMIT ?, ?";
       params.add(skip);
@@ -285,12 +277,42 @@ public class ExecutionFlowDao {
     }
 
     try {
-      return this.dbOperator.query(query, new FetchExecutableFlows(), params.toArray());
+      return this.dbOperator.queryReadOnly(query, new FetchExecutableFlows(), params.toArray());
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flows", e);
     }
   }
 
+  /**
+   * Add the condition for a column of execution_flows to contain the search string: an IN list
+   * of the matching values from the index, or a LIKE scan if the index can't answer the search.
+   *
+   * @return false if no execution can match the search.
+   */
+  private boolean addSearchCondition(final ExecutionSearchIndex.Field field,
+      final String contains, final List<String> conditions, final List<Object> params)
+      throws SQLException {
+    if (contains == null || contains.isEmpty()) {
+      return true;
+    }
+    final List<String> values = this.searchIndex.findValues(field, contains);
+    if (values == null) {
+      conditions.add(field.getColumn() + " LIKE ?");
+      params.add('%' + contains + '%');
+      return true;
+    }
+    if (values.isEmpty()) {
+      return false;
+    }
+    conditions.add(field.getColumn() + " IN (" + placeholders(values.size()) + ")");
+    params.addAll(values);
+    return true;
+  }
+
+  private static String placeholders(final int count) {
+    return String.join(",", Collections.nCopies(count, "?"));
+  }
+
   void updateExecutableFlow(final ExecutableFlow flow) throws ExecutorManagerException {
     updateExecutableFlow(flow, EncodingType.GZIP);
   }
@@ -366,6 +388,29 @@ public class ExecutionFlowDao {
     }
   }
 
+  /**
+   * Fetch the update time and status of an execution, which together identify the version of its
+   * flow_data without reading and decoding it.
+   *
+   * @return the (update_time, status) pair, or null if the execution doesn't exist.
+   */
+  public Pair<Long, Status> fetchExecutableFlowVersion(final int execId)
+      throws ExecutorManagerException {
+    final String FETCH_EXECUTABLE_FLOW_VERSION =
+        "SELECT update_time, status FROM execution_flows WHERE exec_id=?";
+    final ResultSetHandler<Pair<Long, Status>> handler = rs -> {
+      if (!rs.next()) {
+        return null;
+      }
+      return new Pair<>(rs.getLong(1), Status.fromInteger(rs.getInt(2)));
+    };
+    try {
+      return this.dbOperator.query(FETCH_EXECUTABLE_FLOW_VERSION, handler, execId);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching version of flow " + execId, e);
+    }
+  }
+
   /**
    * set executor id to null for the execution id
    */
@@ -22,6 +22,7 @@ import azkaban.utils.JSONUtils;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.PropsUtils;
+import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
 import java.io.IOException;
 import java.sql.ResultSet;
@@ -40,6 +41,20 @@ import org.apache.log4j.Logger;
 public class ExecutionJobDao {
 
   private static final Logger logger = Logger.getLogger(ExecutorDao.class);
+
+  private static final String INSERT_EXECUTION_NODE_COLUMNS = "INSERT INTO execution_jobs "
+      + "(exec_id, project_id, version, flow_id, job_id, start_time, "
+      + "end_time, status, input_params, attempt) VALUES ";
+  private static final String INSERT_EXECUTION_NODE_VALUES = "(?,?,?,?,?,?,?,?,?,?)";
+  private static final String UPDATE_EXECUTION_NODE = "UPDATE execution_jobs "
+      + "SET start_time=?, end_time=?, status=?, output_params=? "
+      + "WHERE exec_id=? AND flow_id=? AND job_id=? AND attempt=?";
+
+  // Upper bound on the rows of one multi-row INSERT, to keep statements well below
+  // max_allowed_packet even with large input params.
+  @VisibleForTesting
+  static final int MAX_NODES_PER_STATEMENT = 100;
+
   private final DatabaseOperator dbOperator;
 
   @Inject
@@ -49,60 +64,91 @@ public class ExecutionJobDao {
 
   public void uploadExecutableNode(final ExecutableNode node, final Props inputProps)
       throws ExecutorManagerException {
-    final String INSERT_EXECUTION_NODE = "INSERT INTO execution_jobs "
-        + "(exec_id, project_id, version, flow_id, job_id, start_time, "
-        + "end_time, status, input_params, attempt) VALUES (?,?,?,?,?,?,?,?,?,?)";
-
-    byte[] inputParam = null;
-    if (inputProps != null) {
-      try {
-        final String jsonString =
-            JSONUtils.toJSON(PropsUtils.toHierarchicalMap(inputProps));
-        inputParam = GZIPUtils.gzipString(jsonString, "UTF-8");
-      } catch (final IOException e) {
-        throw new ExecutorManagerException("Error encoding input params");
-      }
-    }
-
-    final ExecutableFlow flow = node.getExecutableFlow();
     final String flowId = node.getParentFlow().getFlowPath();
     logger.info("Uploading flowId " + flowId);
     try {
-      this.dbOperator.update(INSERT_EXECUTION_NODE, flow.getExecutionId(),
-          flow.getProjectId(), flow.getVersion(), flowId, node.getId(),
-          node.getStartTime(), node.getEndTime(), node.getStatus().getNumVal(),
-          inputParam, node.getAttempt());
+      this.dbOperator.update(INSERT_EXECUTION_NODE_COLUMNS + INSERT_EXECUTION_NODE_VALUES,
+          toInsertParams(node, inputProps));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error writing job " + node.getId(), e);
     }
   }
 
-  public void updateExecutableNode(final ExecutableNode node) throws ExecutorManagerException {
-    final String UPSERT_EXECUTION_NODE = "UPDATE execution_jobs "
-        + "SET start_time=?, end_time=?, status=?, output_params=? "
-        + "WHERE exec_id=? AND flow_id=? AND job_id=? AND attempt=?";
-
-    byte[] outputParam = null;
-    final Props outputProps = node.getOutputProps();
-    if (outputProps != null) {
+  /**
+   * Insert the execution_jobs rows of several nodes, e.g. all jobs which became ready at the same
+   * time, with multi-row INSERT statements of at most {@link #MAX_NODES_PER_STATEMENT} rows each.
+   * This needs one DB round trip per statement instead of one per node.
+   * <p>
+   * A statement inserts all of its rows or none of them. The upload stops at the first statement
+   * which fails, so that the rows which were not inserted can be inserted one by one without
+   * inserting any row twice.
+   *
+   * @param nodes pairs of node and its input props
+   * @return the number of leading nodes whose rows were inserted
+   */
+  public int uploadExecutableNodes(final List<Pair<ExecutableNode, Props>> nodes) {
+    int uploaded = 0;
+    for (int start = 0; start < nodes.size(); start += MAX_NODES_PER_STATEMENT) {
+      final List<Pair<ExecutableNode, Props>> chunk = nodes
+          .subList(start, Math.min(nodes.size(), start + MAX_NODES_PER_STATEMENT));
+      final int execId = chunk.get(0).getFirst().getExecutableFlow().getExecutionId();
+      final StringBuilder insert = new StringBuilder(INSERT_EXECUTION_NODE_COLUMNS);
+      final List<Object> params = new ArrayList<>();
       try {
-        final String jsonString =
-            JSONUtils.toJSON(PropsUtils.toHierarchicalMap(outputProps));
-        outputParam = GZIPUtils.gzipString(jsonString, "UTF-8");
-      } catch (final IOException e) {
-        throw new ExecutorManagerException("Error encoding input params");
+        for (final Pair<ExecutableNode, Props> node : chunk) {
+          if (!params.isEmpty()) {
+            insert.append(',');
+          }
+          insert.append(INSERT_EXECUTION_NODE_VALUES);
+          Collections.addAll(params, toInsertParams(node.getFirst(), node.getSecond()));
+        }
+        logger.info("Uploading " + chunk.size() + " jobs of execution " + execId);
+        this.dbOperator.update(insert.toString(), params.toArray());
+      } catch (final SQLException | ExecutorManagerException e) {
+        logger.error("Error writing " + chunk.size() + " jobs of execution " + execId, e);
+        return uploaded;
       }
+      uploaded += chunk.size();
     }
+    return uploaded;
+  }
+
+  public void updateExecutableNode(final ExecutableNode node) throws ExecutorManagerException {
     try {
-      this.dbOperator.update(UPSERT_EXECUTION_NODE, node.getStartTime(), node
-          .getEndTime(), node.getStatus().getNumVal(), outputParam, node
-          .getExecutableFlow().getExecutionId(), node.getParentFlow()
-          .getFlowPath(), node.getId(), node.getAttempt());
+      this.dbOperator.update(UPDATE_EXECUTION_NODE, toUpdateParams(node));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error updating job " + node.getId(), e);
     }
   }
 
+  private static Object[] toInsertParams(final ExecutableNode node, final Props inputProps)
+      throws ExecutorManagerException {
+    final ExecutableFlow flow = node.getExecutableFlow();
+    return new Object[]{flow.getExecutionId(), flow.getProjectId(), flow.getVersion(),
+        node.getParentFlow().getFlowPath(), node.getId(), node.getStartTime(), node.getEndTime(),
+        node.getStatus().getNumVal(), encodeProps(inputProps, "input"), node.getAttempt()};
+  }
+
+  private static Object[] toUpdateParams(final ExecutableNode node)
+      throws ExecutorManagerException {
+    return new Object[]{node.getStartTime(), node.getEndTime(), node.getStatus().getNumVal(),
+        encodeProps(node.getOutputProps(), "output"), node.getExecutableFlow().getExecutionId(),
+        node.getParentFlow().getFlowPath(), node.getId(), node.getAttempt()};
+  }
+
+  private static byte[] encodeProps(final Props props, final String paramType)
+      throws ExecutorManagerException {
+    if (props == null) {
+      return null;
+    }
+    try {
+      final String jsonString = JSONUtils.toJSON(PropsUtils.toHierarchicalMap(props));
+      return GZIPUtils.gzipString(jsonString, "UTF-8");
+    } catch (final IOException e) {
+      throw new ExecutorManagerException("Error encoding " + paramType + " params");
+    }
+  }
+
   public List<ExecutableJobInfo> fetchJobInfoAttempts(final int execId, final String jobId)
       throws ExecutorManagerException {
     try {
@@ -179,7 +225,7 @@ public class ExecutionJobDao {
       final int size) throws ExecutorManagerException {
     try {
       final List<ExecutableJobInfo> info =
-          this.dbOperator.query(FetchExecutableJobHandler.FETCH_PROJECT_EXECUTABLE_NODE,
+          this.dbOperator.queryReadOnly(FetchExecutableJobHandler.FETCH_PROJECT_EXECUTABLE_NODE,
               new FetchExecutableJobHandler(), projectId, jobId, skip, size);
       if (info == null || info.isEmpty()) {
         return null;
@@ -276,13 +322,16 @@ public class ExecutionJobDao {
   private static class FetchExecutableJobPropsHandler implements
       ResultSetHandler<Pair<Props, Props>> {
 
+    // The params of the latest attempt, when the job was retried
     private static final String FETCH_OUTPUT_PARAM_EXECUTABLE_NODE =
-        "SELECT output_params FROM execution_jobs WHERE exec_id=? AND job_id=?";
+        "SELECT output_params FROM execution_jobs WHERE exec_id=? AND job_id=? "
+            + "ORDER BY attempt DESC LIMIT 1";
     private static final String FETCH_INPUT_PARAM_EXECUTABLE_NODE =
-        "SELECT input_params FROM execution_jobs WHERE exec_id=? AND job_id=?";
+        "SELECT input_params FROM execution_jobs WHERE exec_id=? AND job_id=? "
+            + "ORDER BY attempt DESC LIMIT 1";
     private static final String FETCH_INPUT_OUTPUT_PARAM_EXECUTABLE_NODE =
         "SELECT input_params, output_params "
-            + "FROM execution_jobs WHERE exec_id=? AND job_id=?";
+            + "FROM execution_jobs WHERE exec_id=? AND job_id=? ORDER BY attempt DESC LIMIT 1";
 
     @Override
     public Pair<Props, Props> handle(final ResultSet rs) throws SQLException {
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.db.DatabaseOperator;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.log4j.Logger;
+
+/**
+ * DAO for the retention of execution data. Rows are deleted in bounded exec_id ranges, so that
+ * each DELETE statement walks a small slice of the primary key instead of scanning a secondary
+ * time index and locking a large number of rows.
+ */
+@Singleton
+public class ExecutionRetentionDao {
+
+  private static final Logger logger = Logger.getLogger(ExecutionRetentionDao.class);
+
+  // Statuses which may still see updates; executions in one of these states are never removed.
+  private static final String UNFINISHED_STATUSES = Arrays.stream(Status.values())
+      .filter(status -> !Status.isStatusFinished(status))
+      .map(status -> String.valueOf(status.getNumVal()))
+      .collect(Collectors.joining(", "));
+
+  private static final String FETCH_BOUNDARY_BY_START_TIME =
+      "SELECT exec_id FROM execution_flows WHERE start_time > 0 AND start_time < ? "
+          + "ORDER BY start_time DESC LIMIT 1";
+  // Unfinished executions which were not updated within the retention window are considered
+  // orphaned, e.g. by an executor crash, and don't hold back the retention.
+  private static final String FETCH_MIN_UNFINISHED_EXEC_ID =
+      "SELECT MIN(exec_id) FROM execution_flows WHERE status IN (" + UNFINISHED_STATUSES + ") "
+          + "AND COALESCE(update_time, submit_time, 0) >= ?";
+  private static final String COUNT_ORPHANED_UNFINISHED_EXECUTIONS =
+      "SELECT COUNT(1) FROM execution_flows WHERE status IN (" + UNFINISHED_STATUSES + ") "
+          + "AND COALESCE(update_time, submit_time, 0) < ? AND exec_id < ?";
+  private static final String FETCH_EVENT_EXECUTOR_IDS =
+      "SELECT DISTINCT executor_id FROM executor_events";
+  private static final String DELETE_EXECUTOR_EVENTS =
+      "DELETE FROM executor_events WHERE executor_id = ? AND event_time < ? LIMIT ?";
+  private static final String FETCH_CURSOR =
+      "SELECT value FROM execution_retention_state WHERE name = ?";
+  private static final String INSERT_CURSOR =
+      "INSERT INTO execution_retention_state (name, value) VALUES (?, ?)";
+  private static final String UPDATE_CURSOR =
+      "UPDATE execution_retention_state SET value = ? WHERE name = ?";
+
+  private static final ResultSetHandler<Integer> INT_HANDLER = rs -> {
+    if (!rs.next()) {
+      return null;
+    }
+    final int value = rs.getInt(1);
+    return rs.wasNull() ? null : value;
+  };
+
+  private final DatabaseOperator dbOperator;
+
+  @Inject
+  public ExecutionRetentionDao(final DatabaseOperator dbOperator) {
+    this.dbOperator = dbOperator;
+  }
+
+  /**
+   * Fetch the exclusive upper exec_id bound for deletion: executions below it started before
+   * {@code cutoffMillis} and are not older than any unfinished execution updated since
+   * {@code cutoffMillis}. Unfinished executions not updated since then are orphaned, only their
+   * execution_flows row is kept.
+   *
+   * @return the boundary, or -1 if there is nothing to clean up.
+   */
+  public int fetchRetentionBoundary(final long cutoffMillis) throws ExecutorManagerException {
+    try {
+      final Integer lastOldExecId = this.dbOperator
+          .query(FETCH_BOUNDARY_BY_START_TIME, INT_HANDLER, cutoffMillis);
+      if (lastOldExecId == null) {
+        return -1;
+      }
+      final int boundary = lastOldExecId + 1;
+      final Integer orphanedCount = this.dbOperator
+          .query(COUNT_ORPHANED_UNFINISHED_EXECUTIONS, INT_HANDLER, cutoffMillis, boundary);
+      if (orphanedCount != null && orphanedCount > 0) {
+        logger.warn(orphanedCount + " unfinished executions below exec_id " + boundary
+            + " were not updated since " + cutoffMillis + ", they are considered orphaned and "
+            + "their jobs and logs are removed");
+      }
+      final Integer minUnfinishedExecId = this.dbOperator
+          .query(FETCH_MIN_UNFINISHED_EXEC_ID, INT_HANDLER, cutoffMillis);
+      if (minUnfinishedExecId != null && minUnfinishedExecId < boundary) {
+        logger.warn("Retention is held back at exec_id " + minUnfinishedExecId
+            + " by an unfinished execution instead of exec_id " + boundary);
+        return minUnfinishedExecId;
+      }
+      return boundary;
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching retention boundary before "
+          + cutoffMillis, e);
+    }
+  }
+
+  /**
+   * Fetch the smallest exec_id still present in the table. A table without a cursor is cleaned up
+   * from there.
+   *
+   * @return the smallest exec_id, or -1 if the table is empty.
+   */
+  public int fetchMinExecId(final RetentionTable table) throws ExecutorManagerException {
+    try {
+      final Integer minExecId = this.dbOperator
+          .query("SELECT MIN(exec_id) FROM " + table.getTableName(), INT_HANDLER);
+      return minExecId == null ? -1 : minExecId;
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching min exec_id of " + table, e);
+    }
+  }
+
+  /**
+   * Fetch the exec_id up to which the table was cleaned up, so that the cleanup continues from
+   * there instead of walking again over the rows which are kept on purpose.
+   *
+   * @return the exclusive exec_id up to which the table was cleaned up, or -1 if it never was.
+   */
+  public int fetchCursor(final RetentionTable table) throws ExecutorManagerException {
+    try {
+      final Integer cursor = this.dbOperator
+          .query(FETCH_CURSOR, INT_HANDLER, table.getTableName());
+      return cursor == null ? -1 : cursor;
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching retention cursor of " + table, e);
+    }
+  }
+
+  public void updateCursor(final RetentionTable table, final int execId)
+      throws ExecutorManagerException {
+    try {
+      if (this.dbOperator.update(UPDATE_CURSOR, execId, table.getTableName()) == 0) {
+        this.dbOperator.update(INSERT_CURSOR, table.getTableName(), execId);
+      }
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error updating retention cursor of " + table, e);
+    }
+  }
+
+  /**
+   * Delete the rows of {@code table} in the exec_id range [fromExecId, toExecId).
+   *
+   * @param cutoffMillis rows of execution_logs uploaded after this time are kept
+   * @return the number of deleted rows
+   */
+  public int deleteExecIdRange(final RetentionTable table, final int fromExecId,
+      final int toExecId, final long cutoffMillis) throws ExecutorManagerException {
+    try {
+      switch (table) {
+        case EXECUTION_LOGS:
+          return this.dbOperator.update("DELETE FROM execution_logs WHERE exec_id >= ? "
+              + "AND exec_id < ? AND upload_time < ?", fromExecId, toExecId, cutoffMillis);
+        case EXECUTION_JOBS:
+          return this.dbOperator.update("DELETE FROM execution_jobs WHERE exec_id >= ? "
+              + "AND exec_id < ?", fromExecId, toExecId);
+        case EXECUTION_FLOWS:
+          return this.dbOperator.update("DELETE FROM execution_flows WHERE exec_id >= ? "
+                  + "AND exec_id < ? AND status NOT IN (" + UNFINISHED_STATUSES + ")",
+              fromExecId, toExecId);
+        default:
+          throw new IllegalArgumentException("Unsupported retention table " + table);
+      }
+    } catch (final SQLException e) {
+      logger.error("Failed to delete " + table + " in range [" + fromExecId + ", " + toExecId
+          + ")", e);
+      throw new ExecutorManagerException("Error deleting " + table + " in exec_id range ["
+          + fromExecId + ", " + toExecId + ")", e);
+    }
+  }
+
+  /**
+   * @return the ids of the executors which have events.
+   */
+  public List<Integer> fetchEventExecutorIds() throws ExecutorManagerException {
+    try {
+      return this.dbOperator.query(FETCH_EVENT_EXECUTOR_IDS, rs -> {
+        final List<Integer> executorIds = new ArrayList<>();
+        while (rs.next()) {
+          executorIds.add(rs.getInt(1));
+        }
+        return executorIds;
+      });
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching the executors with events", e);
+    }
+  }
+
+  /**
+   * executor_events has no exec_id, and is indexed by (executor_id, event_time) instead. Delete at
+   * most {@code limit} events of an executor older than {@code cutoffMillis}, which is a range of
+   * that index.
+   *
+   * @return the number of deleted rows
+   */
+  public int deleteExecutorEvents(final int executorId, final long cutoffMillis, final int limit)
+      throws ExecutorManagerException {
+    try {
+      return this.dbOperator
+          .update(DELETE_EXECUTOR_EVENTS, executorId, new Timestamp(cutoffMillis), limit);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error deleting events of executor " + executorId
+          + " before " + cutoffMillis, e);
+    }
+  }
+
+  /**
+   * Tables whose rows are deleted by exec_id range. Children are listed before their parent, so
+   * that execution_flows rows are removed last.
+   */
+  public enum RetentionTable {
+    EXECUTION_LOGS("execution_logs"),
+    EXECUTION_JOBS("execution_jobs"),
+    EXECUTION_FLOWS("execution_flows");
+
+    private final String tableName;
+
+    RetentionTable(final String tableName) {
+      this.tableName = tableName;
+    }
+
+    public String getTableName() {
+      return this.tableName;
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.executor.ExecutionRetentionDao.RetentionTable;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Props;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retention engine for execution data. Instead of deleting by time with a row LIMIT, which on
+ * large tables holds long locks and causes replication lag, it walks each table upward from its
+ * lowest exec_id in bounded exec_id ranges.
+ *
+ * The width of the range adapts to the observed delete latency: it doubles while batches are
+ * faster than the target latency and halves when they are slower. Batches are separated by a
+ * fixed pause. The exec_id reached in each table is stored after every batch, and the next pass,
+ * also after a restart, continues from there. Rows kept on purpose below it, like the rows of
+ * orphaned executions and logs uploaded after the cutoff, are not visited again.
+ */
+@Singleton
+public class ExecutionRetentionEngine {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExecutionRetentionEngine.class);
+
+  private static final int DEFAULT_MIN_BATCH_SIZE = 1;
+  private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+  private static final long DEFAULT_TARGET_BATCH_MS = 500L;
+  private static final long DEFAULT_BATCH_PAUSE_MS = 1000L;
+  // 12 weeks, same as ExecutionLogsCleaner
+  private static final long DEFAULT_EXECUTION_LOGS_RETENTION_MS = 3 * 4 * 7
+      * 24 * 60 * 60 * 1000L;
+  private static final int DEFAULT_EXECUTOR_EVENTS_BATCH_SIZE = 1000;
+
+  private final ExecutionRetentionDao retentionDao;
+  private final boolean enabled;
+  private final long executionLogsRetentionMs;
+  private final long executionRetentionMs;
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final long targetBatchMs;
+  private final long batchPauseMs;
+
+  private final Map<RetentionTable, AtomicInteger> batchSizes = new EnumMap<>(
+      RetentionTable.class);
+  private final Map<RetentionTable, AtomicLong> progress = new EnumMap<>(RetentionTable.class);
+  private final Map<RetentionTable, Counter> deletedRows = new EnumMap<>(RetentionTable.class);
+  private final Counter deletedExecutorEvents;
+  private final Histogram batchLatency;
+  private final AtomicLong boundary = new AtomicLong(-1);
+
+  private volatile boolean shutdown = false;
+
+  @Inject
+  public ExecutionRetentionEngine(final Props props, final ExecutionRetentionDao retentionDao,
+      final MetricsManager metricsManager) {
+    this.retentionDao = retentionDao;
+    this.enabled = props.getBoolean(ConfigurationKeys.EXECUTION_RETENTION_ENGINE_ENABLED, false);
+    this.executionLogsRetentionMs = props.getLong(ConfigurationKeys.EXECUTION_LOGS_RETENTION_MS,
+        DEFAULT_EXECUTION_LOGS_RETENTION_MS);
+    this.executionRetentionMs = props.getLong(ConfigurationKeys.EXECUTION_RETENTION_MS, -1);
+    this.minBatchSize = Math.max(1, props.getInt(
+        ConfigurationKeys.EXECUTION_RETENTION_MIN_BATCH_SIZE, DEFAULT_MIN_BATCH_SIZE));
+    this.maxBatchSize = Math.max(this.minBatchSize, props.getInt(
+        ConfigurationKeys.EXECUTION_RETENTION_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE));
+    this.targetBatchMs = props.getLong(ConfigurationKeys.EXECUTION_RETENTION_TARGET_BATCH_MS,
+        DEFAULT_TARGET_BATCH_MS);
+    this.batchPauseMs = props.getLong(ConfigurationKeys.EXECUTION_RETENTION_BATCH_PAUSE_MS,
+        DEFAULT_BATCH_PAUSE_MS);
+
+    for (final RetentionTable table : RetentionTable.values()) {
+      final AtomicInteger batchSize = new AtomicInteger(this.minBatchSize);
+      final AtomicLong current = new AtomicLong(-1);
+      this.batchSizes.put(table, batchSize);
+      this.progress.put(table, current);
+      this.deletedRows.put(table,
+          metricsManager.addCounter("ExecutionRetention-" + table.getTableName() + "-deleted"));
+      metricsManager.addGauge("ExecutionRetention-" + table.getTableName() + "-batchSize",
+          batchSize::get);
+      metricsManager.addGauge("ExecutionRetention-" + table.getTableName() + "-execId",
+          current::get);
+    }
+    this.deletedExecutorEvents = metricsManager
+        .addCounter("ExecutionRetention-executor_events-deleted");
+    this.batchLatency = metricsManager.addHistogram("ExecutionRetention-batchLatencyMs");
+    metricsManager.addGauge("ExecutionRetention-boundaryExecId", this.boundary::get);
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Run one full retention pass over all tables. Logs are always cleaned up; execution_jobs,
+   * execution_flows and executor_events only when {@link ConfigurationKeys#EXECUTION_RETENTION_MS}
+   * is set.
+   */
+  public void runOnce() {
+    final long now = System.currentTimeMillis();
+    final long logsCutoff = now - this.executionLogsRetentionMs;
+    try {
+      cleanTable(RetentionTable.EXECUTION_LOGS, logsCutoff);
+      if (this.executionRetentionMs > 0) {
+        final long executionCutoff = now - this.executionRetentionMs;
+        cleanTable(RetentionTable.EXECUTION_JOBS, executionCutoff);
+        cleanTable(RetentionTable.EXECUTION_FLOWS, executionCutoff);
+        cleanExecutorEvents(executionCutoff);
+      }
+    } catch (final ExecutorManagerException e) {
+      logger.error("Execution retention pass failed, it will resume on the next run.", e);
+    }
+  }
+
+  public void shutdown() {
+    this.shutdown = true;
+  }
+
+  /**
+   * Delete the rows of the table older than the cutoff, one adaptive exec_id range at a time.
+   *
+   * @return number of deleted rows
+   */
+  long cleanTable(final RetentionTable table, final long cutoffMillis)
+      throws ExecutorManagerException {
+    final int upperBound = this.retentionDao.fetchRetentionBoundary(cutoffMillis);
+    this.boundary.set(upperBound);
+    int from = Math.max(this.retentionDao.fetchCursor(table),
+        this.retentionDao.fetchMinExecId(table));
+    if (upperBound < 0 || from < 0 || from >= upperBound) {
+      logger.info("Nothing to clean up in " + table.getTableName());
+      return 0;
+    }
+    logger.info("Cleaning up " + table.getTableName() + " from exec_id " + from + " to "
+        + upperBound);
+
+    final AtomicInteger batchSize = this.batchSizes.get(table);
+    long total = 0;
+    while (from < upperBound && !this.shutdown) {
+      final int to = (int) Math.min((long) from + batchSize.get(), upperBound);
+      final long startMs = System.currentTimeMillis();
+      final int removed = this.retentionDao.deleteExecIdRange(table, from, to, cutoffMillis);
+      final long latencyMs = System.currentTimeMillis() - startMs;
+
+      this.batchLatency.update(latencyMs);
+      this.deletedRows.get(table).inc(removed);
+      this.progress.get(table).set(to);
+      this.retentionDao.updateCursor(table, to);
+      total += removed;
+      batchSize.set(nextBatchSize(batchSize.get(), latencyMs));
+      from = to;
+      pause();
+    }
+    logger.info("Cleaned up " + total + " rows from " + table.getTableName());
+    return total;
+  }
+
+  /**
+   * executor_events has no exec_id to walk, the events of each executor are deleted instead, in
+   * batches which are ranges of its (executor_id, event_time) index.
+   */
+  private void cleanExecutorEvents(final long cutoffMillis) throws ExecutorManagerException {
+    for (final int executorId : this.retentionDao.fetchEventExecutorIds()) {
+      int removed;
+      do {
+        removed = this.retentionDao.deleteExecutorEvents(executorId, cutoffMillis,
+            DEFAULT_EXECUTOR_EVENTS_BATCH_SIZE);
+        this.deletedExecutorEvents.inc(removed);
+        pause();
+      } while (removed == DEFAULT_EXECUTOR_EVENTS_BATCH_SIZE && !this.shutdown);
+      if (this.shutdown) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Double the exec_id range while batches stay well under the target latency, halve it when
+   * they exceed it.
+   */
+  int nextBatchSize(final int current, final long latencyMs) {
+    if (latencyMs > this.targetBatchMs) {
+      return Math.max(this.minBatchSize, current / 2);
+    } else if (latencyMs < this.targetBatchMs / 2) {
+      return (int) Math.min(this.maxBatchSize, current * 2L);
+    }
+    return current;
+  }
+
+  private void pause() {
+    if (this.batchPauseMs <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(this.batchPauseMs);
+    } catch (final InterruptedException e) {
+      logger.error("Execution retention thread's sleep was interrupted.", e);
+      Thread.currentThread().interrupt();
+      this.shutdown = true;
+    }
+  }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.db.DatabaseOperator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.log4j.Logger;
+
+/**
+ * Index for the substring searches of the execution history page on flow, submit user and
+ * project.
+ *
+ * Although execution_flows has tens of millions of rows, it only holds a few thousand distinct
+ * flow ids and submit users. These are kept in the execution_search_terms table, which is
+ * maintained as executions are created and backfilled from the existing executions. A search
+ * first matches its term against this small table, or against the projects table, and then
+ * looks up the executions of the matching values through the indexes of execution_flows.
+ *
+ * Executions which weren't indexed as they were created, like the ones created by web servers
+ * of the previous version during a rolling deploy, are indexed by a catch-up pass which walks up
+ * from the highest exec id indexed so far every minute.
+ *
+ * A search falls back to scanning execution_flows when the backfill hasn't completed yet, or
+ * when the term matches too many values for the index to help.
+ */
+@Singleton
+public class ExecutionSearchIndex {
+
+  @VisibleForTesting
+  static final int MAX_MATCHING_VALUES = 1000;
+  @VisibleForTesting
+  static final String BACKFILL_CURSOR = "backfill_next_exec_id";
+  @VisibleForTesting
+  static final String CATCH_UP_CURSOR = "catch_up_next_exec_id";
+
+  private static final Logger logger = Logger.getLogger(ExecutionSearchIndex.class);
+  private static final int BACKFILL_BATCH_SIZE = 10000;
+  private static final long BACKFILL_PAUSE_MS = 100L;
+  private static final long CATCH_UP_INTERVAL_MS = 60 * 1000L;
+  private static final int MAX_KNOWN_TERMS = 100000;
+  private static final String DUPLICATE_KEY_SQL_STATE_CLASS = "23";
+
+  private static final String INSERT_TERM =
+      "INSERT INTO execution_search_terms (field, term) VALUES (?, ?)";
+  private static final String FETCH_MATCHING_TERMS =
+      "SELECT term FROM execution_search_terms WHERE field = ? AND term LIKE ? LIMIT ?";
+  private static final String FETCH_MATCHING_PROJECT_IDS =
+      "SELECT id FROM projects WHERE name LIKE ? LIMIT ?";
+  private static final String FETCH_STATE =
+      "SELECT value FROM execution_search_state WHERE name = ?";
+  private static final String INSERT_STATE =
+      "INSERT INTO execution_search_state (name, value) VALUES (?, ?)";
+  private static final String UPDATE_STATE =
+      "UPDATE execution_search_state SET value = ? WHERE name = ?";
+  private static final String FETCH_MAX_EXEC_ID = "SELECT MAX(exec_id) FROM execution_flows";
+
+  private final DatabaseOperator dbOperator;
+  // Terms known to be in the index, which don't need to be inserted again.
+  private final Cache<String, Boolean> knownTerms = CacheBuilder.newBuilder()
+      .maximumSize(MAX_KNOWN_TERMS).build();
+  private volatile boolean ready = false;
+  private Thread backfillThread;
+
+  @Inject
+  public ExecutionSearchIndex(final DatabaseOperator dbOperator) {
+    this.dbOperator = dbOperator;
+  }
+
+  /**
+   * Add the flow id and submit user of a new execution to the index. Failures are logged only,
+   * so that they don't fail the execution.
+   */
+  public void indexExecution(final ExecutableFlow flow) {
+    try {
+      addTerm(Field.FLOW_ID, flow.getFlowId());
+      addTerm(Field.SUBMIT_USER, flow.getSubmitUser());
+    } catch (final SQLException e) {
+      logger.error("Failed to index execution " + flow.getExecutionId(), e);
+    }
+  }
+
+  /**
+   * @return whether the term was inserted, rather than known to be in the index already.
+   */
+  private boolean addTerm(final Field field, final String term) throws SQLException {
+    if (term == null || term.isEmpty()) {
+      return false;
+    }
+    final String key = field.id + ":" + term;
+    if (this.knownTerms.getIfPresent(key) != null) {
+      return false;
+    }
+    boolean inserted = true;
+    try {
+      this.dbOperator.update(INSERT_TERM, field.id, term);
+    } catch (final SQLException e) {
+      if (!isDuplicateKey(e)) {
+        throw e;
+      }
+      inserted = false;
+    }
+    this.knownTerms.put(key, Boolean.TRUE);
+    return inserted;
+  }
+
+  private static boolean isDuplicateKey(final SQLException e) {
+    return e.getSQLState() != null && e.getSQLState().startsWith(DUPLICATE_KEY_SQL_STATE_CLASS);
+  }
+
+  /**
+   * @return whether the backfill of the index completed, so that it holds the values of all
+   *     executions.
+   */
+  public boolean isReady() throws SQLException {
+    if (!this.ready) {
+      final Long cursor = fetchState(BACKFILL_CURSOR);
+      this.ready = cursor != null && cursor <= 0;
+    }
+    return this.ready;
+  }
+
+  /**
+   * @return the values of the field which contain the string, or null if the index can't answer
+   *     the search and execution_flows must be scanned instead.
+   */
+  public List<String> findValues(final Field field, final String contains) throws SQLException {
+    if (!isReady()) {
+      return null;
+    }
+    final List<String> values = this.dbOperator.queryReadOnly(FETCH_MATCHING_TERMS,
+        rs -> {
+          final List<String> terms = new ArrayList<>();
+          while (rs.next()) {
+            terms.add(rs.getString(1));
+          }
+          return terms;
+        }, field.id, '%' + contains + '%', MAX_MATCHING_VALUES + 1);
+    return values.size() > MAX_MATCHING_VALUES ? null : values;
+  }
+
+  /**
+   * @return the ids of the projects whose name contains the string, or null if there are too
+   *     many of them.
+   */
+  public List<Integer> findProjectIds(final String nameContains) throws SQLException {
+    final List<Integer> ids = this.dbOperator.queryReadOnly(FETCH_MATCHING_PROJECT_IDS,
+        rs -> {
+          final List<Integer> projectIds = new ArrayList<>();
+          while (rs.next()) {
+            projectIds.add(rs.getInt(1));
+          }
+          return projectIds;
+        }, '%' + nameContains + '%', MAX_MATCHING_VALUES + 1);
+    return ids.size() > MAX_MATCHING_VALUES ? null : ids;
+  }
+
+  /**
+   * Start backfilling the index from the existing executions in the background, unless it is
+   * complete already, and then catching up with the executions which weren't indexed as they
+   * were created. The backfill resumes from where it stopped on the previous run.
+   */
+  public synchronized void startBackfill() {
+    if (this.backfillThread != null) {
+      return;
+    }
+    this.backfillThread = new Thread(() -> {
+      try {
+        final int added = backfill(BACKFILL_BATCH_SIZE, BACKFILL_PAUSE_MS);
+        logger.info("Execution search index backfill complete, added " + added + " terms");
+        while (true) {
+          Thread.sleep(CATCH_UP_INTERVAL_MS);
+          try {
+            final int caughtUp = catchUp(BACKFILL_BATCH_SIZE);
+            if (caughtUp > 0) {
+              logger.info("Execution search index caught up, added " + caughtUp + " terms");
+            }
+          } catch (final SQLException e) {
+            logger.warn("Execution search index catch-up failed, will retry", e);
+          }
+        }
+      } catch (final SQLException e) {
+        logger.error("Execution search index backfill failed", e);
+      } catch (final InterruptedException e) {
+        logger.info("Execution search index backfill interrupted");
+      }
+    }, "azk-execution-search-backfill");
+    this.backfillThread.setDaemon(true);
+    this.backfillThread.start();
+  }
+
+  public synchronized void shutdown() {
+    if (this.backfillThread != null) {
+      this.backfillThread.interrupt();
+    }
+  }
+
+  /**
+   * Index the executions below the backfill cursor, walking down from the highest exec id. The
+   * cursor starts above the highest exec id at the time of the first backfill, where the
+   * catch-up cursor starts as well.
+   *
+   * @return the number of terms added.
+   */
+  @VisibleForTesting
+  int backfill(final int batchSize, final long pauseMs)
+      throws SQLException, InterruptedException {
+    Long cursor = fetchState(BACKFILL_CURSOR);
+    if (cursor == null) {
+      final long start = fetchMaxExecId() + 1L;
+      initState(CATCH_UP_CURSOR, start);
+      cursor = initState(BACKFILL_CURSOR, start);
+    }
+
+    int added = 0;
+    while (cursor > 0) {
+      final long low = Math.max(0, cursor - batchSize);
+      added += indexRange(low, cursor);
+      cursor = low;
+      this.dbOperator.update(UPDATE_STATE, cursor, BACKFILL_CURSOR);
+      if (cursor > 0 && pauseMs > 0) {
+        Thread.sleep(pauseMs);
+      }
+    }
+    this.ready = true;
+    return added;
+  }
+
+  /**
+   * Index the executions above the catch-up cursor, walking up to the highest exec id. These are
+   * usually indexed as they are created already, except when they were created by web servers of
+   * the previous version or their indexing failed.
+   *
+   * @return the number of terms added.
+   */
+  @VisibleForTesting
+  int catchUp(final int batchSize) throws SQLException {
+    final long maxExecId = fetchMaxExecId();
+    Long cursor = fetchState(CATCH_UP_CURSOR);
+    if (cursor == null) {
+      cursor = initState(CATCH_UP_CURSOR, maxExecId + 1L);
+    }
+
+    int added = 0;
+    while (cursor <= maxExecId) {
+      final long high = Math.min(maxExecId + 1L, cursor + batchSize);
+      added += indexRange(cursor, high);
+      cursor = high;
+      this.dbOperator.update(UPDATE_STATE, cursor, CATCH_UP_CURSOR);
+    }
+    return added;
+  }
+
+  private int indexRange(final long low, final long high) throws SQLException {
+    int added = 0;
+    for (final Field field : Field.values()) {
+      final List<String> terms = this.dbOperator.query(
+          "SELECT DISTINCT " + field.column + " FROM execution_flows"
+              + " WHERE exec_id >= ? AND exec_id < ?",
+          rs -> {
+            final List<String> values = new ArrayList<>();
+            while (rs.next()) {
+              values.add(rs.getString(1));
+            }
+            return values;
+          }, low, high);
+      for (final String term : terms) {
+        if (addTerm(field, term)) {
+          added++;
+        }
+      }
+    }
+    return added;
+  }
+
+  private long fetchMaxExecId() throws SQLException {
+    return this.dbOperator.query(FETCH_MAX_EXEC_ID, rs -> rs.next() ? rs.getLong(1) : 0L);
+  }
+
+  /**
+   * Insert the state unless another web server did so concurrently.
+   *
+   * @return the value of the state.
+   */
+  private long initState(final String name, final long value) throws SQLException {
+    try {
+      this.dbOperator.update(INSERT_STATE, name, value);
+      return value;
+    } catch (final SQLException e) {
+      if (!isDuplicateKey(e)) {
+        throw e;
+      }
+      return fetchState(name);
+    }
+  }
+
+  private Long fetchState(final String name) throws SQLException {
+    final ResultSetHandler<Long> handler = rs -> rs.next() ? rs.getLong(1) : null;
+    return this.dbOperator.query(FETCH_STATE, handler, name);
+  }
+
+  /**
+   * Columns of execution_flows kept in the index.
+   */
+  public enum Field {
+    FLOW_ID(1, "flow_id"),
+    SUBMIT_USER(2, "submit_user");
+
+    private final int id;
+    private final String column;
+
+    Field(final int id, final String column) {
+      this.id = id;
+      this.column = column;
+    }
+
+    public String getColumn() {
+      return this.column;
+    }
+  }
+}
@@ -42,6 +42,7 @@ import javax.net.ssl.SSLContext;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -219,6 +220,22 @@ public class ExecutorApiClient extends RestfulApiClient<String> {
     }
   }
 
+  /**
+   * Post the request and hand the response to the given handler, eg. to stream its body instead of
+   * reading it into a String.
+   */
+  public <R> R doPost(final URI uri, final DispatchMethod dispatchMethod,
+      final List<Pair<String, String>> params, final ResponseHandler<? extends R> handler)
+      throws IOException {
+    final HttpPost post = new HttpPost(uri);
+    completeRequest(post, params);
+    try (final CloseableHttpClient client =
+        isTlsEnabled && dispatchMethod == DispatchMethod.CONTAINERIZED
+            ? this.createHttpsClient() : this.createHttpClient()) {
+      return client.execute(post, handler);
+    }
+  }
+
   /**
    * function to dispatch the https request and pass back the response.
    */
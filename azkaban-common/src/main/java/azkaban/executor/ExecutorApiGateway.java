@@ -36,6 +36,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import javax.inject.Singleton;
+import org.apache.http.client.ResponseHandler;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -114,22 +115,51 @@ public class ExecutorApiGateway {
         CONTAINERIZED_EXECUTION_RESOURCE);
   }
 
+  /**
+   * Call the executor of the execution and hand the response to the given handler as is, so that
+   * its body can be streamed instead of being read into a String and parsed as JSON.
+   */
+  <R> R callForStreamWithReference(final ExecutionReference ref, final String action,
+      final ResponseHandler<? extends R> handler, final List<Pair<String, String>> params)
+      throws ExecutorManagerException {
+    final Executor executor = (ref.getDispatchMethod() == DispatchMethod.CONTAINERIZED
+        ? defaultEmptyExecutor : ref.getExecutor().get());
+    try {
+      final List<Pair<String, String>> paramList = buildParamList(action, ref.getExecId(), null,
+          params);
+      final String executionPath = createExecutionPath(Optional.of(ref.getExecId()),
+          ref.getDispatchMethod());
+      final URI uri = this.apiClient.buildExecutorUri(executor.getHost(), executor.getPort(),
+          executionPath, true, ref.getDispatchMethod());
+      return this.apiClient.doPost(uri, ref.getDispatchMethod(), paramList, handler);
+    } catch (final IOException e) {
+      throw new ExecutorManagerException(e.getMessage(), e);
+    }
+  }
+
+  private static List<Pair<String, String>> buildParamList(final String action,
+      final Integer executionId, final String user, final List<Pair<String, String>> params) {
+    final List<Pair<String, String>> paramList = new ArrayList<>();
+
+    if (params != null) {
+      paramList.addAll(params);
+    }
+
+    paramList
+        .add(new Pair<>(ConnectorParams.ACTION_PARAM, action));
+    paramList.add(new Pair<>(ConnectorParams.EXECID_PARAM, String
+        .valueOf(executionId)));
+    paramList.add(new Pair<>(ConnectorParams.USER_PARAM, user));
+    return paramList;
+  }
+
   Map<String, Object> callWithExecutionId(final String host, final int port,
       final String action, final Integer executionId, final String user,
       final DispatchMethod dispatchMethod,
       final Pair<String, String>... params) throws ExecutorManagerException {
     try {
-      final List<Pair<String, String>> paramList = new ArrayList<>();
-
-      if (params != null) {
-        paramList.addAll(Arrays.asList(params));
-      }
-
-      paramList
-          .add(new Pair<>(ConnectorParams.ACTION_PARAM, action));
-      paramList.add(new Pair<>(ConnectorParams.EXECID_PARAM, String
-          .valueOf(executionId)));
-      paramList.add(new Pair<>(ConnectorParams.USER_PARAM, user));
+      final List<Pair<String, String>> paramList = buildParamList(action, executionId, user,
+          params == null ? null : Arrays.asList(params));
 
       // Ideally we should throw an exception if executionId is null but some existing code
       // (updateExecutions()) expects to call this method with a null executionId.
@@ -35,6 +35,12 @@ public interface ExecutorLoader {
   ExecutableFlow fetchExecutableFlow(int execId)
       throws ExecutorManagerException;
 
+  /**
+   * @return the (update_time, status) pair of the execution, or null if it doesn't exist.
+   */
+  Pair<Long, Status> fetchExecutableFlowVersion(int execId)
+      throws ExecutorManagerException;
+
   List<ExecutableFlow> fetchRecentlyFinishedFlows(Duration maxAge)
       throws ExecutorManagerException;
 
@@ -276,6 +282,27 @@ public interface ExecutorLoader {
   void uploadExecutableNode(ExecutableNode node, Props inputParams)
       throws ExecutorManagerException;
 
+  /**
+   * Upload several nodes at once, e.g. all jobs of a flow which became ready together.
+   * Implementations backed by a database should do this in as few round trips as possible.
+   * Failures are not thrown, the nodes which were not uploaded are left to be uploaded one by one.
+   *
+   * @param nodes pairs of node and its input params
+   * @return the number of leading nodes which were uploaded
+   */
+  default int uploadExecutableNodes(final List<Pair<ExecutableNode, Props>> nodes) {
+    int uploaded = 0;
+    for (final Pair<ExecutableNode, Props> node : nodes) {
+      try {
+        uploadExecutableNode(node.getFirst(), node.getSecond());
+      } catch (final ExecutorManagerException e) {
+        break;
+      }
+      uploaded++;
+    }
+    return uploaded;
+  }
+
   List<ExecutableJobInfo> fetchJobInfoAttempts(int execId, String jobId)
       throws ExecutorManagerException;
 
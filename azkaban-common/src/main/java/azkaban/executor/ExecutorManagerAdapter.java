@@ -90,6 +90,15 @@ public interface ExecutorManagerAdapter {
   public LogData getExecutionJobLog(ExecutableFlow exFlow, String jobId,
       int offset, int length, int attempt) throws ExecutorManagerException;
 
+  /**
+   * Stream a byte range of the flow log, or of a job log if jobId is set, to the handler without
+   * decoding it. Logs of running executions are passed through from the executor as raw bytes;
+   * if follow is set, the executor waits for bytes to be appended when the range starts at the
+   * end of the log.
+   */
+  public void streamExecutionLog(ExecutableFlow exFlow, String jobId, int offset, int length,
+      int attempt, boolean follow, LogStreamHandler handler) throws ExecutorManagerException;
+
   public List<Object> getExecutionJobStats(ExecutableFlow exflow, String jobId,
       int attempt) throws ExecutorManagerException;
 
@@ -83,6 +83,12 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     return this.executionFlowDao.fetchExecutableFlow(id);
   }
 
+  @Override
+  public Pair<Long, Status> fetchExecutableFlowVersion(final int execId)
+      throws ExecutorManagerException {
+    return this.executionFlowDao.fetchExecutableFlowVersion(execId);
+  }
+
   @Override
   public List<Pair<ExecutionReference, ExecutableFlow>> fetchQueuedFlows()
       throws ExecutorManagerException {
@@ -220,6 +226,11 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     this.executionJobDao.uploadExecutableNode(node, inputProps);
   }
 
+  @Override
+  public int uploadExecutableNodes(final List<Pair<ExecutableNode, Props>> nodes) {
+    return this.executionJobDao.uploadExecutableNodes(nodes);
+  }
+
   @Override
   public void updateExecutableNode(final ExecutableNode node)
       throws ExecutorManagerException {
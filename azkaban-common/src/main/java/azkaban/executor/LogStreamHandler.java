@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Receives a log range streamed by {@link ExecutorManagerAdapter#streamExecutionLog}.
+ */
+@FunctionalInterface
+public interface LogStreamHandler {
+
+  /**
+   * Called once the actual offset and length of the range are known, before its bytes are
+   * written.
+   *
+   * @return the stream to write the bytes of the range to.
+   */
+  OutputStream open(long offset, int length) throws IOException;
+}
@@ -37,7 +37,7 @@ public class NumExecutionsDao {
 
   public int fetchNumExecutableFlows() throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(IntHandler.NUM_EXECUTIONS, new IntHandler());
+      return this.dbOperator.queryReadOnly(IntHandler.NUM_EXECUTIONS, new IntHandler());
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching num executions", e);
     }
@@ -47,7 +47,8 @@ public class NumExecutionsDao {
       throws ExecutorManagerException {
     final IntHandler intHandler = new IntHandler();
     try {
-      return this.dbOperator.query(IntHandler.NUM_FLOW_EXECUTIONS, intHandler, projectId, flowId);
+      return this.dbOperator
+          .queryReadOnly(IntHandler.NUM_FLOW_EXECUTIONS, intHandler, projectId, flowId);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching num executions", e);
     }
@@ -57,7 +58,8 @@ public class NumExecutionsDao {
       throws ExecutorManagerException {
     final IntHandler intHandler = new IntHandler();
     try {
-      return this.dbOperator.query(IntHandler.NUM_JOB_EXECUTIONS, intHandler, projectId, jobId);
+      return this.dbOperator
+          .queryReadOnly(IntHandler.NUM_JOB_EXECUTIONS, intHandler, projectId, jobId);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching num executions", e);
     }
@@ -37,6 +37,7 @@ import azkaban.metrics.ContainerizationMetrics;
 import azkaban.spi.EventType;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
+import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.RateLimiter;
 import java.io.IOException;
 import java.lang.Thread.State;
@@ -48,6 +49,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.slf4j.Logger;
@@ -310,6 +314,9 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
    */
   private class QueueProcessorThread extends Thread {
 
+    // Time to wait for an in-flight dispatch to finish when the dispatch window is full
+    private static final long DISPATCH_WINDOW_WAIT_MS = 1000;
+
     private final Props azkProps;
     private volatile boolean shutdown = false;
     private volatile boolean isActive = true;
@@ -317,6 +324,8 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
     private ExecutorLoader executorLoader;
     private boolean executionsBatchProcessingEnabled;
     private int executionsBatchSize;
+    // Bounds the number of executions picked from the queue but not yet dispatched to containers
+    private final Semaphore dispatchWindow;
 
     public QueueProcessorThread(final Props azkProps, final ExecutorLoader executorLoader) {
       this.azkProps = azkProps;
@@ -330,9 +339,18 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
           azkProps
               .getInt(ContainerizedDispatchManagerProperties.CONTAINERIZED_EXECUTION_BATCH_SIZE,
                   10);
-      this.executorService = Executors.newFixedThreadPool(azkProps.getInt(
+      final int threadPoolSize = azkProps.getInt(
           ContainerizedDispatchManagerProperties.CONTAINERIZED_EXECUTION_PROCESSING_THREAD_POOL_SIZE,
-          10));
+          10);
+      this.executorService = Executors.newFixedThreadPool(threadPoolSize);
+      final int maxInFlight = azkProps.getInt(
+          ContainerizedDispatchManagerProperties.CONTAINERIZED_DISPATCH_MAX_IN_FLIGHT,
+          threadPoolSize);
+      // A window of 0 would never let any execution be dispatched.
+      Preconditions.checkArgument(maxInFlight >= 1, "%s must be at least 1, but is %s",
+          ContainerizedDispatchManagerProperties.CONTAINERIZED_DISPATCH_MAX_IN_FLIGHT,
+          maxInFlight);
+      this.dispatchWindow = new Semaphore(maxInFlight);
       this.setName("Containerized-QueueProcessor-Thread");
     }
 
@@ -355,27 +373,36 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
     /**
      * This method is responsible for dispatching the executions in queue in READY state. It will
      * fetch single execution or in batch based on the property. The batch size can also be defined
-     * in property.
+     * in property. The executions are dispatched concurrently by the dispatch thread pool, and no
+     * more executions are fetched than there are free slots in the dispatch window, so that
+     * executions don't pile up in DISPATCHING state when container creation is slow.
      *
      * @throws ExecutorManagerException
      */
-    private void processQueuedFlows() throws ExecutorManagerException {
+    private void processQueuedFlows() throws ExecutorManagerException, InterruptedException {
+      final int freeSlots = this.dispatchWindow.availablePermits();
+      if (freeSlots == 0) {
+        // Wait for an in-flight dispatch to finish before picking more executions
+        if (this.dispatchWindow.tryAcquire(DISPATCH_WINDOW_WAIT_MS, TimeUnit.MILLISECONDS)) {
+          this.dispatchWindow.release();
+        }
+        return;
+      }
       final Set<Integer> executionIds =
           executorLoader.selectAndUpdateExecutionWithLocking(this.executionsBatchProcessingEnabled,
-              this.executionsBatchSize,
+              Math.min(this.executionsBatchSize, freeSlots),
               Status.DISPATCHING, DispatchMethod.CONTAINERIZED);
 
       for (final int executionId : executionIds) {
-        rateLimiter.acquire();
+        // Only this thread takes slots from the window, so this never blocks
+        this.dispatchWindow.acquire();
         logger.info("Starting dispatch for {} execution.", executionId);
-        Runnable worker = new ExecutionDispatcher(executionId);
-        // Fetch an executable flow based on execution id and report an dispatching event
-        final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(executionId);
-        ContainerizedDispatchManager.this.fireEventListeners(Event.create(flow,
-            EventType.FLOW_STATUS_CHANGED,
-            new EventData(flow)));
-
-        executorService.execute(worker);
+        try {
+          executorService.execute(new ExecutionDispatcher(executionId, this.dispatchWindow));
+        } catch (final RejectedExecutionException e) {
+          this.dispatchWindow.release();
+          throw e;
+        }
       }
     }
 
@@ -405,22 +432,45 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
   private class ExecutionDispatcher implements Runnable {
 
     private final int executionId;
+    private final Semaphore dispatchWindow;
 
-    ExecutionDispatcher(final int executionId) {
+    ExecutionDispatcher(final int executionId, final Semaphore dispatchWindow) {
       this.executionId = executionId;
+      this.dispatchWindow = dispatchWindow;
     }
 
     @Override
     public void run() {
       try {
+        dispatch();
+      } finally {
+        this.dispatchWindow.release();
+      }
+    }
+
+    private void dispatch() {
+      try {
+        // Fetch an executable flow based on execution id and report an dispatching event
+        final ExecutableFlow flow =
+            ContainerizedDispatchManager.this.executorLoader.fetchExecutableFlow(executionId);
+        ContainerizedDispatchManager.this.fireEventListeners(Event.create(flow,
+            EventType.FLOW_STATUS_CHANGED,
+            new EventData(flow)));
+
+        // All the pods are created in the configured namespace, the rate limit of pod creation
+        // requests is hence shared by the dispatch threads.
+        rateLimiter.acquire();
         logger.info("Creating a container for {}", executionId);
         long startTime = System.currentTimeMillis();
         // Create a container for execution id. The container creation will throw exception if it
         //is not able read template files, unable to parse files, unable to replace dynamic
         //variables etc.
         ContainerizedDispatchManager.this.containerizedImpl.createContainer(executionId);
+        final long timeToCreate = System.currentTimeMillis() - startTime;
+        ContainerizedDispatchManager.this.containerizationMetrics.addTimeToCreateContainer(
+            timeToCreate);
         logger.info("Time taken to dispatch a container for {} is {} seconds", executionId,
-            (System.currentTimeMillis() - startTime) / 1000);
+            timeToCreate / 1000);
       } catch (ExecutorManagerException e) {
         logger.info("Unable to dispatch container in Kubernetes for : {}", executionId);
         logger.info("Reason for dispatch failure: {}", e.getMessage());
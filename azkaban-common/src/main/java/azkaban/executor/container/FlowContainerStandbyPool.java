@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.executor.container;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps track of the standby flow containers, which are started before an execution is assigned to
+ * them, so that the executions they match start without waiting for a pod to be scheduled and for
+ * the flow container to bootstrap.
+ * <p>
+ * The standby pods are pooled by a key identifying the pod spec they are created from. A key is
+ * added to the pool when an execution with this key is dispatched. The pods of the keys which are
+ * not dispatched anymore are released after an idle timeout, or when there are too many keys.
+ * This class only does the bookkeeping, the pods are created and deleted by the caller.
+ *
+ * @param <K> the key of the pod specs
+ */
+class FlowContainerStandbyPool<K> {
+
+  private final int targetSize;
+  private final int maxKeys;
+  private final long idleTimeoutMs;
+  // Ordered from the least to the most recently dispatched key
+  private final Map<K, KeyPool> pools = new LinkedHashMap<>();
+  private int podCount = 0;
+
+  /**
+   * @param targetSize number of standby pods to keep for each key
+   * @param maxKeys maximum number of keys for which standby pods are kept
+   * @param idleTimeoutMs time after which the pods of a key which is not dispatched are released
+   */
+  FlowContainerStandbyPool(final int targetSize, final int maxKeys, final long idleTimeoutMs) {
+    this.targetSize = targetSize;
+    this.maxKeys = maxKeys;
+    this.idleTimeoutMs = idleTimeoutMs;
+  }
+
+  /**
+   * Take the standby pod created first for the key of an execution being dispatched. The key is
+   * added to the pool if it is new, so that standby pods are created for the next executions.
+   *
+   * @return the standby pod, empty if there is none for the key
+   */
+  synchronized Optional<StandbyPod> take(final K key, final long now) {
+    KeyPool pool = this.pools.remove(key);
+    if (pool == null) {
+      pool = new KeyPool();
+    }
+    this.pools.put(key, pool);
+    pool.lastDispatchTime = now;
+    final StandbyPod pod = pool.pods.poll();
+    if (pod == null) {
+      return Optional.empty();
+    }
+    this.podCount--;
+    return Optional.of(pod);
+  }
+
+  /**
+   * Put back a pod which was taken but could not be assigned yet, e.g. because it is not ready.
+   * It will be the last pod of its key to be taken.
+   *
+   * @return false if the key of the pod was released, in which case the pod must be deleted
+   */
+  synchronized boolean putBack(final K key, final StandbyPod pod) {
+    final KeyPool pool = this.pools.get(key);
+    if (pool == null) {
+      return false;
+    }
+    pool.pods.add(pod);
+    this.podCount++;
+    return true;
+  }
+
+  /**
+   * Reserve the standby pods to create for a key to reach the target size.
+   *
+   * @return the number of pods to create, each of them must be either added or cancelled
+   */
+  synchronized int reserve(final K key) {
+    final KeyPool pool = this.pools.get(key);
+    if (pool == null) {
+      return 0;
+    }
+    final int missing = this.targetSize - pool.pods.size() - pool.reservedCount;
+    if (missing <= 0) {
+      return 0;
+    }
+    pool.reservedCount += missing;
+    return missing;
+  }
+
+  /**
+   * Add a standby pod created for a reservation.
+   *
+   * @return false if the key was released in the meantime, in which case the pod must be deleted
+   */
+  synchronized boolean add(final K key, final StandbyPod pod) {
+    final KeyPool pool = this.pools.get(key);
+    if (pool == null) {
+      return false;
+    }
+    pool.reservedCount = Math.max(0, pool.reservedCount - 1);
+    pool.pods.add(pod);
+    this.podCount++;
+    return true;
+  }
+
+  /**
+   * Cancel the reservation of a standby pod which could not be created.
+   */
+  synchronized void cancelReservation(final K key) {
+    final KeyPool pool = this.pools.get(key);
+    if (pool != null) {
+      pool.reservedCount = Math.max(0, pool.reservedCount - 1);
+    }
+  }
+
+  /**
+   * Release the keys which were not dispatched for the idle timeout, and the least recently
+   * dispatched keys above the maximum number of keys.
+   *
+   * @return the standby pods of the released keys, which must be deleted
+   */
+  synchronized List<StandbyPod> release(final long now) {
+    final List<StandbyPod> released = new ArrayList<>();
+    final Iterator<KeyPool> iterator = this.pools.values().iterator();
+    while (iterator.hasNext()) {
+      final KeyPool pool = iterator.next();
+      if (this.pools.size() <= this.maxKeys && now - pool.lastDispatchTime < this.idleTimeoutMs) {
+        continue;
+      }
+      released.addAll(pool.pods);
+      this.podCount -= pool.pods.size();
+      iterator.remove();
+    }
+    return released;
+  }
+
+  /**
+   * @return the keys for which standby pods are kept.
+   */
+  synchronized Set<K> getKeys() {
+    return new LinkedHashSet<>(this.pools.keySet());
+  }
+
+  /**
+   * @return the number of idle standby pods.
+   */
+  synchronized int getPodCount() {
+    return this.podCount;
+  }
+
+  /**
+   * A standby pod, which is idle since it was created.
+   */
+  static final class StandbyPod {
+
+    private final String name;
+    private final long createTime;
+
+    StandbyPod(final String name, final long createTime) {
+      this.name = name;
+      this.createTime = createTime;
+    }
+
+    String getName() {
+      return this.name;
+    }
+
+    long getCreateTime() {
+      return this.createTime;
+    }
+  }
+
+  private static final class KeyPool {
+
+    private final Deque<StandbyPod> pods = new ArrayDeque<>();
+    private int reservedCount = 0;
+    private long lastDispatchTime;
+  }
+}
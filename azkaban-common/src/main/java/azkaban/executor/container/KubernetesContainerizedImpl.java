@@ -24,6 +24,7 @@ import azkaban.Constants;
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.Constants.ContainerizedDispatchManagerProperties;
 import azkaban.Constants.FlowParameters;
+import azkaban.DispatchMethod;
 import azkaban.container.models.AzKubernetesV1PodBuilder;
 import azkaban.container.models.AzKubernetesV1PodTemplate;
 import azkaban.container.models.AzKubernetesV1ServiceBuilder;
@@ -34,10 +35,14 @@ import azkaban.event.Event;
 import azkaban.event.EventData;
 import azkaban.event.EventHandler;
 import azkaban.event.EventListener;
+import azkaban.executor.ConnectorParams;
 import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutionReference;
+import azkaban.executor.ExecutorApiGateway;
 import azkaban.executor.ExecutorLoader;
 import azkaban.executor.ExecutorManagerException;
 import azkaban.executor.Status;
+import azkaban.executor.container.FlowContainerStandbyPool.StandbyPod;
 import azkaban.executor.container.watch.KubernetesWatch;
 import azkaban.imagemgmt.models.ImageVersion.State;
 import azkaban.imagemgmt.rampup.ImageRampupManager;
@@ -49,13 +54,23 @@ import azkaban.metrics.ContainerizationMetrics;
 import azkaban.spi.EventType;
 import azkaban.utils.Props;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Container;
 import io.kubernetes.client.openapi.models.V1DeleteOptions;
+import io.kubernetes.client.openapi.models.V1EnvVar;
 import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
 import io.kubernetes.client.openapi.models.V1PodSpec;
+import io.kubernetes.client.openapi.models.V1PodSpecBuilder;
 import io.kubernetes.client.openapi.models.V1Service;
 import io.kubernetes.client.openapi.models.V1Status;
 import io.kubernetes.client.util.ClientBuilder;
@@ -66,11 +81,17 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -115,6 +136,19 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
   public static final String APP_LABEL_NAME = "app";
   public static final String EXECUTION_ID_LABEL_NAME = "execution-id";
   public static final String EXECUTION_ID_LABEL_PREFIX = "execid-";
+  public static final int DEFAULT_POD_SPEC_TEMPLATE_CACHE_SIZE = 1000;
+  // Standby pods are not watched nor cleaned up as flow containers until they are assigned
+  public static final String STANDBY_POD_APPLICATION_TAG = POD_APPLICATION_TAG + "-standby";
+  public static final String STANDBY_POD_NAME_INFIX = "standby";
+  public static final int DEFAULT_STANDBY_POOL_MAX_KEYS = 10;
+  public static final int DEFAULT_STANDBY_POOL_IDLE_TIMEOUT_MIN = 60;
+  @VisibleForTesting
+  static final int STANDBY_POD_ASSIGN_ATTEMPTS = 5;
+  private static final long STANDBY_POD_ASSIGN_RETRY_INTERVAL_MS = 1000;
+  private static final long STANDBY_POOL_MAINTENANCE_INTERVAL_MIN = 1;
+  private static final String POD_PHASE_RUNNING = "Running";
+  private static final String POD_PHASE_SUCCEEDED = "Succeeded";
+  private static final String POD_PHASE_FAILED = "Failed";
 
   private final String namespace;
   private final ApiClient client;
@@ -145,8 +179,18 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
   private final String secretVolume;
   private final String secretMountpath;
   private final String podTemplatePath;
+  private final String cdsArchivePath;
   private final EventListener eventListener;
   private final ContainerizationMetrics containerizationMetrics;
+  private final ExecutorApiGateway apiGateway;
+  // All are null when the standby flow containers are disabled
+  private final FlowContainerStandbyPool<PodSpecTemplateKey> standbyPool;
+  private final ScheduledExecutorService standbyPoolExecutor;
+  // Sends the executions to their standby pods, so that the dispatch doesn't wait for the routing
+  private final ScheduledExecutorService standbyAssignExecutor;
+  // Pod specs without the execution specific settings, which are the same for all the executions
+  // with the same image versions, jobtypes and resource requests. They must not be modified.
+  private final Cache<PodSpecTemplateKey, V1PodSpec> podSpecTemplateCache;
 
 
   private static final Logger logger = LoggerFactory
@@ -159,7 +203,8 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
       final ImageRampupManager imageRampupManager,
       final KubernetesWatch kubernetesWatch,
       final EventListener eventListener,
-      final ContainerizationMetrics containerizationMetrics)
+      final ContainerizationMetrics containerizationMetrics,
+      final ExecutorApiGateway apiGateway)
       throws ExecutorManagerException {
     this.azkProps = azkProps;
     this.executorLoader = executorLoader;
@@ -168,6 +213,7 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     this.kubernetesWatch = kubernetesWatch;
     this.eventListener = eventListener;
     this.containerizationMetrics = containerizationMetrics;
+    this.apiGateway = apiGateway;
     this.addListener(this.eventListener);
     this.namespace = this.azkProps
         .getString(ContainerizedDispatchManagerProperties.KUBERNETES_NAMESPACE);
@@ -235,6 +281,14 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     this.podTemplatePath = this.azkProps
         .getString(ContainerizedDispatchManagerProperties.KUBERNETES_POD_TEMPLATE_PATH,
             StringUtils.EMPTY);
+    this.cdsArchivePath = this.azkProps.getString(
+        ContainerizedDispatchManagerProperties.KUBERNETES_FLOW_CONTAINER_CDS_ARCHIVE_PATH,
+        StringUtils.EMPTY);
+    this.podSpecTemplateCache = CacheBuilder.newBuilder()
+        .maximumSize(this.azkProps.getInt(
+            ContainerizedDispatchManagerProperties.KUBERNETES_POD_SPEC_TEMPLATE_CACHE_SIZE,
+            DEFAULT_POD_SPEC_TEMPLATE_CACHE_SIZE))
+        .build();
 
     try {
       // Path to the configuration file for Kubernetes which contains information about
@@ -253,6 +307,36 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     }
     // Add all the job types that are readily available as part of azkaban base image.
     this.addIncludedJobTypes();
+
+    final int standbyPoolSize = this.azkProps.getInt(
+        ContainerizedDispatchManagerProperties.KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_SIZE, 0);
+    if (standbyPoolSize > 0) {
+      final int maxKeys = this.azkProps.getInt(
+          ContainerizedDispatchManagerProperties.KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_MAX_KEYS,
+          DEFAULT_STANDBY_POOL_MAX_KEYS);
+      final int idleTimeoutMin = this.azkProps.getInt(ContainerizedDispatchManagerProperties
+              .KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_IDLE_TIMEOUT_MIN,
+          DEFAULT_STANDBY_POOL_IDLE_TIMEOUT_MIN);
+      this.standbyPool = new FlowContainerStandbyPool<>(standbyPoolSize, maxKeys,
+          TimeUnit.MINUTES.toMillis(idleTimeoutMin));
+      this.standbyPoolExecutor = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true)
+              .setNameFormat("azk-standby-flow-containers").build());
+      this.standbyAssignExecutor = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true)
+              .setNameFormat("azk-standby-flow-container-assign").build());
+      this.containerizationMetrics.addStandbyPodCountGauge(this.standbyPool::getPodCount);
+      // The standby pods of a previous web server instance can't be tracked anymore
+      this.standbyPoolExecutor.execute(this::deleteOrphanedStandbyPods);
+      this.standbyPoolExecutor.scheduleWithFixedDelay(this::maintainStandbyPool,
+          STANDBY_POOL_MAINTENANCE_INTERVAL_MIN, STANDBY_POOL_MAINTENANCE_INTERVAL_MIN,
+          TimeUnit.MINUTES);
+      logger.info("Keeping {} standby flow containers per pod spec", standbyPoolSize);
+    } else {
+      this.standbyPool = null;
+      this.standbyPoolExecutor = null;
+      this.standbyAssignExecutor = null;
+    }
   }
 
   /**
@@ -330,8 +414,9 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
    */
   @Override
   public void createContainer(final int executionId) throws ExecutorManagerException {
-    createPod(executionId);
-    if (isServiceRequired()) {
+    final boolean onStandbyPod = createPod(executionId);
+    // The service of an execution assigned to a standby pod is created before the assignment
+    if (isServiceRequired() && !onStandbyPod) {
       createService(executionId);
     }
   }
@@ -491,6 +576,10 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
   }
 
   /**
+   * Create the pod spec of an execution. The parts of the spec which only depend on the image
+   * versions, jobtypes and resource requests are built once and cached as a template, which is
+   * copied and patched with the environment variables of the execution.
+   *
    * @param executionId
    * @param versionSet
    * @param jobTypes
@@ -501,13 +590,83 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
   V1PodSpec createPodSpec(final int executionId, final VersionSet versionSet,
       final SortedSet<String> jobTypes, final Map<String, String> flowParam)
       throws ExecutorManagerException {
+    final V1PodSpec podSpec = copyPodSpecTemplate(executionId,
+        getPodSpecTemplateKey(versionSet, jobTypes, flowParam));
+
+    final Map<String, String> envVariables = new HashMap<>();
+    envVariables.put(ContainerizedDispatchManagerProperties.ENV_VERSION_SET_ID,
+        String.valueOf(versionSet.getVersionSetId()));
+    envVariables.put(ContainerizedDispatchManagerProperties.ENV_FLOW_EXECUTION_ID,
+        String.valueOf(executionId));
+    envVariables.putAll(getFlowParamEnvVariables(flowParam));
+    addFlowContainerEnvVariables(podSpec, envVariables);
+    return podSpec;
+  }
+
+  private PodSpecTemplateKey getPodSpecTemplateKey(final VersionSet versionSet,
+      final SortedSet<String> jobTypes, final Map<String, String> flowParam) {
+    // Get CPU and memory requested for a flow container
+    return new PodSpecTemplateKey(versionSet, jobTypes, getFlowContainerCPURequest(flowParam),
+        getFlowContainerMemoryRequest(flowParam));
+  }
+
+  /**
+   * Get a copy of the pod spec template of a key, building the template if it is not cached.
+   */
+  private V1PodSpec copyPodSpecTemplate(final int executionId, final PodSpecTemplateKey key)
+      throws ExecutorManagerException {
+    V1PodSpec podSpecTemplate = this.podSpecTemplateCache.getIfPresent(key);
+    if (podSpecTemplate != null) {
+      this.containerizationMetrics.markPodSpecTemplateCacheHit();
+    } else {
+      this.containerizationMetrics.markPodSpecTemplateCacheMiss();
+      final long startTime = System.currentTimeMillis();
+      podSpecTemplate = createPodSpecTemplate(executionId, key.versionSet, key.jobTypes,
+          key.cpuRequest, key.memoryRequest);
+      this.containerizationMetrics
+          .addPodSpecTemplateBuildTime(System.currentTimeMillis() - startTime);
+      this.podSpecTemplateCache.put(key, podSpecTemplate);
+    }
+    // Deep copy of the template, so that the cached one is not modified
+    return new V1PodSpecBuilder(podSpecTemplate).build();
+  }
+
+  /**
+   * Get the environment variables of the flow container which are set from the flow parameters.
+   */
+  private Map<String, String> getFlowParamEnvVariables(final Map<String, String> flowParam) {
+    final Map<String, String> envVariables = new HashMap<>();
+    setupJavaRemoteDebug(envVariables, flowParam);
+    setupDevPod(envVariables, flowParam);
+    setupPodEnvVariables(envVariables, flowParam);
+    return envVariables;
+  }
+
+  private void addFlowContainerEnvVariables(final V1PodSpec podSpec,
+      final Map<String, String> envVariables) {
+    if (!this.cdsArchivePath.isEmpty()) {
+      // The flow container start script maps the archive with -XX:SharedArchiveFile
+      envVariables.put(ContainerizedDispatchManagerProperties.ENV_JAVA_CDS_ARCHIVE,
+          this.cdsArchivePath);
+    }
+    // Add env variables to the flow container
+    final V1Container flowContainer =
+        podSpec.getContainers().get(AzKubernetesV1PodTemplate.FLOW_CONTAINER_INDEX);
+    envVariables.forEach((name, value) ->
+        flowContainer.addEnvItem(new V1EnvVar().name(name).value(value)));
+  }
+
+  /**
+   * Build the part of a pod spec which is shared by all the executions with the same image
+   * versions, jobtypes and resource requests.
+   */
+  private V1PodSpec createPodSpecTemplate(final int executionId, final VersionSet versionSet,
+      final SortedSet<String> jobTypes, final String flowContainerCPURequest,
+      final String flowContainerMemoryRequest) throws ExecutorManagerException {
     // Gets azkaban base image full path containing version.
     final String azkabanBaseImageFullPath = getAzkabanBaseImageFullPath(versionSet);
     // TODO: check if we need full path for config as well.
     final String azkabanConfigVersion = getAzkabanConfigVersion(versionSet);
-    // Get CPU and memory requested for a flow container
-    final String flowContainerCPURequest = getFlowContainerCPURequest(flowParam);
-    final String flowContainerMemoryRequest = getFlowContainerMemoryRequest(flowParam);
     final AzKubernetesV1SpecBuilder v1SpecBuilder =
         new AzKubernetesV1SpecBuilder(this.clusterName, Optional.empty())
             .addFlowContainer(this.flowContainerName,
@@ -518,23 +677,27 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     // Add volume for nscd-socket
     addNscdSocketInVolume(v1SpecBuilder);
 
-    final Map<String, String> envVariables = new HashMap<>();
-    envVariables.put(ContainerizedDispatchManagerProperties.ENV_VERSION_SET_ID,
-        String.valueOf(versionSet.getVersionSetId()));
-    envVariables.put(ContainerizedDispatchManagerProperties.ENV_FLOW_EXECUTION_ID,
-        String.valueOf(executionId));
-    setupJavaRemoteDebug(envVariables, flowParam);
-    setupDevPod(envVariables, flowParam);
-    setupPodEnvVariables(envVariables, flowParam);
-    // Add env variables to spec builder
-    addEnvVariablesToSpecBuilder(v1SpecBuilder, envVariables);
-
     // Create init container yaml file for each jobType
     addInitContainerForAllJobTypes(executionId, jobTypes, v1SpecBuilder, versionSet);
 
     // Add volume with secrets mounted
     addSecretVolume(v1SpecBuilder);
-    return v1SpecBuilder.build();
+    final V1PodSpec podSpec = v1SpecBuilder.build();
+    disableSATokenAutomount(podSpec);
+
+    // If a pod-template is provided, merge its component definitions into the podSpec.
+    if (StringUtils.isNotEmpty(this.podTemplatePath)) {
+      try {
+        final AzKubernetesV1PodTemplate podTemplate = AzKubernetesV1PodTemplate
+            .getInstance(this.podTemplatePath);
+        PodTemplateMergeUtils.mergePodSpec(podSpec, podTemplate);
+      } catch (final IOException e) {
+        logger.info("ExecId: {}, Failed to create k8s pod from template: {}", executionId,
+            e.getMessage());
+        throw new ExecutorManagerException(e);
+      }
+    }
+    return podSpec;
   }
 
   /**
@@ -626,17 +789,6 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     }
   }
 
-  /**
-   * Adding environment variables in pod spec builder.
-   *
-   * @param v1SpecBuilder
-   * @param envVariables
-   */
-  private void addEnvVariablesToSpecBuilder(final AzKubernetesV1SpecBuilder v1SpecBuilder,
-      final Map<String, String> envVariables) {
-    envVariables.forEach((key, value) -> v1SpecBuilder.addEnvVarToFlowContainer(key, value));
-  }
-
   /**
    * This method is used to add volume for nscd socket.
    *
@@ -684,11 +836,16 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
    * version set and ramp up for new jobType. 6. Create pod spec using all the version information
    * 7. Insert version set into execution_flows tables for a reference 8. Emit version set as a part
    * of flow life cycle event.
+   * <p>
+   * The execution is assigned to a standby pod created from the same pod spec if there is one,
+   * instead of creating a pod. It is sent to the standby pod asynchronously once it is marked as
+   * PREPARING, and a pod is created if the standby pod can't be reached.
    *
    * @param executionId
+   * @return true if the execution is assigned to a standby pod
    * @throws ExecutorManagerException
    */
-  private void createPod(final int executionId) throws ExecutorManagerException {
+  private boolean createPod(final int executionId) throws ExecutorManagerException {
     // Fetch execution flow from execution Id.
     final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(executionId);
     // Step 1: Fetch set of jobTypes for a flow from executionId
@@ -696,10 +853,8 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     logger
         .info("ExecId: {}, Jobtypes for flow {} are: {}", executionId, flow.getFlowId(), jobTypes);
 
-    Map<String, String> flowParam = null;
-    if (flow.getExecutionOptions() != null) {
-      flowParam = flow.getExecutionOptions().getFlowParameters();
-    }
+    final Map<String, String> flowParam = flow.getExecutionOptions() != null
+        ? flow.getExecutionOptions().getFlowParameters() : null;
     if (flowParam != null && !flowParam.isEmpty()) {
       logger.info("ExecId: {}, Flow Parameters are: {}", executionId, flowParam);
     }
@@ -710,30 +865,10 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     allImageTypes.add(AZKABAN_CONFIG);
     allImageTypes.addAll(jobTypes);
     final VersionSet versionSet = fetchVersionSet(executionId, flowParam, allImageTypes, flow);
-    final V1PodSpec podSpec = createPodSpec(executionId, versionSet, jobTypes, flowParam);
-    disableSATokenAutomount(podSpec);
-
-    // If a pod-template is provided, merge its component definitions into the podSpec.
-    if (StringUtils.isNotEmpty(this.podTemplatePath)) {
-      try {
-        final AzKubernetesV1PodTemplate podTemplate = AzKubernetesV1PodTemplate
-            .getInstance(this.podTemplatePath);
-        PodTemplateMergeUtils.mergePodSpec(podSpec, podTemplate);
-      } catch (final IOException e) {
-        logger.info("ExecId: {}, Failed to create k8s pod from template: {}", executionId,
-            e.getMessage());
-        throw new ExecutorManagerException(e);
-      }
-    }
-    final V1Pod pod = createPodFromSpec(executionId, podSpec);
-    logPodSpecYaml(executionId, pod, flowParam);
-
-    try {
-      this.coreV1Api.createNamespacedPod(this.namespace, pod, null, null, null);
-      logger.info("ExecId: {}, Dispatched pod for execution.", executionId);
-    } catch (final ApiException e) {
-      logger.error("ExecId: {}, Unable to create Pod: {}", executionId, e.getResponseBody());
-      throw new ExecutorManagerException(e);
+    final StandbyPod standbyPod = this.standbyPool != null
+        ? takeStandbyPod(executionId, versionSet, jobTypes, flowParam) : null;
+    if (standbyPod == null) {
+      dispatchPod(executionId, versionSet, jobTypes, flowParam);
     }
     // Store version set id in execution_flows for execution_id
     this.executorLoader.updateVersionSetId(executionId, versionSet.getVersionSetId());
@@ -748,6 +883,265 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
     }
     // Emit preparing flow event with version set
     this.fireEventListeners(Event.create(flow, EventType.FLOW_STATUS_CHANGED, new EventData(flow)));
+    if (standbyPod == null) {
+      return false;
+    }
+    // The flow container must find the execution PREPARING, with its version set
+    final Runnable fallback = () -> {
+      try {
+        dispatchPod(executionId, versionSet, jobTypes, flowParam);
+      } catch (final ExecutorManagerException e) {
+        logger.error("ExecId: {}, Unable to create a pod instead of the standby pod", executionId,
+            e);
+      }
+    };
+    this.standbyAssignExecutor.execute(() -> assignExecution(executionId, standbyPod, fallback, 1));
+    return true;
+  }
+
+  private void dispatchPod(final int executionId, final VersionSet versionSet,
+      final SortedSet<String> jobTypes, final Map<String, String> flowParam)
+      throws ExecutorManagerException {
+    final V1PodSpec podSpec = createPodSpec(executionId, versionSet, jobTypes, flowParam);
+    final V1Pod pod = createPodFromSpec(executionId, podSpec);
+    logPodSpecYaml(executionId, pod, flowParam);
+
+    try {
+      this.coreV1Api.createNamespacedPod(this.namespace, pod, null, null, null);
+      logger.info("ExecId: {}, Dispatched pod for execution.", executionId);
+    } catch (final ApiException e) {
+      logger.error("ExecId: {}, Unable to create Pod: {}", executionId, e.getResponseBody());
+      throw new ExecutorManagerException(e);
+    }
+  }
+
+  /**
+   * Take a ready standby pod created from the pod spec the execution needs. The pod is relabeled
+   * as the pod of the execution, so that its service, the watch and the cleanup of the flow
+   * containers find it. It is asked to run the execution by {@link #assignExecution}.
+   * <p>
+   * Executions with flow parameters changing the environment of the flow container always get a
+   * new pod.
+   *
+   * @return null if there is no standby pod which can be used, in which case a pod must be created
+   */
+  private StandbyPod takeStandbyPod(final int executionId, final VersionSet versionSet,
+      final SortedSet<String> jobTypes, final Map<String, String> flowParam) {
+    if (!getFlowParamEnvVariables(flowParam).isEmpty()) {
+      return null;
+    }
+    final PodSpecTemplateKey key = getPodSpecTemplateKey(versionSet, jobTypes, flowParam);
+    final Optional<StandbyPod> standbyPod = this.standbyPool.take(key, System.currentTimeMillis());
+    this.standbyPoolExecutor.execute(() -> replenishStandbyPool(key));
+    if (!standbyPod.isPresent()) {
+      this.containerizationMetrics.markStandbyPodMiss();
+      return null;
+    }
+    final String podName = standbyPod.get().getName();
+    final V1Pod pod;
+    try {
+      pod = this.coreV1Api.readNamespacedPod(podName, this.namespace, null, null, null);
+    } catch (final ApiException e) {
+      logger.warn("ExecId: {}, Unable to read standby pod {}: {}", executionId, podName,
+          e.getResponseBody());
+      deleteStandbyPod(podName);
+      this.containerizationMetrics.markStandbyPodMiss();
+      return null;
+    }
+    if (isTerminated(pod)) {
+      logger.warn("ExecId: {}, Standby pod {} has terminated", executionId, podName);
+      deleteStandbyPod(podName);
+      this.containerizationMetrics.markStandbyPodMiss();
+      return null;
+    }
+    if (!isReady(pod)) {
+      logger.info("ExecId: {}, Standby pod {} is not ready yet", executionId, podName);
+      if (!this.standbyPool.putBack(key, standbyPod.get())) {
+        deleteStandbyPod(podName);
+      }
+      this.containerizationMetrics.markStandbyPodMiss();
+      return null;
+    }
+
+    try {
+      final Map<String, String> labels = new HashMap<>(pod.getMetadata().getLabels());
+      labels.putAll(getLabelsForPod(executionId));
+      pod.getMetadata().setLabels(labels);
+      this.coreV1Api.replaceNamespacedPod(podName, this.namespace, pod, null, null, null);
+      if (isServiceRequired()) {
+        createService(executionId);
+      }
+    } catch (final ApiException | ExecutorManagerException e) {
+      logger.warn("ExecId: {}, Unable to take standby pod {} for the execution", executionId,
+          podName, e);
+      deleteStandbyPod(podName);
+      if (isServiceRequired()) {
+        try {
+          deleteService(executionId);
+        } catch (final ExecutorManagerException deleteException) {
+          // The service may not have been created
+        }
+      }
+      this.containerizationMetrics.markStandbyPodMiss();
+      return null;
+    }
+    return standbyPod.get();
+  }
+
+  /**
+   * @return whether the pod or one of its containers has terminated, so that it will never become
+   *     ready.
+   */
+  private static boolean isTerminated(final V1Pod pod) {
+    if (pod.getStatus() == null) {
+      return false;
+    }
+    final String phase = pod.getStatus().getPhase();
+    if (POD_PHASE_SUCCEEDED.equals(phase) || POD_PHASE_FAILED.equals(phase)) {
+      return true;
+    }
+    return pod.getStatus().getContainerStatuses() != null && pod.getStatus()
+        .getContainerStatuses().stream()
+        .anyMatch(status -> status.getState() != null && status.getState().getTerminated() != null);
+  }
+
+  private static boolean isReady(final V1Pod pod) {
+    if (pod.getStatus() == null || !POD_PHASE_RUNNING.equals(pod.getStatus().getPhase())
+        || pod.getStatus().getContainerStatuses() == null) {
+      return false;
+    }
+    return pod.getStatus().getContainerStatuses().stream()
+        .allMatch(status -> Boolean.TRUE.equals(status.getReady()));
+  }
+
+  /**
+   * Ask the flow container of a standby pod to run an execution. The routing to the pod may take a
+   * moment to be updated after the pod is relabeled, so the call is retried later, without holding
+   * a thread. If the pod is still not reachable after the last attempt, it is deleted and the
+   * fallback creates a pod for the execution. Its service selects the new pod as well.
+   */
+  private void assignExecution(final int executionId, final StandbyPod standbyPod,
+      final Runnable fallback, final int attempt) {
+    final ExecutionReference reference =
+        new ExecutionReference(executionId, DispatchMethod.CONTAINERIZED);
+    try {
+      this.apiGateway.callWithReferenceByUser(reference, ConnectorParams.EXECUTE_ACTION, null);
+    } catch (final ExecutorManagerException e) {
+      if (attempt < STANDBY_POD_ASSIGN_ATTEMPTS) {
+        logger.info("ExecId: {}, Standby pod {} is not reachable yet: {}", executionId,
+            standbyPod.getName(), e.getMessage());
+        this.standbyAssignExecutor.schedule(
+            () -> assignExecution(executionId, standbyPod, fallback, attempt + 1),
+            STANDBY_POD_ASSIGN_RETRY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return;
+      }
+      logger.warn("ExecId: {}, Unable to assign the execution to standby pod {}, creating a pod "
+          + "instead", executionId, standbyPod.getName(), e);
+      deleteStandbyPod(standbyPod.getName());
+      this.containerizationMetrics.markStandbyPodMiss();
+      fallback.run();
+      return;
+    }
+    this.containerizationMetrics.markStandbyPodHit();
+    this.containerizationMetrics
+        .addStandbyPodIdleTime(System.currentTimeMillis() - standbyPod.getCreateTime());
+    logger.info("ExecId: {}, Assigned execution to standby pod {}", executionId,
+        standbyPod.getName());
+  }
+
+  /**
+   * Create the standby pods missing for a key of the standby pool, after releasing the pods of the
+   * keys which are not dispatched anymore.
+   */
+  private void replenishStandbyPool(final PodSpecTemplateKey key) {
+    releaseStandbyPods();
+    final int count = this.standbyPool.reserve(key);
+    for (int i = 0; i < count; i++) {
+      final StandbyPod standbyPod;
+      try {
+        standbyPod = createStandbyPod(key);
+      } catch (final ApiException | ExecutorManagerException e) {
+        logger.error("Unable to create standby pod", e);
+        this.standbyPool.cancelReservation(key);
+        continue;
+      }
+      if (!this.standbyPool.add(key, standbyPod)) {
+        deleteStandbyPod(standbyPod.getName());
+      }
+    }
+  }
+
+  private void maintainStandbyPool() {
+    try {
+      for (final PodSpecTemplateKey key : this.standbyPool.getKeys()) {
+        replenishStandbyPool(key);
+      }
+    } catch (final RuntimeException e) {
+      // Not propagated, it would cancel the next runs
+      logger.error("Unable to maintain the standby pods", e);
+    }
+  }
+
+  private void releaseStandbyPods() {
+    final long now = System.currentTimeMillis();
+    for (final StandbyPod standbyPod : this.standbyPool.release(now)) {
+      this.containerizationMetrics.addStandbyPodIdleTime(now - standbyPod.getCreateTime());
+      deleteStandbyPod(standbyPod.getName());
+    }
+  }
+
+  /**
+   * Create a standby pod from the pod spec of a key. The flow container of a standby pod starts
+   * without an execution id, loads all its jobtypes and waits for an execution to be assigned.
+   */
+  private StandbyPod createStandbyPod(final PodSpecTemplateKey key)
+      throws ApiException, ExecutorManagerException {
+    final String podName = String.join("-", this.podPrefix, this.clusterName,
+        STANDBY_POD_NAME_INFIX, UUID.randomUUID().toString().substring(0, 8));
+    // The execution id is only used for logging while building the pod spec template
+    final V1PodSpec podSpec = copyPodSpecTemplate(-1, key);
+    final Map<String, String> envVariables = new HashMap<>();
+    envVariables.put(ContainerizedDispatchManagerProperties.ENV_VERSION_SET_ID,
+        String.valueOf(key.versionSet.getVersionSetId()));
+    envVariables.put(ContainerizedDispatchManagerProperties.ENV_FLOW_CONTAINER_STANDBY,
+        String.valueOf(true));
+    addFlowContainerEnvVariables(podSpec, envVariables);
+    final V1Pod pod = new AzKubernetesV1PodBuilder(podName, this.namespace, podSpec)
+        .withPodLabels(ImmutableMap.of(CLUSTER_LABEL_NAME, this.clusterName,
+            APP_LABEL_NAME, STANDBY_POD_APPLICATION_TAG))
+        .withPodAnnotations(getAnnotationsForPod())
+        .build();
+    this.coreV1Api.createNamespacedPod(this.namespace, pod, null, null, null);
+    logger.info("Created standby pod {}", podName);
+    return new StandbyPod(podName, System.currentTimeMillis());
+  }
+
+  private void deleteStandbyPod(final String podName) {
+    try {
+      this.coreV1Api.deleteNamespacedPod(podName, this.namespace, null, null, null, null, null,
+          new V1DeleteOptions());
+      logger.info("Deleted standby pod {}", podName);
+    } catch (final ApiException e) {
+      logger.error("Unable to delete standby pod {}: {}", podName, e.getResponseBody());
+    }
+  }
+
+  private void deleteOrphanedStandbyPods() {
+    final String labelSelector = CLUSTER_LABEL_NAME + "=" + this.clusterName + ","
+        + APP_LABEL_NAME + "=" + STANDBY_POD_APPLICATION_TAG;
+    try {
+      for (final V1Pod pod : listPods(labelSelector)) {
+        deleteStandbyPod(pod.getMetadata().getName());
+      }
+    } catch (final ApiException e) {
+      logger.error("Unable to list the orphaned standby pods: {}", e.getResponseBody());
+    }
+  }
+
+  private List<V1Pod> listPods(final String labelSelector) throws ApiException {
+    final V1PodList podList = this.coreV1Api.listNamespacedPod(this.namespace, null, null, null,
+        null, labelSelector, null, null, null, null);
+    return podList.getItems();
   }
 
   /**
@@ -919,10 +1313,11 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
    */
   private void deletePod(final int executionId) throws ExecutorManagerException {
     try {
-      final String podName = getPodName(executionId);
-      this.coreV1Api.deleteNamespacedPod(podName, this.namespace, null, null,
-          null, null, null, new V1DeleteOptions());
-      logger.info("ExecId: {}, Action: Pod Deletion, Pod Name: {}", executionId, podName);
+      for (final String podName : getPodNames(executionId)) {
+        this.coreV1Api.deleteNamespacedPod(podName, this.namespace, null, null,
+            null, null, null, new V1DeleteOptions());
+        logger.info("ExecId: {}, Action: Pod Deletion, Pod Name: {}", executionId, podName);
+      }
     } catch (final ApiException e) {
       logger.error("ExecId: {}, Unable to delete Pod in Kubernetes: {}", executionId,
           e.getResponseBody());
@@ -981,4 +1376,62 @@ public class KubernetesContainerizedImpl extends EventHandler implements Contain
   private String getPodName(final int executionId) {
     return String.join("-", this.podPrefix, this.clusterName, String.valueOf(executionId));
   }
+
+  /**
+   * Get the names of the pods of an execution. An execution assigned to a standby pod runs in a
+   * pod which is not named after the execution id, so the pods are looked up by their labels.
+   */
+  private List<String> getPodNames(final int executionId) throws ApiException {
+    if (this.standbyPool == null) {
+      return ImmutableList.of(getPodName(executionId));
+    }
+    final String labelSelector = CLUSTER_LABEL_NAME + "=" + this.clusterName + ","
+        + EXECUTION_ID_LABEL_NAME + "=" + EXECUTION_ID_LABEL_PREFIX + executionId;
+    final List<String> podNames = listPods(labelSelector).stream()
+        .map(pod -> pod.getMetadata().getName())
+        .collect(Collectors.toList());
+    return podNames.isEmpty() ? ImmutableList.of(getPodName(executionId)) : podNames;
+  }
+
+  /**
+   * Identifies the pod spec templates by the image versions, jobtypes and resource requests of the
+   * flow container.
+   */
+  private static final class PodSpecTemplateKey {
+
+    // Not part of the key, the version sets with the same image versions are equivalent
+    private final VersionSet versionSet;
+    private final ImmutableSortedMap<String, VersionInfo> imageVersions;
+    private final ImmutableSortedSet<String> jobTypes;
+    private final String cpuRequest;
+    private final String memoryRequest;
+
+    PodSpecTemplateKey(final VersionSet versionSet, final SortedSet<String> jobTypes,
+        final String cpuRequest, final String memoryRequest) {
+      this.versionSet = versionSet;
+      this.imageVersions = ImmutableSortedMap.copyOfSorted(versionSet.getImageToVersionMap());
+      this.jobTypes = ImmutableSortedSet.copyOf(jobTypes);
+      this.cpuRequest = cpuRequest;
+      this.memoryRequest = memoryRequest;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final PodSpecTemplateKey that = (PodSpecTemplateKey) o;
+      return this.imageVersions.equals(that.imageVersions) && this.jobTypes.equals(that.jobTypes)
+          && Objects.equals(this.cpuRequest, that.cpuRequest)
+          && Objects.equals(this.memoryRequest, that.memoryRequest);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.imageVersions, this.jobTypes, this.cpuRequest, this.memoryRequest);
+    }
+  }
 }
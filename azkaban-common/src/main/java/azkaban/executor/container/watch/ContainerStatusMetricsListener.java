@@ -48,6 +48,9 @@ public class ContainerStatusMetricsListener implements AzPodStatusListener{
   // be 100 bytes * DEFAULT_EVENT_CACHE_MAX_ENTRIES ~ 5 mb
   private final Cache<String, AzPodStatus> podStatusCache;
 
+  // Time at which the creation of each pod was requested, until the pod is ready
+  private final Cache<String, Long> podRequestedTimeCache;
+
   private final ExecutorService executor;
 
   @Inject
@@ -61,6 +64,10 @@ public class ContainerStatusMetricsListener implements AzPodStatusListener{
         .maximumSize(DEFAULT_EVENT_CACHE_MAX_ENTRIES)
         .recordStats()
         .build();
+
+    this.podRequestedTimeCache = CacheBuilder.newBuilder()
+        .maximumSize(DEFAULT_EVENT_CACHE_MAX_ENTRIES)
+        .build();
   }
 
   /**
@@ -100,6 +107,7 @@ public class ContainerStatusMetricsListener implements AzPodStatusListener{
     switch (event.getAzPodStatus()) {
       case AZ_POD_REQUESTED:
         containerizationMetrics.markPodRequested();
+        podRequestedTimeCache.put(event.getPodName(), System.currentTimeMillis());
         break;
       case AZ_POD_SCHEDULED:
         containerizationMetrics.markPodScheduled();
@@ -112,15 +120,23 @@ public class ContainerStatusMetricsListener implements AzPodStatusListener{
         break;
       case AZ_POD_READY:
         containerizationMetrics.markPodReady();
+        final Long requestedTime = podRequestedTimeCache.getIfPresent(event.getPodName());
+        if (requestedTime != null) {
+          containerizationMetrics
+              .addTimeFromPodRequestedToReady(System.currentTimeMillis() - requestedTime);
+          podRequestedTimeCache.invalidate(event.getPodName());
+        }
         break;
       case AZ_POD_COMPLETED:
         containerizationMetrics.markPodCompleted();
         break;
       case AZ_POD_INIT_FAILURE:
         containerizationMetrics.markPodInitFailure();
+        podRequestedTimeCache.invalidate(event.getPodName());
         break;
       case AZ_POD_APP_FAILURE:
         containerizationMetrics.markPodAppFailure();
+        podRequestedTimeCache.invalidate(event.getPodName());
         break;
       default:
         // do nothing when status is AZ_POD_UNSET, AZ_POD_UNEXPECTED, AZ_POD_UNEXPECTED
@@ -87,4 +87,11 @@ public interface ImageRampupManager {
       final ExecutableFlow executableFlow, final VersionSet versionSet)
       throws ImageMgmtException;
 
+  /**
+   * Discard any cached rampup and image version information, so that the following version
+   * selections see the latest changes. It should be invoked whenever rampup plans or image
+   * versions are modified.
+   */
+  public void invalidateCache();
+
 }
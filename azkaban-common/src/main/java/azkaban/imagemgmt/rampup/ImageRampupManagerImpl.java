@@ -15,6 +15,7 @@
  */
 package azkaban.imagemgmt.rampup;
 
+import azkaban.Constants.ContainerizedDispatchManagerProperties;
 import azkaban.Constants.ImageMgmtConstants;
 import azkaban.executor.ExecutableFlow;
 import azkaban.executor.container.ContainerImplUtils;
@@ -30,6 +31,8 @@ import azkaban.imagemgmt.models.ImageVersion.State;
 import azkaban.imagemgmt.models.ImageVersionMetadata;
 import azkaban.imagemgmt.version.VersionInfo;
 import azkaban.imagemgmt.version.VersionSet;
+import azkaban.utils.Props;
+import com.google.common.annotations.VisibleForTesting;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -39,6 +42,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -62,6 +66,9 @@ import org.slf4j.LoggerFactory;
  * version in the image_versions table, it will throw appropriate error message mentioning could not
  * select version for the image type and the whole process would fail. 8. Follow the rampup
  * procedure to elect a new version from the image_versions table for the failed image type.
+ * <p>
+ * The version selection of the dispatches is answered from an in-memory snapshot of the active
+ * rampups and image versions, which is reloaded periodically and whenever it is invalidated.
  */
 @Singleton
 public class ImageRampupManagerImpl implements ImageRampupManager {
@@ -79,14 +86,39 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
       + "and ACTIVE version.";
   private static final String MSG_IMAGE_TYPE_WITHOUT_VERSION = "This image type does not have a "
       + "version yet.";
+  private static final long DEFAULT_SNAPSHOT_REFRESH_INTERVAL_SEC = 30;
 
-  @Inject
+  private final ImageVersionLookup dbLookup = new DatabaseImageVersionLookup();
+  private final long snapshotRefreshIntervalMs;
+  private volatile ImageRampupSnapshot snapshot;
+  private long snapshotVersion = 0;
+
+  /**
+   * Creates a manager which queries the database for each version selection.
+   */
   public ImageRampupManagerImpl(final ImageRampupDao imageRampupDao,
       final ImageVersionDao imageVersionDao,
       final ImageTypeDao imageTypeDao) {
+    this(imageRampupDao, imageVersionDao, imageTypeDao, 0);
+  }
+
+  @Inject
+  public ImageRampupManagerImpl(final ImageRampupDao imageRampupDao,
+      final ImageVersionDao imageVersionDao,
+      final ImageTypeDao imageTypeDao,
+      final Props azkProps) {
+    this(imageRampupDao, imageVersionDao, imageTypeDao, getSnapshotRefreshIntervalMs(azkProps));
+  }
+
+  @VisibleForTesting
+  ImageRampupManagerImpl(final ImageRampupDao imageRampupDao,
+      final ImageVersionDao imageVersionDao,
+      final ImageTypeDao imageTypeDao,
+      final long snapshotRefreshIntervalMs) {
     this.imageRampupDao = imageRampupDao;
     this.imageVersionDao = imageVersionDao;
     this.imageTypeDao = imageTypeDao;
+    this.snapshotRefreshIntervalMs = snapshotRefreshIntervalMs;
   }
 
   @Override
@@ -101,7 +133,8 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
     }
     final Set<String> remainingImageTypes = new TreeSet<>();
     final Map<String, ImageVersionMetadata> imageTypeVersionMap = this
-        .processAndGetVersionForImageTypes(flow, imageTypes, imageTypeRampups, remainingImageTypes);
+        .processAndGetVersionForImageTypes(flow, imageTypes, imageTypeRampups, remainingImageTypes,
+            this.dbLookup);
     // Throw exception if there are left over image types
     if (!remainingImageTypes.isEmpty()) {
       throw new ImageMgmtException("Could not fetch version for below image types. Reasons: "
@@ -124,7 +157,7 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
     final Set<String> remainingImageTypes = new TreeSet<>();
     final Map<String, ImageVersionMetadata> imageTypeVersionMap =
         this.processAndGetVersionForImageTypes(null, imageTypes, imageTypeRampups,
-            remainingImageTypes);
+            remainingImageTypes, this.dbLookup);
     if (!remainingImageTypes.isEmpty()) {
       final Map<String, ImageVersion> imageTypeLatestNonActiveVersionMap =
           this.getLatestNonActiveImageVersion(remainingImageTypes);
@@ -167,12 +200,21 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
   public Map<String, VersionInfo> getVersionByImageTypes(final ExecutableFlow flow,
       final Set<String> imageTypes)
       throws ImageMgmtException {
-    final Map<String, List<ImageRampup>> imageTypeRampups = this.imageRampupDao
-        .getRampupByImageTypes(imageTypes);
+    // Image types created after the snapshot was loaded are resolved from the database
+    final ImageRampupSnapshot snapshot = getSnapshot();
+    final ImageVersionLookup lookup;
+    final Map<String, List<ImageRampup>> imageTypeRampups;
+    if (snapshot != null && !imageTypes.isEmpty() && snapshot.containsImageTypes(imageTypes)) {
+      lookup = snapshot;
+      imageTypeRampups = snapshot.getRampups(imageTypes);
+    } else {
+      lookup = this.dbLookup;
+      imageTypeRampups = this.imageRampupDao.getRampupByImageTypes(imageTypes);
+    }
     final Set<String> remainingImageTypes = new TreeSet<>();
     final Map<String, ImageVersionMetadata> imageTypeVersionMap =
         this.processAndGetVersionForImageTypes(flow, imageTypes, imageTypeRampups,
-            remainingImageTypes);
+            remainingImageTypes, lookup);
     // Throw exception if there are left over image types
     if (!remainingImageTypes.isEmpty()) {
       throw new ImageMgmtException("Could not fetch version for below image types. Reasons: "
@@ -182,6 +224,56 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
     return this.createVersionInfoMap(imageTypeVersionMap);
   }
 
+  @Override
+  public synchronized void invalidateCache() {
+    this.snapshot = null;
+    log.info("Image rampup snapshot is invalidated");
+  }
+
+  /**
+   * Get the snapshot of active rampups and image versions, reloading it if it is older than the
+   * refresh interval.
+   *
+   * @return null if the snapshot is disabled or can't be loaded.
+   */
+  @VisibleForTesting
+  ImageRampupSnapshot getSnapshot() {
+    if (this.snapshotRefreshIntervalMs <= 0) {
+      return null;
+    }
+    ImageRampupSnapshot current = this.snapshot;
+    if (current != null && !isExpired(current)) {
+      return current;
+    }
+    synchronized (this) {
+      current = this.snapshot;
+      if (current == null || isExpired(current)) {
+        try {
+          current = ImageRampupSnapshot.load(++this.snapshotVersion, this.imageTypeDao,
+              this.imageRampupDao, this.dbLookup);
+        } catch (final ImageMgmtException e) {
+          log.error("Unable to load image rampup snapshot, versions are selected from database",
+              e);
+          return null;
+        }
+        this.snapshot = current;
+        log.info("Loaded image rampup snapshot version {} in {} ms", current.getVersion(),
+            System.currentTimeMillis() - current.getLoadTime());
+      }
+      return current;
+    }
+  }
+
+  private static long getSnapshotRefreshIntervalMs(final Props azkProps) {
+    return TimeUnit.SECONDS.toMillis(azkProps.getLong(ContainerizedDispatchManagerProperties
+            .CONTAINERIZED_IMAGE_RAMPUP_SNAPSHOT_REFRESH_INTERVAL_SEC,
+        DEFAULT_SNAPSHOT_REFRESH_INTERVAL_SEC));
+  }
+
+  private boolean isExpired(final ImageRampupSnapshot snapshot) {
+    return System.currentTimeMillis() - snapshot.getLoadTime() >= this.snapshotRefreshIntervalMs;
+  }
+
   @Override
   public VersionInfo getVersionInfo(final String imageType, final String imageVersion,
       final Set<State> stateFilter) throws ImageMgmtException {
@@ -220,19 +312,21 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
    * @param imageTypeRampups    - contains rampup list for an image type
    * @param remainingImageTypes - This set is used to keep track of the image types for which
    *                            version metadata is not available.
+   * @param lookup              - source of the image versions
    * @return Map<String, VersionMetadata>
    */
   private Map<String, ImageVersionMetadata> processAndGetVersionForImageTypes(
       final ExecutableFlow flow,
       final Set<String> imageTypes,
       final Map<String, List<ImageRampup>> imageTypeRampups,
-      final Set<String> remainingImageTypes) {
+      final Set<String> remainingImageTypes,
+      final ImageVersionLookup lookup) {
     final Set<String> imageTypeSet = imageTypeRampups.keySet();
     log.info("Found active rampup for the image types {} ", imageTypeSet);
     final Map<String, ImageVersionMetadata> imageTypeVersionMap = new TreeMap<>(
         String.CASE_INSENSITIVE_ORDER);
     final Map<String, ImageVersion> imageTypeRampupVersionMap =
-        this.processAndGetRampupVersion(flow, imageTypeRampups);
+        this.processAndGetRampupVersion(flow, imageTypeRampups, lookup);
     imageTypeRampupVersionMap
         .forEach((k, v) -> imageTypeVersionMap.put(k, new ImageVersionMetadata(v,
             imageTypeRampups.get(k), MSG_RANDOM_RAMPUP_VERSION_SELECTION)));
@@ -253,7 +347,7 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
     log.info("After finding version through rampup image types remaining: {}  ",
         remainingImageTypes);
     final Map<String, ImageVersion> imageTypeActiveVersionMap =
-        this.processAndGetActiveImageVersion(remainingImageTypes);
+        lookup.getActiveImageVersions(remainingImageTypes);
     imageTypeActiveVersionMap
         .forEach((k, v) -> imageTypeVersionMap.put(k,
             new ImageVersionMetadata(v, MSG_ACTIVE_VERSION_SELECTION)));
@@ -273,11 +367,13 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
    * the given image types in the rampup map.
    *
    * @param imageTypeRampups
+   * @param lookup
    * @return Map<String, ImageVersion>
    */
   private Map<String, ImageVersion> processAndGetRampupVersion(
       final ExecutableFlow flow,
-      final Map<String, List<ImageRampup>> imageTypeRampups) {
+      final Map<String, List<ImageRampup>> imageTypeRampups,
+      final ImageVersionLookup lookup) {
     final Set<String> imageTypeSet = imageTypeRampups.keySet();
     log.info("Found active rampup for the image types {} ", imageTypeSet);
     final Map<String, ImageVersion> imageTypeRampupVersionMap =
@@ -297,7 +393,7 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
         log.info("Flow object is null, so continue");
         final ImageRampup firstImageRampup = imageRampupList.get(0);
         imageTypeRampupVersionMap.put(imageTypeName,
-            this.fetchImageVersion(imageTypeName, firstImageRampup.getImageVersion())
+            lookup.fetchImageVersion(imageTypeName, firstImageRampup.getImageVersion())
                 .orElseThrow(() -> new ImageMgmtException(
                     String.format("Unable to fetch version %s from image " + "versions table.",
                         firstImageRampup.getImageVersion()))));
@@ -311,7 +407,7 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
         if (flowNameHashValMapping >= prevRampupPercentage + 1
             && flowNameHashValMapping <= prevRampupPercentage + rampupPercentage) {
           imageTypeRampupVersionMap.put(imageTypeName,
-              this.fetchImageVersion(imageTypeName, imageRampup.getImageVersion())
+              lookup.fetchImageVersion(imageTypeName, imageRampup.getImageVersion())
                   .orElseThrow(() -> new ImageMgmtException(
                       String.format("Unable to fetch version %s from image " + "versions table.",
                           imageRampup.getImageVersion()))));
@@ -425,4 +521,21 @@ public class ImageRampupManagerImpl implements ImageRampupManager {
   private Comparator<ImageRampup> getRampupPercentageComparator() {
     return Comparator.comparingInt(ImageRampup::getRampupPercentage);
   }
+
+  /**
+   * Looks up the image versions in the database.
+   */
+  private class DatabaseImageVersionLookup implements ImageVersionLookup {
+
+    @Override
+    public Optional<ImageVersion> fetchImageVersion(final String imageType,
+        final String imageVersion) {
+      return ImageRampupManagerImpl.this.fetchImageVersion(imageType, imageVersion);
+    }
+
+    @Override
+    public Map<String, ImageVersion> getActiveImageVersions(final Set<String> imageTypes) {
+      return processAndGetActiveImageVersion(imageTypes);
+    }
+  }
 }
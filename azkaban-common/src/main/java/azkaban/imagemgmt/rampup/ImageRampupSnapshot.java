@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.imagemgmt.rampup;
+
+import azkaban.imagemgmt.daos.ImageRampupDao;
+import azkaban.imagemgmt.daos.ImageTypeDao;
+import azkaban.imagemgmt.models.ImageRampup;
+import azkaban.imagemgmt.models.ImageRampup.StabilityTag;
+import azkaban.imagemgmt.models.ImageType;
+import azkaban.imagemgmt.models.ImageVersion;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory copy of the active rampups and the image versions they refer to, along with
+ * the latest active version of every image type. It answers the version selection of a dispatch
+ * without querying the database.
+ */
+class ImageRampupSnapshot implements ImageVersionLookup {
+
+  private final long version;
+  private final long loadTime;
+  // Lower case names of the image types known when the snapshot was loaded
+  private final Set<String> imageTypes;
+  // Active rampups of EXPERIMENTAL and STABLE versions by image type
+  private final Map<String, List<ImageRampup>> rampups;
+  // Image versions referred by the rampups, by lower case image type and version
+  private final Map<String, ImageVersion> rampupVersions;
+  private final Map<String, ImageVersion> activeVersions;
+
+  private ImageRampupSnapshot(final long version, final long loadTime,
+      final Set<String> imageTypes, final Map<String, List<ImageRampup>> rampups,
+      final Map<String, ImageVersion> rampupVersions,
+      final Map<String, ImageVersion> activeVersions) {
+    this.version = version;
+    this.loadTime = loadTime;
+    this.imageTypes = Collections.unmodifiableSet(imageTypes);
+    this.rampups = Collections.unmodifiableMap(rampups);
+    this.rampupVersions = Collections.unmodifiableMap(rampupVersions);
+    this.activeVersions = Collections.unmodifiableMap(activeVersions);
+  }
+
+  /**
+   * Load a snapshot from the database.
+   *
+   * @param version   version of the snapshot, increasing with each load
+   * @param dbLookup  used to fetch the image versions referred by the rampups
+   */
+  static ImageRampupSnapshot load(final long version, final ImageTypeDao imageTypeDao,
+      final ImageRampupDao imageRampupDao, final ImageVersionLookup dbLookup) {
+    final long loadTime = System.currentTimeMillis();
+    final Set<String> imageTypes = new HashSet<>();
+    for (final ImageType imageType : imageTypeDao.getAllImageTypes()) {
+      imageTypes.add(imageType.getName().toLowerCase());
+    }
+
+    // Keep the same rampups as ImageRampupDao.getRampupByImageTypes, i.e. ignore the UNSTABLE
+    // versions.
+    final Map<String, List<ImageRampup>> rampups = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    final Map<String, ImageVersion> rampupVersions = new HashMap<>();
+    imageRampupDao.getRampupForAllImageTypes().forEach((imageType, imageRampups) -> {
+      final List<ImageRampup> stableRampups = imageRampups.stream()
+          .filter(rampup -> rampup.getStabilityTag() != StabilityTag.UNSTABLE)
+          .collect(Collectors.toList());
+      if (stableRampups.isEmpty()) {
+        return;
+      }
+      rampups.put(imageType, Collections.unmodifiableList(stableRampups));
+      for (final ImageRampup rampup : stableRampups) {
+        dbLookup.fetchImageVersion(imageType, rampup.getImageVersion()).ifPresent(
+            imageVersion -> rampupVersions
+                .put(versionKey(imageType, rampup.getImageVersion()), imageVersion));
+      }
+    });
+
+    // The latest active version is looked up one image type at a time, exactly as a dispatch would
+    final Map<String, ImageVersion> activeVersions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (final String imageType : imageTypes) {
+      activeVersions.putAll(dbLookup.getActiveImageVersions(Collections.singleton(imageType)));
+    }
+    return new ImageRampupSnapshot(version, loadTime, imageTypes, rampups, rampupVersions,
+        activeVersions);
+  }
+
+  private static String versionKey(final String imageType, final String imageVersion) {
+    return imageType.toLowerCase() + ":" + imageVersion.toLowerCase();
+  }
+
+  long getVersion() {
+    return this.version;
+  }
+
+  long getLoadTime() {
+    return this.loadTime;
+  }
+
+  /**
+   * @return true if all the given image types were known when the snapshot was loaded.
+   */
+  boolean containsImageTypes(final Set<String> imageTypes) {
+    return imageTypes.stream().allMatch(type -> this.imageTypes.contains(type.toLowerCase()));
+  }
+
+  /**
+   * @return the active rampups of the given image types.
+   */
+  Map<String, List<ImageRampup>> getRampups(final Set<String> imageTypes) {
+    final Set<String> imageTypesInLowerCase =
+        imageTypes.stream().map(String::toLowerCase).collect(Collectors.toSet());
+    final Map<String, List<ImageRampup>> imageTypeRampups =
+        new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    this.rampups.forEach((imageType, imageRampups) -> {
+      if (imageTypesInLowerCase.contains(imageType.toLowerCase())) {
+        imageTypeRampups.put(imageType, imageRampups);
+      }
+    });
+    return imageTypeRampups;
+  }
+
+  @Override
+  public Optional<ImageVersion> fetchImageVersion(final String imageType,
+      final String imageVersion) {
+    return Optional.ofNullable(this.rampupVersions.get(versionKey(imageType, imageVersion)));
+  }
+
+  @Override
+  public Map<String, ImageVersion> getActiveImageVersions(final Set<String> imageTypes) {
+    final Map<String, ImageVersion> imageTypeActiveVersionMap =
+        new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (final String imageType : imageTypes) {
+      final ImageVersion imageVersion = this.activeVersions.get(imageType);
+      if (imageVersion != null) {
+        imageTypeActiveVersionMap.put(imageVersion.getName(), imageVersion);
+      }
+    }
+    return imageTypeActiveVersionMap;
+  }
+}
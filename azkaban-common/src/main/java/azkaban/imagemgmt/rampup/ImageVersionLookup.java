@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.imagemgmt.rampup;
+
+import azkaban.imagemgmt.models.ImageVersion;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Source of the image versions used by the version selection of {@link ImageRampupManagerImpl},
+ * either the database or an {@link ImageRampupSnapshot}.
+ */
+interface ImageVersionLookup {
+
+  /**
+   * @return the image version of the given image type and version, if it exists.
+   */
+  Optional<ImageVersion> fetchImageVersion(String imageType, String imageVersion);
+
+  /**
+   * @return the latest active image version of each given image type which has one.
+   */
+  Map<String, ImageVersion> getActiveImageVersions(Set<String> imageTypes);
+}
@@ -20,6 +20,7 @@ import azkaban.utils.Props;
 import com.google.common.annotations.VisibleForTesting;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +37,7 @@ public class JobClassLoader extends URLClassLoader {
   private static final String AZKABAN_SECURITY_CLASS = "azkaban.security";
   private final String jobId;
   private final ClassLoader parent;
+  private final AtomicInteger definedClassCount = new AtomicInteger();
 
   public JobClassLoader(final URL[] urls, final ClassLoader parent, final String jobId) {
     super(urls, parent);
@@ -94,6 +96,7 @@ public class JobClassLoader extends URLClassLoader {
       try {
         c = findClass(name);
         if (c != null) {
+          this.definedClassCount.incrementAndGet();
           LOG.debug("Loaded class: " + name + " " + " for job " + this.jobId);
         }
       } catch (final ClassNotFoundException e) {
@@ -123,6 +126,13 @@ public class JobClassLoader extends URLClassLoader {
     return c;
   }
 
+  /**
+   * @return the number of classes defined by this classloader from its URLs.
+   */
+  public int getDefinedClassCount() {
+    return this.definedClassCount.get();
+  }
+
   @VisibleForTesting
   void addURL(Class clazz) {
     super.addURL(clazz.getProtectionDomain().getCodeSource().getLocation());
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobtype;
+
+import azkaban.jobExecutor.JobClassLoader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.apache.log4j.Logger;
+
+/**
+ * Shares a {@link JobClassLoader} between the jobs of the same jobtype, target cluster and
+ * classpath, so that the jobtype jars are opened and its classes are linked once per executor
+ * instead of once per job.
+ * <p>
+ * The class loaders are reference counted. A class loader evicted by a reload of the jobtype
+ * plugins is closed once the last job using it releases it.
+ */
+class JobClassLoaderCache {
+
+  private static final Logger LOGGER = Logger.getLogger(JobClassLoaderCache.class);
+  private static final String METASPACE_POOL_NAME = "Metaspace";
+
+  private final Map<Key, Entry> entries = new HashMap<>();
+  // All the class loaders which are cached or still used by a job after being evicted
+  private final Map<JobClassLoader, Entry> entriesByLoader = new IdentityHashMap<>();
+
+  /**
+   * Get the class loader of the given jobtype and cluster, creating it if needed. The caller must
+   * {@link #release(JobClassLoader)} it once the job is finished.
+   *
+   * @param clusterId id of the cluster the job is routed to, null if it isn't routed
+   */
+  synchronized JobClassLoader acquire(final String jobType, final String clusterId,
+      final URL[] urls, final ClassLoader parent) {
+    final Key key = new Key(jobType, clusterId, urls, parent);
+    Entry entry = this.entries.get(key);
+    if (entry == null) {
+      final String loaderId = clusterId == null ? jobType : jobType + "@" + clusterId;
+      entry = new Entry(key, new JobClassLoader(urls, parent, loaderId));
+      this.entries.put(key, entry);
+      this.entriesByLoader.put(entry.loader, entry);
+      LOGGER.info("Created class loader " + loaderId + ", " + this.entriesByLoader.size()
+          + " jobtype class loaders in use");
+    }
+    entry.refCount++;
+    return entry.loader;
+  }
+
+  /**
+   * Release a class loader acquired for a job.
+   */
+  synchronized void release(final JobClassLoader loader) {
+    final Entry entry = this.entriesByLoader.get(loader);
+    if (entry == null) {
+      LOGGER.warn("Released class loader is not cached: " + loader);
+      return;
+    }
+    entry.refCount--;
+    if (entry.refCount <= 0 && entry.evicted) {
+      close(entry);
+    }
+  }
+
+  /**
+   * Evict all the class loaders, e.g. because the jobtype plugins were reloaded. The class loaders
+   * still used by jobs are closed once they are released.
+   */
+  synchronized void evictAll() {
+    final List<Entry> evicted = new ArrayList<>(this.entries.values());
+    this.entries.clear();
+    for (final Entry entry : evicted) {
+      entry.evicted = true;
+      if (entry.refCount <= 0) {
+        close(entry);
+      }
+    }
+    LOGGER.info("Evicted " + evicted.size() + " jobtype class loaders");
+  }
+
+  private void close(final Entry entry) {
+    this.entriesByLoader.remove(entry.loader);
+    try {
+      entry.loader.close();
+    } catch (final IOException e) {
+      LOGGER.warn("Failed to close class loader of jobtype " + entry.key.jobType, e);
+    }
+  }
+
+  /**
+   * @return the number of class loaders which are cached or still used by a job.
+   */
+  synchronized int getClassLoaderCount() {
+    return this.entriesByLoader.size();
+  }
+
+  /**
+   * @return the number of jobs using a cached class loader.
+   */
+  synchronized int getReferenceCount() {
+    return this.entriesByLoader.values().stream().mapToInt(entry -> entry.refCount).sum();
+  }
+
+  /**
+   * Estimate the metaspace used by each class loader from the average metaspace used by a loaded
+   * class and the number of classes the loaders defined.
+   *
+   * @return the average estimated metaspace of a class loader in bytes, 0 if unknown.
+   */
+  long getAverageMetaspacePerClassLoader() {
+    final List<JobClassLoader> loaders;
+    synchronized (this) {
+      loaders = new ArrayList<>(this.entriesByLoader.keySet());
+    }
+    final long loadedClassCount = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+    if (loaders.isEmpty() || loadedClassCount == 0) {
+      return 0;
+    }
+    long metaspaceUsed = 0;
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (METASPACE_POOL_NAME.equals(pool.getName())) {
+        metaspaceUsed = pool.getUsage().getUsed();
+      }
+    }
+    final long definedClassCount =
+        loaders.stream().mapToLong(JobClassLoader::getDefinedClassCount).sum();
+    return metaspaceUsed / loadedClassCount * definedClassCount / loaders.size();
+  }
+
+  private static class Entry {
+
+    private final Key key;
+    private final JobClassLoader loader;
+    private int refCount = 0;
+    private boolean evicted = false;
+
+    private Entry(final Key key, final JobClassLoader loader) {
+      this.key = key;
+      this.loader = loader;
+    }
+  }
+
+  /**
+   * The URLs are compared as strings since {@link URL#equals(Object)} may resolve host names. The
+   * parent class loaders are compared by identity.
+   */
+  private static class Key {
+
+    private final String jobType;
+    private final String clusterId;
+    private final List<String> urls;
+    private final ClassLoader parent;
+
+    private Key(final String jobType, final String clusterId, final URL[] urls,
+        final ClassLoader parent) {
+      this.jobType = jobType;
+      this.clusterId = clusterId;
+      this.urls = Arrays.stream(urls).map(URL::toString).collect(Collectors.toList());
+      this.parent = parent;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return this.parent == key.parent
+          && Objects.equals(this.jobType, key.jobType)
+          && Objects.equals(this.clusterId, key.clusterId)
+          && this.urls.equals(key.urls);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.jobType, this.clusterId, this.urls,
+          System.identityHashCode(this.parent));
+    }
+  }
+}
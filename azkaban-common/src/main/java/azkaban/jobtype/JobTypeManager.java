@@ -30,6 +30,7 @@ import azkaban.jobExecutor.utils.JobExecutionException;
 import azkaban.utils.Props;
 import azkaban.utils.PropsUtils;
 import azkaban.utils.Utils;
+import com.codahale.metrics.Histogram;
 import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
 import java.io.IOException;
@@ -53,9 +54,14 @@ public class JobTypeManager {
   private final ClassLoader parentLoader;
   private final Props globalProperties;
   private final ClusterRouter clusterRouter;
-  private JobTypePluginSet pluginSet;
+  // Null if each job gets its own class loader
+  private final JobClassLoaderCache jobClassLoaderCache;
+  // Null to load all the jobtype plugins, otherwise the other plugins are loaded on first use
+  private final Set<String> jobTypesToLoad;
+  private volatile JobTypePluginSet pluginSet;
   // Only used to load keyStore.
   private Props cachedCommonPluginLoadProps;
+  private volatile Histogram jobBuildTimeHistogram;
 
   @VisibleForTesting
   public JobTypeManager(final String jobtypePluginDir, final Props globalProperties,
@@ -65,10 +71,34 @@ public class JobTypeManager {
 
   public JobTypeManager(final String jobtypePluginDir, final Props globalProperties,
     final ClassLoader parentClassLoader, ClusterRouter clusterRouter) {
+    this(jobtypePluginDir, globalProperties, parentClassLoader, clusterRouter, false);
+  }
+
+  /**
+   * @param jobClassLoaderCacheEnabled whether the jobs of the same jobtype and cluster share their
+   *                                   class loader
+   */
+  public JobTypeManager(final String jobtypePluginDir, final Props globalProperties,
+      final ClassLoader parentClassLoader, final ClusterRouter clusterRouter,
+      final boolean jobClassLoaderCacheEnabled) {
+    this(jobtypePluginDir, globalProperties, parentClassLoader, clusterRouter,
+        jobClassLoaderCacheEnabled, null);
+  }
+
+  /**
+   * @param jobTypesToLoad the jobtype plugins to load upfront, e.g. the ones used by the flow of a
+   *                       flow container, null to load all of them. The other plugins are loaded
+   *                       when a job uses them.
+   */
+  public JobTypeManager(final String jobtypePluginDir, final Props globalProperties,
+      final ClassLoader parentClassLoader, final ClusterRouter clusterRouter,
+      final boolean jobClassLoaderCacheEnabled, final Set<String> jobTypesToLoad) {
     this.jobTypePluginDir = jobtypePluginDir;
+    this.jobTypesToLoad = jobTypesToLoad;
     this.parentLoader = parentClassLoader;
     this.globalProperties = globalProperties;
     this.clusterRouter = clusterRouter;
+    this.jobClassLoaderCache = jobClassLoaderCacheEnabled ? new JobClassLoaderCache() : null;
     loadPlugins();
   }
 
@@ -92,6 +122,10 @@ public class JobTypeManager {
     // Swap the plugin set. If exception is thrown, then plugin isn't swapped.
     synchronized (this) {
       this.pluginSet = plugins;
+      // The class loaders of the previous plugins must not be used by the next jobs
+      if (this.jobClassLoaderCache != null) {
+        this.jobClassLoaderCache.evictAll();
+      }
     }
   }
 
@@ -161,8 +195,13 @@ public class JobTypeManager {
     plugins.setCommonPluginLoadProps(commonPluginLoadProps);
 
     // Loading job types
+    int skippedJobTypes = 0;
     for (final File dir : jobPluginsDir.listFiles()) {
       if (dir.isDirectory() && dir.canRead()) {
+        if (this.jobTypesToLoad != null && !this.jobTypesToLoad.contains(dir.getName())) {
+          skippedJobTypes++;
+          continue;
+        }
         try {
           loadJobTypes(dir, plugins);
         } catch (final Exception e) {
@@ -171,6 +210,9 @@ public class JobTypeManager {
         }
       }
     }
+    if (skippedJobTypes > 0) {
+      LOGGER.info("Skipped " + skippedJobTypes + " jobtypes which will be loaded on first use");
+    }
   }
 
   private void loadJobTypes(final File pluginDir, final JobTypePluginSet plugins)
@@ -333,9 +375,8 @@ public class JobTypeManager {
    * @return job parameters that can be used to create a job instance
    */
   public JobParams createJobParams(final String jobId, Props jobProps, final Logger logger) {
-    // This is final because during build phase, you should never need to swap
-    // the pluginSet for safety reasons
-    final JobTypePluginSet pluginSet = getJobTypePluginSet();
+    final long startTime = System.currentTimeMillis();
+    JobClassLoader jobClassLoader = null;
 
     try {
       final String jobType = jobProps.getString("type");
@@ -344,6 +385,9 @@ public class JobTypeManager {
         throw new JobExecutionException(String.format(
             "The 'type' parameter for job[%s] is null or empty", jobProps));
       }
+      // This is final because during build phase, you should never need to swap
+      // the pluginSet for safety reasons
+      final JobTypePluginSet pluginSet = getJobTypePluginSet(jobType);
 
       logger.info("Building " + jobType + " job executor. ");
 
@@ -361,19 +405,26 @@ public class JobTypeManager {
       final Collection<String> components = getClusterComponents(jobProps,
           pluginSet.getPluginLoaderProps(jobType), false);
       ClassLoader jobContextClassLoader = this.parentLoader;
+      String targetClusterId = null;
       if (!components.isEmpty()) {
         targetCluster = this.clusterRouter.getCluster(jobId, jobProps, logger,
             components);
         if (targetCluster != null && !Cluster.UNKNOWN.equals(targetCluster)) {
           jobContextClassLoader = targetCluster.getSecurityManagerClassLoader();
+          targetClusterId = targetCluster.clusterId;
           jobProps.put(CommonJobProperties.TARGET_CLUSTER_ID, targetCluster.clusterId);
         }
       }
       logger.info(String.format("JobClassLoader URLs: %s", jobClassLoaderUrls.stream()
           .map(URL::toString).collect(Collectors.joining(", "))));
-      final ClassLoader jobClassLoader = new JobClassLoader(
-          jobClassLoaderUrls.toArray(new URL[jobClassLoaderUrls.size()]),
-          jobContextClassLoader, jobId);
+      final URL[] jobClassLoaderUrlArray =
+          jobClassLoaderUrls.toArray(new URL[jobClassLoaderUrls.size()]);
+      if (this.jobClassLoaderCache != null) {
+        jobClassLoader = this.jobClassLoaderCache.acquire(jobType, targetClusterId,
+            jobClassLoaderUrlArray, jobContextClassLoader);
+      } else {
+        jobClassLoader = new JobClassLoader(jobClassLoaderUrlArray, jobContextClassLoader, jobId);
+      }
 
 
       // load the jobtype from JobClassLoader
@@ -399,21 +450,75 @@ public class JobTypeManager {
       jobProps.putAll(nonOverriddableClusterProps);
       jobProps = PropsUtils.resolveProps(jobProps);
 
-      return new JobParams(jobTypeClass, jobProps, pluginSet.getPluginPrivateProps(jobType),
-          pluginLoadProps, jobContextClassLoader);
+      final JobParams jobParams = new JobParams(jobTypeClass, jobProps,
+          pluginSet.getPluginPrivateProps(jobType), pluginLoadProps, jobContextClassLoader,
+          jobClassLoader);
+      final Histogram histogram = this.jobBuildTimeHistogram;
+      if (histogram != null) {
+        histogram.update(System.currentTimeMillis() - startTime);
+      }
+      return jobParams;
     } catch (final Exception e) {
       logger.error("Failed to build job executor for job " + jobId
           + e.getMessage());
+      releaseCachedJobClassLoader(jobClassLoader);
       throw new JobTypeManagerException("Failed to build job executor for job "
           + jobId, e);
     } catch (final Throwable t) {
       logger.error(
           "Failed to build job executor for job " + jobId + t.getMessage(), t);
+      releaseCachedJobClassLoader(jobClassLoader);
       throw new JobTypeManagerException("Failed to build job executor for job "
           + jobId, t);
     }
   }
 
+  /**
+   * Release the class loader of a job once it is finished, so that it can be closed if the jobtype
+   * plugins were reloaded in the meantime.
+   *
+   * @param jobParams the parameters the job was created with
+   */
+  public void releaseJobClassLoader(final JobParams jobParams) {
+    releaseCachedJobClassLoader(jobParams.jobClassLoader);
+  }
+
+  private void releaseCachedJobClassLoader(final JobClassLoader jobClassLoader) {
+    if (this.jobClassLoaderCache != null && jobClassLoader != null) {
+      this.jobClassLoaderCache.release(jobClassLoader);
+    }
+  }
+
+  /**
+   * @return the number of job class loaders shared between jobs, 0 if they aren't cached.
+   */
+  public int getJobClassLoaderCount() {
+    return this.jobClassLoaderCache == null ? 0 : this.jobClassLoaderCache.getClassLoaderCount();
+  }
+
+  /**
+   * @return the number of running jobs which use a shared class loader.
+   */
+  public int getJobClassLoaderReferenceCount() {
+    return this.jobClassLoaderCache == null ? 0 : this.jobClassLoaderCache.getReferenceCount();
+  }
+
+  /**
+   * @return the estimated metaspace used by a shared job class loader in bytes.
+   */
+  public long getAverageMetaspacePerJobClassLoader() {
+    return this.jobClassLoaderCache == null ? 0
+        : this.jobClassLoaderCache.getAverageMetaspacePerClassLoader();
+  }
+
+  /**
+   * Set the histogram recording the time it takes to create the parameters of a job, in
+   * milliseconds.
+   */
+  public void setJobBuildTimeHistogram(final Histogram jobBuildTimeHistogram) {
+    this.jobBuildTimeHistogram = jobBuildTimeHistogram;
+  }
+
   private static Props getClusterSpecificNonOverridableJobProps(final Props clusterSpecificJobProp) {
     final Props props = new Props();
     final String clusterClasspath =
@@ -501,15 +606,24 @@ public class JobTypeManager {
     public final Props jobProps;
     public final Props pluginLoadProps;
     public final Props pluginPrivateProps;
+    // The class loader the job class is loaded from
+    public final JobClassLoader jobClassLoader;
 
     public JobParams(final Class<? extends Object> jobClass, final Props jobProps,
                      final Props pluginPrivateProps, final Props pluginLoadProps,
                      final ClassLoader contextClassLoader) {
+      this(jobClass, jobProps, pluginPrivateProps, pluginLoadProps, contextClassLoader, null);
+    }
+
+    public JobParams(final Class<? extends Object> jobClass, final Props jobProps,
+                     final Props pluginPrivateProps, final Props pluginLoadProps,
+                     final ClassLoader contextClassLoader, final JobClassLoader jobClassLoader) {
       this.jobClass = jobClass;
       this.contextClassLoader = contextClassLoader;
       this.jobProps = jobProps;
       this.pluginLoadProps = pluginLoadProps;
       this.pluginPrivateProps = pluginPrivateProps;
+      this.jobClassLoader = jobClassLoader;
     }
   }
 
@@ -520,6 +634,27 @@ public class JobTypeManager {
     return this.pluginSet;
   }
 
+  /**
+   * Get the plugin set to build a job of the given jobtype, loading the jobtype if it was skipped
+   * when the plugins were loaded.
+   */
+  private synchronized JobTypePluginSet getJobTypePluginSet(final String jobType) {
+    if (this.jobTypesToLoad == null || this.pluginSet.getPluginClassName(jobType) != null
+        || this.jobTypePluginDir == null) {
+      return this.pluginSet;
+    }
+    final File pluginDir = new File(this.jobTypePluginDir, jobType);
+    if (!pluginDir.isDirectory() || !pluginDir.canRead()) {
+      return this.pluginSet;
+    }
+    LOGGER.info("Loading jobtype " + jobType + " on first use");
+    // The current plugin set may be used by running jobs, so load the jobtype into a copy
+    final JobTypePluginSet plugins = new JobTypePluginSet(this.pluginSet);
+    loadJobTypes(pluginDir, plugins);
+    this.pluginSet = plugins;
+    return plugins;
+  }
+
   /**
    * Expose cluster-specific libraries and native libraries through job properties.
    * if a router is configured, construct the properties based on cluster.properties
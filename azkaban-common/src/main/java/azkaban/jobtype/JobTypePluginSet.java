@@ -63,9 +63,9 @@ public class JobTypePluginSet {
     this.pluginPrivatePropsMap = new HashMap<>(clone.pluginPrivatePropsMap);
     this.commonJobProps = clone.commonJobProps;
     this.commonLoadProps = clone.commonLoadProps;
-    this.pluginJobPropsProcessor = clone.pluginJobPropsProcessor;
-    this.jobToClassName = clone.jobToClassName;
-    this.jobToClassLoaderURLs = clone.jobToClassLoaderURLs;
+    this.pluginJobPropsProcessor = new HashMap<>(clone.pluginJobPropsProcessor);
+    this.jobToClassName = new HashMap<>(clone.jobToClassName);
+    this.jobToClassLoaderURLs = new HashMap<>(clone.jobToClassLoaderURLs);
   }
 
   /**
@@ -17,6 +17,7 @@
 package azkaban.metrics;
 
 import azkaban.utils.Props;
+import java.util.function.Supplier;
 
 /**
  * Defines all the metrics emitted by containerized executions
@@ -73,6 +74,57 @@ public interface ContainerizationMetrics {
    */
   void addTimeToDispatch(final long time);
 
+  /**
+   * Update a histogram of time durations taken by the creation of a container for a flow
+   * @param time
+   */
+  void addTimeToCreateContainer(final long time);
+
+  /**
+   * Update a histogram of time durations from pod requested to pod ready
+   * @param time
+   */
+  void addTimeFromPodRequestedToReady(final long time);
+
+  /**
+   * Record a pod spec built from a cached template
+   */
+  void markPodSpecTemplateCacheHit();
+
+  /**
+   * Record a pod spec whose template had to be built
+   */
+  void markPodSpecTemplateCacheMiss();
+
+  /**
+   * Update a histogram of time durations taken to build a pod spec template
+   * @param time
+   */
+  void addPodSpecTemplateBuildTime(final long time);
+
+  /**
+   * Record an execution assigned to a standby flow container
+   */
+  void markStandbyPodHit();
+
+  /**
+   * Record an execution for which no standby flow container was available
+   */
+  void markStandbyPodMiss();
+
+  /**
+   * Update a histogram of time durations standby flow containers stayed idle, until they were
+   * assigned an execution or deleted
+   * @param time
+   */
+  void addStandbyPodIdleTime(final long time);
+
+  /**
+   * Add a gauge of the number of idle standby flow containers
+   * @param standbyPodCount
+   */
+  void addStandbyPodCountGauge(final Supplier<Integer> standbyPodCount);
+
   /**
    * Record a flow dispatched to executor
    */
@@ -20,6 +20,7 @@ import azkaban.utils.Props;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.google.inject.Inject;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,7 +34,10 @@ public class ContainerizationMetricsImpl implements ContainerizationMetrics {
   private Meter podCompleted, podRequested, podScheduled, initContainerRunning,
       appContainerStarting, podReady, podInitFailure, podAppFailure;
   private Meter flowSubmitToExecutor, flowSubmitToContainer;
-  private Histogram timeToDispatch;
+  private Meter podSpecTemplateCacheHit, podSpecTemplateCacheMiss;
+  private Meter standbyPodHit, standbyPodMiss;
+  private Histogram timeToDispatch, timeToCreateContainer, timeFromPodRequestedToReady,
+      podSpecTemplateBuildTime, standbyPodIdleTime;
 
   @Inject
   public ContainerizationMetricsImpl(MetricsManager metricsManager) {
@@ -54,6 +58,19 @@ public class ContainerizationMetricsImpl implements ContainerizationMetrics {
     this.flowSubmitToExecutor = this.metricsManager.addMeter("Flow-Submit-To-Executor-Meter");
     this.flowSubmitToContainer = this.metricsManager.addMeter("Flow-Submit-To-Container-Meter");
     this.timeToDispatch = this.metricsManager.addHistogram("Time-To-Dispatch-Pod-Histogram");
+    this.timeToCreateContainer =
+        this.metricsManager.addHistogram("Time-To-Create-Container-Histogram");
+    this.timeFromPodRequestedToReady =
+        this.metricsManager.addHistogram("Time-From-Pod-Requested-To-Ready-Histogram");
+    this.podSpecTemplateCacheHit =
+        this.metricsManager.addMeter("Pod-Spec-Template-Cache-Hit-Meter");
+    this.podSpecTemplateCacheMiss =
+        this.metricsManager.addMeter("Pod-Spec-Template-Cache-Miss-Meter");
+    this.podSpecTemplateBuildTime =
+        this.metricsManager.addHistogram("Pod-Spec-Template-Build-Time-Histogram");
+    this.standbyPodHit = this.metricsManager.addMeter("Standby-Pod-Hit-Meter");
+    this.standbyPodMiss = this.metricsManager.addMeter("Standby-Pod-Miss-Meter");
+    this.standbyPodIdleTime = this.metricsManager.addHistogram("Standby-Pod-Idle-Time-Histogram");
   }
 
   @Override
@@ -108,6 +125,39 @@ public class ContainerizationMetricsImpl implements ContainerizationMetrics {
   @Override
   public void addTimeToDispatch(final long time) { timeToDispatch.update(time); }
 
+  @Override
+  public void addTimeToCreateContainer(final long time) { timeToCreateContainer.update(time); }
+
+  @Override
+  public void addTimeFromPodRequestedToReady(final long time) {
+    timeFromPodRequestedToReady.update(time);
+  }
+
+  @Override
+  public void markPodSpecTemplateCacheHit() { podSpecTemplateCacheHit.mark(); }
+
+  @Override
+  public void markPodSpecTemplateCacheMiss() { podSpecTemplateCacheMiss.mark(); }
+
+  @Override
+  public void addPodSpecTemplateBuildTime(final long time) {
+    podSpecTemplateBuildTime.update(time);
+  }
+
+  @Override
+  public void markStandbyPodHit() { standbyPodHit.mark(); }
+
+  @Override
+  public void markStandbyPodMiss() { standbyPodMiss.mark(); }
+
+  @Override
+  public void addStandbyPodIdleTime(final long time) { standbyPodIdleTime.update(time); }
+
+  @Override
+  public void addStandbyPodCountGauge(final Supplier<Integer> standbyPodCount) {
+    this.metricsManager.addGauge("Standby-Pod-Count", standbyPodCount);
+  }
+
   @Override
   public void markFlowSubmitToExecutor() { flowSubmitToExecutor.mark(); }
 
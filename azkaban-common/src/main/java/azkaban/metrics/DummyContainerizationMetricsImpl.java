@@ -16,6 +16,7 @@
 package azkaban.metrics;
 
 import azkaban.utils.Props;
+import java.util.function.Supplier;
 import org.apache.log4j.Logger;
 
 /**
@@ -70,6 +71,42 @@ public class DummyContainerizationMetricsImpl implements ContainerizationMetrics
   public void addTimeToDispatch(long time) {
   }
 
+  @Override
+  public void addTimeToCreateContainer(long time) {
+  }
+
+  @Override
+  public void addTimeFromPodRequestedToReady(long time) {
+  }
+
+  @Override
+  public void markPodSpecTemplateCacheHit() {
+  }
+
+  @Override
+  public void markPodSpecTemplateCacheMiss() {
+  }
+
+  @Override
+  public void addPodSpecTemplateBuildTime(long time) {
+  }
+
+  @Override
+  public void markStandbyPodHit() {
+  }
+
+  @Override
+  public void markStandbyPodMiss() {
+  }
+
+  @Override
+  public void addStandbyPodIdleTime(long time) {
+  }
+
+  @Override
+  public void addStandbyPodCountGauge(Supplier<Integer> standbyPodCount) {
+  }
+
   @Override
   public void markFlowSubmitToExecutor() {
 
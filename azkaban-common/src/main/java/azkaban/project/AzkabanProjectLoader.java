@@ -41,13 +41,17 @@ import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.Utils;
 import azkaban.utils.ValidatorUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.zip.ZipFile;
 import javax.inject.Inject;
@@ -64,6 +68,7 @@ class AzkabanProjectLoader {
   private static final String DIRECTORY_FLOW_REPORT_KEY = "Directory Flow";
 
   private static final String TMP_MODIFIED_ZIP_POSTFIX = ".byte-ray.new";
+  private static final int DEFAULT_PROJECT_UPLOAD_PARALLELISM = 4;
 
   private final Props props;
 
@@ -78,6 +83,8 @@ class AzkabanProjectLoader {
   private final ExecutorLoader executorLoader;
   private final Storage storage;
   private final ValidatorUtils validatorUtils;
+  // Reads the files of uploaded projects concurrently, or null to read them one after the other.
+  private final ExecutorService uploadExecutor;
 
   @Inject
   AzkabanProjectLoader(final Props props, final CommonMetrics commonMetrics, final ProjectLoader projectLoader,
@@ -106,12 +113,29 @@ class AzkabanProjectLoader {
     }
     this.projectVersionRetention = props.getInt(ConfigurationKeys.PROJECT_VERSION_RETENTION, 3);
     log.info("Project version retention is set to " + this.projectVersionRetention);
+
+    final int uploadParallelism = props.getInt(ConfigurationKeys.PROJECT_UPLOAD_PARALLELISM,
+        DEFAULT_PROJECT_UPLOAD_PARALLELISM);
+    this.uploadExecutor = uploadParallelism > 1 ? Executors.newFixedThreadPool(uploadParallelism,
+        new ThreadFactoryBuilder().setNameFormat("azk-project-upload-%d").setDaemon(true).build())
+        : null;
   }
 
   public Map<String, ValidationReport> uploadProject(final Project project,
       final File archive, final String fileType, final User uploader, final Props additionalProps,
       final String uploaderIPAddr)
       throws ProjectManagerException, ExecutorManagerException {
+    return uploadProject(project, archive, fileType, uploader, additionalProps, uploaderIPAddr,
+        new ProjectUploadTimer());
+  }
+
+  /**
+   * Upload a project, recording how long each phase of the upload takes in the timer.
+   */
+  public Map<String, ValidationReport> uploadProject(final Project project,
+      final File archive, final String fileType, final User uploader, final Props additionalProps,
+      final String uploaderIPAddr, final ProjectUploadTimer timer)
+      throws ProjectManagerException, ExecutorManagerException {
     // Set up project upload start time
     final long startUploadTimeStamp = System.currentTimeMillis();
     String errorMessage = null;
@@ -134,6 +158,7 @@ class AzkabanProjectLoader {
 
     try {
       folder = unzipProject(archive, fileType);
+      timer.endPhase(ProjectUploadTimer.UNZIP);
 
       final File startupDependencies = getStartupDependenciesFile(folder);
       final boolean isThinProject = startupDependencies.exists();
@@ -153,9 +178,11 @@ class AzkabanProjectLoader {
       if (reports.values().stream().anyMatch(r -> !r.getModifiedFiles().isEmpty() || !r.getRemovedFiles().isEmpty())) {
         updateProjectZip(archive, folder);
       }
+      timer.endPhase(ProjectUploadTimer.VALIDATION);
 
-      loader = this.flowLoaderFactory.createFlowLoader(folder);
+      loader = this.flowLoaderFactory.createFlowLoader(folder, this.uploadExecutor);
       reports.put(DIRECTORY_FLOW_REPORT_KEY, loader.loadProjectFlow(project, folder));
+      timer.endPhase(ProjectUploadTimer.FLOW_LOADING);
 
       // Check the validation report.
       if (!isReportStatusValid(reports, project)) {
@@ -167,6 +194,7 @@ class AzkabanProjectLoader {
       final File startupDependenciesOrNull = isThinProject ? startupDependencies : null;
       persistProject(project, loader, archive, folder, startupDependenciesOrNull, uploader,
           uploaderIPAddr);
+      timer.endPhase(ProjectUploadTimer.PERSISTENCE);
 
       if (isThinProject) {
         // Mark that we uploaded a thin zip in the metrics.
@@ -186,6 +214,7 @@ class AzkabanProjectLoader {
       } else{
         eventData.put("projectUploadTime", 0);
       }
+      eventData.put("projectUploadPhaseTimes", timer.toString());
       // Set zipType to default value
       eventData.putIfAbsent("zipType", "null");
       // Set upload project event status
@@ -284,7 +313,10 @@ class AzkabanProjectLoader {
         this.projectLoader.uploadProjectProperties(project, directoryFlowLoader.getPropsList());
 
       } else if (loader instanceof DirectoryYamlFlowLoader) {
-        uploadFlowFilesRecursively(projectDir, project, newProjectVersion);
+        final List<File> flowFiles = new ArrayList<>();
+        listFlowFilesRecursively(projectDir, flowFiles);
+        log.info("Uploading " + flowFiles.size() + " flow files");
+        this.projectLoader.uploadFlowFiles(project.getId(), newProjectVersion, flowFiles);
       } else {
         throw new ProjectManagerException("Invalid type of flow loader.");
       }
@@ -294,16 +326,11 @@ class AzkabanProjectLoader {
     }
   }
 
-  private void uploadFlowFilesRecursively(final File projectDir, final Project project, final int
-      newProjectVersion) {
-    for (final File file : projectDir.listFiles(new SuffixFilter(Constants.FLOW_FILE_SUFFIX))) {
-      final int newFlowVersion = this.projectLoader
-          .getLatestFlowVersion(project.getId(), newProjectVersion, file.getName()) + 1;
-      this.projectLoader
-          .uploadFlowFile(project.getId(), newProjectVersion, file, newFlowVersion);
-    }
+  private void listFlowFilesRecursively(final File projectDir, final List<File> flowFiles) {
+    flowFiles.addAll(
+        Arrays.asList(projectDir.listFiles(new SuffixFilter(Constants.FLOW_FILE_SUFFIX))));
     for (final File file : projectDir.listFiles(new DirFilter())) {
-      uploadFlowFilesRecursively(file, project, newProjectVersion);
+      listFlowFilesRecursively(file, flowFiles);
     }
   }
 
@@ -325,11 +352,10 @@ class AzkabanProjectLoader {
   }
 
   private File unzipFile(final File archiveFile) throws IOException {
-    final ZipFile zipfile = new ZipFile(archiveFile);
     final File unzipped = Utils.createTempDir(this.tempDir);
-    Utils.unzip(zipfile, unzipped);
-    zipfile.close();
-
+    try (final ZipFile zipfile = new ZipFile(archiveFile)) {
+      Utils.unzip(zipfile, unzipped);
+    }
     return unzipped;
   }
 
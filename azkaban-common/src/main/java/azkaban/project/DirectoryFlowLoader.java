@@ -27,15 +27,23 @@ import azkaban.project.FlowLoaderUtils.DirFilter;
 import azkaban.project.FlowLoaderUtils.SuffixFilter;
 import azkaban.project.validator.ValidationReport;
 import azkaban.utils.Props;
+import com.google.common.base.Throwables;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +58,10 @@ public class DirectoryFlowLoader implements FlowLoader {
 
   private static final Logger logger = LoggerFactory.getLogger(DirectoryFlowLoader.class);
   private final Props props;
+  // Reads the property and job files ahead of the walk of the project, or null to read them
+  // during the walk.
+  private final ExecutorService fileReader;
+  private Map<File, Future<Properties>> readFiles;
   private final Set<String> errors = new HashSet<>();
   private final Map<String, Flow> flowMap = new HashMap<>();
   private HashSet<String> rootNodes;
@@ -70,7 +82,18 @@ public class DirectoryFlowLoader implements FlowLoader {
    * @param props Properties to add.
    */
   public DirectoryFlowLoader(final Props props) {
+    this(props, null);
+  }
+
+  /**
+   * Creates a new DirectoryFlowLoader which reads the files of the project concurrently.
+   *
+   * @param props Properties to add.
+   * @param fileReader Executor reading the files, or null to read them one after the other.
+   */
+  public DirectoryFlowLoader(final Props props, final ExecutorService fileReader) {
     this.props = props;
+    this.fileReader = fileReader;
   }
 
   /**
@@ -128,9 +151,21 @@ public class DirectoryFlowLoader implements FlowLoader {
     this.nodeDependencies = new HashMap<>();
     this.rootNodes = new HashSet<>();
     this.flowDependencies = new HashMap<>();
+    this.readFiles = new HashMap<>();
+
+    // Parsing the files is independent of the order in which they are applied, so it can start
+    // for all of them up front.
+    if (this.fileReader != null) {
+      submitFileReads(projectDir);
+    }
 
     // Load all the props files and create the Node objects
-    loadProjectFromDir(projectDir.getPath(), projectDir, null);
+    try {
+      loadProjectFromDir(projectDir.getPath(), projectDir, null);
+    } finally {
+      this.readFiles.values().forEach(f -> f.cancel(true));
+      this.readFiles = null;
+    }
 
     // Create edges and find missing dependencies
     resolveDependencies();
@@ -147,6 +182,51 @@ public class DirectoryFlowLoader implements FlowLoader {
 
   }
 
+  private void submitFileReads(final File dir) {
+    for (final File file : dir.listFiles(new SuffixFilter(PROPERTY_SUFFIX))) {
+      this.readFiles.put(file, this.fileReader.submit(() -> readProperties(file)));
+    }
+    for (final File file : dir.listFiles(new SuffixFilter(JOB_SUFFIX))) {
+      this.readFiles.put(file, this.fileReader.submit(() -> readProperties(file)));
+    }
+    for (final File subDir : dir.listFiles(new DirFilter())) {
+      submitFileReads(subDir);
+    }
+  }
+
+  private static Properties readProperties(final File file) throws IOException {
+    final Properties properties = new Properties();
+    try (final InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+      properties.load(input);
+    }
+    return properties;
+  }
+
+  /**
+   * Load props from a file, which may have been read ahead already. This is equivalent to
+   * {@link Props#Props(Props, File)}.
+   */
+  private Props loadProps(final Props parent, final File file) throws IOException {
+    final Future<Properties> read = this.readFiles.remove(file);
+    final Properties properties;
+    if (read == null) {
+      properties = readProperties(file);
+    } else {
+      try {
+        properties = read.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while reading " + file.getName(), e);
+      } catch (final ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), IOException.class);
+        throw new IOException(e.getCause());
+      }
+    }
+    final Props loaded = new Props(parent, properties);
+    loaded.setSource(file.getPath());
+    return loaded;
+  }
+
   private void loadProjectFromDir(final String base, final File dir, Props parent) {
     final File[] propertyFiles = dir.listFiles(new SuffixFilter(PROPERTY_SUFFIX));
     Arrays.sort(propertyFiles);
@@ -154,7 +234,7 @@ public class DirectoryFlowLoader implements FlowLoader {
     for (final File file : propertyFiles) {
       final String relative = getRelativeFilePath(base, file.getPath());
       try {
-        parent = new Props(parent, file);
+        parent = loadProps(parent, file);
         parent.setSource(relative);
 
         final FlowProps flowProps = new FlowProps(parent);
@@ -180,7 +260,7 @@ public class DirectoryFlowLoader implements FlowLoader {
             this.jobPropsMap.remove(jobName);
             this.nodeMap.remove(jobName);
           } else {
-            final Props prop = new Props(parent, file);
+            final Props prop = loadProps(parent, file);
             final String relative = getRelativeFilePath(base, file.getPath());
             prop.setSource(relative);
 
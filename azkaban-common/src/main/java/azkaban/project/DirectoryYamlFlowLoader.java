@@ -27,15 +27,22 @@ import azkaban.flow.Node;
 import azkaban.project.FlowLoaderUtils.DirFilter;
 import azkaban.project.FlowLoaderUtils.SuffixFilter;
 import azkaban.project.validator.ValidationReport;
+import azkaban.utils.ConditionExpression;
 import azkaban.utils.Props;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
@@ -59,6 +66,8 @@ public class DirectoryYamlFlowLoader implements FlowLoader {
   public static final String VALID_CONDITION_OPERATORS = "&&|\\|\\||==|!=|>|>=|<|<=";
   private static final Logger logger = LoggerFactory.getLogger(DirectoryYamlFlowLoader.class);
   private final Props props;
+  // Parses the flow files concurrently, or null to parse them one after the other.
+  private final ExecutorService flowFileParser;
   private final Set<String> errors = new HashSet<>();
   private final Map<String, Flow> flowMap = new HashMap<>();
   private final Map<String, List<Edge>> edgeMap = new HashMap<>();
@@ -70,7 +79,19 @@ public class DirectoryYamlFlowLoader implements FlowLoader {
    * @param props Properties to add.
    */
   public DirectoryYamlFlowLoader(final Props props) {
+    this(props, null);
+  }
+
+  /**
+   * Creates a new DirectoryYamlFlowLoader which parses the flow files concurrently.
+   *
+   * @param props Properties to add.
+   * @param flowFileParser Executor parsing the flow files, or null to parse them one after the
+   * other.
+   */
+  public DirectoryYamlFlowLoader(final Props props, final ExecutorService flowFileParser) {
     this.props = props;
+    this.flowFileParser = flowFileParser;
   }
 
   /**
@@ -119,30 +140,68 @@ public class DirectoryYamlFlowLoader implements FlowLoader {
   private void convertYamlFiles(final File projectDir) {
     // Todo jamiesjc: convert project yaml file.
 
-    for (final File file : projectDir.listFiles(new SuffixFilter(Constants.FLOW_FILE_SUFFIX))) {
-      final NodeBeanLoader loader = new NodeBeanLoader();
-      try {
-        final NodeBean nodeBean = loader.load(file);
-        if (!loader.validate(nodeBean)) {
-          this.errors.add("Failed to validate nodeBean for " + file.getName()
-              + ". Duplicate nodes found or dependency undefined.");
-        } else {
-          final AzkabanFlow azkabanFlow = (AzkabanFlow) loader.toAzkabanNode(nodeBean);
-          if (this.flowMap.containsKey(azkabanFlow.getName())) {
+    final List<File> flowFiles = new ArrayList<>();
+    listFlowFiles(projectDir, flowFiles);
+
+    // Parsing is independent for each file, but the flows are converted in the order of the
+    // files so that errors such as duplicate flows are reported as before.
+    final List<Future<AzkabanFlow>> parsedFlows = new ArrayList<>(flowFiles.size());
+    for (final File file : flowFiles) {
+      parsedFlows.add(this.flowFileParser == null ? null
+          : this.flowFileParser.submit(() -> parseFlowFile(file)));
+    }
+
+    try {
+      for (int i = 0; i < flowFiles.size(); i++) {
+        final File file = flowFiles.get(i);
+        try {
+          final Future<AzkabanFlow> parsed = parsedFlows.get(i);
+          final AzkabanFlow azkabanFlow = parsed == null ? parseFlowFile(file) : getParsed(parsed);
+          if (azkabanFlow == null) {
+            this.errors.add("Failed to validate nodeBean for " + file.getName()
+                + ". Duplicate nodes found or dependency undefined.");
+          } else if (this.flowMap.containsKey(azkabanFlow.getName())) {
             this.errors.add("Duplicate flows found in the project with name " + azkabanFlow
                 .getName());
           } else {
             final Flow flow = convertAzkabanFlowToFlow(azkabanFlow, azkabanFlow.getName(), file);
             this.flowMap.put(flow.getId(), flow);
           }
+        } catch (final Exception e) {
+          this.errors.add("Error loading flow yaml file " + file.getName() + ":"
+              + e.getMessage());
         }
-      } catch (final Exception e) {
-        this.errors.add("Error loading flow yaml file " + file.getName() + ":"
-            + e.getMessage());
       }
+    } finally {
+      parsedFlows.stream().filter(Objects::nonNull).forEach(f -> f.cancel(true));
+    }
+  }
+
+  private static void listFlowFiles(final File dir, final List<File> flowFiles) {
+    flowFiles.addAll(Arrays.asList(dir.listFiles(new SuffixFilter(Constants.FLOW_FILE_SUFFIX))));
+    for (final File file : dir.listFiles(new DirFilter())) {
+      listFlowFiles(file, flowFiles);
+    }
+  }
+
+  /**
+   * @return the flow of the file, or null if the file doesn't hold a valid flow.
+   */
+  private static AzkabanFlow parseFlowFile(final File file) throws Exception {
+    final NodeBeanLoader loader = new NodeBeanLoader();
+    final NodeBean nodeBean = loader.load(file);
+    if (!loader.validate(nodeBean)) {
+      return null;
     }
-    for (final File file : projectDir.listFiles(new DirFilter())) {
-      convertYamlFiles(file);
+    return (AzkabanFlow) loader.toAzkabanNode(nodeBean);
+  }
+
+  private static AzkabanFlow getParsed(final Future<AzkabanFlow> parsed) throws Exception {
+    try {
+      return parsed.get();
+    } catch (final ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), Exception.class);
+      throw e;
     }
   }
 
@@ -245,6 +304,7 @@ public class DirectoryYamlFlowLoader implements FlowLoader {
     if (condition == null) {
       return;
     }
+    final int errorCount = this.errors.size();
     // First, remove all the whitespaces and parenthesis ().
     final String replacedCondition = condition.replaceAll("\\s+|\\(|\\)", "");
     // Second, split the condition by operators &&, ||, ==, !=, >, >=, <, <=
@@ -274,6 +334,15 @@ public class DirectoryYamlFlowLoader implements FlowLoader {
         }
       }
     }
+    // Finally, check the syntax of a condition with valid operands by compiling it, as the
+    // executor will.
+    if (this.errors.size() == errorCount) {
+      try {
+        ConditionExpression.compile(condition);
+      } catch (final IllegalArgumentException e) {
+        this.errors.add("Invalid condition for " + node.getId() + ": " + e.getMessage());
+      }
+    }
   }
 
   private void validateVariableSubstitution(final String operand, final AzkabanNode azkabanNode,
@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import javax.inject.Inject;
 import org.apache.commons.lang.ArrayUtils;
 import org.yaml.snakeyaml.Yaml;
@@ -54,10 +55,23 @@ public class FlowLoaderFactory {
    * @return the flow loader
    */
   public FlowLoader createFlowLoader(final File projectDir) throws ProjectManagerException {
+    return createFlowLoader(projectDir, null);
+  }
+
+  /**
+   * Creates flow loader based on project YAML file inside project directory, which reads the
+   * files of the project concurrently.
+   *
+   * @param projectDir the project directory
+   * @param fileReader the executor reading the files, or null to read them one after the other
+   * @return the flow loader
+   */
+  public FlowLoader createFlowLoader(final File projectDir, final ExecutorService fileReader)
+      throws ProjectManagerException {
     if (checkForValidProjectYamlFile(projectDir)) {
-      return new DirectoryYamlFlowLoader(this.props);
+      return new DirectoryYamlFlowLoader(this.props, fileReader);
     } else {
-      return new DirectoryFlowLoader(this.props);
+      return new DirectoryFlowLoader(this.props, fileReader);
     }
   }
 
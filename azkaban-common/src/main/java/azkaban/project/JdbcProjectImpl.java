@@ -49,6 +49,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -77,6 +78,12 @@ public class JdbcProjectImpl implements ProjectLoader {
   private static final int CHUCK_SIZE = 1024 * 1024 * 10;
   // Flow yaml files are usually small, set size limitation to 10 MB should be sufficient for now.
   private static final int MAX_FLOW_FILE_SIZE_IN_BYTES = 1024 * 1024 * 10;
+  private static final String INSERT_FLOW_FILES =
+      "INSERT INTO project_flow_files (project_id, project_version, flow_name, flow_version, "
+          + "modified_time, flow_file) values (?,?,?,?,?,?)";
+  private static final String SELECT_LATEST_FLOW_VERSIONS =
+      "SELECT flow_name, MAX(flow_version) FROM project_flow_files "
+          + "WHERE project_id=? AND project_version=? GROUP BY flow_name";
   private final DatabaseOperator dbOperator;
   private final File tempDir;
   private final EncodingType defaultEncodingType = EncodingType.GZIP;
@@ -662,7 +669,8 @@ public class JdbcProjectImpl implements ProjectLoader {
     List<ProjectLogEvent> events = null;
     try {
       events = this.dbOperator
-          .query(ProjectLogsResultHandler.SELECT_PROJECT_EVENTS_ORDER, logHandler, project.getId(),
+          .queryReadOnly(ProjectLogsResultHandler.SELECT_PROJECT_EVENTS_ORDER, logHandler,
+              project.getId(),
               num,
               skip);
     } catch (final SQLException e) {
@@ -976,35 +984,80 @@ public class JdbcProjectImpl implements ProjectLoader {
             "Uploading flow file %s, version %d for project %d, version %d, file length is [%d bytes]",
             flowFile.getName(), flowVersion, projectId, projectVersion, flowFile.length()));
 
+    final byte[] buf = readFlowFile(flowFile);
+    try {
+      this.dbOperator
+          .update(INSERT_FLOW_FILES, projectId, projectVersion, flowFile.getName(), flowVersion,
+              System.currentTimeMillis(), buf);
+    } catch (final SQLException e) {
+      throw new ProjectManagerException(
+          "Error uploading flow file " + flowFile.getName() + ", version " + flowVersion + ".",
+          e);
+    }
+  }
+
+  @Override
+  public void uploadFlowFiles(final int projectId, final int projectVersion,
+      final List<File> flowFiles) throws ProjectManagerException {
+    if (flowFiles.isEmpty()) {
+      return;
+    }
+    logger.info(String.format("Uploading %d flow files for project %d, version %d",
+        flowFiles.size(), projectId, projectVersion));
+
+    // Read the files before the transaction, so that it doesn't hold its connection longer.
+    final List<byte[]> contents = new ArrayList<>(flowFiles.size());
+    for (final File flowFile : flowFiles) {
+      contents.add(readFlowFile(flowFile));
+    }
+
+    final SQLTransaction<int[]> uploadFlowFilesTransaction = transOperator -> {
+      final Map<String, Integer> latestVersions = transOperator
+          .query(SELECT_LATEST_FLOW_VERSIONS, rs -> {
+            final Map<String, Integer> versions = new HashMap<>();
+            while (rs.next()) {
+              versions.put(rs.getString(1), rs.getInt(2));
+            }
+            return versions;
+          }, projectId, projectVersion);
+
+      final long modifiedTime = System.currentTimeMillis();
+      final Object[][] params = new Object[flowFiles.size()][];
+      for (int i = 0; i < flowFiles.size(); i++) {
+        final File flowFile = flowFiles.get(i);
+        // Flow files with the same name in different directories get consecutive versions, as
+        // they did when uploaded one by one.
+        final int flowVersion = latestVersions.merge(flowFile.getName(), 1, Integer::sum);
+        params[i] = new Object[]{projectId, projectVersion, flowFile.getName(), flowVersion,
+            modifiedTime, contents.get(i)};
+      }
+      return transOperator.batch(INSERT_FLOW_FILES, params);
+    };
+
+    try {
+      this.dbOperator.transaction(uploadFlowFilesTransaction);
+    } catch (final SQLException e) {
+      throw new ProjectManagerException("Error uploading flow files for project " + projectId
+          + ", version " + projectVersion + ".", e);
+    }
+  }
+
+  private byte[] readFlowFile(final File flowFile) throws ProjectManagerException {
     if (flowFile.length() > MAX_FLOW_FILE_SIZE_IN_BYTES) {
       throw new ProjectManagerException("Flow file length exceeds 10 MB limit.");
     }
 
     final byte[] buffer = new byte[MAX_FLOW_FILE_SIZE_IN_BYTES];
-    final String INSERT_FLOW_FILES =
-        "INSERT INTO project_flow_files (project_id, project_version, flow_name, flow_version, "
-            + "modified_time, "
-            + "flow_file) values (?,?,?,?,?,?)";
-
     try (final FileInputStream input = new FileInputStream(flowFile);
         final BufferedInputStream bufferedStream = new BufferedInputStream(input)) {
       final int size = bufferedStream.read(buffer);
       logger.info("Read bytes for " + flowFile.getName() + ", size:" + size);
-      final byte[] buf = Arrays.copyOfRange(buffer, 0, size);
-      try {
-        this.dbOperator
-            .update(INSERT_FLOW_FILES, projectId, projectVersion, flowFile.getName(), flowVersion,
-                System.currentTimeMillis(), buf);
-      } catch (final SQLException e) {
-        throw new ProjectManagerException(
-            "Error uploading flow file " + flowFile.getName() + ", version " + flowVersion + ".",
-            e);
-      }
+      return Arrays.copyOfRange(buffer, 0, size);
     } catch (final IOException e) {
       throw new ProjectManagerException(
           String.format(
-              "Error reading flow file %s, version: %d, length: [%d bytes].",
-              flowFile.getName(), flowVersion, flowFile.length()));
+              "Error reading flow file %s, length: [%d bytes].",
+              flowFile.getName(), flowFile.length()), e);
     }
   }
 
@@ -212,6 +212,13 @@ public interface ProjectLoader {
   void uploadFlowFile(int projectId, int projectVersion, File flowFile, int flowVersion)
       throws ProjectManagerException;
 
+  /**
+   * Uploads the flow files of a project version in a single transaction. Each file gets the
+   * next version of its flow file name.
+   */
+  void uploadFlowFiles(int projectId, int projectVersion, List<File> flowFiles)
+      throws ProjectManagerException;
+
   /**
    * Gets flow file that's uploaded.
    */
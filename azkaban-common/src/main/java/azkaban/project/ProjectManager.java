@@ -511,6 +511,17 @@ public class ProjectManager {
         .uploadProject(project, archive, fileType, uploader, additionalProps, uploaderIPAddr);
   }
 
+  /**
+   * Upload a project, recording how long each phase of the upload takes in the timer.
+   */
+  public Map<String, ValidationReport> uploadProject(final Project project,
+      final File archive, final String fileType, final User uploader, final Props additionalProps,
+      final String uploaderIPAddr, final ProjectUploadTimer timer)
+      throws ProjectManagerException, ExecutorManagerException {
+    return this.azkabanProjectLoader.uploadProject(project, archive, fileType, uploader,
+        additionalProps, uploaderIPAddr, timer);
+  }
+
   public void updateFlow(final Project project, final Flow flow)
       throws ProjectManagerException {
     this.projectLoader.updateFlow(project, flow.getVersion(), flow);
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.project;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Records how long each phase of a project upload takes.
+ */
+public class ProjectUploadTimer {
+
+  public static final String UNZIP = "unzip";
+  public static final String VALIDATION = "validation";
+  public static final String FLOW_LOADING = "flowLoading";
+  public static final String PERSISTENCE = "persistence";
+
+  private final Map<String, Long> phaseTimesMs = new LinkedHashMap<>();
+  private long phaseStartMs = System.currentTimeMillis();
+
+  /**
+   * End the current phase, and start the next one.
+   */
+  public synchronized void endPhase(final String phase) {
+    final long now = System.currentTimeMillis();
+    this.phaseTimesMs.merge(phase, now - this.phaseStartMs, Long::sum);
+    this.phaseStartMs = now;
+  }
+
+  /**
+   * @return the time of each ended phase in milliseconds, in the order they ended.
+   */
+  public synchronized Map<String, Long> getPhaseTimesMs() {
+    return new LinkedHashMap<>(this.phaseTimesMs);
+  }
+
+  /**
+   * @return the phase times as "phase=time" pairs, e.g. "unzip=120,validation=3400".
+   */
+  @Override
+  public synchronized String toString() {
+    return this.phaseTimesMs.entrySet().stream()
+        .map(e -> e.getKey() + "=" + e.getValue())
+        .collect(Collectors.joining(","));
+  }
+}
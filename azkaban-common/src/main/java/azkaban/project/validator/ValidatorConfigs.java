@@ -39,6 +39,15 @@ public class ValidatorConfigs {
    * Key for the config param specifying the link address with detailed information about auto-fix
    **/
   public static final String VALIDATOR_AUTO_FIX_PROMPT_LINK_PARAM = "project.validators.fix.link";
+  /**
+   * Key for the config param specifying how many validators may validate a project
+   * concurrently. The validators must then be thread-safe and must not modify the same files.
+   **/
+  public static final String VALIDATOR_PARALLELISM = "project.validators.parallelism";
+  /**
+   * Validators run one after the other by default
+   **/
+  public static final int DEFAULT_VALIDATOR_PARALLELISM = 1;
 
   private ValidatorConfigs() {
   } // Prevents instantiation
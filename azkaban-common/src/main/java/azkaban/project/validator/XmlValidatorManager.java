@@ -3,6 +3,8 @@ package azkaban.project.validator;
 import azkaban.project.Project;
 import azkaban.utils.HashUtils;
 import azkaban.utils.Props;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
@@ -14,6 +16,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -49,6 +55,8 @@ public class XmlValidatorManager implements ValidatorManager {
   private ValidatorClassLoader validatorLoader;
   private final String validatorDirPath;
   private Map<String, ProjectValidator> validators;
+  // Runs the validators of a project concurrently, or null to run them one after the other.
+  private final ExecutorService validationExecutor;
 
   /**
    * Load the validator plugins from the validator directory (default being validators/) into the
@@ -75,6 +83,12 @@ public class XmlValidatorManager implements ValidatorManager {
       logger.error("Cannot load all the validators.");
       throw new ValidatorManagerException(e);
     }
+
+    final int parallelism = props.getInt(ValidatorConfigs.VALIDATOR_PARALLELISM,
+        ValidatorConfigs.DEFAULT_VALIDATOR_PARALLELISM);
+    this.validationExecutor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism,
+        new ThreadFactoryBuilder().setNameFormat("azk-project-validator-%d").setDaemon(true)
+            .build()) : null;
   }
 
   private void initClassLoader() {
@@ -232,10 +246,35 @@ public class XmlValidatorManager implements ValidatorManager {
     final Props nonNullAdditionalProps = additionalProps == null ? new Props() : additionalProps;
 
     final Map<String, ValidationReport> reports = new LinkedHashMap<>();
+    if (this.validationExecutor == null || this.validators.size() < 2) {
+      for (final Entry<String, ProjectValidator> validator : this.validators.entrySet()) {
+        reports.put(validator.getKey(), validator.getValue().validateProject(project, projectDir, nonNullAdditionalProps));
+        logger.info("Validation status of validator " + validator.getKey() + " is "
+            + reports.get(validator.getKey()).getStatus());
+      }
+      return reports;
+    }
+
+    final Map<String, Future<ValidationReport>> futures = new LinkedHashMap<>();
     for (final Entry<String, ProjectValidator> validator : this.validators.entrySet()) {
-      reports.put(validator.getKey(), validator.getValue().validateProject(project, projectDir, nonNullAdditionalProps));
-      logger.info("Validation status of validator " + validator.getKey() + " is "
-          + reports.get(validator.getKey()).getStatus());
+      futures.put(validator.getKey(), this.validationExecutor.submit(
+          () -> validator.getValue().validateProject(project, projectDir, nonNullAdditionalProps)));
+    }
+    // Collect the reports in the order of the validators, as when they run one after the other.
+    for (final Entry<String, Future<ValidationReport>> future : futures.entrySet()) {
+      try {
+        reports.put(future.getKey(), future.getValue().get());
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        futures.values().forEach(f -> f.cancel(true));
+        throw new ValidatorManagerException(e);
+      } catch (final ExecutionException e) {
+        futures.values().forEach(f -> f.cancel(true));
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new ValidatorManagerException(e.getCause());
+      }
+      logger.info("Validation status of validator " + future.getKey() + " is "
+          + reports.get(future.getKey()).getStatus());
     }
     return reports;
   }
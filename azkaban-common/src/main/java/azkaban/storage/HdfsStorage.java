@@ -206,6 +206,29 @@ public class HdfsStorage implements Storage {
     return this.http.open(resolveAbsoluteDependencyURI(dep));
   }
 
+  /**
+   * With caching enabled, CachedHttpFileSystem loads the whole dependency into the cache before
+   * seeking to the offset, resuming the origin download itself if it breaks. The offset then
+   * only skips the bytes read from the cache already. With caching disabled, the seek resumes the
+   * origin download with a range request.
+   */
+  @Override
+  public InputStream getDependency(final Dependency dep, final long offset) throws IOException {
+    if (!dependencyFetchingEnabled()) {
+      throw new UnsupportedOperationException("Dependency fetching is not enabled.");
+    }
+
+    this.hdfsAuth.authorize();
+    final FSDataInputStream in = this.http.open(resolveAbsoluteDependencyURI(dep));
+    try {
+      in.seek(offset);
+    } catch (final IOException | RuntimeException e) {
+      in.close();
+      throw e;
+    }
+    return in;
+  }
+
   @Override
   public boolean dependencyFetchingEnabled() {
     return this.http != null;
@@ -223,6 +246,58 @@ public class HdfsStorage implements Storage {
     }
   }
 
+  @Override
+  public boolean supportsProjectBlobs() {
+    return true;
+  }
+
+  @Override
+  public boolean putProjectBlob(final int projectId, final String hash, final File localFile) {
+    this.hdfsAuth.authorize();
+    final Path targetPath = projectBlobPath(projectId, hash);
+    try {
+      if (this.hdfsFileContext.util().exists(targetPath)) {
+        return false;
+      }
+      final Path blobsPath = targetPath.getParent();
+      this.hdfsFileContext.mkdir(blobsPath, FsPermission.getDefault(), true);
+      // Each blob gets its own temp file since blobs of a project are uploaded concurrently.
+      final Path tmpPath = new Path(blobsPath, hash + "." + TMP_PROJECT_UPLOAD_FILENAME);
+      final Path localFilePath = new Path(localFile.getPath())
+          .makeQualified(FsConstants.LOCAL_FS_URI, null);
+      uploadLocalFile(localFilePath, tmpPath, this.hdfsFileContext);
+      // Blobs with the same hash have the same content, so overwriting one is harmless.
+      this.hdfsFileContext.rename(tmpPath, targetPath, Options.Rename.OVERWRITE);
+      return true;
+    } catch (final IOException e) {
+      log.error("error in putProjectBlob(): project: " + projectId + " hash: " + hash);
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public InputStream getProjectBlob(final int projectId, final String hash) throws IOException {
+    this.hdfsAuth.authorize();
+    return this.hdfsFileContext.open(projectBlobPath(projectId, hash));
+  }
+
+  @Override
+  public boolean deleteProjectBlob(final int projectId, final String hash) {
+    this.hdfsAuth.authorize();
+    final Path path = projectBlobPath(projectId, hash);
+    try {
+      return this.hdfsFileContext.delete(path, false);
+    } catch (final IOException e) {
+      log.error("HDFS project blob delete failed on " + path, e);
+      return false;
+    }
+  }
+
+  private Path projectBlobPath(final int projectId, final String hash) {
+    return new Path(new Path(new Path(this.projectRootUri.getPath(), String.valueOf(projectId)),
+        StorageUtils.PROJECT_BLOBS_DIR), hash);
+  }
+
   private Path fullProjectPath(final String key) {
     return new Path(this.projectRootUri.toString(), key);
   }
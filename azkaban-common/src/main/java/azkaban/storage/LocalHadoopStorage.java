@@ -11,6 +11,7 @@ import java.net.URI;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
@@ -47,6 +48,22 @@ public class LocalHadoopStorage extends LocalStorage {
     return this.http.open(resolveAbsoluteDependencyURI(dep));
   }
 
+  @Override
+  public InputStream getDependency(final Dependency dep, final long offset) throws IOException {
+    if (!dependencyFetchingEnabled()) {
+      throw new UnsupportedOperationException("Dependency fetching is not enabled.");
+    }
+
+    final FSDataInputStream in = this.http.open(resolveAbsoluteDependencyURI(dep));
+    try {
+      in.seek(offset);
+    } catch (final IOException | RuntimeException e) {
+      in.close();
+      throw e;
+    }
+    return in;
+  }
+
   @Override
   public boolean dependencyFetchingEnabled() {
     return this.http != null;
@@ -27,10 +27,13 @@ import azkaban.spi.ProjectStorageMetadata;
 import azkaban.spi.Storage;
 import azkaban.spi.StorageException;
 import azkaban.utils.FileIOUtils;
+import azkaban.utils.StorageUtils;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.io.FileUtils;
@@ -137,6 +140,50 @@ public class LocalStorage implements Storage {
     return result;
   }
 
+  @Override
+  public boolean supportsProjectBlobs() {
+    return true;
+  }
+
+  @Override
+  public boolean putProjectBlob(final int projectId, final String hash, final File localFile) {
+    final File targetFile = getProjectBlobFile(projectId, hash);
+    if (targetFile.exists()) {
+      return false;
+    }
+    final File blobDir = targetFile.getParentFile();
+    try {
+      FileUtils.forceMkdir(blobDir);
+      // Copy to a temp file first so that a partially written blob is never visible.
+      final File tmpFile = File.createTempFile(hash, ".tmp", blobDir);
+      try {
+        FileUtils.copyFile(localFile, tmpFile);
+        Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        FileUtils.deleteQuietly(tmpFile);
+      }
+    } catch (final IOException e) {
+      log.error("LocalStorage error in putProjectBlob(): project: " + projectId + " hash: " + hash);
+      throw new StorageException(e);
+    }
+    return true;
+  }
+
+  @Override
+  public InputStream getProjectBlob(final int projectId, final String hash) throws IOException {
+    return new FileInputStream(getProjectBlobFile(projectId, hash));
+  }
+
+  @Override
+  public boolean deleteProjectBlob(final int projectId, final String hash) {
+    return getProjectBlobFile(projectId, hash).delete();
+  }
+
+  private File getProjectBlobFile(final int projectId, final String hash) {
+    return new File(new File(new File(this.rootDirectory, String.valueOf(projectId)),
+        StorageUtils.PROJECT_BLOBS_DIR), hash);
+  }
+
   private String getRelativePath(final File targetFile) {
     return this.rootDirectory.toURI().relativize(targetFile.toURI()).getPath();
   }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import azkaban.utils.HashUtils;
+import azkaban.utils.JSONUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lists the files of a project version with the hash of their content, which addresses the blob
+ * holding the content in {@link azkaban.spi.Storage}. Versions of a project share the blobs of
+ * their unchanged files.
+ *
+ * A manifest is stored as JSON:
+ * <pre>{@code
+ * {
+ *   "formatVersion" : 1,
+ *   "directories" : [ "lib/" ],
+ *   "files" : [ { "path" : "lib/a.jar", "hash" : "<hex sha1>", "size" : 1024 } ]
+ * }
+ * }</pre>
+ */
+public class ProjectManifest {
+
+  private static final int FORMAT_VERSION = 1;
+
+  // Directories of the archive, including empty ones, by path ending with "/".
+  private final SortedSet<String> directories;
+  private final SortedMap<String, FileEntry> files;
+
+  ProjectManifest(final SortedSet<String> directories, final SortedMap<String, FileEntry> files) {
+    this.directories = directories;
+    this.files = files;
+  }
+
+  /**
+   * Create the manifest of a project archive by hashing the content of each of its files.
+   */
+  public static ProjectManifest fromZip(final ZipFile zip) throws IOException {
+    final SortedSet<String> directories = new TreeSet<>();
+    final SortedMap<String, FileEntry> files = new TreeMap<>();
+    final Enumeration<? extends ZipEntry> entries = zip.entries();
+    while (entries.hasMoreElements()) {
+      final ZipEntry entry = entries.nextElement();
+      if (entry.isDirectory()) {
+        directories.add(entry.getName());
+        continue;
+      }
+      try (final InputStream input = zip.getInputStream(entry)) {
+        final String hash = HashUtils.bytesHashToString(HashUtils.SHA1.getHashBytes(input));
+        files.put(entry.getName(), new FileEntry(entry.getName(), hash, entry.getSize()));
+      }
+    }
+    return new ProjectManifest(directories, files);
+  }
+
+  /**
+   * Read a manifest written by {@link #write(File)}.
+   */
+  public static ProjectManifest read(final File file) throws IOException {
+    return fromJson(JSONUtils.parseJSONFromFile(file), file.getPath());
+  }
+
+  /**
+   * Read a manifest written by {@link #write(File)} from a stream. The stream is not closed.
+   */
+  public static ProjectManifest read(final InputStream stream) throws IOException {
+    return fromJson(JSONUtils.parseJSONFromReader(
+        new InputStreamReader(stream, StandardCharsets.UTF_8)), "stream");
+  }
+
+  private static ProjectManifest fromJson(final Object object, final String source)
+      throws IOException {
+    final Map<String, Object> json = (Map<String, Object>) object;
+    final Object formatVersion = json.get("formatVersion");
+    if (!(formatVersion instanceof Number)
+        || ((Number) formatVersion).intValue() != FORMAT_VERSION) {
+      throw new IOException("Unsupported project manifest format " + formatVersion + " in "
+          + source);
+    }
+    final SortedSet<String> directories = new TreeSet<>(
+        (List<String>) json.getOrDefault("directories", Collections.emptyList()));
+    final SortedMap<String, FileEntry> files = new TreeMap<>();
+    for (final Map<String, Object> file : (List<Map<String, Object>>) json.get("files")) {
+      final String path = (String) file.get("path");
+      files.put(path, new FileEntry(path, (String) file.get("hash"),
+          ((Number) file.get("size")).longValue()));
+    }
+    return new ProjectManifest(directories, files);
+  }
+
+  public void write(final File file) throws IOException {
+    final List<Map<String, Object>> fileList = new ArrayList<>(this.files.size());
+    for (final FileEntry entry : this.files.values()) {
+      final Map<String, Object> file = new LinkedHashMap<>();
+      file.put("path", entry.getPath());
+      file.put("hash", entry.getHash());
+      file.put("size", entry.getSize());
+      fileList.add(file);
+    }
+    final Map<String, Object> json = new LinkedHashMap<>();
+    json.put("formatVersion", FORMAT_VERSION);
+    json.put("directories", new ArrayList<>(this.directories));
+    json.put("files", fileList);
+    JSONUtils.toJSON(json, file, false);
+  }
+
+  public Set<String> getDirectories() {
+    return Collections.unmodifiableSet(this.directories);
+  }
+
+  public Map<String, FileEntry> getFiles() {
+    return Collections.unmodifiableMap(this.files);
+  }
+
+  /**
+   * @return the distinct hashes of the files, and the size of their content.
+   */
+  public Map<String, Long> getBlobs() {
+    final Map<String, Long> blobs = new HashMap<>();
+    for (final FileEntry entry : this.files.values()) {
+      blobs.put(entry.getHash(), entry.getSize());
+    }
+    return blobs;
+  }
+
+  /**
+   * A file of the project.
+   */
+  public static class FileEntry {
+
+    private final String path;
+    private final String hash;
+    private final long size;
+
+    public FileEntry(final String path, final String hash, final long size) {
+      this.path = path;
+      this.hash = hash;
+      this.size = size;
+    }
+
+    /**
+     * @return the path of the file relative to the project directory, using "/" as separator.
+     */
+    public String getPath() {
+      return this.path;
+    }
+
+    public String getHash() {
+      return this.hash;
+    }
+
+    public long getSize() {
+      return this.size;
+    }
+  }
+}
@@ -21,22 +21,46 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.project.Project;
 import azkaban.project.ProjectFileHandler;
 import azkaban.project.ProjectLoader;
 import azkaban.spi.Storage;
 import azkaban.spi.StorageException;
 import azkaban.spi.ProjectStorageMetadata;
+import azkaban.storage.ProjectManifest.FileEntry;
 import azkaban.user.User;
 import azkaban.utils.HashUtils;
 import azkaban.utils.Props;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
@@ -50,10 +74,22 @@ public class ProjectStorageManager {
 
   private static final Logger log = Logger.getLogger(ProjectStorageManager.class);
 
+  /**
+   * File type of the project versions stored as a {@link ProjectManifest} of file blobs.
+   */
+  public static final String MANIFEST_FILE_TYPE = "manifest";
+  private static final String MANIFEST_SUFFIX = "." + MANIFEST_FILE_TYPE;
+  private static final int DEFAULT_DEDUP_PARALLELISM = 8;
+
   private final StorageCleaner storageCleaner;
   private final Storage storage;
   private final ProjectLoader projectLoader;
   private final File tempDir;
+  private final boolean dedupEnabled;
+  // Transfers the blobs of a project version. Null if the storage doesn't keep project blobs.
+  private final ExecutorService blobExecutor;
+  // Keeps the cleanup of a project's blobs from deleting those an upload of the project relies on
+  private final Striped<Lock> projectLocks = Striped.lock(64);
 
   @Inject
   public ProjectStorageManager(final Props props, final Storage storage,
@@ -64,6 +100,27 @@ public class ProjectStorageManager {
     this.projectLoader = requireNonNull(projectLoader, "projectLoader is null");
     this.storageCleaner = requireNonNull(storageCleaner, "storageCleanUp is null");
 
+    final boolean blobsSupported =
+        !(storage instanceof DatabaseStorage) && storage.supportsProjectBlobs();
+    this.dedupEnabled = blobsSupported
+        && props.getBoolean(ConfigurationKeys.AZKABAN_STORAGE_PROJECT_DEDUP_ENABLED, false);
+    if (blobsSupported) {
+      final int parallelism = props.getInt(
+          ConfigurationKeys.AZKABAN_STORAGE_PROJECT_DEDUP_PARALLELISM, DEFAULT_DEDUP_PARALLELISM);
+      checkArgument(parallelism > 0, String.format("Invalid value for %s : %d",
+          ConfigurationKeys.AZKABAN_STORAGE_PROJECT_DEDUP_PARALLELISM, parallelism));
+      this.blobExecutor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+          .setNameFormat("azk-project-blob-%d").setDaemon(true).build());
+    } else {
+      this.blobExecutor = null;
+    }
+    if (this.dedupEnabled) {
+      log.info("Project versions are stored as deduplicated file blobs.");
+    } else if (props.getBoolean(ConfigurationKeys.AZKABAN_STORAGE_PROJECT_DEDUP_ENABLED, false)) {
+      log.warn(ConfigurationKeys.AZKABAN_STORAGE_PROJECT_DEDUP_ENABLED
+          + " is ignored, since the storage doesn't support project blobs.");
+    }
+
     prepareTempDir();
   }
 
@@ -91,6 +148,18 @@ public class ProjectStorageManager {
       final File startupDependencies,
       final User uploader,
       final String uploaderIPAddr) {
+    if (this.dedupEnabled) {
+      final Lock lock = this.projectLocks.get(project.getId());
+      lock.lock();
+      try {
+        uploadDeduplicatedProject(project, version, localFile, startupDependencies, uploader,
+            uploaderIPAddr);
+      } finally {
+        lock.unlock();
+      }
+      return;
+    }
+
     byte[] md5 = null;
     if (!(this.storage instanceof DatabaseStorage)) {
       md5 = computeHash(localFile);
@@ -121,15 +190,141 @@ public class ProjectStorageManager {
     }
   }
 
+  /**
+   * Upload the files of the archive missing from the storage as blobs, then the manifest of the
+   * archive in place of the archive itself.
+   */
+  private void uploadDeduplicatedProject(
+      final Project project,
+      final int version,
+      final File localFile,
+      final File startupDependencies,
+      final User uploader,
+      final String uploaderIPAddr) {
+    File manifestDir = null;
+    try {
+      final ProjectManifest manifest;
+      int uploadedBlobs = 0;
+      try (final ZipFile zip = new ZipFile(localFile)) {
+        manifest = ProjectManifest.fromZip(zip);
+        final Set<String> previousBlobs = fetchBlobHashes(project.getId(), version - 1);
+        final List<Future<Boolean>> uploads = new ArrayList<>();
+        final Set<String> submitted = new HashSet<>(previousBlobs);
+        for (final FileEntry entry : manifest.getFiles().values()) {
+          if (submitted.add(entry.getHash())) {
+            uploads.add(this.blobExecutor.submit(
+                () -> uploadBlob(project.getId(), zip, entry)));
+          }
+        }
+        for (final Boolean uploaded : waitFor(uploads)) {
+          if (uploaded) {
+            uploadedBlobs++;
+          }
+        }
+      }
+
+      manifestDir = Files.createTempDirectory(this.tempDir.toPath(), "manifest").toFile();
+      final File manifestFile = new File(manifestDir, localFile.getName() + MANIFEST_SUFFIX);
+      manifest.write(manifestFile);
+      final byte[] md5 = computeHash(manifestFile);
+      final ProjectStorageMetadata metadata = new ProjectStorageMetadata(
+          project.getId(), version, uploader.getUserId(), md5, uploaderIPAddr);
+      log.info(String.format("Adding manifest to storage. Meta:%s File: %s[%d bytes] Files: %d "
+              + "Uploaded blobs: %d", metadata, manifestFile.getName(), manifestFile.length(),
+          manifest.getFiles().size(), uploadedBlobs));
+
+      final String resourceId = this.storage.putProject(metadata, manifestFile);
+      this.projectLoader.addProjectVersion(
+          project.getId(),
+          version,
+          manifestFile,
+          startupDependencies,
+          uploader.getUserId(),
+          md5,
+          requireNonNull(resourceId),
+          uploaderIPAddr
+      );
+      log.info(String.format("Added project metadata to DB. Meta:%s File: %s[%d bytes] URI: %s",
+          metadata, manifestFile.getName(), manifestFile.length(), resourceId));
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    } finally {
+      FileUtils.deleteQuietly(manifestDir);
+    }
+  }
+
+  private boolean uploadBlob(final int projectId, final ZipFile zip, final FileEntry entry)
+      throws IOException {
+    final File blobFile = File.createTempFile("blob", null, this.tempDir);
+    try {
+      try (final InputStream is = zip.getInputStream(zip.getEntry(entry.getPath()))) {
+        FileUtils.copyInputStreamToFile(is, blobFile);
+      }
+      return this.storage.putProjectBlob(projectId, entry.getHash(), blobFile);
+    } finally {
+      blobFile.delete();
+    }
+  }
+
+  /**
+   * @return the blob hashes of a project version stored as a manifest. Empty if the version is
+   * not stored as a manifest or can't be read, which only means that more blobs are uploaded.
+   */
+  private Set<String> fetchBlobHashes(final int projectId, final int version) {
+    if (version < 1) {
+      return Collections.emptySet();
+    }
+    try {
+      final ProjectFileHandler pfh = this.projectLoader.fetchProjectMetaData(projectId, version);
+      if (pfh == null || !isManifest(pfh) || pfh.getResourceId() == null) {
+        return Collections.emptySet();
+      }
+      try (final InputStream is = this.storage.getProject(pfh.getResourceId())) {
+        return ProjectManifest.read(is).getBlobs().keySet();
+      }
+    } catch (final Exception e) {
+      log.warn(String.format("Failed to read the manifest of project ID: %d version: %d",
+          projectId, version), e);
+      return Collections.emptySet();
+    }
+  }
+
+  private static <T> List<T> waitFor(final List<Future<T>> futures) throws IOException {
+    final List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (final Future<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while transferring project blobs.", e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      futures.forEach(f -> f.cancel(true));
+    }
+    return results;
+  }
+
   /**
    * Clean up project artifacts of a given project id, except those with the project versions
    * provided.
    */
   public void cleanupProjectArtifacts(final int projectId, final List<Integer> versionsToExclude) {
+    final Lock lock = this.projectLocks.get(projectId);
+    lock.lock();
     try {
       this.storageCleaner.cleanupProjectArtifacts(projectId, versionsToExclude);
     } catch (final Exception e) {
       log.error("Error occured during cleanup. Ignoring and continuing...", e);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -144,13 +339,27 @@ public class ProjectStorageManager {
   }
 
   /**
-   * Fetch project file from storage.
+   * Fetch project file from storage. A version stored as a manifest is assembled back into a zip.
    *
    * @param projectId required project ID
    * @param version version to be fetched
    * @return Handler object containing hooks to fetched project file
    */
   public ProjectFileHandler getProjectFile(final int projectId, final int version) {
+    return getProjectFile(projectId, version, true);
+  }
+
+  /**
+   * Fetch project file from storage.
+   *
+   * @param projectId required project ID
+   * @param version version to be fetched
+   * @param assembleArchive if false, the manifest of a version stored as a manifest is fetched,
+   * to be materialized with {@link #materializeProject}.
+   * @return Handler object containing hooks to fetched project file
+   */
+  public ProjectFileHandler getProjectFile(final int projectId, final int version,
+      final boolean assembleArchive) {
     log.info(
         String.format("Fetching project file. project ID: %d version: %d", projectId, version));
     // TODO spyne: remove huge hack ! There should not be any special handling for Database Storage.
@@ -180,12 +389,158 @@ public class ProjectStorageManager {
       /* Attach file to handler */
       pfh.setLocalFile(file);
 
+      if (assembleArchive && isManifest(pfh)) {
+        try {
+          return assembleArchive(pfh);
+        } finally {
+          pfh.deleteLocalFile();
+        }
+      }
       return pfh;
     } catch (final IOException e) {
       throw new StorageException(e);
     }
   }
 
+  /**
+   * @return true if the project version is stored as a {@link ProjectManifest} of file blobs.
+   */
+  public static boolean isManifest(final ProjectFileHandler pfh) {
+    return MANIFEST_FILE_TYPE.equalsIgnoreCase(pfh.getFileType());
+  }
+
+  private ProjectFileHandler assembleArchive(final ProjectFileHandler manifestHandler)
+      throws IOException {
+    final ProjectManifest manifest = ProjectManifest.read(manifestHandler.getLocalFile());
+    final String fileName = manifestHandler.getFileName().endsWith(MANIFEST_SUFFIX)
+        ? manifestHandler.getFileName().substring(0,
+        manifestHandler.getFileName().length() - MANIFEST_SUFFIX.length())
+        : manifestHandler.getFileName();
+    final File zipFile = File.createTempFile(fileName,
+        String.valueOf(manifestHandler.getVersion()), this.tempDir);
+    try {
+      try (final ZipOutputStream zos = new ZipOutputStream(
+          new BufferedOutputStream(new FileOutputStream(zipFile)))) {
+        for (final String directory : manifest.getDirectories()) {
+          zos.putNextEntry(new ZipEntry(directory));
+          zos.closeEntry();
+        }
+        for (final FileEntry entry : manifest.getFiles().values()) {
+          zos.putNextEntry(new ZipEntry(entry.getPath()));
+          try (final InputStream is = this.storage.getProjectBlob(
+              manifestHandler.getProjectId(), entry.getHash())) {
+            IOUtils.copy(is, zos);
+          }
+          zos.closeEntry();
+        }
+      }
+      final ProjectFileHandler pfh = new ProjectFileHandler(
+          manifestHandler.getProjectId(),
+          manifestHandler.getVersion(),
+          manifestHandler.getUploadTime(),
+          manifestHandler.getUploader(),
+          "zip",
+          fileName,
+          manifestHandler.getNumChunks(),
+          HashUtils.MD5.getHashBytes(zipFile),
+          manifestHandler.getStartupDependencies(),
+          manifestHandler.getResourceId(),
+          manifestHandler.getUploaderIpAddr());
+      pfh.setLocalFile(zipFile);
+      return pfh;
+    } catch (final IOException | RuntimeException e) {
+      zipFile.delete();
+      throw e;
+    }
+  }
+
+  /**
+   * Create the files of a project version stored as a manifest in a directory. The files which
+   * have the same content as a file of the base directory are hard linked to it, the others are
+   * downloaded from storage.
+   *
+   * @param projectId the project the manifest belongs to
+   * @param manifest the manifest of the project version
+   * @param dest the directory to create the files in
+   * @param baseDir a directory holding another version of the project, or null
+   * @param baseManifest the manifest of the base directory, or null
+   * @return the number of files hard linked to the base directory
+   */
+  public int materializeProject(final int projectId, final ProjectManifest manifest,
+      final File dest, @Nullable final File baseDir, @Nullable final ProjectManifest baseManifest)
+      throws IOException {
+    checkState(this.blobExecutor != null, "Project blobs are not supported by the storage.");
+    final Path destPath = dest.getCanonicalFile().toPath();
+    for (final String directory : manifest.getDirectories()) {
+      Files.createDirectories(resolveEntry(destPath, directory));
+    }
+
+    final Map<String, FileEntry> baseFiles = new HashMap<>();
+    if (baseDir != null && baseManifest != null) {
+      for (final FileEntry entry : baseManifest.getFiles().values()) {
+        baseFiles.putIfAbsent(entry.getHash(), entry);
+      }
+    }
+
+    int linkCount = 0;
+    final List<Future<Void>> downloads = new ArrayList<>();
+    for (final FileEntry entry : manifest.getFiles().values()) {
+      final Path target = resolveEntry(destPath, entry.getPath());
+      Files.createDirectories(target.getParent());
+      final FileEntry baseEntry = baseFiles.get(entry.getHash());
+      if (baseEntry != null && linkToBase(baseDir, baseEntry, target)) {
+        linkCount++;
+      } else {
+        downloads.add(this.blobExecutor.submit(() -> {
+          downloadBlob(projectId, entry, target);
+          return null;
+        }));
+      }
+    }
+    waitFor(downloads);
+    log.info(String.format("Materialized project ID: %d in %s. Linked files: %d Downloaded "
+        + "files: %d", projectId, dest, linkCount, downloads.size()));
+    return linkCount;
+  }
+
+  private static Path resolveEntry(final Path destPath, final String entryPath)
+      throws IOException {
+    final Path path = destPath.resolve(entryPath).normalize();
+    if (!path.startsWith(destPath)) {
+      throw new IOException(
+          "Manifest entry would have resulted in a file outside the specified destination"
+              + " directory.");
+    }
+    return path;
+  }
+
+  private static boolean linkToBase(final File baseDir, final FileEntry baseEntry,
+      final Path target) {
+    final File baseFile = new File(baseDir, baseEntry.getPath());
+    if (!baseFile.isFile() || baseFile.length() != baseEntry.getSize()) {
+      return false;
+    }
+    try {
+      Files.createLink(target, baseFile.toPath());
+      return true;
+    } catch (final IOException | UnsupportedOperationException e) {
+      log.warn("Failed to link " + target + " to " + baseFile + ". Downloading it instead.", e);
+      return false;
+    }
+  }
+
+  private void downloadBlob(final int projectId, final FileEntry entry, final Path target)
+      throws IOException {
+    try (final InputStream is = this.storage.getProjectBlob(projectId, entry.getHash());
+        final OutputStream os = new BufferedOutputStream(Files.newOutputStream(target))) {
+      IOUtils.copy(is, os);
+    }
+    final String hash = HashUtils.bytesHashToString(HashUtils.SHA1.getHashBytes(target.toFile()));
+    checkState(hash.equals(entry.getHash()),
+        String.format("SHA1 HASH Failed. project ID: %d file: %s Expected: %s Actual: %s",
+            projectId, entry.getPath(), entry.getHash(), hash));
+  }
+
   private void validateChecksum(final File file, final ProjectFileHandler pfh) throws IOException {
     final byte[] hash = HashUtils.MD5.getHashBytes(file);
     checkState(HashUtils.isSameHash(pfh.getMD5Hash(), hash),
@@ -25,11 +25,14 @@ import azkaban.spi.Storage;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import com.google.common.annotations.VisibleForTesting;
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -51,6 +54,10 @@ public class StorageCleaner {
   static final String SQL_FETCH_PVR = "SELECT resource_id, version FROM project_versions WHERE "
       + "project_id=? AND resource_id IS NOT NULL ORDER BY version DESC";
 
+  // Versions stored as a manifest of deduplicated file blobs, see ProjectStorageManager
+  static final String SQL_FETCH_MANIFEST_RESOURCE_IDS = "SELECT DISTINCT resource_id FROM "
+      + "project_versions WHERE project_id=? AND resource_id IS NOT NULL AND file_type=?";
+
   private static final Logger log = Logger.getLogger(StorageCleaner.class);
   private final DatabaseOperator databaseOperator;
   private final int maxArtifactsPerProject;
@@ -89,7 +96,8 @@ public class StorageCleaner {
    * from them, remove the latest ones. The remaining ones are deleted by the respective storage.
    *
    * From the storage perspective, cleanup just needs the {@link Storage#deleteProject(String)} API to
-   * work.
+   * work. If the storage keeps project blobs, the blobs which were only referenced by the manifests
+   * deleted are removed afterwards with {@link Storage#deleteProjectBlob(int, String)}.
    *
    * Failure cases: - If the storage cleanup fails, the cleanup will be attempted again on the next
    * upload - If the storage cleanup succeeds and the DB cleanup fails, the DB will be cleaned up in
@@ -106,8 +114,81 @@ public class StorageCleaner {
       return;
     }
 
+    // The manifests must be read before they are deleted
+    final Map<String, Set<String>> blobsByManifest = this.storage.supportsProjectBlobs()
+        ? fetchBlobsByManifest(projectId) : Collections.emptyMap();
+
     log.warn(String.format("Deleting project artifacts [id: %d]: %s", projectId, allResourceIds));
-    allResourceIds.forEach(this::delete);
+    final Set<String> deletedResourceIds = new HashSet<>();
+    for (final String resourceId : allResourceIds) {
+      if (delete(resourceId)) {
+        deletedResourceIds.add(resourceId);
+      }
+    }
+    if (blobsByManifest != null && !blobsByManifest.isEmpty()) {
+      deleteUnreferencedBlobs(projectId, blobsByManifest, deletedResourceIds);
+    }
+  }
+
+  /**
+   * @return the blob hashes of each manifest of the project by resource id, or null if any of the
+   * manifests can't be read, in which case no blob may be deleted safely.
+   */
+  private Map<String, Set<String>> fetchBlobsByManifest(final int projectId) {
+    final List<String> manifestResourceIds;
+    try {
+      manifestResourceIds = this.databaseOperator.query(SQL_FETCH_MANIFEST_RESOURCE_IDS,
+          rs -> {
+            final List<String> results = new ArrayList<>();
+            while (rs.next()) {
+              results.add(rs.getString("resource_id"));
+            }
+            return results;
+          }, projectId, ProjectStorageManager.MANIFEST_FILE_TYPE);
+    } catch (final SQLException e) {
+      log.error("Error fetching project manifests of Project: " + projectId, e);
+      return null;
+    }
+
+    final Map<String, Set<String>> blobsByManifest = new HashMap<>();
+    for (final String resourceId : manifestResourceIds) {
+      try (final InputStream is = this.storage.getProject(resourceId)) {
+        blobsByManifest.put(resourceId, ProjectManifest.read(is).getBlobs().keySet());
+      } catch (final Exception e) {
+        log.error("Error reading project manifest " + resourceId + ". Project blobs of Project: "
+            + projectId + " won't be cleaned up.", e);
+        return null;
+      }
+    }
+    return blobsByManifest;
+  }
+
+  private void deleteUnreferencedBlobs(final int projectId,
+      final Map<String, Set<String>> blobsByManifest, final Set<String> deletedResourceIds) {
+    final Set<String> blobsToDelete = new HashSet<>();
+    final Set<String> blobsToKeep = new HashSet<>();
+    blobsByManifest.forEach((resourceId, blobs) -> {
+      if (deletedResourceIds.contains(resourceId)) {
+        blobsToDelete.addAll(blobs);
+      } else {
+        blobsToKeep.addAll(blobs);
+      }
+    });
+    blobsToDelete.removeAll(blobsToKeep);
+    if (blobsToDelete.isEmpty()) {
+      return;
+    }
+
+    log.warn(String.format("Deleting %d project blobs [id: %d]", blobsToDelete.size(), projectId));
+    for (final String hash : blobsToDelete) {
+      try {
+        if (!this.storage.deleteProjectBlob(projectId, hash)) {
+          log.info("Project blob to delete was not found: " + hash);
+        }
+      } catch (final Exception e) {
+        log.error("Failed to delete project blob " + hash + " of Project: " + projectId, e);
+      }
+    }
   }
 
   private Set<String> findResourceIdsToDelete(final int projectId,
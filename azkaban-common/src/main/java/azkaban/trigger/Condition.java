@@ -16,31 +16,58 @@
 
 package azkaban.trigger;
 
+import azkaban.utils.ConditionExpression;
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.commons.jexl2.Expression;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.MapContext;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
 
+/**
+ * A condition of a trigger, i.e. an expression on the results of its checkers, e.g.
+ * {@code BasicTimeChecker_1.eval()}.
+ * <p>
+ * The expressions combining calls to {@link ConditionChecker#eval()} and
+ * {@link ConditionChecker#getNum()} are compiled once into a {@link ConditionExpression} which
+ * calls the checkers directly. The other expressions are evaluated by JEXL. A condition can be
+ * evaluated concurrently.
+ */
 public class Condition {
 
   private static final Logger logger = Logger.getLogger(Condition.class);
 
   private static final JexlEngine jexl = new JexlEngine();
+  private static final Set<String> COMPILED_METHODS = ImmutableSet.of("eval", "getNum");
   private static CheckerTypeLoader checkerLoader = null;
+  // Only updated by the constructors
   private final MapContext context = new MapContext();
-  private Expression expression;
+  private volatile CompiledExpression expression;
   private Map<String, ConditionChecker> checkers =
       new HashMap<>();
+  // Calls the checkers of a compiled expression
+  private final ConditionExpression.Context checkerContext = new ConditionExpression.Context() {
+    @Override
+    public Object getIdentifier(final String name) {
+      return getChecker(name);
+    }
+
+    @Override
+    public Object invoke(final String name, final String method) {
+      final ConditionChecker checker = getChecker(name);
+      return "getNum".equals(method) ? checker.getNum() : checker.eval();
+    }
+  };
   private Long nextCheckTime = -1L;
 
   public Condition(final Map<String, ConditionChecker> checkers, final String expr) {
     setCheckers(checkers);
-    this.expression = jexl.createExpression(expr);
+    this.expression = compile(expr);
     updateNextCheckTime();
   }
 
@@ -48,7 +75,23 @@ public class Condition {
       final long nextCheckTime) {
     this.nextCheckTime = nextCheckTime;
     setCheckers(checkers);
-    this.expression = jexl.createExpression(expr);
+    this.expression = compile(expr);
+  }
+
+  /**
+   * Compile an expression, falling back to JEXL if it uses a syntax or calls a method which isn't
+   * supported by {@link ConditionExpression}.
+   */
+  private static CompiledExpression compile(final String expr) {
+    try {
+      final ConditionExpression compiled = ConditionExpression.compile(expr);
+      if (COMPILED_METHODS.containsAll(compiled.getCalledMethods())) {
+        return new CompiledExpression(expr, compiled, null);
+      }
+    } catch (final IllegalArgumentException e) {
+      logger.debug("Evaluating condition " + expr + " with jexl: " + e.getMessage());
+    }
+    return new CompiledExpression(expr, null, jexl.createExpression(expr));
   }
 
   public synchronized static void setCheckerLoader(final CheckerTypeLoader loader) {
@@ -98,6 +141,15 @@ public class Condition {
     return this.checkers;
   }
 
+  private ConditionChecker getChecker(final String id) {
+    final ConditionChecker checker = this.checkers.get(id);
+    if (checker == null) {
+      throw new IllegalStateException("Unknown checker " + id + " in condition "
+          + getExpression());
+    }
+    return checker;
+  }
+
   private void setCheckers(final Map<String, ConditionChecker> checkers) {
     this.checkers = checkers;
     for (final ConditionChecker checker : checkers.values()) {
@@ -124,23 +176,27 @@ public class Condition {
   }
 
   public String getExpression() {
-    return this.expression.getExpression();
+    return this.expression.expr;
   }
 
   public void setExpression(final String expr) {
-    this.expression = jexl.createExpression(expr);
+    this.expression = compile(expr);
   }
 
   public boolean isMet() {
+    final CompiledExpression expression = this.expression;
     if (logger.isDebugEnabled()) {
-      logger.debug("Testing condition " + this.expression);
+      logger.debug("Testing condition " + expression.expr);
+    }
+    if (expression.compiled != null) {
+      return expression.compiled.isMet(this.checkerContext);
     }
-    return this.expression.evaluate(this.context).equals(Boolean.TRUE);
+    return expression.jexlExpression.evaluate(this.context).equals(Boolean.TRUE);
   }
 
   public Object toJson() {
     final Map<String, Object> jsonObj = new HashMap<>();
-    jsonObj.put("expression", this.expression.getExpression());
+    jsonObj.put("expression", getExpression());
 
     final List<Object> checkersJson = new ArrayList<>();
     for (final ConditionChecker checker : this.checkers.values()) {
@@ -155,4 +211,18 @@ public class Condition {
     return jsonObj;
   }
 
+  private static class CompiledExpression {
+
+    private final String expr;
+    // Exactly one of the compiled and jexl expressions is set
+    private final ConditionExpression compiled;
+    private final Expression jexlExpression;
+
+    private CompiledExpression(final String expr, final ConditionExpression compiled,
+        final Expression jexlExpression) {
+      this.expr = expr;
+      this.compiled = compiled;
+      this.jexlExpression = jexlExpression;
+    }
+  }
 }
@@ -39,6 +39,8 @@ public class SlaAlertAction implements TriggerAction {
   private final int execId;
   private final AlerterHolder alerters;
   private final ExecutorLoader executorLoader;
+  // The execution the sla applies to, fetched from the db when the action is done if null
+  private final ExecutableFlow flow;
 
   //todo chengren311: move this class to executor module when all existing triggers in db are expired
   public SlaAlertAction(final String id, final SlaOption slaOption, final int execId) {
@@ -47,6 +49,20 @@ public class SlaAlertAction implements TriggerAction {
     this.execId = execId;
     this.alerters = ServiceProvider.SERVICE_PROVIDER.getInstance(AlerterHolder.class);
     this.executorLoader = ServiceProvider.SERVICE_PROVIDER.getInstance(ExecutorLoader.class);
+    this.flow = null;
+  }
+
+  /**
+   * Create an action alerting on the sla of an execution already in memory, e.g. tracked by the
+   * executor running it, so that it isn't fetched from the db.
+   */
+  public SlaAlertAction(final String id, final SlaOption slaOption, final ExecutableFlow flow) {
+    this.actionId = id;
+    this.slaOption = slaOption;
+    this.execId = flow.getExecutionId();
+    this.alerters = ServiceProvider.SERVICE_PROVIDER.getInstance(AlerterHolder.class);
+    this.executorLoader = null;
+    this.flow = flow;
   }
 
   public static SlaAlertAction createFromJson(final Object obj) throws Exception {
@@ -106,7 +122,8 @@ public class SlaAlertAction implements TriggerAction {
       final Alerter alerter = this.alerters.get(SlaOption.ALERT_TYPE_EMAIL);
       if (alerter != null) {
         try {
-          final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(this.execId);
+          final ExecutableFlow flow = this.flow != null ? this.flow
+              : this.executorLoader.fetchExecutableFlow(this.execId);
           alerter.alertOnSla(this.slaOption, slaOption.createSlaMessage(flow));
         } catch (final Exception e) {
           e.printStackTrace();
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A boolean condition compiled once from its string form, e.g. the condition of a conditional
+ * workflow node or the expression of a trigger condition.
+ * <p>
+ * The supported syntax is:
+ * <ul>
+ * <li>the operators {@code ||}, {@code &&}, {@code ==}, {@code !=}, {@code <}, {@code <=},
+ * {@code >}, {@code >=} and {@code !}, with their usual precedence, and parentheses</li>
+ * <li>numbers, single or double quoted strings, {@code true} and {@code false}</li>
+ * <li>job variables, e.g. {@code ${jobName:param}}</li>
+ * <li>identifiers, e.g. {@code one_success}, and no-argument method calls on an identifier, e.g.
+ * {@code checker_1.eval()}</li>
+ * </ul>
+ * The operands are compared like in javascript, i.e. a string compared to a number is converted
+ * to a number. The values of the variables, identifiers and method calls are given by the
+ * {@link Context} of an evaluation. A compiled expression holds no evaluation state, so it can be
+ * evaluated concurrently.
+ */
+public final class ConditionExpression {
+
+  private final String expression;
+  private final Node root;
+  private final Set<String> identifiers;
+  private final Set<String> calledMethods;
+
+  private ConditionExpression(final String expression, final Node root,
+      final Set<String> identifiers, final Set<String> calledMethods) {
+    this.expression = expression;
+    this.root = root;
+    this.identifiers = Collections.unmodifiableSet(identifiers);
+    this.calledMethods = Collections.unmodifiableSet(calledMethods);
+  }
+
+  /**
+   * Compile an expression.
+   *
+   * @throws IllegalArgumentException if the expression is not valid.
+   */
+  public static ConditionExpression compile(final String expression) {
+    final Parser parser = new Parser(expression);
+    final Node root = parser.parse();
+    return new ConditionExpression(expression, root, parser.identifiers, parser.calledMethods);
+  }
+
+  /**
+   * Evaluate the expression.
+   *
+   * @return the value of the expression: a {@link Boolean}, a {@link Double}, a {@link String} or
+   * any value of the context.
+   */
+  public Object evaluate(final Context context) {
+    return this.root.evaluate(context);
+  }
+
+  /**
+   * @return true if the expression evaluates to {@link Boolean#TRUE}.
+   */
+  public boolean isMet(final Context context) {
+    return Boolean.TRUE.equals(evaluate(context));
+  }
+
+  public String getExpression() {
+    return this.expression;
+  }
+
+  /**
+   * @return the identifiers used by the expression, including the ones methods are called on.
+   */
+  public Set<String> getIdentifiers() {
+    return this.identifiers;
+  }
+
+  /**
+   * @return the names of the methods called by the expression.
+   */
+  public Set<String> getCalledMethods() {
+    return this.calledMethods;
+  }
+
+  @Override
+  public String toString() {
+    return this.expression;
+  }
+
+  private static boolean isTrue(final Object value) {
+    if (value == null) {
+      return false;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value;
+    } else if (value instanceof Number) {
+      final double number = ((Number) value).doubleValue();
+      return number != 0 && !Double.isNaN(number);
+    } else if (value instanceof String) {
+      return !((String) value).isEmpty();
+    }
+    return true;
+  }
+
+  private static double toNumber(final Object value) {
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    } else if (value instanceof Boolean) {
+      return (Boolean) value ? 1 : 0;
+    } else if (value instanceof String) {
+      final String trimmed = ((String) value).trim();
+      if (trimmed.isEmpty()) {
+        return 0;
+      }
+      try {
+        return Double.parseDouble(trimmed);
+      } catch (final NumberFormatException e) {
+        return Double.NaN;
+      }
+    }
+    return Double.NaN;
+  }
+
+  private static boolean isEqual(final Object left, final Object right) {
+    if (left == null || right == null) {
+      return left == right;
+    }
+    if (left instanceof String && right instanceof String
+        || left instanceof Boolean && right instanceof Boolean) {
+      return left.equals(right);
+    }
+    return toNumber(left) == toNumber(right);
+  }
+
+  private static int compare(final Object left, final Object right) {
+    if (left instanceof String && right instanceof String) {
+      return ((String) left).compareTo((String) right);
+    }
+    final double leftNumber = toNumber(left);
+    final double rightNumber = toNumber(right);
+    if (Double.isNaN(leftNumber) || Double.isNaN(rightNumber)) {
+      // No ordering, every comparison is false
+      return Integer.MIN_VALUE;
+    }
+    return Double.compare(leftNumber, rightNumber);
+  }
+
+  /**
+   * Values of the variables, identifiers and method calls of an expression.
+   */
+  public interface Context {
+
+    /**
+     * @return the value of a job variable, e.g. {@code ${jobName:param}}.
+     */
+    default Object getVariable(final String jobName, final String param) {
+      throw new IllegalStateException("Unsupported variable ${" + jobName + ":" + param + "}");
+    }
+
+    /**
+     * @return the value of an identifier.
+     */
+    default Object getIdentifier(final String name) {
+      throw new IllegalStateException("Unknown identifier " + name);
+    }
+
+    /**
+     * @return the value returned by calling a method without argument on an identifier.
+     */
+    default Object invoke(final String name, final String method) {
+      throw new IllegalStateException("Unsupported method call " + name + "." + method + "()");
+    }
+  }
+
+  private interface Node {
+
+    Object evaluate(Context context);
+  }
+
+  private enum Operator {
+    OR, AND, EQ, NE, LT, LE, GT, GE
+  }
+
+  private static class BinaryNode implements Node {
+
+    private final Operator operator;
+    private final Node left;
+    private final Node right;
+
+    private BinaryNode(final Operator operator, final Node left, final Node right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public Object evaluate(final Context context) {
+      final Object leftValue = this.left.evaluate(context);
+      switch (this.operator) {
+        case OR:
+          return isTrue(leftValue) || isTrue(this.right.evaluate(context));
+        case AND:
+          return isTrue(leftValue) && isTrue(this.right.evaluate(context));
+        default:
+          break;
+      }
+      final Object rightValue = this.right.evaluate(context);
+      switch (this.operator) {
+        case EQ:
+          return isEqual(leftValue, rightValue);
+        case NE:
+          return !isEqual(leftValue, rightValue);
+        default:
+          break;
+      }
+      final int comparison = compare(leftValue, rightValue);
+      if (comparison == Integer.MIN_VALUE) {
+        return false;
+      }
+      switch (this.operator) {
+        case LT:
+          return comparison < 0;
+        case LE:
+          return comparison <= 0;
+        case GT:
+          return comparison > 0;
+        case GE:
+          return comparison >= 0;
+        default:
+          throw new IllegalStateException("Unknown operator " + this.operator);
+      }
+    }
+  }
+
+  /**
+   * Recursive descent parser of an expression. The operators from the lowest to the highest
+   * precedence are: ||, &&, equality, comparison and !.
+   */
+  private static class Parser {
+
+    private final String expression;
+    private final Set<String> identifiers = new HashSet<>();
+    private final Set<String> calledMethods = new HashSet<>();
+    private int pos = 0;
+
+    private Parser(final String expression) {
+      if (expression == null) {
+        throw new IllegalArgumentException("Expression is null");
+      }
+      this.expression = expression;
+    }
+
+    private Node parse() {
+      final Node root = parseOr();
+      skipWhitespaces();
+      if (this.pos < this.expression.length()) {
+        throw error("Unexpected character '" + this.expression.charAt(this.pos) + "'");
+      }
+      return root;
+    }
+
+    private Node parseOr() {
+      Node node = parseAnd();
+      while (consume("||")) {
+        node = new BinaryNode(Operator.OR, node, parseAnd());
+      }
+      return node;
+    }
+
+    private Node parseAnd() {
+      Node node = parseEquality();
+      while (consume("&&")) {
+        node = new BinaryNode(Operator.AND, node, parseEquality());
+      }
+      return node;
+    }
+
+    private Node parseEquality() {
+      Node node = parseComparison();
+      while (true) {
+        if (consume("==")) {
+          node = new BinaryNode(Operator.EQ, node, parseComparison());
+        } else if (consume("!=")) {
+          node = new BinaryNode(Operator.NE, node, parseComparison());
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node parseComparison() {
+      Node node = parseUnary();
+      while (true) {
+        if (consume("<=")) {
+          node = new BinaryNode(Operator.LE, node, parseUnary());
+        } else if (consume(">=")) {
+          node = new BinaryNode(Operator.GE, node, parseUnary());
+        } else if (consume("<")) {
+          node = new BinaryNode(Operator.LT, node, parseUnary());
+        } else if (consume(">")) {
+          node = new BinaryNode(Operator.GT, node, parseUnary());
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node parseUnary() {
+      skipWhitespaces();
+      if (peek() == '!' && !this.expression.startsWith("!=", this.pos)) {
+        this.pos++;
+        final Node operand = parseUnary();
+        return context -> !isTrue(operand.evaluate(context));
+      }
+      return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+      skipWhitespaces();
+      final char c = peek();
+      if (c == '(') {
+        this.pos++;
+        final Node node = parseOr();
+        expect(")");
+        return node;
+      } else if (c == '\'' || c == '"') {
+        final String value = parseString(c);
+        return context -> value;
+      } else if (Character.isDigit(c)) {
+        final Double value = parseNumber();
+        return context -> value;
+      } else if (this.expression.startsWith("${", this.pos)) {
+        return parseVariable();
+      } else if (isIdentifierStart(c)) {
+        return parseIdentifier();
+      }
+      throw error(this.pos < this.expression.length() ? "Unexpected character '" + c + "'"
+          : "Unexpected end of expression");
+    }
+
+    private String parseString(final char quote) {
+      final StringBuilder value = new StringBuilder();
+      this.pos++;
+      while (this.pos < this.expression.length()) {
+        char c = this.expression.charAt(this.pos++);
+        if (c == quote) {
+          return value.toString();
+        } else if (c == '\\' && this.pos < this.expression.length()) {
+          c = this.expression.charAt(this.pos++);
+        }
+        value.append(c);
+      }
+      throw error("Unterminated string");
+    }
+
+    private Double parseNumber() {
+      final int start = this.pos;
+      while (Character.isDigit(peek())) {
+        this.pos++;
+      }
+      if (peek() == '.') {
+        this.pos++;
+        while (Character.isDigit(peek())) {
+          this.pos++;
+        }
+      }
+      return Double.valueOf(this.expression.substring(start, this.pos));
+    }
+
+    private Node parseVariable() {
+      final int end = this.expression.indexOf('}', this.pos);
+      final int separator = this.expression.indexOf(':', this.pos);
+      if (end < 0 || separator < 0 || separator > end) {
+        throw error("Invalid variable, expected ${jobName:param}");
+      }
+      final String jobName = this.expression.substring(this.pos + 2, separator);
+      final String param = this.expression.substring(separator + 1, end);
+      if (jobName.isEmpty() || param.isEmpty()) {
+        throw error("Invalid variable, expected ${jobName:param}");
+      }
+      this.pos = end + 1;
+      return context -> context.getVariable(jobName, param);
+    }
+
+    private Node parseIdentifier() {
+      final String name = readIdentifier();
+      if (name.equals("true") || name.equals("false")) {
+        final Boolean value = Boolean.valueOf(name);
+        return context -> value;
+      }
+      this.identifiers.add(name);
+      skipWhitespaces();
+      if (peek() != '.') {
+        return context -> context.getIdentifier(name);
+      }
+      this.pos++;
+      skipWhitespaces();
+      if (!isIdentifierStart(peek())) {
+        throw error("Expected a method name");
+      }
+      final String method = readIdentifier();
+      expect("(");
+      expect(")");
+      this.calledMethods.add(method);
+      return context -> context.invoke(name, method);
+    }
+
+    private String readIdentifier() {
+      final int start = this.pos;
+      this.pos++;
+      while (isIdentifierStart(peek()) || Character.isDigit(peek())) {
+        this.pos++;
+      }
+      return this.expression.substring(start, this.pos);
+    }
+
+    private static boolean isIdentifierStart(final char c) {
+      return Character.isLetter(c) || c == '_';
+    }
+
+    private boolean consume(final String token) {
+      skipWhitespaces();
+      if (this.expression.startsWith(token, this.pos)) {
+        this.pos += token.length();
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(final String token) {
+      if (!consume(token)) {
+        throw error("Expected '" + token + "'");
+      }
+    }
+
+    private char peek() {
+      return this.pos < this.expression.length() ? this.expression.charAt(this.pos) : '\0';
+    }
+
+    private void skipWhitespaces() {
+      while (Character.isWhitespace(peek())) {
+        this.pos++;
+      }
+    }
+
+    private IllegalArgumentException error(final String message) {
+      return new IllegalArgumentException(
+          message + " at position " + this.pos + " of condition: " + this.expression);
+    }
+  }
+}
@@ -17,50 +17,96 @@
 package azkaban.utils;
 
 import azkaban.Constants;
+import azkaban.metrics.MetricsManager;
 import azkaban.spi.DependencyFile;
 import azkaban.spi.Storage;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import static azkaban.Constants.ConfigurationKeys.AZKABAN_DEPENDENCY_DOWNLOAD_THREADPOOL_SIZE;
+import static azkaban.Constants.ConfigurationKeys.AZKABAN_DEPENDENCY_MAX_DOWNLOADS_PER_ORIGIN;
 import static azkaban.utils.ThinArchiveUtils.*;
 
 /**
  * Handles downloading of dependencies. Used during the thin archive upload process, and upon starting the execution
  * of a flow defined in a thin archive (to download necessary dependencies). Provides a thin layer of retry logic,
  * checksum validation and parallelism on top of the base Storage::getDependency().
+ *
+ * The number of concurrent downloads from an origin host is bounded, the other downloads from this host are queued
+ * without holding a thread of the pool. Failed downloads are retried after an exponential backoff delay which is
+ * scheduled rather than slept, and a download interrupted by an IOException is resumed from the bytes written
+ * already. The SHA1 hash of a dependency is computed while it is written, instead of reading the file again.
  */
 @Singleton
 public class DependencyTransferManager {
   private static final int DEFAULT_NUM_THREADS = 32;
+  private static final long BASE_RETRY_DELAY_MS = 1000;
+  private static final int BUFFER_SIZE = 64 * 1024;
 
   public final int dependencyMaxDownloadTries;
 
   private final Storage storage;
 
   private final ExecutorService threadPool;
+  private final ScheduledExecutorService retryScheduler;
+  private final int maxDownloadsPerOrigin;
+  private final Map<String, OriginQueue> originQueues = new ConcurrentHashMap<>();
+  private final AtomicInteger queuedDownloads = new AtomicInteger();
+
+  private final Meter downloadedBytesMeter;
+  private final Meter retryMeter;
+  private final Meter resumeMeter;
+  private final Meter failureMeter;
+  private final Histogram downloadTimeMs;
 
   private static final Logger logger = Logger.getLogger(DependencyTransferManager.class);
 
   @Inject
-  public DependencyTransferManager(final Props props, final Storage storage) {
+  public DependencyTransferManager(final Props props, final Storage storage,
+      final MetricsManager metricsManager) {
     this.storage = storage;
-    this.threadPool = Executors.newFixedThreadPool(
-        props.getInt(AZKABAN_DEPENDENCY_DOWNLOAD_THREADPOOL_SIZE, DEFAULT_NUM_THREADS),
+    final int numThreads = props.getInt(AZKABAN_DEPENDENCY_DOWNLOAD_THREADPOOL_SIZE,
+        DEFAULT_NUM_THREADS);
+    this.threadPool = Executors.newFixedThreadPool(numThreads,
         new ThreadFactoryBuilder().setNameFormat("azk-dependency-pool-%d").build());
+    this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azk-dependency-retry").setDaemon(true).build());
     this.dependencyMaxDownloadTries =
         props.getInt(Constants.ConfigurationKeys.AZKABAN_DEPENDENCY_MAX_DOWNLOAD_TRIES, 2);
+    // Not bounded by default, beyond the size of the pool
+    this.maxDownloadsPerOrigin = Math.max(1, props.getInt(
+        AZKABAN_DEPENDENCY_MAX_DOWNLOADS_PER_ORIGIN, numThreads));
+
+    this.downloadedBytesMeter = metricsManager.addMeter("DependencyTransferManager-download-bytes");
+    this.retryMeter = metricsManager.addMeter("DependencyTransferManager-retry-meter");
+    this.resumeMeter = metricsManager.addMeter("DependencyTransferManager-resume-meter");
+    this.failureMeter = metricsManager.addMeter("DependencyTransferManager-failure-meter");
+    this.downloadTimeMs = metricsManager.addHistogram("DependencyTransferManager-downloadTimeMs");
+    metricsManager.addGauge("DependencyTransferManager-queued", this.queuedDownloads::get);
   }
 
   /**
@@ -90,15 +136,21 @@ public class DependencyTransferManager {
 
     ensureIsEnabled();
 
+    final OriginQueue originQueue = this.originQueues
+        .computeIfAbsent(getOrigin(this.storage.getDependencyRootPath()), OriginQueue::new);
     CompletableFuture[] taskFutures = deps
         .stream()
-        .map(f -> CompletableFuture.runAsync(() -> downloadDependency(f), threadPool))
+        .map(f -> {
+          final Download download = new Download(f, originQueue);
+          originQueue.submit(download);
+          return download.result;
+        })
         .toArray(CompletableFuture[]::new);
 
     try {
       waitForAllToSucceedOrOneToFail(taskFutures);
     } catch (InterruptedException e) {
-      // No point in continuing, let's stop any future downloads and try to interrupt currently running ones.
+      // No point in continuing, let's stop any future downloads and retries.
       cancelPendingTasks(taskFutures);
       throw new DependencyTransferException("Download interrupted.", e);
     } catch (ExecutionException e) {
@@ -111,17 +163,23 @@ public class DependencyTransferManager {
     }
   }
 
-  private void downloadDependency(final DependencyFile f) {
+  /**
+   * @return the host of the dependency root, which the downloads from this storage are limited by.
+   */
+  @VisibleForTesting
+  static String getOrigin(final String dependencyRootPath) {
+    if (dependencyRootPath == null) {
+      return "";
+    }
     try {
-      downloadDependency(f, 0);
-    } catch (IOException e) {
-      throw new DependencyTransferException("Error while downloading dependency " + f.getFileName(), e);
-    } catch (HashNotMatchException e) {
-      throw new DependencyTransferException("Checksum did not match when downloading dependency " + f.getFileName(), e);
+      final String authority = URI.create(dependencyRootPath).getAuthority();
+      return authority != null ? authority : "";
+    } catch (final IllegalArgumentException e) {
+      return "";
     }
   }
 
-  /* Cancel all the not-started tasks which are possibly waiting in the queue */
+  /* Cancel all the not-started tasks which are possibly waiting in the queue or for a retry */
   private static void cancelPendingTasks(CompletableFuture[] taskFutures) {
     logger.error("cancelling the pending tasks because one of the downloads failed");
     for (CompletableFuture future : taskFutures) {
@@ -129,50 +187,9 @@ public class DependencyTransferManager {
     }
   }
 
-  private void downloadDependency(final DependencyFile f, final int retries)
-      throws HashNotMatchException, IOException {
-    FileOutputStream outputStream = null;
-    InputStream inputStream = null;
-    try {
-      // Make any necessary directories
-      f.getFile().getParentFile().mkdirs();
-
-      outputStream = new FileOutputStream(f.getFile());
-      inputStream = this.storage.getDependency(f);
-      IOUtils.copy(inputStream, outputStream);
-    } catch (IOException e) {
-      if (retries + 1 < dependencyMaxDownloadTries) {
-        // downloadDependency will overwrite our destination file if attempted again
-        exponentialBackoffDelay(retries);
-        downloadDependency(f, retries + 1);
-        return;
-      }
-      throw e;
-    } finally {
-      IOUtils.closeQuietly(inputStream);
-      IOUtils.closeQuietly(outputStream);
-    }
-
-    try {
-      validateDependencyHash(f);
-    } catch (HashNotMatchException e) {
-      if (retries + 1 < dependencyMaxDownloadTries) {
-        // downloadDependency will overwrite our destination file if attempted again
-        exponentialBackoffDelay(retries);
-        downloadDependency(f, retries + 1);
-        return;
-      }
-      throw e;
-    }
-  }
-
-  private static void exponentialBackoffDelay(final int retries) {
-    try {
-      // Will wait for 1, 2, 4, 8... seconds
-      Thread.sleep((long) (Math.pow(2, retries) * 1000));
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
+  private static long exponentialBackoffDelayMs(final int retries) {
+    // Will wait for 1, 2, 4, 8... seconds
+    return (long) (Math.pow(2, retries) * BASE_RETRY_DELAY_MS);
   }
 
   private static void waitForAllToSucceedOrOneToFail(final CompletableFuture<?>[] futures)
@@ -190,4 +207,166 @@ public class DependencyTransferManager {
     // Wait for either the failure future to complete, or all of the actual futures to complete.
     CompletableFuture.anyOf(failure, CompletableFuture.allOf(futures)).get();
   }
+
+  /**
+   * Runs at most maxDownloadsPerOrigin attempts from an origin on the thread pool, and queues the
+   * others until an attempt finishes.
+   */
+  private final class OriginQueue {
+
+    private final String origin;
+    private final Deque<Download> pending = new ArrayDeque<>();
+    private int running = 0;
+
+    private OriginQueue(final String origin) {
+      this.origin = origin;
+    }
+
+    private void submit(final Download download) {
+      synchronized (this) {
+        if (this.running >= DependencyTransferManager.this.maxDownloadsPerOrigin) {
+          this.pending.add(download);
+          DependencyTransferManager.this.queuedDownloads.incrementAndGet();
+          return;
+        }
+        this.running++;
+      }
+      run(download);
+    }
+
+    private void run(final Download download) {
+      DependencyTransferManager.this.threadPool.execute(() -> {
+        try {
+          download.attempt();
+        } finally {
+          runNext();
+        }
+      });
+    }
+
+    private void runNext() {
+      final Download next;
+      synchronized (this) {
+        next = this.pending.poll();
+        if (next == null) {
+          this.running--;
+          return;
+        }
+      }
+      DependencyTransferManager.this.queuedDownloads.decrementAndGet();
+      run(next);
+    }
+  }
+
+  /**
+   * The state of the download of a dependency across its attempts.
+   */
+  private final class Download {
+
+    private final DependencyFile file;
+    private final OriginQueue originQueue;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private final long startTime = System.currentTimeMillis();
+    private MessageDigest digest = HashUtils.SHA1.getDigest();
+    // Number of bytes written to the file and added to the digest
+    private long bytesWritten = 0;
+    private int tries = 0;
+
+    private Download(final DependencyFile file, final OriginQueue originQueue) {
+      this.file = file;
+      this.originQueue = originQueue;
+    }
+
+    private void attempt() {
+      if (this.result.isDone()) {
+        // Cancelled because another download failed
+        return;
+      }
+      this.tries++;
+      try {
+        transfer();
+      } catch (final IOException e) {
+        retryOrFail("Error while downloading dependency " + this.file.getFileName(), e);
+        return;
+      } catch (final RuntimeException e) {
+        // Not a transient failure, retrying would fail the same way
+        DependencyTransferManager.this.failureMeter.mark();
+        this.result.completeExceptionally(e);
+        return;
+      }
+
+      try {
+        validateDependencyHash(this.digest.digest(), this.file);
+      } catch (final HashNotMatchException e) {
+        // The content is wrong, the next attempt must download it again from the start
+        restart();
+        retryOrFail("Checksum did not match when downloading dependency "
+            + this.file.getFileName(), e);
+        return;
+      }
+      DependencyTransferManager.this.downloadTimeMs
+          .update(System.currentTimeMillis() - this.startTime);
+      this.result.complete(null);
+    }
+
+    private void transfer() throws IOException {
+      final File target = this.file.getFile();
+      // Make any necessary directories
+      target.getParentFile().mkdirs();
+      if (this.bytesWritten > 0 && target.length() != this.bytesWritten) {
+        // The file is not what the previous attempt wrote, e.g. a write failed part way
+        restart();
+      }
+
+      try (final InputStream inputStream = openDependency();
+          final OutputStream outputStream = new FileOutputStream(target, this.bytesWritten > 0)) {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+          outputStream.write(buffer, 0, n);
+          this.digest.update(buffer, 0, n);
+          this.bytesWritten += n;
+          DependencyTransferManager.this.downloadedBytesMeter.mark(n);
+        }
+      }
+    }
+
+    private InputStream openDependency() throws IOException {
+      final Storage storage = DependencyTransferManager.this.storage;
+      if (this.bytesWritten == 0) {
+        return storage.getDependency(this.file);
+      }
+      logger.info("Resuming download of dependency " + this.file.getFileName() + " from byte "
+          + this.bytesWritten);
+      try {
+        final InputStream inputStream = storage.getDependency(this.file, this.bytesWritten);
+        DependencyTransferManager.this.resumeMeter.mark();
+        return inputStream;
+      } catch (final UnsupportedOperationException e) {
+        logger.info("Dependency " + this.file.getFileName() + " can't be resumed, downloading it "
+            + "again: " + e);
+        restart();
+        return storage.getDependency(this.file);
+      }
+    }
+
+    private void restart() {
+      this.digest = HashUtils.SHA1.getDigest();
+      this.bytesWritten = 0;
+    }
+
+    private void retryOrFail(final String message, final Exception e) {
+      if (this.tries >= DependencyTransferManager.this.dependencyMaxDownloadTries) {
+        DependencyTransferManager.this.failureMeter.mark();
+        this.result.completeExceptionally(new DependencyTransferException(message, e));
+        return;
+      }
+      final long delayMs = exponentialBackoffDelayMs(this.tries - 1);
+      logger.warn(message + ", retrying in " + delayMs + " ms: " + e);
+      DependencyTransferManager.this.retryMeter.mark();
+      // The attempt is submitted again when the delay expires, so no thread waits for it
+      DependencyTransferManager.this.retryScheduler.schedule(
+          () -> this.originQueue.submit(this), delayMs, TimeUnit.MILLISECONDS);
+    }
+  }
 }
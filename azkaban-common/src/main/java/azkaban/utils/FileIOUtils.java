@@ -26,15 +26,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.StringTokenizer;
 import org.apache.commons.fileupload.util.Streams;
 import org.apache.commons.io.FileUtils;
@@ -49,6 +55,9 @@ import org.slf4j.LoggerFactory;
 public class FileIOUtils {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FileIOUtils.class);
+  // Number of bytes getUtf8ByteStart and getUtf8ByteEnd look at.
+  private static final int UTF8_START_SCAN_BYTES = 6;
+  private static final int UTF8_END_SCAN_BYTES = 11;
 
   /**
    * Check if a directory is writable
@@ -270,10 +279,88 @@ public class FileIOUtils {
   }
 
   /**
-   * Hard link files and recurse into directories.
+   * Hard link files and recurse into directories. The source dir is walked once, and the
+   * attributes of each file are read as part of the walk.
+   *
+   * @return the number of files linked
    */
   public static int createDeepHardlink(final File sourceDir, final File destDir)
       throws IOException {
+    checkDirsToCopy(sourceDir, destDir);
+
+    final Path sourcePath = sourceDir.toPath();
+    final Path destPath = destDir.toPath();
+    final int[] linkCount = {0};
+    // Symbolic links are followed like File.isFile() and File.isDirectory() do
+    Files.walkFileTree(sourcePath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(final Path dir,
+              final BasicFileAttributes attrs) throws IOException {
+            Files.createDirectories(destPath.resolve(sourcePath.relativize(dir).toString()));
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+              throws IOException {
+            if (attrs.isRegularFile()) {
+              // NOTE!! If modifying this, you must run this ignored test manually to validate:
+              // FileIOUtilsTest#testHardlinkCopyOfBigDir
+              Files.createLink(destPath.resolve(sourcePath.relativize(file).toString()), file);
+              linkCount[0]++;
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return linkCount[0];
+  }
+
+  /**
+   * Copy a directory recursively with reflinks, so that the copied files share their data blocks
+   * with the source files until either of them is modified. This is only supported by copy on
+   * write file systems, such as btrfs and xfs, and relies on GNU cp.
+   *
+   * @throws ReflinkNotSupportedException if the file system doesn't support reflinks, in which
+   *     case the destination dir may be partially populated
+   * @throws IOException if the copy fails for another reason
+   */
+  public static void createDeepReflink(final File sourceDir, final File destDir)
+      throws IOException {
+    checkDirsToCopy(sourceDir, destDir);
+
+    final ProcessBuilder builder = new ProcessBuilder("cp", "-R", "--reflink=always",
+        sourceDir.getPath() + File.separator + ".", destDir.getPath())
+        .redirectErrorStream(true);
+    // The errors are matched below, so they must not be translated.
+    builder.environment().put("LC_ALL", "C");
+    final Process process = builder.start();
+    final String output;
+    try (final InputStream outputStream = process.getInputStream()) {
+      output = IOUtils.toString(outputStream, StandardCharsets.UTF_8).trim();
+    }
+    final int exitCode;
+    try {
+      exitCode = process.waitFor();
+    } catch (final InterruptedException e) {
+      process.destroy();
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reflinking " + sourceDir, e);
+    }
+    if (exitCode != 0) {
+      final String message = "Reflinking " + sourceDir + " to " + destDir
+          + " failed with exit code " + exitCode + ": " + output;
+      // EOPNOTSUPP, or EXDEV when the source and destination are on different file systems
+      if (output.contains("Operation not supported")
+          || output.contains("Invalid cross-device link")) {
+        throw new ReflinkNotSupportedException(message);
+      }
+      throw new IOException(message);
+    }
+  }
+
+  private static void checkDirsToCopy(final File sourceDir, final File destDir)
+      throws IOException {
     if (!sourceDir.exists()) {
       throw new IOException("Source directory " + sourceDir.getPath()
           + " doesn't exist");
@@ -283,46 +370,6 @@ public class FileIOUtils {
     } else if (sourceDir.isFile() && destDir.isFile()) {
       throw new IOException("Source or Destination is not a directory.");
     }
-
-    final Set<String> paths = new HashSet<>();
-    createDirsFindFiles(sourceDir, sourceDir, destDir, paths);
-
-    int linkCount = 0;
-    for (String path : paths) {
-      final File sourceLink = new File(sourceDir, path);
-      path = destDir + path;
-
-      final File[] targetFiles = sourceLink.listFiles();
-      for (final File targetFile : targetFiles) {
-        if (targetFile.isFile()) {
-          final File linkFile = new File(path, targetFile.getName());
-          // NOTE!! If modifying this, you must run this ignored test manually to validate:
-          // FileIOUtilsTest#testHardlinkCopyOfBigDir
-          Files.createLink(linkFile.toPath(), Paths.get(targetFile.getAbsolutePath()));
-          linkCount++;
-        }
-      }
-    }
-    return linkCount;
-  }
-
-  private static void createDirsFindFiles(final File baseDir, final File sourceDir,
-      final File destDir, final Set<String> paths) {
-    final File[] srcList = sourceDir.listFiles();
-    final String path = getRelativePath(baseDir, sourceDir);
-    paths.add(path);
-
-    for (final File file : srcList) {
-      if (file.isDirectory()) {
-        final File newDestDir = new File(destDir, file.getName());
-        newDestDir.mkdirs();
-        createDirsFindFiles(baseDir, file, newDestDir, paths);
-      }
-    }
-  }
-
-  private static String getRelativePath(final File basePath, final File sourceDir) {
-    return sourceDir.getPath().substring(basePath.getPath().length());
   }
 
   public static Pair<Integer, Integer> readUtf8File(final File file, final int offset,
@@ -414,6 +461,61 @@ public class FileIOUtils {
         utf8Range.getSecond(), outputString);
   }
 
+  /**
+   * Transfer the byte range [position, position + count) of the channel to the target with
+   * {@link FileChannel#transferTo}, without copying it through a heap buffer of its size.
+   *
+   * @return number of transferred bytes, which is less than count if the channel is shorter.
+   */
+  public static long transferRange(final FileChannel channel, final long position,
+      final long count, final WritableByteChannel target) throws IOException {
+    long transferred = 0;
+    while (transferred < count) {
+      final long n = channel.transferTo(position + transferred, count - transferred, target);
+      if (n <= 0) {
+        break;
+      }
+      transferred += n;
+    }
+    return transferred;
+  }
+
+  /**
+   * Same as {@link #getUtf8Range(byte[], int, int)}, for a range of a file channel which is
+   * capped at the current size of the channel. Only the few bytes around the range boundaries
+   * are read to find the character boundaries.
+   *
+   * @return offset and length of the UTF-8 aligned range.
+   */
+  public static Pair<Long, Integer> getUtf8Range(final FileChannel channel, final long offset,
+      final int length) throws IOException {
+    final long size = channel.size();
+    if (offset < 0 || offset >= size || length <= 0) {
+      return new Pair<>(offset, 0);
+    }
+    final int available = (int) Math.min(length, size - offset);
+
+    final byte[] head = readFully(channel, offset, Math.min(UTF8_START_SCAN_BYTES, available));
+    final int start = getUtf8ByteStart(head, 0);
+
+    final int tailLength = Math.min(UTF8_END_SCAN_BYTES, available);
+    final byte[] tail = readFully(channel, offset + available - tailLength, tailLength);
+    final int end = available - tailLength + getUtf8ByteEnd(tail, tailLength - 1);
+
+    return new Pair<>(offset + start, Math.max(0, end - start + 1));
+  }
+
+  private static byte[] readFully(final FileChannel channel, final long position,
+      final int length) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        break;
+      }
+    }
+    return buffer.array();
+  }
+
   /**
    * Returns first and length.
    */
@@ -508,6 +610,16 @@ public class FileIOUtils {
     }
   }
 
+  /**
+   * Thrown when the file system can't create reflinks, as opposed to a failure of one copy.
+   */
+  public static class ReflinkNotSupportedException extends IOException {
+
+    public ReflinkNotSupportedException(final String message) {
+      super(message);
+    }
+  }
+
   private static class NullLogger extends Thread {
 
     private final BufferedReader inputReader;
@@ -23,6 +23,9 @@ import static azkaban.utils.ThinArchiveUtils.convertIvyCoordinateToPath;
 
 
 public class StorageUtils {
+  // Directory of a project's storage directory holding the content of its files by hash.
+  public static final String PROJECT_BLOBS_DIR = "blobs";
+
   public static String getTargetProjectFilename(final int projectId, byte[] hash) {
     return String.format("%s-%s.zip",
         String.valueOf(projectId),
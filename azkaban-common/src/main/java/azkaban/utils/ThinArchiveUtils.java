@@ -164,7 +164,18 @@ public class ThinArchiveUtils {
   public static void validateDependencyHash(final File f, final Dependency d)
       throws HashNotMatchException {
     try {
-      final byte[] actualFileHash = HashUtils.SHA1.getHashBytes(f);
+      validateDependencyHash(HashUtils.SHA1.getHashBytes(f), d);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Validate the SHA1 hash of a dependency computed while it was downloaded.
+   */
+  public static void validateDependencyHash(final byte[] actualFileHash, final Dependency d)
+      throws HashNotMatchException {
+    try {
       if (!HashUtils.isSameHash(d.getSHA1(), actualFileHash)) {
         throw new HashNotMatchException(String.format("SHA1 Dependency hash check failed. File: %s Expected: %s Actual: %s",
             d.getFileName(),
@@ -173,8 +184,6 @@ public class ThinArchiveUtils {
       }
     } catch (DecoderException e) {
       throw new RuntimeException(e);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
     }
   }
 
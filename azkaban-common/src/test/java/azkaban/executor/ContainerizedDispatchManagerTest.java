@@ -21,7 +21,12 @@ import static azkaban.executor.ExecutorApiClientTest.REVERSE_PROXY_HOST;
 import static azkaban.executor.ExecutorApiClientTest.REVERSE_PROXY_PORT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,9 +58,12 @@ import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.junit.After;
 import org.junit.Assert;
@@ -385,6 +393,55 @@ public class ContainerizedDispatchManagerTest {
     Assert.assertEquals(this.containerizedDispatchManager.isQueueProcessorThreadActive(), true);
   }
 
+  /* Test that no more executions are picked from queue than the free slots of dispatch window */
+  @Test
+  public void testDispatchWindowBoundsInFlightExecutions() throws Exception {
+    this.props.put(ContainerizedDispatchManagerProperties.CONTAINERIZED_EXECUTION_BATCH_ENABLED,
+        "true");
+    this.props.put(ContainerizedDispatchManagerProperties.CONTAINERIZED_DISPATCH_MAX_IN_FLIGHT,
+        "2");
+    final List<Integer> limits = new CopyOnWriteArrayList<>();
+    when(this.loader.selectAndUpdateExecutionWithLocking(anyBoolean(), anyInt(), any(), any()))
+        .thenAnswer(invocation -> {
+          limits.add(invocation.getArgument(1));
+          return limits.size() == 1 ? ImmutableSet.of(1, 2) : Collections.emptySet();
+        });
+    when(this.loader.fetchExecutableFlow(1)).thenReturn(this.flow1);
+    when(this.loader.fetchExecutableFlow(2)).thenReturn(this.flow2);
+    final CountDownLatch created = new CountDownLatch(2);
+    final CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      created.countDown();
+      release.await();
+      return null;
+    }).when(this.containerizedImpl).createContainer(anyInt());
+
+    initializeContainerizedDispatchImpl();
+    this.containerizedDispatchManager.start();
+    created.await();
+    // The window is full, so the queue isn't polled until a dispatch finishes
+    final int polls = limits.size();
+    Thread.sleep(200);
+    assertThat(limits).hasSize(polls);
+    assertThat(limits.get(0)).isEqualTo(2);
+
+    release.countDown();
+    verify(this.loader, timeout(5000).atLeast(polls + 1))
+        .selectAndUpdateExecutionWithLocking(anyBoolean(), anyInt(), any(), any());
+    assertThat(limits.get(limits.size() - 1)).isGreaterThan(0);
+  }
+
+  @Test
+  public void testDispatchWindowMustNotBeEmpty() throws Exception {
+    this.props.put(ContainerizedDispatchManagerProperties.CONTAINERIZED_DISPATCH_MAX_IN_FLIGHT,
+        "0");
+    initializeContainerizedDispatchImpl();
+    assertThatThrownBy(() -> this.containerizedDispatchManager.start())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            ContainerizedDispatchManagerProperties.CONTAINERIZED_DISPATCH_MAX_IN_FLIGHT);
+  }
+
   private void submitFlow(final ExecutableFlow flow, final ExecutionReference ref) throws
       Exception {
     when(this.loader.fetchUnfinishedFlows()).thenReturn(this.unfinishedFlows);
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Pair;
+import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutableFlowCacheTest {
+
+  private static final int EXEC_ID = 1;
+  private ExecutorLoader loader;
+
+  @Before
+  public void setUp() {
+    this.loader = mock(ExecutorLoader.class);
+  }
+
+  private ExecutableFlowCache createCache(final long maxNodes) {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.WEBSERVER_EXECUTABLE_FLOW_CACHE_MAX_NODES,
+        String.valueOf(maxNodes));
+    return new ExecutableFlowCache(props, this.loader, new MetricsManager(new MetricRegistry()));
+  }
+
+  @Test
+  public void testCachedUntilVersionChanges() throws Exception {
+    final ExecutableFlowCache cache = createCache(100);
+    final ExecutableFlow flow1 = new ExecutableFlow();
+    final ExecutableFlow flow2 = new ExecutableFlow();
+    when(this.loader.fetchExecutableFlowVersion(EXEC_ID))
+        .thenReturn(new Pair<>(1L, Status.RUNNING));
+    when(this.loader.fetchExecutableFlow(EXEC_ID)).thenReturn(flow1, flow2);
+
+    assertThat(cache.getExecutableFlow(EXEC_ID)).isSameAs(flow1);
+    assertThat(cache.getExecutableFlow(EXEC_ID)).isSameAs(flow1);
+    verify(this.loader, times(1)).fetchExecutableFlow(EXEC_ID);
+
+    // The status changes without an update of update_time.
+    when(this.loader.fetchExecutableFlowVersion(EXEC_ID))
+        .thenReturn(new Pair<>(1L, Status.KILLING));
+    assertThat(cache.getExecutableFlow(EXEC_ID)).isSameAs(flow2);
+    verify(this.loader, times(2)).fetchExecutableFlow(EXEC_ID);
+    assertThat(cache.getCachedNodes()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMissingExecution() throws Exception {
+    final ExecutableFlowCache cache = createCache(100);
+    assertThat(cache.getExecutableFlow(EXEC_ID)).isNull();
+    verify(this.loader, times(0)).fetchExecutableFlow(EXEC_ID);
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    final ExecutableFlowCache cache = createCache(0);
+    final ExecutableFlow flow = new ExecutableFlow();
+    when(this.loader.fetchExecutableFlow(EXEC_ID)).thenReturn(flow);
+
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(cache.getExecutableFlow(EXEC_ID)).isSameAs(flow);
+    assertThat(cache.getExecutableFlow(EXEC_ID)).isSameAs(flow);
+    verify(this.loader, times(2)).fetchExecutableFlow(EXEC_ID);
+    verify(this.loader, times(0)).fetchExecutableFlowVersion(EXEC_ID);
+  }
+
+  @Test
+  public void testConcurrentLookupsShareOneLoad() throws Exception {
+    final ExecutableFlowCache cache = createCache(100);
+    final ExecutableFlow flow = new ExecutableFlow();
+    final CountDownLatch loadStarted = new CountDownLatch(1);
+    final CountDownLatch releaseLoad = new CountDownLatch(1);
+    when(this.loader.fetchExecutableFlowVersion(EXEC_ID))
+        .thenReturn(new Pair<>(1L, Status.RUNNING));
+    when(this.loader.fetchExecutableFlow(EXEC_ID)).thenAnswer(invocation -> {
+      loadStarted.countDown();
+      releaseLoad.await(10, TimeUnit.SECONDS);
+      return flow;
+    });
+
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<ExecutableFlow>> results = new ArrayList<>();
+      results.add(pool.submit(() -> cache.getExecutableFlow(EXEC_ID)));
+      assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+      for (int i = 0; i < 3; i++) {
+        results.add(pool.submit(() -> cache.getExecutableFlow(EXEC_ID)));
+      }
+      // Give the other lookups time to join the in-flight load.
+      Thread.sleep(200);
+      releaseLoad.countDown();
+      for (final Future<ExecutableFlow> result : results) {
+        assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(flow);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    verify(this.loader, times(1)).fetchExecutableFlow(EXEC_ID);
+  }
+}
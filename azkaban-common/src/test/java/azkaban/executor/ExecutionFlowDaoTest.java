@@ -20,6 +20,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import azkaban.DispatchMethod;
@@ -85,7 +87,8 @@ public class ExecutionFlowDaoTest {
   @Before
   public void setup() {
     this.mysqlNamedLock = mock(MysqlNamedLock.class);
-    this.executionFlowDao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock);
+    this.executionFlowDao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock,
+        new ExecutionSearchIndex(dbOperator));
     this.executorDao = new ExecutorDao(dbOperator);
     this.assignExecutor = new AssignExecutorDao(dbOperator, this.executorDao);
     this.fetchActiveFlowDao = new FetchActiveFlowDao(dbOperator);
@@ -97,6 +100,7 @@ public class ExecutionFlowDaoTest {
   public void clearDB() {
     try {
       dbOperator.update("DELETE FROM execution_flows");
+      dbOperator.update("DELETE FROM execution_search_terms");
       dbOperator.update("DELETE FROM executors");
       dbOperator.update("DELETE FROM projects");
     } catch (final SQLException e) {
@@ -151,6 +155,23 @@ public class ExecutionFlowDaoTest {
     assertTwoFlowSame(fetchFlow, fetchFlow2);
   }
 
+  @Test
+  public void testFetchExecutableFlowVersion() throws Exception {
+    final ExecutableFlow flow = createTestFlow();
+    this.executionFlowDao.uploadExecutableFlow(flow);
+    assertThat(this.executionFlowDao.fetchExecutableFlowVersion(flow.getExecutionId()))
+        .isEqualTo(new Pair<>(flow.getUpdateTime(), flow.getStatus()));
+
+    flow.setUpdateTime(flow.getUpdateTime() + 1000);
+    flow.setStatus(Status.SUCCEEDED);
+    this.executionFlowDao.updateExecutableFlow(flow);
+    assertThat(this.executionFlowDao.fetchExecutableFlowVersion(flow.getExecutionId()))
+        .isEqualTo(new Pair<>(flow.getUpdateTime(), Status.SUCCEEDED));
+
+    assertThat(this.executionFlowDao.fetchExecutableFlowVersion(flow.getExecutionId() + 100))
+        .isNull();
+  }
+
   @Test
   public void fetchFlowHistory() throws Exception {
     final ExecutableFlow flow = createTestFlow();
@@ -517,6 +538,78 @@ public class ExecutionFlowDaoTest {
     assertThat(inOutProps.getSecond().get("hello")).isEqualTo("output");
   }
 
+  @Test
+  public void testFetchPropsOfLatestAttempt() throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow.setExecutionId(12);
+    final ExecutableNode node = flow.getExecutableNode("job10");
+
+    for (int attempt = 0; attempt < 3; attempt++) {
+      if (attempt > 0) {
+        node.resetForRetry();
+      }
+      final Props inputProps = new Props();
+      inputProps.put("attempt", String.valueOf(attempt));
+      this.executionJobDao.uploadExecutableNode(node, inputProps);
+      final Props outputProps = new Props();
+      outputProps.put("attempt", String.valueOf(attempt));
+      node.setOutputProps(outputProps);
+      this.executionJobDao.updateExecutableNode(node);
+    }
+
+    assertThat(this.executionJobDao.fetchExecutionJobOutputProps(12, "job10").get("attempt"))
+        .isEqualTo("2");
+    assertThat(this.executionJobDao.fetchExecutionJobInputProps(12, "job10").get("attempt"))
+        .isEqualTo("2");
+    final Pair<Props, Props> props = this.executionJobDao.fetchExecutionJobProps(12, "job10");
+    assertThat(props.getFirst().get("attempt")).isEqualTo("2");
+    assertThat(props.getSecond().get("attempt")).isEqualTo("2");
+  }
+
+  @Test
+  public void testUploadExecutableNodesInBulk() throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow.setExecutionId(11);
+    final List<Pair<ExecutableNode, Props>> nodes = new ArrayList<>();
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      final Props inputProps = new Props();
+      inputProps.put("input", node.getId());
+      nodes.add(new Pair<>(node, inputProps));
+    }
+
+    final DatabaseOperator countingOperator = spy(dbOperator);
+    final ExecutionJobDao bulkJobDao = new ExecutionJobDao(countingOperator);
+    assertThat(bulkJobDao.uploadExecutableNodes(nodes)).isEqualTo(nodes.size());
+
+    // All rows of the flow are inserted in a single round trip.
+    assertThat(mockingDetails(countingOperator).getInvocations().stream()
+        .filter(invocation -> invocation.getMethod().getName().equals("update")).count())
+        .isEqualTo(1);
+    for (final Pair<ExecutableNode, Props> node : nodes) {
+      final String jobId = node.getFirst().getId();
+      assertThat(this.executionJobDao.fetchJobInfo(11, jobId, 0).getJobId()).isEqualTo(jobId);
+      assertThat(this.executionJobDao.fetchExecutionJobInputProps(11, jobId).get("input"))
+          .isEqualTo(jobId);
+    }
+  }
+
+  @Test
+  public void testFailedBulkUploadInsertsNoRow() throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow.setExecutionId(13);
+    final List<Pair<ExecutableNode, Props>> nodes = new ArrayList<>();
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      nodes.add(new Pair<>(node, new Props()));
+    }
+    final ExecutableNode lastNode = nodes.get(nodes.size() - 1).getFirst();
+    this.executionJobDao.uploadExecutableNode(lastNode, new Props());
+
+    // The duplicate row fails the whole statement, so no row is left to be inserted twice
+    assertThat(this.executionJobDao.uploadExecutableNodes(nodes)).isEqualTo(0);
+    assertThat(this.executionJobDao.fetchJobInfo(13, nodes.get(0).getFirst().getId(), 0))
+        .isNull();
+  }
+
   @Test
   public void testSelectAndUpdateExecution() throws Exception {
     final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
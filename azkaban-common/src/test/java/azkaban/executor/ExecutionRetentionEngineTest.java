@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.db.DatabaseOperator;
+import azkaban.executor.ExecutionRetentionDao.RetentionTable;
+import azkaban.metrics.MetricsManager;
+import azkaban.test.Utils;
+import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
+import java.sql.SQLException;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExecutionRetentionEngineTest {
+
+  private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+  private static DatabaseOperator dbOperator;
+  private Props props;
+  private ExecutionRetentionEngine engine;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    dbOperator = Utils.initTestDB();
+  }
+
+  @AfterClass
+  public static void destroyDB() throws Exception {
+    try {
+      dbOperator.update("DROP ALL OBJECTS");
+      dbOperator.update("SHUTDOWN");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Before
+  public void setup() {
+    this.props = new Props();
+    this.props.put(ConfigurationKeys.EXECUTION_RETENTION_ENGINE_ENABLED, "true");
+    this.props.put(ConfigurationKeys.EXECUTION_LOGS_RETENTION_MS, String.valueOf(DAY_MS));
+    this.props.put(ConfigurationKeys.EXECUTION_RETENTION_MS, String.valueOf(DAY_MS));
+    this.props.put(ConfigurationKeys.EXECUTION_RETENTION_MAX_BATCH_SIZE, "4");
+    this.props.put(ConfigurationKeys.EXECUTION_RETENTION_TARGET_BATCH_MS, "100");
+    this.props.put(ConfigurationKeys.EXECUTION_RETENTION_BATCH_PAUSE_MS, "0");
+    this.engine = new ExecutionRetentionEngine(this.props, new ExecutionRetentionDao(dbOperator),
+        new MetricsManager(new MetricRegistry()));
+  }
+
+  @After
+  public void clearDB() {
+    try {
+      dbOperator.update("DELETE FROM execution_logs");
+      dbOperator.update("DELETE FROM execution_jobs");
+      dbOperator.update("DELETE FROM execution_flows");
+      dbOperator.update("DELETE FROM execution_retention_state");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Test
+  public void testRunOnceDeletesOnlyFinishedOldExecutions() throws Exception {
+    final long old = System.currentTimeMillis() - 2 * DAY_MS;
+    final long recent = System.currentTimeMillis();
+    for (int execId = 1; execId <= 5; execId++) {
+      insertExecution(execId, old, Status.SUCCEEDED);
+    }
+    // Old but still running and updated recently: neither it nor anything after it may be
+    // removed.
+    insertExecution(6, old + 1, recent, Status.RUNNING);
+    insertExecution(7, recent, Status.SUCCEEDED);
+
+    this.engine.runOnce();
+
+    assertThat(count("execution_flows")).isEqualTo(2);
+    assertThat(count("execution_jobs")).isEqualTo(2);
+    assertThat(count("execution_logs")).isEqualTo(2);
+    assertThat(dbOperator.query("SELECT MIN(exec_id) FROM execution_flows",
+        new ScalarHandler<Integer>())).isEqualTo(6);
+  }
+
+  @Test
+  public void testOrphanedUnfinishedExecutionDoesNotBlockRetention() throws Exception {
+    final long old = System.currentTimeMillis() - 2 * DAY_MS;
+    // Left RUNNING by an executor crash and not updated since
+    insertExecution(1, old, old, Status.RUNNING);
+    insertExecution(2, old + 1, Status.SUCCEEDED);
+    insertExecution(3, System.currentTimeMillis(), Status.SUCCEEDED);
+
+    this.engine.runOnce();
+
+    // Only the row of the orphaned execution is kept, as unfinished executions are never removed.
+    assertThat(count("execution_flows")).isEqualTo(2);
+    assertThat(count("execution_jobs")).isEqualTo(1);
+    assertThat(count("execution_logs")).isEqualTo(1);
+    assertThat(dbOperator.query("SELECT MIN(exec_id) FROM execution_jobs",
+        new ScalarHandler<Integer>())).isEqualTo(3);
+  }
+
+  @Test
+  public void testRetentionContinuesFromCursor() throws Exception {
+    final long old = System.currentTimeMillis() - 2 * DAY_MS;
+    insertExecution(1, old, old, Status.RUNNING);
+    insertExecution(2, old + 1, Status.SUCCEEDED);
+    insertExecution(3, System.currentTimeMillis(), Status.SUCCEEDED);
+    this.engine.runOnce();
+
+    // A restarted engine doesn't walk again over the row of the orphaned execution
+    final ExecutionRetentionDao retentionDao = spy(new ExecutionRetentionDao(dbOperator));
+    new ExecutionRetentionEngine(this.props, retentionDao, new MetricsManager(new MetricRegistry()))
+        .runOnce();
+
+    verify(retentionDao, never()).deleteExecIdRange(any(), anyInt(), anyInt(), anyLong());
+    assertThat(retentionDao.fetchCursor(RetentionTable.EXECUTION_FLOWS)).isEqualTo(3);
+    assertThat(count("execution_flows")).isEqualTo(2);
+  }
+
+  @Test
+  public void testNothingToClean() throws Exception {
+    insertExecution(1, System.currentTimeMillis(), Status.SUCCEEDED);
+    this.engine.runOnce();
+    assertThat(count("execution_flows")).isEqualTo(1);
+    assertThat(count("execution_logs")).isEqualTo(1);
+  }
+
+  @Test
+  public void testAdaptiveBatchSize() {
+    // Fast batches grow up to the max batch size.
+    assertThat(this.engine.nextBatchSize(1, 10)).isEqualTo(2);
+    assertThat(this.engine.nextBatchSize(4, 10)).isEqualTo(4);
+    // Slow batches shrink down to the min batch size.
+    assertThat(this.engine.nextBatchSize(4, 500)).isEqualTo(2);
+    assertThat(this.engine.nextBatchSize(1, 500)).isEqualTo(1);
+    // Batches close to the target latency keep their size.
+    assertThat(this.engine.nextBatchSize(3, 75)).isEqualTo(3);
+  }
+
+  private void insertExecution(final int execId, final long time, final Status status)
+      throws SQLException {
+    insertExecution(execId, time, time, status);
+  }
+
+  private void insertExecution(final int execId, final long time, final long updateTime,
+      final Status status) throws SQLException {
+    dbOperator.update("INSERT INTO execution_flows (exec_id, project_id, version, flow_id, "
+            + "status, submit_time, update_time, start_time, end_time) "
+            + "VALUES (?,?,?,?,?,?,?,?,?)", execId, 1, 1, "flow", status.getNumVal(), time,
+        updateTime, time, time);
+    dbOperator.update("INSERT INTO execution_jobs (exec_id, project_id, version, flow_id, job_id, "
+        + "attempt, status) VALUES (?,?,?,?,?,?,?)", execId, 1, 1, "flow", "job", 0,
+        status.getNumVal());
+    dbOperator.update("INSERT INTO execution_logs (exec_id, name, attempt, enc_type, start_byte, "
+        + "end_byte, upload_time) VALUES (?,?,?,?,?,?,?)", execId, "flow", 0, 1, 0, 0, time);
+  }
+
+  private long count(final String table) throws SQLException {
+    return dbOperator.query("SELECT COUNT(1) FROM " + table, new ScalarHandler<Long>());
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import azkaban.DispatchMethod;
+import azkaban.db.DatabaseOperator;
+import azkaban.executor.ExecutionSearchIndex.Field;
+import azkaban.test.Utils;
+import azkaban.utils.TestUtils;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExecutionSearchIndexTest {
+
+  private static DatabaseOperator dbOperator;
+  private ExecutionSearchIndex searchIndex;
+  private ExecutionFlowDao executionFlowDao;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    dbOperator = Utils.initTestDB();
+  }
+
+  @AfterClass
+  public static void destroyDB() throws Exception {
+    try {
+      dbOperator.update("DROP ALL OBJECTS");
+      dbOperator.update("SHUTDOWN");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Before
+  public void setup() {
+    this.searchIndex = new ExecutionSearchIndex(dbOperator);
+    this.executionFlowDao = new ExecutionFlowDao(dbOperator, mock(MysqlNamedLock.class),
+        this.searchIndex);
+  }
+
+  @After
+  public void clearDB() {
+    try {
+      dbOperator.update("DELETE FROM execution_flows");
+      dbOperator.update("DELETE FROM execution_search_terms");
+      dbOperator.update("DELETE FROM execution_search_state");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private ExecutableFlow uploadExecution(final String flowName, final String user)
+      throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", flowName,
+        DispatchMethod.POLL);
+    flow.setSubmitUser(user);
+    flow.setStatus(Status.PREPARING);
+    this.executionFlowDao.uploadExecutableFlow(flow);
+    return flow;
+  }
+
+  @Test
+  public void testNotReadyBeforeBackfill() throws Exception {
+    uploadExecution("exec1", "user1");
+    assertThat(this.searchIndex.isReady()).isFalse();
+    assertThat(this.searchIndex.findValues(Field.FLOW_ID, "exec")).isNull();
+
+    // Searches scan execution_flows until the index is ready.
+    assertThat(this.executionFlowDao.fetchFlowHistory("", "xec", "", 0, -1, -1, 0, 16))
+        .hasSize(1);
+  }
+
+  @Test
+  public void testBackfillAndIncrementalIndexing() throws Exception {
+    // Executions created before the index existed.
+    uploadExecution("exec1", "user1");
+    uploadExecution("exec2", "user2");
+    dbOperator.update("DELETE FROM execution_search_terms");
+
+    final ExecutionSearchIndex backfilledIndex = new ExecutionSearchIndex(dbOperator);
+    assertThat(backfilledIndex.backfill(1, 0)).isEqualTo(4);
+    assertThat(backfilledIndex.isReady()).isTrue();
+    assertThat(backfilledIndex.findValues(Field.FLOW_ID, "xec"))
+        .containsExactlyInAnyOrder("exec1", "exec2");
+    assertThat(backfilledIndex.findValues(Field.SUBMIT_USER, "2")).containsExactly("user2");
+
+    // Executions created after the backfill are indexed as they are created.
+    uploadExecution("exec3", "user1");
+    assertThat(backfilledIndex.findValues(Field.FLOW_ID, "ec3")).containsExactly("exec3");
+
+    // A second backfill resumes from the completed cursor and has nothing left to do.
+    assertThat(new ExecutionSearchIndex(dbOperator).backfill(1, 0)).isEqualTo(0);
+  }
+
+  @Test
+  public void testBackfillCountsOnlyInsertedTerms() throws Exception {
+    // The terms of these executions are indexed as they are created already.
+    uploadExecution("exec1", "user1");
+    uploadExecution("exec2", "user1");
+
+    assertThat(new ExecutionSearchIndex(dbOperator).backfill(1, 0)).isEqualTo(0);
+  }
+
+  @Test
+  public void testCatchUpIndexesExecutionsCreatedAfterBackfill() throws Exception {
+    uploadExecution("exec1", "user1");
+    assertThat(this.searchIndex.backfill(100, 0)).isEqualTo(0);
+
+    // An execution created by a web server of the previous version, which doesn't index it.
+    uploadExecution("exec2", "user2");
+    dbOperator.update("DELETE FROM execution_search_terms WHERE term IN ('exec2', 'user2')");
+    final ExecutionSearchIndex index = new ExecutionSearchIndex(dbOperator);
+    assertThat(index.findValues(Field.FLOW_ID, "ec2")).isEmpty();
+
+    assertThat(index.catchUp(1)).isEqualTo(2);
+    assertThat(index.findValues(Field.FLOW_ID, "ec2")).containsExactly("exec2");
+    assertThat(index.findValues(Field.SUBMIT_USER, "er2")).containsExactly("user2");
+
+    // The next pass resumes from the cursor.
+    assertThat(new ExecutionSearchIndex(dbOperator).catchUp(1)).isEqualTo(0);
+  }
+
+  @Test
+  public void testIndexedSearch() throws Exception {
+    final ExecutableFlow flow1 = uploadExecution("exec1", "user1");
+    final ExecutableFlow flow2 = uploadExecution("exec2", "user2");
+    this.searchIndex.backfill(100, 0);
+
+    List<ExecutableFlow> flows = this.executionFlowDao.fetchFlowHistory("", "exec", "", 0, -1,
+        -1, 0, 16);
+    assertThat(flows).extracting(ExecutableFlow::getExecutionId)
+        .containsExactly(flow2.getExecutionId(), flow1.getExecutionId());
+
+    flows = this.executionFlowDao.fetchFlowHistory("", "exec", "er1", 0, -1, -1, 0, 16);
+    assertThat(flows).extracting(ExecutableFlow::getExecutionId)
+        .containsExactly(flow1.getExecutionId());
+
+    // No indexed value matches, so execution_flows isn't queried at all.
+    assertThat(this.executionFlowDao.fetchFlowHistory("", "missing", "", 0, -1, -1, 0, 16))
+        .isEmpty();
+  }
+}
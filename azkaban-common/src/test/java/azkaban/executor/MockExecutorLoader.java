@@ -76,6 +76,13 @@ public class MockExecutorLoader implements ExecutorLoader {
     return ExecutableFlow.createExecutableFlow(flow.toObject(), flow.getStatus());
   }
 
+  @Override
+  public Pair<Long, Status> fetchExecutableFlowVersion(final int execId)
+      throws ExecutorManagerException {
+    final ExecutableFlow flow = this.flows.get(execId);
+    return flow == null ? null : new Pair<>(flow.getUpdateTime(), flow.getStatus());
+  }
+
   @Override
   public Map<Integer, Pair<ExecutionReference, ExecutableFlow>> fetchActiveFlows()
       throws ExecutorManagerException {
@@ -54,7 +54,8 @@ public class NumExecutionsDaoTest {
   @Before
   public void setup() {
     MysqlNamedLock mysqlNamedLock = Mockito.mock(MysqlNamedLock.class);
-    this.executionFlowDao = new ExecutionFlowDao(dbOperator, mysqlNamedLock);
+    this.executionFlowDao = new ExecutionFlowDao(dbOperator, mysqlNamedLock,
+        new ExecutionSearchIndex(dbOperator));
     this.numExecutionsDao = new NumExecutionsDao(dbOperator);
   }
 
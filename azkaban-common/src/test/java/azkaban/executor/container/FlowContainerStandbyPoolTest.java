@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.executor.container;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.executor.container.FlowContainerStandbyPool.StandbyPod;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class FlowContainerStandbyPoolTest {
+
+  private static final long IDLE_TIMEOUT_MS = 1000;
+
+  private final FlowContainerStandbyPool<String> pool =
+      new FlowContainerStandbyPool<>(2, 2, IDLE_TIMEOUT_MS);
+
+  private void fill(final String key, final long now) {
+    final int count = this.pool.reserve(key);
+    for (int i = 0; i < count; i++) {
+      assertThat(this.pool.add(key, new StandbyPod(key + "-" + i, now))).isTrue();
+    }
+  }
+
+  @Test
+  public void testKeyIsAddedOnFirstDispatch() {
+    assertThat(this.pool.reserve("a")).isEqualTo(0);
+    assertThat(this.pool.take("a", 0)).isEmpty();
+    assertThat(this.pool.getKeys()).containsExactly("a");
+    assertThat(this.pool.reserve("a")).isEqualTo(2);
+    // The pods being created are reserved
+    assertThat(this.pool.reserve("a")).isEqualTo(0);
+  }
+
+  @Test
+  public void testTakeOldestPod() {
+    this.pool.take("a", 0);
+    fill("a", 0);
+    assertThat(this.pool.getPodCount()).isEqualTo(2);
+    final Optional<StandbyPod> pod = this.pool.take("a", 10);
+    assertThat(pod.get().getName()).isEqualTo("a-0");
+    assertThat(this.pool.getPodCount()).isEqualTo(1);
+    assertThat(this.pool.reserve("a")).isEqualTo(1);
+
+    // A pod put back is taken last
+    assertThat(this.pool.putBack("a", pod.get())).isTrue();
+    assertThat(this.pool.take("a", 20).get().getName()).isEqualTo("a-1");
+  }
+
+  @Test
+  public void testCancelReservation() {
+    this.pool.take("a", 0);
+    assertThat(this.pool.reserve("a")).isEqualTo(2);
+    this.pool.cancelReservation("a");
+    assertThat(this.pool.reserve("a")).isEqualTo(1);
+  }
+
+  @Test
+  public void testReleaseIdleKeys() {
+    this.pool.take("a", 0);
+    fill("a", 0);
+    this.pool.take("b", 500);
+    fill("b", 500);
+    assertThat(this.pool.release(IDLE_TIMEOUT_MS - 1)).isEmpty();
+
+    assertThat(this.pool.release(IDLE_TIMEOUT_MS).stream().map(StandbyPod::getName)
+        .collect(Collectors.toList())).containsExactly("a-0", "a-1");
+    assertThat(this.pool.getKeys()).containsExactly("b");
+    assertThat(this.pool.getPodCount()).isEqualTo(2);
+    // The pods of a released key must be deleted
+    assertThat(this.pool.add("a", new StandbyPod("a-2", 0))).isFalse();
+    assertThat(this.pool.putBack("a", new StandbyPod("a-0", 0))).isFalse();
+  }
+
+  @Test
+  public void testReleaseLeastRecentlyDispatchedKeys() {
+    this.pool.take("a", 0);
+    fill("a", 0);
+    this.pool.take("b", 0);
+    this.pool.take("a", 10);
+    this.pool.take("c", 20);
+
+    assertThat(this.pool.release(30)).isEmpty();
+    assertThat(this.pool.getKeys()).containsExactly("a", "c");
+    assertThat(this.pool.getPodCount()).isEqualTo(1);
+  }
+}
@@ -25,7 +25,16 @@ import static azkaban.Constants.ImageMgmtConstants.AZKABAN_CONFIG;
 import static azkaban.ServiceProvider.SERVICE_PROVIDER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import azkaban.AzkabanCommonModule;
@@ -34,8 +43,11 @@ import azkaban.Constants.ContainerizedDispatchManagerProperties;
 import azkaban.Constants.FlowParameters;
 import azkaban.DispatchMethod;
 import azkaban.db.DatabaseOperator;
+import azkaban.executor.ConnectorParams;
 import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutorApiGateway;
 import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
 import azkaban.executor.FlowStatusChangeEventListener;
 import azkaban.executor.Status;
 import azkaban.imagemgmt.converters.Converter;
@@ -69,19 +81,30 @@ import azkaban.test.Utils;
 import azkaban.utils.JSONUtils;
 import azkaban.utils.Props;
 import azkaban.utils.TestUtils;
+import com.google.common.collect.ImmutableList;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ContainerState;
+import io.kubernetes.client.openapi.models.V1ContainerStateTerminated;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1EnvVar;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
 import io.kubernetes.client.openapi.models.V1PodSpec;
+import io.kubernetes.client.openapi.models.V1PodStatus;
 import io.kubernetes.client.util.Yaml;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.type.TypeReference;
 import org.junit.AfterClass;
@@ -89,6 +112,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
+import org.mockito.internal.util.reflection.FieldSetter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -154,7 +181,7 @@ public class KubernetesContainerizedImplTest {
     this.containerizationMetrics = new DummyContainerizationMetricsImpl();
     this.kubernetesContainerizedImpl = new KubernetesContainerizedImpl(this.props,
         this.executorLoader, this.loader, this.imageRampupManager, null,
-        flowStatusChangeEventListener, containerizationMetrics);
+        flowStatusChangeEventListener, containerizationMetrics, null);
   }
 
   /**
@@ -273,6 +300,209 @@ public class KubernetesContainerizedImplTest {
     log.info("Pod spec for execution id {} is {}", flow.getExecutionId(), podSpecYaml);
   }
 
+  /**
+   * Verify that pod specs of executions with the same image versions, jobtypes and resources are
+   * built from a cached template, without sharing the execution specific settings.
+   */
+  @Test
+  public void testPodSpecTemplateCache() throws Exception {
+    final ContainerizationMetrics metrics = mock(ContainerizationMetrics.class);
+    final KubernetesContainerizedImpl containerizedImpl = new KubernetesContainerizedImpl(
+        this.props, this.executorLoader, this.loader, this.imageRampupManager, null,
+        flowStatusChangeEventListener, metrics, null);
+    final ExecutableFlow flow = createFlowWithMultipleJobtypes();
+    when(imageRampupManager.getVersionByImageTypes(any(), any(Set.class)))
+        .thenReturn(getVersionMap());
+    final TreeSet<String> jobTypes = ContainerImplUtils.getJobTypesForFlow(flow);
+    final Set<String> allImageTypes = new TreeSet<>(jobTypes);
+    allImageTypes.add(AZKABAN_BASE_IMAGE);
+    allImageTypes.add(AZKABAN_CONFIG);
+    final Map<String, String> flowParam = new HashMap<>();
+    final VersionSet versionSet = containerizedImpl
+        .fetchVersionSet(1, flowParam, allImageTypes, flow);
+
+    final V1PodSpec podSpec1 = containerizedImpl.createPodSpec(1, versionSet, jobTypes, flowParam);
+    final V1PodSpec podSpec2 = containerizedImpl.createPodSpec(2, versionSet, jobTypes, flowParam);
+    verify(metrics).markPodSpecTemplateCacheMiss();
+    verify(metrics).markPodSpecTemplateCacheHit();
+    assertThat(getFlowContainerEnv(podSpec1, ContainerizedDispatchManagerProperties
+        .ENV_FLOW_EXECUTION_ID)).isEqualTo("1");
+    assertThat(getFlowContainerEnv(podSpec2, ContainerizedDispatchManagerProperties
+        .ENV_FLOW_EXECUTION_ID)).isEqualTo("2");
+    assertThat(podSpec2.getInitContainers()).isEqualTo(podSpec1.getInitContainers());
+    assertThat(podSpec2.getContainers().get(0).getEnv())
+        .hasSameSizeAs(podSpec1.getContainers().get(0).getEnv());
+
+    // A different resource request needs another template
+    flowParam.put(FlowParameters.FLOW_PARAM_FLOW_CONTAINER_CPU_REQUEST, "3");
+    containerizedImpl.createPodSpec(3, versionSet, jobTypes, flowParam);
+    verify(metrics, times(2)).markPodSpecTemplateCacheMiss();
+  }
+
+  /**
+   * Verify that an execution is marked as PREPARING before it is sent to a standby pod, and that
+   * the dispatch doesn't wait for the standby pod.
+   */
+  @Test
+  public void testAssignExecutionToStandbyPod() throws Exception {
+    final CoreV1Api coreV1Api = mock(CoreV1Api.class);
+    final ExecutorApiGateway apiGateway = mock(ExecutorApiGateway.class);
+    final ContainerizationMetrics metrics = mock(ContainerizationMetrics.class);
+    final KubernetesContainerizedImpl containerizedImpl =
+        createContainerizedImplWithStandbyPod(coreV1Api, apiGateway, metrics);
+
+    final ExecutableFlow flow = dispatchFlow(containerizedImpl, 2);
+
+    verify(apiGateway, timeout(5000)).callWithReferenceByUser(
+        argThat(reference -> reference.getExecId() == 2), eq(ConnectorParams.EXECUTE_ACTION),
+        isNull());
+    final InOrder inOrder = inOrder(this.executorLoader, apiGateway);
+    inOrder.verify(this.executorLoader).updateVersionSetId(eq(2), anyInt());
+    inOrder.verify(this.executorLoader).updateExecutableFlow(flow);
+    inOrder.verify(apiGateway).callWithReferenceByUser(any(), any(), isNull());
+    assertThat(flow.getStatus()).isEqualTo(Status.PREPARING);
+    verify(metrics, timeout(5000)).markStandbyPodHit();
+    verify(coreV1Api, never()).createNamespacedPod(any(), argThat(isPodOfExecution(2)), any(),
+        any(), any());
+  }
+
+  @Test
+  public void testRetryAssignExecutionToStandbyPod() throws Exception {
+    final CoreV1Api coreV1Api = mock(CoreV1Api.class);
+    final ExecutorApiGateway apiGateway = mock(ExecutorApiGateway.class);
+    final ContainerizationMetrics metrics = mock(ContainerizationMetrics.class);
+    final KubernetesContainerizedImpl containerizedImpl =
+        createContainerizedImplWithStandbyPod(coreV1Api, apiGateway, metrics);
+    when(apiGateway.callWithReferenceByUser(any(), any(), isNull()))
+        .thenThrow(new ExecutorManagerException("Connection refused"))
+        .thenReturn(new HashMap<>());
+
+    dispatchFlow(containerizedImpl, 2);
+
+    verify(metrics, timeout(5000)).markStandbyPodHit();
+    verify(apiGateway, times(2)).callWithReferenceByUser(any(), any(), isNull());
+    verify(coreV1Api, never()).createNamespacedPod(any(), argThat(isPodOfExecution(2)), any(),
+        any(), any());
+  }
+
+  /**
+   * Verify that a pod is created for an execution whose standby pod can't be reached.
+   */
+  @Test
+  public void testCreatePodWhenStandbyPodIsNotReachable() throws Exception {
+    final CoreV1Api coreV1Api = mock(CoreV1Api.class);
+    final ExecutorApiGateway apiGateway = mock(ExecutorApiGateway.class);
+    final ContainerizationMetrics metrics = mock(ContainerizationMetrics.class);
+    final KubernetesContainerizedImpl containerizedImpl =
+        createContainerizedImplWithStandbyPod(coreV1Api, apiGateway, metrics);
+    when(apiGateway.callWithReferenceByUser(any(), any(), isNull()))
+        .thenThrow(new ExecutorManagerException("Connection refused"));
+
+    dispatchFlow(containerizedImpl, 2);
+
+    verify(coreV1Api, timeout(10000)).createNamespacedPod(any(), argThat(isPodOfExecution(2)),
+        any(), any(), any());
+    verify(apiGateway, times(KubernetesContainerizedImpl.STANDBY_POD_ASSIGN_ATTEMPTS))
+        .callWithReferenceByUser(any(), any(), isNull());
+    verify(coreV1Api).deleteNamespacedPod(
+        argThat(name -> name.contains(KubernetesContainerizedImpl.STANDBY_POD_NAME_INFIX)),
+        any(), any(), any(), any(), any(), any(), any());
+    verify(metrics, never()).markStandbyPodHit();
+  }
+
+  /**
+   * Verify that a standby pod which failed is deleted rather than put back in the pool, and that
+   * the pool is refilled.
+   */
+  @Test
+  public void testDeleteFailedStandbyPod() throws Exception {
+    final CoreV1Api coreV1Api = mock(CoreV1Api.class);
+    final ExecutorApiGateway apiGateway = mock(ExecutorApiGateway.class);
+    final ContainerizationMetrics metrics = mock(ContainerizationMetrics.class);
+    final KubernetesContainerizedImpl containerizedImpl =
+        createContainerizedImplWithStandbyPod(coreV1Api, apiGateway, metrics);
+    when(coreV1Api.readNamespacedPod(any(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> new V1Pod().metadata(new V1ObjectMeta().labels(new HashMap<>()))
+            .status(new V1PodStatus().phase("Failed").containerStatuses(ImmutableList.of(
+                new V1ContainerStatus().ready(false).state(new V1ContainerState()
+                    .terminated(new V1ContainerStateTerminated().exitCode(1)))))));
+
+    dispatchFlow(containerizedImpl, 2);
+
+    verify(coreV1Api).deleteNamespacedPod(
+        argThat(name -> name.contains(KubernetesContainerizedImpl.STANDBY_POD_NAME_INFIX)),
+        any(), any(), any(), any(), any(), any(), any());
+    verify(coreV1Api).createNamespacedPod(any(), argThat(isPodOfExecution(2)), any(), any(),
+        any());
+    verify(metrics, times(2)).markStandbyPodMiss();
+    verify(metrics, never()).markStandbyPodHit();
+    // One standby pod was created by the first dispatch and one replaces the failed pod.
+    verify(coreV1Api, timeout(5000).times(2)).createNamespacedPod(any(),
+        argThat(pod -> pod.getMetadata().getName()
+            .contains(KubernetesContainerizedImpl.STANDBY_POD_NAME_INFIX)), any(), any(), any());
+  }
+
+  /**
+   * Create a containerized impl keeping a standby pod per pod spec, with a mocked kubernetes api.
+   * A first dispatch creates the standby pod for the pod spec of the test flow.
+   */
+  private KubernetesContainerizedImpl createContainerizedImplWithStandbyPod(
+      final CoreV1Api coreV1Api, final ExecutorApiGateway apiGateway,
+      final ContainerizationMetrics metrics) throws Exception {
+    final Props standbyProps = new Props(this.props);
+    standbyProps.put(
+        ContainerizedDispatchManagerProperties.KUBERNETES_FLOW_CONTAINER_STANDBY_POOL_SIZE, 1);
+    standbyProps.put(ContainerizedDispatchManagerProperties.KUBERNETES_SERVICE_REQUIRED, "false");
+    when(coreV1Api.listNamespacedPod(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+        any())).thenReturn(new V1PodList().items(new ArrayList<>()));
+    when(coreV1Api.readNamespacedPod(any(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> createReadyPod());
+    when(imageRampupManager.getVersionByImageTypes(any(), any(Set.class)))
+        .thenReturn(getVersionMap());
+    final KubernetesContainerizedImpl containerizedImpl = new KubernetesContainerizedImpl(
+        standbyProps, this.executorLoader, this.loader, this.imageRampupManager, null,
+        flowStatusChangeEventListener, metrics, apiGateway);
+    FieldSetter.setField(containerizedImpl,
+        KubernetesContainerizedImpl.class.getDeclaredField("coreV1Api"), coreV1Api);
+    final ArgumentCaptor<Supplier<Integer>> standbyPodCount =
+        ArgumentCaptor.forClass(Supplier.class);
+    verify(metrics).addStandbyPodCountGauge(standbyPodCount.capture());
+
+    dispatchFlow(containerizedImpl, 1);
+    verify(metrics).markStandbyPodMiss();
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (standbyPodCount.getValue().get() == 0) {
+      assertThat(System.currentTimeMillis()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+    return containerizedImpl;
+  }
+
+  private ExecutableFlow dispatchFlow(final KubernetesContainerizedImpl containerizedImpl,
+      final int executionId) throws Exception {
+    final ExecutableFlow flow = createFlowWithMultipleJobtypes();
+    flow.setExecutionId(executionId);
+    when(this.executorLoader.fetchExecutableFlow(executionId)).thenReturn(flow);
+    containerizedImpl.createContainer(executionId);
+    return flow;
+  }
+
+  private static V1Pod createReadyPod() {
+    return new V1Pod().metadata(new V1ObjectMeta().labels(new HashMap<>()))
+        .status(new V1PodStatus().phase("Running")
+            .containerStatuses(ImmutableList.of(new V1ContainerStatus().ready(true))));
+  }
+
+  private static ArgumentMatcher<V1Pod> isPodOfExecution(final int executionId) {
+    return pod -> pod.getMetadata().getName().endsWith("-" + executionId);
+  }
+
+  private static String getFlowContainerEnv(final V1PodSpec podSpec, final String name) {
+    return podSpec.getContainers().get(0).getEnv().stream()
+        .filter(env -> env.getName().equals(name)).map(V1EnvVar::getValue).findFirst()
+        .orElse(null);
+  }
+
   @Test
   public void testVersionSetConstructionWithFlowOverrideParams() throws Exception {
     final ExecutableFlow flow = createFlowWithMultipleJobtypes();
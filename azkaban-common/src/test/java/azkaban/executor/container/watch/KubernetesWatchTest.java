@@ -18,6 +18,7 @@ package azkaban.executor.container.watch;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -333,6 +334,27 @@ public class KubernetesWatchTest {
     assertThat(recordHandlerListener.getPodInitFailureCounter()).isEqualTo(1);
   }
 
+  // Validates that the time from pod requested to pod ready is recorded
+  @Test
+  public void testContainerStatusMetricsListenerPodReadyTime() throws Exception {
+    ContainerizationMetrics containerizationMetrics = mock(ContainerizationMetrics.class);
+    ContainerStatusMetricsListener metricsListener =
+        new ContainerStatusMetricsListener(containerizationMetrics);
+    AzPodStatusDrivingListener statusDriver = new AzPodStatusDrivingListener(new Props());
+    statusDriver.registerAzPodStatusListener(metricsListener);
+
+    Watch<V1Pod> fileBackedWatch = fileBackedWatch(Config.defaultClient());
+    PreInitializedWatch kubernetesWatch = defaultPreInitializedWatch(statusDriver, fileBackedWatch,
+        1);
+    kubernetesWatch.launchPodWatch().join(DEFAULT_WATCH_COMPLETION_TIMEOUT_MILLIS);
+    // Wait for the queued events to be processed
+    metricsListener.shutdown();
+
+    // Only one of the requested pods gets ready
+    verify(containerizationMetrics).markPodReady();
+    verify(containerizationMetrics).addTimeFromPodRequestedToReady(anyLong());
+  }
+
   // Validate that for invalid pod transitions corresponding flows are finalized and containers
   // are deleted.
   @Test
@@ -16,9 +16,16 @@
 package azkaban.imagemgmt.rampup;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import azkaban.Constants.ContainerizedDispatchManagerProperties;
+
 import azkaban.DispatchMethod;
 import azkaban.executor.ExecutableFlow;
 import azkaban.imagemgmt.converters.Converter;
@@ -37,13 +44,18 @@ import azkaban.imagemgmt.exception.ImageMgmtException;
 import azkaban.imagemgmt.models.ImageRampup;
 import azkaban.imagemgmt.models.ImageType;
 import azkaban.imagemgmt.models.ImageVersion;
+import azkaban.imagemgmt.models.ImageVersion.State;
 import azkaban.imagemgmt.utils.ConverterUtils;
 import azkaban.imagemgmt.version.VersionInfo;
 import azkaban.utils.JSONUtils;
+import azkaban.utils.Props;
 import azkaban.utils.TestUtils;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.Set;
 import java.util.TreeSet;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -351,6 +363,192 @@ public class ImageRampupManagerImplTest {
     Assert.assertEquals("5.1.5", imageTypeVersionMap.get("hadoop_job"));
   }
 
+  /**
+   * The versions are selected from the snapshot of the rampups and image versions without querying
+   * the database, and are the same as the ones selected from the database.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testFetchVersionByImageTypesFromSnapshot() throws Exception {
+    mockAllImageTypesVersions();
+    final Set<String> imageTypes = new TreeSet<>();
+    imageTypes.add("spark_job");
+    imageTypes.add("hive_job");
+    imageTypes.add("azkaban_core");
+    imageTypes.add("azkaban_config");
+    imageTypes.add("azkaban_exec");
+    imageTypes.add("pig_job");
+    imageTypes.add("hadoop_job");
+    final ExecutableFlow flow = TestUtils
+        .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.CONTAINERIZED);
+    final Map<String, List<ImageRampup>> imageTypeRampups =
+        this.imageRampupDao.getRampupForAllImageTypes();
+    when(this.imageRampupDao.getRampupByImageTypes(any(Set.class))).thenReturn(imageTypeRampups);
+    final Map<String, VersionInfo> expectedVersionMap = this.imageRampupManger
+        .getVersionByImageTypes(flow, imageTypes);
+
+    final ImageRampupManager snapshotRampupManager = createSnapshotRampupManager();
+    clearInvocations(this.imageRampupDao, this.imageVersionDao, this.imageTypeDao);
+    Map<String, VersionInfo> imageTypeVersionMap = snapshotRampupManager
+        .getVersionByImageTypes(flow, imageTypes);
+    Assert.assertEquals(expectedVersionMap, imageTypeVersionMap);
+    verify(this.imageTypeDao).getAllImageTypes();
+    verify(this.imageRampupDao).getRampupForAllImageTypes();
+    verify(this.imageRampupDao, never()).getRampupByImageTypes(any(Set.class));
+
+    // The next selections don't query the database
+    clearInvocations(this.imageRampupDao, this.imageVersionDao, this.imageTypeDao);
+    imageTypeVersionMap = snapshotRampupManager.getVersionByImageTypes(flow, imageTypes);
+    Assert.assertEquals(expectedVersionMap, imageTypeVersionMap);
+    verifyZeroInteractions(this.imageRampupDao, this.imageVersionDao, this.imageTypeDao);
+
+    // The snapshot is reloaded once it is invalidated
+    snapshotRampupManager.invalidateCache();
+    snapshotRampupManager.getVersionByImageTypes(flow, imageTypes);
+    snapshotRampupManager.getVersionByImageTypes(flow, imageTypes);
+    verify(this.imageTypeDao).getAllImageTypes();
+    verify(this.imageRampupDao).getRampupForAllImageTypes();
+  }
+
+  /**
+   * The image types created after the snapshot was loaded are resolved from the database.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testFetchVersionByUnknownImageTypeFromDatabase() throws Exception {
+    mockAllImageTypesVersions();
+    final ImageRampupManager snapshotRampupManager = createSnapshotRampupManager();
+    final ImageVersion newImageVersion = createImageVersion("new_job", "1.0.0", State.ACTIVE);
+    when(this.imageRampupDao.getRampupByImageTypes(any(Set.class))).thenReturn(new HashMap<>());
+    final List<ImageVersion> activeImageVersions = new ArrayList<>(
+        this.imageVersionDao.getActiveVersionByImageTypes(new TreeSet<>()));
+    activeImageVersions.add(newImageVersion);
+    when(this.imageVersionDao.getActiveVersionByImageTypes(any(Set.class)))
+        .thenReturn(activeImageVersions);
+
+    final Set<String> imageTypes = new TreeSet<>();
+    imageTypes.add("new_job");
+    imageTypes.add("pig_job");
+    final Map<String, VersionInfo> imageTypeVersionMap = snapshotRampupManager
+        .getVersionByImageTypes(null, imageTypes);
+    Assert.assertEquals("1.0.0", imageTypeVersionMap.get("new_job").getVersion());
+    Assert.assertEquals("4.1.2", imageTypeVersionMap.get("pig_job").getVersion());
+    verify(this.imageRampupDao).getRampupByImageTypes(imageTypes);
+  }
+
+  /**
+   * Measures the version selection of a dispatch for 60 image types, half of them being ramped up,
+   * with and without the snapshot. Only the absence of database queries is asserted, the timings
+   * are logged.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testVersionSelectionThroughputForManyImageTypes() throws Exception {
+    final int imageTypeCount = 60;
+    final List<ImageType> allImageTypes = new ArrayList<>();
+    final Map<String, List<ImageRampup>> imageTypeRampups = new HashMap<>();
+    final List<ImageVersion> rampupImageVersions = new ArrayList<>();
+    final List<ImageVersion> activeImageVersions = new ArrayList<>();
+    final Set<String> imageTypes = new TreeSet<>();
+    for (int i = 0; i < imageTypeCount; i++) {
+      final String imageTypeName = "image_type_" + i;
+      final ImageType imageType = new ImageType();
+      imageType.setName(imageTypeName);
+      allImageTypes.add(imageType);
+      imageTypes.add(imageTypeName);
+      activeImageVersions.add(createImageVersion(imageTypeName, "1.0.0", State.ACTIVE));
+      if (i % 2 == 0) {
+        final List<ImageRampup> rampups = new ArrayList<>();
+        for (final String version : new String[]{"1.0.1", "1.0.2"}) {
+          final ImageRampup rampup = new ImageRampup();
+          rampup.setImageVersion(version);
+          rampup.setRampupPercentage(50);
+          rampups.add(rampup);
+          rampupImageVersions.add(createImageVersion(imageTypeName, version, State.NEW));
+        }
+        imageTypeRampups.put(imageTypeName, rampups);
+      }
+    }
+    when(this.imageTypeDao.getAllImageTypes()).thenReturn(allImageTypes);
+    when(this.imageRampupDao.getRampupForAllImageTypes()).thenReturn(imageTypeRampups);
+    when(this.imageRampupDao.getRampupByImageTypes(any(Set.class))).thenReturn(imageTypeRampups);
+    when(this.imageVersionDao.findImageVersions(any(ImageMetadataRequest.class)))
+        .thenReturn(rampupImageVersions);
+    when(this.imageVersionDao.getActiveVersionByImageTypes(any(Set.class)))
+        .thenReturn(activeImageVersions);
+
+    final int iterations = 1000;
+    final long databaseNanos = measureVersionSelection(this.imageRampupManger, imageTypes,
+        iterations);
+    final ImageRampupManager snapshotRampupManager = createSnapshotRampupManager();
+    // Load the snapshot
+    snapshotRampupManager.getVersionByImageTypes(null, imageTypes);
+    clearInvocations(this.imageRampupDao, this.imageVersionDao, this.imageTypeDao);
+    final long snapshotNanos = measureVersionSelection(snapshotRampupManager, imageTypes,
+        iterations);
+    verifyZeroInteractions(this.imageRampupDao, this.imageVersionDao, this.imageTypeDao);
+    log.info("Version selection of {} image types: {} us per dispatch from database mocks, {} us "
+            + "per dispatch from snapshot", imageTypeCount,
+        TimeUnit.NANOSECONDS.toMicros(databaseNanos / iterations),
+        TimeUnit.NANOSECONDS.toMicros(snapshotNanos / iterations));
+  }
+
+  private long measureVersionSelection(final ImageRampupManager rampupManager,
+      final Set<String> imageTypes, final int iterations) {
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      final Map<String, VersionInfo> imageTypeVersionMap =
+          rampupManager.getVersionByImageTypes(null, imageTypes);
+      Assert.assertEquals(imageTypes.size(), imageTypeVersionMap.size());
+    }
+    return System.nanoTime() - start;
+  }
+
+  private ImageRampupManager createSnapshotRampupManager() {
+    final Props props = new Props();
+    props.put(ContainerizedDispatchManagerProperties
+        .CONTAINERIZED_IMAGE_RAMPUP_SNAPSHOT_REFRESH_INTERVAL_SEC, "3600");
+    return new ImageRampupManagerImpl(this.imageRampupDao, this.imageVersionDao,
+        this.imageTypeDao, props);
+  }
+
+  private void mockAllImageTypesVersions() throws IOException {
+    final Map<String, List<ImageRampup>> imageTypeRampups = convertToRampupMap(
+        JSONUtils.readJsonFileAsString("image_management/image_type_rampups.json"));
+    final List<ImageType> allImageTypes = this.imageTypeConverter.convertToDataModels(
+        this.converterUtils.convertToDTOs(
+            JSONUtils.readJsonFileAsString("image_management/all_image_types.json"),
+            ImageTypeDTO.class));
+    final List<ImageVersion> activeImageVersions = this.imageVersionConverter.convertToDataModels(
+        this.converterUtils.convertToDTOs(JSONUtils.readJsonFileAsString(
+            "image_management/all_image_types_active_version.json"), ImageVersionDTO.class));
+    final List<ImageVersion> newAndRampupImageVersions =
+        this.imageVersionConverter.convertToDataModels(this.converterUtils.convertToDTOs(
+            JSONUtils.readJsonFileAsString(
+                "image_management/all_image_types_new_and_rampup_version.json"),
+            ImageVersionDTO.class));
+    when(this.imageRampupDao.getRampupForAllImageTypes()).thenReturn(imageTypeRampups);
+    when(this.imageTypeDao.getAllImageTypes()).thenReturn(allImageTypes);
+    when(this.imageVersionDao.findImageVersions(any(ImageMetadataRequest.class)))
+        .thenReturn(newAndRampupImageVersions);
+    when(this.imageVersionDao.getActiveVersionByImageTypes(any(Set.class)))
+        .thenReturn(activeImageVersions);
+  }
+
+  private ImageVersion createImageVersion(final String imageType, final String version,
+      final State state) {
+    final ImageVersion imageVersion = new ImageVersion();
+    imageVersion.setName(imageType);
+    imageVersion.setVersion(version);
+    imageVersion.setState(state);
+    imageVersion.setPath("path_" + imageType);
+    imageVersion.setReleaseTag(version);
+    return imageVersion;
+  }
+
   private Map<String, List<ImageRampup>> convertToRampupMap(final String input) {
     Map<String, List<ImageRampup>> imageTypeRampups = null;
     try {
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobtype;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.jobExecutor.JobClassLoader;
+import java.io.File;
+import java.net.URL;
+import org.junit.Test;
+
+public class JobClassLoaderCacheTest {
+
+  private final ClassLoader parent = getClass().getClassLoader();
+
+  @Test
+  public void testSharesClassLoaderOfSameJobTypeAndCluster() throws Exception {
+    final JobClassLoaderCache cache = new JobClassLoaderCache();
+    final URL[] urls = {new File("lib/a.jar").toURI().toURL()};
+
+    final JobClassLoader first = cache.acquire("hadoopJava", "cluster1", urls, this.parent);
+    final JobClassLoader second = cache.acquire("hadoopJava", "cluster1",
+        new URL[]{new File("lib/a.jar").toURI().toURL()}, this.parent);
+    assertThat(second).isSameAs(first);
+    assertThat(cache.acquire("hadoopJava", "cluster2", urls, this.parent)).isNotSameAs(first);
+    assertThat(cache.acquire("hadoopJava", "cluster1", urls, new ClassLoader(this.parent) {
+    })).isNotSameAs(first);
+    assertThat(cache.acquire("spark", "cluster1", urls, this.parent)).isNotSameAs(first);
+    assertThat(cache.getClassLoaderCount()).isEqualTo(4);
+    assertThat(cache.getReferenceCount()).isEqualTo(5);
+
+    cache.release(first);
+    cache.release(second);
+    assertThat(cache.getReferenceCount()).isEqualTo(3);
+    // Released class loaders stay cached for the next jobs
+    assertThat(cache.acquire("hadoopJava", "cluster1", urls, this.parent)).isSameAs(first);
+  }
+
+  @Test
+  public void testEvictedClassLoaderIsClosedWhenReleased() throws Exception {
+    final JobClassLoaderCache cache = new JobClassLoaderCache();
+    final URL[] urls = {new File("lib/a.jar").toURI().toURL()};
+    final JobClassLoader used = cache.acquire("hadoopJava", null, urls, this.parent);
+    final JobClassLoader unused = cache.acquire("spark", null, urls, this.parent);
+    cache.release(unused);
+
+    cache.evictAll();
+    // The class loader still used by a job isn't closed yet
+    assertThat(cache.getClassLoaderCount()).isEqualTo(1);
+    final JobClassLoader reloaded = cache.acquire("hadoopJava", null, urls, this.parent);
+    assertThat(reloaded).isNotSameAs(used);
+    assertThat(cache.getClassLoaderCount()).isEqualTo(2);
+
+    cache.release(used);
+    assertThat(cache.getClassLoaderCount()).isEqualTo(1);
+    assertThat(cache.getReferenceCount()).isEqualTo(1);
+  }
+}
@@ -19,12 +19,17 @@ package azkaban.jobtype;
 import static azkaban.test.Utils.initServiceProvider;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import azkaban.cluster.DisabledClusterRouter;
 import azkaban.flow.CommonJobProperties;
 import azkaban.jobExecutor.Job;
+import azkaban.jobtype.JobTypeManager.JobParams;
 import azkaban.utils.Props;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
 import java.io.File;
 import java.io.IOException;
@@ -231,6 +236,69 @@ public class JobTypeManagerTest {
         props.get(TestJobPropsProcessor.INJECTED_ADDITION_PROP));
   }
 
+  /**
+   * The jobs of the same jobtype share their class loader until the plugins are reloaded.
+   */
+  @Test
+  public void testSharedJobClassLoader() throws Exception {
+    final JobTypeManager cachingManager = new JobTypeManager(this.testPluginDirPath, null,
+        this.getClass().getClassLoader(), new DisabledClusterRouter(), true);
+    final JobParams first = cachingManager
+        .createJobParams("job1", createJobProps("anothertestjob"), this.logger);
+    final JobParams second = cachingManager
+        .createJobParams("job2", createJobProps("anothertestjob"), this.logger);
+    final JobParams other = cachingManager
+        .createJobParams("job3", createJobProps("testjob"), this.logger);
+    assertNotNull(first.jobClassLoader);
+    assertSame(first.jobClassLoader, second.jobClassLoader);
+    assertSame(first.jobClass, second.jobClass);
+    assertNotSame(first.jobClassLoader, other.jobClassLoader);
+    assertEquals(2, cachingManager.getJobClassLoaderCount());
+    assertEquals(3, cachingManager.getJobClassLoaderReferenceCount());
+
+    cachingManager.releaseJobClassLoader(first);
+    cachingManager.releaseJobClassLoader(other);
+    cachingManager.loadPlugins();
+    // The class loader still used by the second job is closed once it is released
+    assertEquals(1, cachingManager.getJobClassLoaderCount());
+    final JobParams reloaded = cachingManager
+        .createJobParams("job4", createJobProps("anothertestjob"), this.logger);
+    assertNotSame(first.jobClassLoader, reloaded.jobClassLoader);
+    cachingManager.releaseJobClassLoader(second);
+    assertEquals(1, cachingManager.getJobClassLoaderCount());
+    assertEquals(1, cachingManager.getJobClassLoaderReferenceCount());
+  }
+
+  /**
+   * Only the given jobtypes are loaded upfront, the other ones are loaded when a job uses them.
+   */
+  @Test
+  public void testLoadJobTypesOnFirstUse() throws Exception {
+    final JobTypeManager lazyManager = new JobTypeManager(this.testPluginDirPath, null,
+        this.getClass().getClassLoader(), new DisabledClusterRouter(), true,
+        ImmutableSet.of("testjob"));
+    final JobTypePluginSet initialPluginSet = lazyManager.getJobTypePluginSet();
+    assertEquals("azkaban.jobtype.FakeJavaJob2",
+        initialPluginSet.getPluginClassName("testjob"));
+    assertNull(initialPluginSet.getPluginClassName("anothertestjob"));
+    assertEquals("commonprop1",
+        initialPluginSet.getCommonPluginJobProps().getString("commonprop1"));
+
+    final Job job = lazyManager.buildJobExecutor("anothertestjob",
+        createJobProps("anothertestjob"), this.logger);
+    assertTrue(job instanceof FakeJavaJob);
+    assertEquals("azkaban.jobtype.FakeJavaJob",
+        lazyManager.getJobTypePluginSet().getPluginClassName("anothertestjob"));
+    // The plugin set in use before is not modified
+    assertNull(initialPluginSet.getPluginClassName("anothertestjob"));
+  }
+
+  private Props createJobProps(final String jobType) {
+    final Props jobProps = new Props();
+    jobProps.put("type", jobType);
+    return jobProps;
+  }
+
   /**
    * Test out reloading properties
    */
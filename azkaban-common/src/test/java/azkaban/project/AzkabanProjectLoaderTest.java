@@ -284,22 +284,23 @@ public class AzkabanProjectLoaderTest {
   @Test
   public void uploadProjectWithYamlFilesFAT() throws Exception {
     final File projectZipFile = ExecutionsTestUtil.getFlowFile(BASIC_FLOW_YAML_DIR, PROJECT_ZIP);
-    final int flowVersion = 0;
     final User uploader = new User("test_user");
+    final ProjectUploadTimer timer = new ProjectUploadTimer();
 
     when(this.projectLoader.getLatestProjectVersion(this.project)).thenReturn(this.VERSION);
-    when(this.projectLoader.getLatestFlowVersion(this.ID, this.VERSION, BASIC_FLOW_FILE))
-        .thenReturn(flowVersion);
 
     checkValidationReport(this.azkabanProjectLoader
         .uploadProject(this.project, projectZipFile, "zip", uploader, null,
-            IPv6));
+            IPv6, timer));
 
     verify(this.projectStorageManager)
         .uploadProject(this.project, this.VERSION + 1, projectZipFile,
             null, uploader, IPv6);
-    verify(this.projectLoader)
-        .uploadFlowFile(eq(this.ID), eq(this.VERSION + 1), any(File.class), eq(flowVersion + 1));
+    verify(this.projectLoader).uploadFlowFiles(eq(this.ID), eq(this.VERSION + 1),
+        argThat(files -> files.size() == 1 && files.get(0).getName().equals(BASIC_FLOW_FILE)));
+    assertThat(timer.getPhaseTimesMs()).containsOnlyKeys(ProjectUploadTimer.UNZIP,
+        ProjectUploadTimer.VALIDATION, ProjectUploadTimer.FLOW_LOADING,
+        ProjectUploadTimer.PERSISTENCE);
 
   }
 
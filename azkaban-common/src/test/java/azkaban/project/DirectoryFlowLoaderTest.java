@@ -29,6 +29,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
@@ -83,6 +85,30 @@ public class DirectoryFlowLoaderTest {
     Assert.assertEquals(14, loader.getJobPropsMap().size());
   }
 
+  @Test
+  public void testDirectoryLoadConcurrently() {
+    final ExecutorService fileReader = Executors.newFixedThreadPool(2);
+    try {
+      final DirectoryFlowLoader loader = new DirectoryFlowLoader(new Props(), fileReader);
+      loader.loadProjectFlow(this.project, ExecutionsTestUtil.getFlowDir("exectest1"));
+      Assert.assertEquals(0, loader.getErrors().size());
+      Assert.assertEquals(5, loader.getFlowMap().size());
+      Assert.assertEquals(2, loader.getPropsList().size());
+      Assert.assertEquals(14, loader.getJobPropsMap().size());
+
+      final DirectoryFlowLoader sequentialLoader = new DirectoryFlowLoader(new Props());
+      sequentialLoader.loadProjectFlow(this.project, ExecutionsTestUtil.getFlowDir("exectest1"));
+      for (final String jobName : sequentialLoader.getJobPropsMap().keySet()) {
+        final Props expected = sequentialLoader.getJobPropsMap().get(jobName);
+        final Props actual = loader.getJobPropsMap().get(jobName);
+        Assert.assertEquals(expected.getSource(), actual.getSource());
+        Assert.assertEquals(expected.getFlattened(), actual.getFlattened());
+      }
+    } finally {
+      fileReader.shutdownNow();
+    }
+  }
+
   @Test
   public void testLoadEmbeddedFlow() {
     final DirectoryFlowLoader loader = new DirectoryFlowLoader(new Props());
@@ -23,6 +23,8 @@ import azkaban.flow.Edge;
 import azkaban.flow.Flow;
 import azkaban.test.executions.ExecutionsTestUtil;
 import azkaban.utils.Props;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -123,6 +125,28 @@ public class DirectoryYamlFlowLoaderTest {
     checkFlowProperties(loader, EMBEDDED_FLOW_B2, 0, 2, 1, 1, null);
   }
 
+  @Test
+  public void testLoadYamlFilesConcurrently() {
+    final ExecutorService parser = Executors.newFixedThreadPool(2);
+    try {
+      DirectoryYamlFlowLoader loader = new DirectoryYamlFlowLoader(new Props(), parser);
+      loader.loadProjectFlow(this.project,
+          ExecutionsTestUtil.getFlowDir(RECURSIVE_DIRECTORY_FLOW_YAML_DIR));
+      checkFlowLoaderProperties(loader, 0, 2, 2);
+      checkFlowProperties(loader, BASIC_FLOW_1, 0, 3, 1, 2, null);
+      checkFlowProperties(loader, BASIC_FLOW_2, 0, 4, 1, 3, null);
+
+      loader = new DirectoryYamlFlowLoader(new Props(), parser);
+      loader.loadProjectFlow(this.project,
+          ExecutionsTestUtil.getFlowDir(DUPLICATE_NODENAME_YAML_DIR));
+      assertThat(loader.getErrors()).containsExactly(
+          "Failed to validate nodeBean for " + DUPLICATE_NODENAME_FLOW_FILE
+              + ". Duplicate nodes found or dependency undefined.");
+    } finally {
+      parser.shutdownNow();
+    }
+  }
+
   @Test
   public void testLoadInvalidFlowYamlFileWithDuplicateNodeNames() {
     final DirectoryYamlFlowLoader loader = new DirectoryYamlFlowLoader(new Props());
@@ -498,6 +498,24 @@ public class JdbcProjectImplTest {
             "Flow file length exceeds 10 MB limit.");
   }
 
+  @Test
+  public void testUploadFlowFiles() throws Exception {
+    final File testYamlFile = ExecutionsTestUtil.getFlowFile(BASIC_FLOW_YAML_DIR, BASIC_FLOW_FILE);
+    this.loader.uploadFlowFile(PROJECT_ID, PROJECT_VERSION, testYamlFile, 1);
+
+    // Flow files with the same name, e.g. in different directories, get consecutive versions.
+    this.loader.uploadFlowFiles(PROJECT_ID, PROJECT_VERSION,
+        Arrays.asList(testYamlFile, testYamlFile));
+    assertThat(this.loader.getLatestFlowVersion(PROJECT_ID, PROJECT_VERSION, BASIC_FLOW_FILE))
+        .isEqualTo(3);
+
+    final File tempDir = Files.createTempDir();
+    tempDir.deleteOnExit();
+    final File file = this.loader
+        .getUploadedFlowFile(PROJECT_ID, PROJECT_VERSION, BASIC_FLOW_FILE, 3, tempDir);
+    assertThat(FileUtils.contentEquals(testYamlFile, file)).isTrue();
+  }
+
   @Test
   public void testGetLatestFlowVersion() throws Exception {
     final File testYamlFile = ExecutionsTestUtil.getFlowFile(BASIC_FLOW_YAML_DIR, BASIC_FLOW_FILE);
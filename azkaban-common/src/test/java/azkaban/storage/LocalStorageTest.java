@@ -116,4 +116,23 @@ public class LocalStorageTest {
     }
     assertTrue(exceptionThrown);
   }
+
+  @Test
+  public void testPutGetDeleteProjectBlob() throws Exception {
+    assertTrue(this.localStorage.supportsProjectBlobs());
+    final ClassLoader classLoader = getClass().getClassLoader();
+    final File testFile = new File(classLoader.getResource(SAMPLE_FILE).getFile());
+    final String hash = HashUtils.bytesHashToString(HashUtils.SHA1.getHashBytes(testFile));
+
+    assertTrue(this.localStorage.putProjectBlob(1, hash, testFile));
+    // The content of a blob never changes, so it is written once
+    assertFalse(this.localStorage.putProjectBlob(1, hash, testFile));
+
+    try (final InputStream getIs = this.localStorage.getProjectBlob(1, hash)) {
+      assertEquals(hash, HashUtils.bytesHashToString(HashUtils.SHA1.getHashBytes(getIs)));
+    }
+
+    assertTrue(this.localStorage.deleteProjectBlob(1, hash));
+    assertFalse(this.localStorage.deleteProjectBlob(1, hash));
+  }
 }
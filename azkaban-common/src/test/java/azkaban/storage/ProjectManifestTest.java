@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.utils.HashUtils;
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectManifestTest {
+
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  /**
+   * Create a zip with the given files, and an empty directory "empty/".
+   */
+  static File createZip(final File zipFile, final Map<String, String> files) throws Exception {
+    try (final ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+      zos.putNextEntry(new ZipEntry("empty/"));
+      zos.closeEntry();
+      for (final Entry<String, String> file : files.entrySet()) {
+        zos.putNextEntry(new ZipEntry(file.getKey()));
+        zos.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+      }
+    }
+    return zipFile;
+  }
+
+  @Test
+  public void testFromZip() throws Exception {
+    final File zipFile = createZip(this.temp.newFile("project.zip"),
+        ImmutableMap.of("lib/a.jar", "jar", "b.job", "shared", "c.job", "shared"));
+
+    final ProjectManifest manifest;
+    try (final ZipFile zip = new ZipFile(zipFile)) {
+      manifest = ProjectManifest.fromZip(zip);
+    }
+
+    assertThat(manifest.getDirectories()).containsExactly("empty/");
+    assertThat(manifest.getFiles().keySet()).containsExactly("b.job", "c.job", "lib/a.jar");
+    final String sharedHash = HashUtils.SHA1.getHashStr("shared");
+    assertThat(manifest.getFiles().get("b.job").getHash()).isEqualTo(sharedHash);
+    assertThat(manifest.getFiles().get("c.job").getSize()).isEqualTo(6);
+    // Files with the same content share a blob
+    assertThat(manifest.getBlobs()).hasSize(2).containsEntry(sharedHash, 6L);
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    final File zipFile = createZip(this.temp.newFile("project.zip"),
+        ImmutableMap.of("lib/a.jar", "jar", "b.job", "b", "c.job", "c"));
+    final ProjectManifest manifest;
+    try (final ZipFile zip = new ZipFile(zipFile)) {
+      manifest = ProjectManifest.fromZip(zip);
+    }
+
+    final File manifestFile = this.temp.newFile("project.zip.manifest");
+    manifest.write(manifestFile);
+
+    final ProjectManifest read = ProjectManifest.read(manifestFile);
+    assertThat(read.getDirectories()).isEqualTo(manifest.getDirectories());
+    assertThat(read.getBlobs()).isEqualTo(manifest.getBlobs());
+    assertThat(read.getFiles().keySet()).containsExactly("b.job", "c.job", "lib/a.jar");
+    assertThat(read.getFiles().get("lib/a.jar").getHash())
+        .isEqualTo(manifest.getFiles().get("lib/a.jar").getHash());
+
+    try (final InputStream is = new FileInputStream(manifestFile)) {
+      assertThat(ProjectManifest.read(is).getBlobs()).isEqualTo(manifest.getBlobs());
+    }
+  }
+}
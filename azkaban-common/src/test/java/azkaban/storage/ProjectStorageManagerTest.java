@@ -0,0 +1,191 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.AzkabanCommonModuleConfig;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.project.Project;
+import azkaban.project.ProjectFileHandler;
+import azkaban.project.ProjectLoader;
+import azkaban.user.User;
+import azkaban.utils.Props;
+import azkaban.utils.Utils;
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+public class ProjectStorageManagerTest {
+
+  private static final int PROJECT_ID = 1;
+
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  private File baseDirectory;
+  private LocalStorage storage;
+  private ProjectLoader projectLoader;
+  private ProjectStorageManager projectStorageManager;
+  private final Project project = new Project(PROJECT_ID, "test");
+  private final User uploader = new User("testuser");
+
+  @Before
+  public void setUp() throws Exception {
+    this.baseDirectory = this.temp.newFolder("storage");
+    final AzkabanCommonModuleConfig config = mock(AzkabanCommonModuleConfig.class);
+    when(config.getLocalStorageBaseDirPath()).thenReturn(this.baseDirectory.getCanonicalPath());
+    this.storage = spy(new LocalStorage(config));
+    this.projectLoader = mock(ProjectLoader.class);
+
+    final Props props = new Props();
+    props.put(ConfigurationKeys.PROJECT_TEMP_DIR, this.temp.newFolder("temp").getPath());
+    props.put(ConfigurationKeys.AZKABAN_STORAGE_PROJECT_DEDUP_ENABLED, "true");
+    this.projectStorageManager = new ProjectStorageManager(props, this.storage,
+        this.projectLoader, mock(StorageCleaner.class));
+  }
+
+  /**
+   * Upload a project version, and make the loader return its metadata.
+   */
+  private void upload(final int version, final File zipFile) {
+    this.projectStorageManager.uploadProject(this.project, version, zipFile, null, this.uploader,
+        "127.0.0.1");
+
+    final ArgumentCaptor<File> file = ArgumentCaptor.forClass(File.class);
+    final ArgumentCaptor<byte[]> md5 = ArgumentCaptor.forClass(byte[].class);
+    final ArgumentCaptor<String> resourceId = ArgumentCaptor.forClass(String.class);
+    verify(this.projectLoader).addProjectVersion(eq(PROJECT_ID), eq(version), file.capture(),
+        any(), eq("testuser"), md5.capture(), resourceId.capture(), anyString());
+    assertThat(file.getValue().getName()).isEqualTo(zipFile.getName() + ".manifest");
+
+    when(this.projectLoader.fetchProjectMetaData(PROJECT_ID, version)).thenReturn(
+        new ProjectFileHandler(PROJECT_ID, version, 0, "testuser",
+            ProjectStorageManager.MANIFEST_FILE_TYPE, file.getValue().getName(), 0,
+            md5.getValue(), Collections.emptySet(), resourceId.getValue(), "127.0.0.1"));
+  }
+
+  private int countBlobs() {
+    return new File(this.baseDirectory, PROJECT_ID + "/blobs").list().length;
+  }
+
+  @Test
+  public void testUploadDeduplicatesFiles() throws Exception {
+    upload(1, ProjectManifestTest.createZip(this.temp.newFile("v1.zip"),
+        ImmutableMap.of("a.job", "a", "b.job", "shared", "lib/c.jar", "shared")));
+    assertThat(countBlobs()).isEqualTo(2);
+
+    upload(2, ProjectManifestTest.createZip(this.temp.newFile("v2.zip"),
+        ImmutableMap.of("a.job", "a2", "b.job", "shared", "lib/c.jar", "shared")));
+    // Only the changed file is uploaded
+    assertThat(countBlobs()).isEqualTo(3);
+    verify(this.storage, times(3)).putProjectBlob(anyInt(), anyString(), any());
+  }
+
+  @Test
+  public void testGetProjectFileAssemblesArchive() throws Exception {
+    upload(1, ProjectManifestTest.createZip(this.temp.newFile("v1.zip"),
+        ImmutableMap.of("a.job", "a", "lib/c.jar", "c")));
+
+    final ProjectFileHandler pfh = this.projectStorageManager.getProjectFile(PROJECT_ID, 1);
+    try {
+      assertThat(pfh.getFileType()).isEqualTo("zip");
+      assertThat(pfh.getFileName()).isEqualTo("v1.zip");
+
+      final File dir = this.temp.newFolder("unzipped");
+      try (final ZipFile zip = new ZipFile(pfh.getLocalFile())) {
+        Utils.unzip(zip, dir);
+      }
+      assertThat(new File(dir, "empty")).isDirectory();
+      assertThat(new File(dir, "a.job")).hasContent("a");
+      assertThat(new File(dir, "lib/c.jar")).hasContent("c");
+    } finally {
+      pfh.deleteLocalFile();
+    }
+  }
+
+  @Test
+  public void testMaterializeProjectLinksUnchangedFiles() throws Exception {
+    upload(1, ProjectManifestTest.createZip(this.temp.newFile("v1.zip"),
+        ImmutableMap.of("a.job", "a", "lib/c.jar", "c")));
+    upload(2, ProjectManifestTest.createZip(this.temp.newFile("v2.zip"),
+        ImmutableMap.of("a.job", "a2", "lib/c.jar", "c")));
+
+    final ProjectManifest manifest1 = fetchManifest(1);
+    final File dir1 = this.temp.newFolder("1.1");
+    assertThat(this.projectStorageManager.materializeProject(PROJECT_ID, manifest1, dir1, null,
+        null)).isEqualTo(0);
+    assertThat(new File(dir1, "a.job")).hasContent("a");
+    assertThat(new File(dir1, "empty")).isDirectory();
+
+    final File dir2 = this.temp.newFolder("1.2");
+    assertThat(this.projectStorageManager.materializeProject(PROJECT_ID, fetchManifest(2), dir2,
+        dir1, manifest1)).isEqualTo(1);
+    assertThat(new File(dir2, "a.job")).hasContent("a2");
+    assertThat(new File(dir2, "lib/c.jar")).hasContent("c");
+    assertThat(Files.isSameFile(new File(dir1, "lib/c.jar").toPath(),
+        new File(dir2, "lib/c.jar").toPath())).isTrue();
+  }
+
+  private ProjectManifest fetchManifest(final int version) throws Exception {
+    final ProjectFileHandler pfh = this.projectStorageManager
+        .getProjectFile(PROJECT_ID, version, false);
+    try {
+      assertThat(ProjectStorageManager.isManifest(pfh)).isTrue();
+      return ProjectManifest.read(pfh.getLocalFile());
+    } finally {
+      pfh.deleteLocalFile();
+    }
+  }
+
+  @Test
+  public void testBlobContentIsValidated() throws Exception {
+    upload(1, ProjectManifestTest.createZip(this.temp.newFile("v1.zip"),
+        ImmutableMap.of("a.job", "a")));
+    final ProjectManifest manifest = fetchManifest(1);
+    final File blob = new File(this.baseDirectory, PROJECT_ID + "/blobs/"
+        + manifest.getFiles().get("a.job").getHash());
+    FileUtils.writeStringToFile(blob, "corrupted", StandardCharsets.UTF_8);
+
+    final File dir = this.temp.newFolder("1.1");
+    try {
+      this.projectStorageManager.materializeProject(PROJECT_ID, manifest, dir, null, null);
+    } catch (final IllegalStateException e) {
+      assertThat(e).hasMessageContaining("SHA1 HASH Failed");
+      return;
+    }
+    throw new AssertionError("Expected the corrupted blob to fail validation.");
+  }
+}
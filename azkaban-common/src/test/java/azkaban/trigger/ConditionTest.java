@@ -63,6 +63,22 @@ public class ConditionTest {
 
   }
 
+  @Test
+  public void jexlConditionTest() {
+    final Map<String, ConditionChecker> checkers = new HashMap<>();
+    final ThresholdChecker fake1 = new ThresholdChecker("thresholdchecker1", 10);
+    final ThresholdChecker fake2 = new ThresholdChecker("thresholdchecker2", 20);
+    ThresholdChecker.setVal(15);
+    checkers.put(fake1.getId(), fake1);
+    checkers.put(fake2.getId(), fake2);
+
+    // The 'and' and 'not' operators aren't compiled, the condition is evaluated by JEXL
+    final String expr = fake1.getId() + ".eval() and not " + fake2.getId() + ".eval()";
+    final Condition cond = new Condition(checkers, expr);
+    assertTrue(cond.isMet());
+    assertTrue(cond.getExpression().equals(expr));
+  }
+
   @Ignore
   @Test
   public void jsonConversionTest() throws Exception {
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azkaban.utils.ConditionExpression.Context;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.commons.jexl2.Expression;
+import org.apache.commons.jexl2.JexlEngine;
+import org.apache.commons.jexl2.MapContext;
+import org.apache.log4j.Logger;
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class ConditionExpressionTest {
+
+  private static final Logger logger = Logger.getLogger(ConditionExpressionTest.class);
+
+  private static final Map<String, String> VARIABLES = ImmutableMap.of(
+      "jobA:param", "foo",
+      "jobA:count", "10",
+      "jobB:empty", "");
+
+  private static final Context CONTEXT = new Context() {
+    @Override
+    public Object getVariable(final String jobName, final String param) {
+      return VARIABLES.get(jobName + ":" + param);
+    }
+
+    @Override
+    public Object getIdentifier(final String name) {
+      return "one_success".equals(name);
+    }
+
+    @Override
+    public Object invoke(final String name, final String method) {
+      return name.startsWith("on");
+    }
+  };
+
+  private static boolean isMet(final String expression) {
+    return ConditionExpression.compile(expression).isMet(CONTEXT);
+  }
+
+  @Test
+  public void testStringComparisons() {
+    assertThat(isMet("${jobA:param} == 'foo'")).isTrue();
+    assertThat(isMet("${jobA:param} == \"foo\"")).isTrue();
+    assertThat(isMet("${jobA:param} != 'foo'")).isFalse();
+    assertThat(isMet("${jobA:param} < 'goo'")).isTrue();
+    assertThat(isMet("${jobB:empty} == ''")).isTrue();
+    assertThat(isMet("'it\\'s' == \"it's\"")).isTrue();
+  }
+
+  @Test
+  public void testNumberComparisons() {
+    // A string compared to a number is converted to a number
+    assertThat(isMet("${jobA:count} == 10")).isTrue();
+    assertThat(isMet("${jobA:count} > 9")).isTrue();
+    assertThat(isMet("${jobA:count} >= 10.5")).isFalse();
+    assertThat(isMet("${jobA:count} <= 10")).isTrue();
+    // Two strings are compared lexicographically
+    assertThat(isMet("${jobA:count} > '9'")).isFalse();
+    // A string which isn't a number is not ordered with numbers
+    assertThat(isMet("${jobA:param} > 1")).isFalse();
+    assertThat(isMet("${jobA:param} <= 1")).isFalse();
+  }
+
+  @Test
+  public void testBooleanOperators() {
+    assertThat(isMet("one_success && ${jobA:param} == 'foo'")).isTrue();
+    assertThat(isMet("all_done && ${jobA:param} == 'foo'")).isFalse();
+    assertThat(isMet("all_done || ${jobA:param} == 'foo'")).isTrue();
+    assertThat(isMet("!all_done")).isTrue();
+    assertThat(isMet("!(one_success && ${jobA:count} == 10)")).isFalse();
+    // && has a higher precedence than ||
+    assertThat(isMet("true || false && false")).isTrue();
+    assertThat(isMet("(true || false) && false")).isFalse();
+  }
+
+  @Test
+  public void testMethodCalls() {
+    final ConditionExpression expression = ConditionExpression
+        .compile("(on_1.eval() && off_2.eval()) || (on_1.eval() && !off_2.eval())");
+    assertThat(expression.isMet(CONTEXT)).isTrue();
+    assertThat(expression.getIdentifiers()).containsOnly("on_1", "off_2");
+    assertThat(expression.getCalledMethods()).containsOnly("eval");
+  }
+
+  @Test
+  public void testNotBooleanResultIsNotMet() {
+    assertThat(ConditionExpression.compile("${jobA:param}").evaluate(CONTEXT)).isEqualTo("foo");
+    assertThat(isMet("${jobA:param}")).isFalse();
+    assertThat(isMet("1")).isFalse();
+  }
+
+  @Test
+  public void testInvalidExpressions() {
+    assertThatThrownBy(() -> ConditionExpression.compile("${jobA:param} = 'foo'"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ConditionExpression.compile("${jobA:param} == 'foo"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Unterminated string");
+    assertThatThrownBy(() -> ConditionExpression.compile("(one_success"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ConditionExpression.compile("one_success &&"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Unexpected end of expression");
+    assertThatThrownBy(() -> ConditionExpression.compile("${jobA} == 'foo'"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ConditionExpression.compile("print(\"hello!\")"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testConcurrentEvaluation() throws Exception {
+    final ConditionExpression expression =
+        ConditionExpression.compile("one_success && ${jobA:count} > 9");
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final Future<?>[] futures = new Future<?>[4];
+      for (int i = 0; i < futures.length; i++) {
+        futures[i] = executor.submit(() -> {
+          for (int j = 0; j < 10000; j++) {
+            assertThat(expression.isMet(CONTEXT)).isTrue();
+          }
+        });
+      }
+      for (final Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Compare the evaluation time of a compiled trigger condition with JEXL. The times are only
+   * logged since they depend on the host.
+   */
+  @Ignore("Slow test - run manually to compare the evaluation times with JEXL")
+  @Test
+  public void testEvaluationTimeComparedToJexl() {
+    final String expr = "(on_1.eval() && off_2.eval()) || (on_1.eval() && !off_2.eval())";
+    final ConditionExpression compiled = ConditionExpression.compile(expr);
+    final Expression jexlExpression = new JexlEngine().createExpression(expr);
+    final MapContext jexlContext = new MapContext();
+    jexlContext.set("on_1", new Checker(true));
+    jexlContext.set("off_2", new Checker(false));
+
+    final int iterations = 100000;
+    final long compiledTime = time(iterations, () -> compiled.isMet(CONTEXT));
+    final long jexlTime = time(iterations,
+        () -> jexlExpression.evaluate(jexlContext).equals(Boolean.TRUE));
+    logger.info("Evaluated " + expr + " " + iterations + " times in " + compiledTime
+        + " ms when compiled and " + jexlTime + " ms with jexl");
+  }
+
+  private static long time(final int iterations, final Supplier<Boolean> evaluation) {
+    // Warm up
+    for (int i = 0; i < iterations; i++) {
+      assertThat(evaluation.get()).isTrue();
+    }
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      evaluation.get();
+    }
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  public static class Checker {
+
+    private final boolean value;
+
+    public Checker(final boolean value) {
+      this.value = value;
+    }
+
+    public Object eval() {
+      return this.value;
+    }
+  }
+}
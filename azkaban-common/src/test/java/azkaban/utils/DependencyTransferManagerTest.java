@@ -17,14 +17,20 @@
 package azkaban.utils;
 
 import azkaban.Constants;
+import azkaban.metrics.MetricsManager;
 import azkaban.spi.DependencyFile;
 import azkaban.spi.Storage;
 import azkaban.test.executions.ThinArchiveTestUtils;
+import com.codahale.metrics.MetricRegistry;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
@@ -47,6 +53,7 @@ public class DependencyTransferManagerTest {
 
   private DependencyTransferManager dependencyTransferManager;
   private Storage storage;
+  private final MetricRegistry metricRegistry = new MetricRegistry();
 
   private DependencyFile depA;
   private DependencyFile depB;
@@ -72,9 +79,14 @@ public class DependencyTransferManagerTest {
     depSetA = new HashSet();
     depSetA.add(depA);
 
+    dependencyTransferManager = new DependencyTransferManager(createProps(), this.storage,
+        new MetricsManager(this.metricRegistry));
+  }
+
+  private static Props createProps() {
     Props sampleProps = new Props();
     sampleProps.put(Constants.ConfigurationKeys.AZKABAN_DEPENDENCY_MAX_DOWNLOAD_TRIES, DEPENDENCY_DOWNLOAD_MAX_TRIES);
-    dependencyTransferManager = new DependencyTransferManager(sampleProps, this.storage);
+    return sampleProps;
   }
 
   @Test
@@ -132,4 +144,84 @@ public class DependencyTransferManagerTest {
 
     this.dependencyTransferManager.downloadAllDependencies(depSetAB);
   }
+
+  @Test
+  public void testRuntimeExceptionIsNotRetried() throws Exception {
+    doThrow(new IllegalStateException("Bad dependency root")).when(this.storage).getDependency(any());
+
+    try {
+      this.dependencyTransferManager.downloadAllDependencies(depSetA);
+      fail("The download should fail");
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    verify(this.storage, times(1)).getDependency(depEq(depA));
+    assertEquals(0, this.metricRegistry.meter("DependencyTransferManager-retry-meter").getCount());
+  }
+
+  @Test
+  public void testResumeDownloadAfterIOException() throws Exception {
+    // The first stream fails after a few bytes, the download must resume from them
+    final byte[] content = ThinArchiveTestUtils.getDepAContent().getBytes(StandardCharsets.UTF_8);
+    final int failAfter = 5;
+    doReturn(new InputStream() {
+      private int pos = 0;
+
+      @Override
+      public int read() throws IOException {
+        if (this.pos == failAfter) {
+          throw new IOException("Connection reset");
+        }
+        return content[this.pos++];
+      }
+    }).when(this.storage).getDependency(any());
+    doReturn(new ByteArrayInputStream(content, failAfter, content.length - failAfter))
+        .when(this.storage).getDependency(any(), eq((long) failAfter));
+
+    this.dependencyTransferManager.downloadAllDependencies(depSetA);
+
+    assertEquals(ThinArchiveTestUtils.getDepAContent(), FileUtils.readFileToString(depA.getFile()));
+    verify(this.storage, times(1)).getDependency(depEq(depA));
+    verify(this.storage, times(1)).getDependency(depEq(depA), eq((long) failAfter));
+    assertEquals(1, this.metricRegistry.meter("DependencyTransferManager-resume-meter").getCount());
+    assertEquals(1, this.metricRegistry.meter("DependencyTransferManager-retry-meter").getCount());
+    assertEquals(content.length,
+        this.metricRegistry.meter("DependencyTransferManager-download-bytes").getCount());
+  }
+
+  @Test
+  public void testDownloadsPerOriginAreBounded() throws Exception {
+    // At most one download runs at a time since the limit per origin is 1
+    final Props props = createProps();
+    props.put(Constants.ConfigurationKeys.AZKABAN_DEPENDENCY_MAX_DOWNLOADS_PER_ORIGIN, 1);
+    final DependencyTransferManager boundedTransferManager = new DependencyTransferManager(props,
+        this.storage, new MetricsManager(new MetricRegistry()));
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    doAnswer((Answer<InputStream>) invocation -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      DependencyFile depFile = (DependencyFile) invocation.getArguments()[0];
+      String content = depFile.equals(depA) ? ThinArchiveTestUtils.getDepAContent() : ThinArchiveTestUtils.getDepBContent();
+      return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)) {
+        @Override
+        public void close() {
+          running.decrementAndGet();
+        }
+      };
+    }).when(this.storage).getDependency(any());
+
+    boundedTransferManager.downloadAllDependencies(depSetAB);
+
+    assertEquals(1, maxRunning.get());
+    assertEquals(ThinArchiveTestUtils.getDepAContent(), FileUtils.readFileToString(depA.getFile()));
+    assertEquals(ThinArchiveTestUtils.getDepBContent(), FileUtils.readFileToString(depB.getFile()));
+  }
+
+  @Test
+  public void testGetOrigin() {
+    assertEquals("www.example.com:9000",
+        DependencyTransferManager.getOrigin("http://www.example.com:9000/jars/"));
+    assertEquals("", DependencyTransferManager.getOrigin(null));
+    assertEquals("", DependencyTransferManager.getOrigin("not a uri"));
+  }
 }
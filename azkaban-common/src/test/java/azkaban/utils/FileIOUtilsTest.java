@@ -20,18 +20,25 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.comparator.NameFileComparator;
+import org.apache.log4j.Logger;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -42,6 +49,8 @@ import org.mockito.Mockito;
 
 public class FileIOUtilsTest {
 
+  private static final Logger logger = Logger.getLogger(FileIOUtilsTest.class);
+
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
   private File sourceDir, destDir, baseDir;
@@ -166,6 +175,59 @@ public class FileIOUtilsTest {
     }).isInstanceOf(IOException.class);
   }
 
+  @Test
+  public void testReflinkCopy() throws IOException {
+    try {
+      FileIOUtils.createDeepReflink(this.sourceDir, this.destDir);
+    } catch (final FileIOUtils.ReflinkNotSupportedException e) {
+      Assume.assumeNoException("The file system of the temp folder doesn't support reflinks", e);
+    }
+    assertThat(areDirsEqual(this.sourceDir, this.destDir, true)).isTrue();
+    // The copies are independent from the source files
+    Files.write(Paths.get(this.destDir.getPath(), "a.out"), new byte[]{9});
+    assertThat(areDirsEqual(this.baseDir, this.sourceDir, true)).isTrue();
+  }
+
+  @Test
+  public void testReflinkCopyNonSource() {
+    assertThatThrownBy(() -> {
+      FileIOUtils.createDeepReflink(new File(this.sourceDir, "idonotexist"), this.destDir);
+    }).isInstanceOf(IOException.class);
+  }
+
+  /**
+   * Compare the time taken to materialize a project of 50k files with hard links and reflinks.
+   * The times are only logged since they depend on the host and the file system.
+   */
+  @Ignore("Slow test - run manually to compare the execution dir materializations")
+  @Test
+  public void testMaterializationOf50kFileProject() throws IOException {
+    final File projectDir = this.temp.newFolder("project");
+    for (int i = 0; i < 500; i++) {
+      final Path dir = Paths.get(projectDir.getPath(), "dir" + i % 50, "subdir" + i);
+      Files.createDirectories(dir);
+      for (int j = 0; j < 100; j++) {
+        Files.write(dir.resolve("file" + j), new byte[]{(byte) j});
+      }
+    }
+
+    long start = System.currentTimeMillis();
+    final int linkCount = FileIOUtils.createDeepHardlink(projectDir, this.destDir);
+    logger.info("Hard linked " + linkCount + " files in "
+        + (System.currentTimeMillis() - start) + " ms");
+    assertThat(linkCount).isEqualTo(50000);
+
+    final File reflinkDir = this.temp.newFolder("reflink");
+    start = System.currentTimeMillis();
+    try {
+      FileIOUtils.createDeepReflink(projectDir, reflinkDir);
+      logger.info("Reflinked 50000 files in " + (System.currentTimeMillis() - start) + " ms");
+      assertThat(areDirsEqual(projectDir, reflinkDir, true)).isTrue();
+    } catch (final IOException e) {
+      logger.info("Reflinks are not supported: " + e.getMessage());
+    }
+  }
+
   private boolean areDirsEqualUtil(final File file1, final File file2, final boolean isRoot,
       final boolean ignoreRoot)
       throws IOException {
@@ -266,6 +328,46 @@ public class FileIOUtilsTest {
     assertEquals(correctString.length(), mixedText.length() - 3);
   }
 
+  @Test
+  public void testUtf8RangeOfFileChannelMatchesByteArray() throws IOException {
+    final String mixedText = "abc안녕하세요, 제 이름은 박병호입니다";
+    final byte[] mixedBytes = createUTF8ByteArray(mixedText);
+    final File file = this.temp.newFile("utf8.log");
+    Files.write(file.toPath(), mixedBytes);
+
+    try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      for (int offset = 0; offset < mixedBytes.length; offset++) {
+        for (int length = 1; offset + length <= mixedBytes.length; length++) {
+          final byte[] buffer = Arrays.copyOfRange(mixedBytes, offset, offset + length);
+          final Pair<Integer, Integer> expected = FileIOUtils.getUtf8Range(buffer, 0, length);
+          assertThat(FileIOUtils.getUtf8Range(channel, offset, length))
+              .isEqualTo(new Pair<>((long) offset + expected.getFirst(), expected.getSecond()));
+        }
+      }
+      // Ranges are capped at the end of the file.
+      assertThat(FileIOUtils.getUtf8Range(channel, 0, mixedBytes.length + 10))
+          .isEqualTo(new Pair<>(0L, mixedBytes.length));
+      assertThat(FileIOUtils.getUtf8Range(channel, mixedBytes.length, 10))
+          .isEqualTo(new Pair<>((long) mixedBytes.length, 0));
+    }
+  }
+
+  @Test
+  public void testTransferRange() throws IOException {
+    final byte[] bytes = createUTF8ByteArray("abc안녕하세요");
+    final File file = this.temp.newFile("transfer.log");
+    Files.write(file.toPath(), bytes);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final Pair<Long, Integer> range = FileIOUtils.getUtf8Range(channel, 1, 7);
+      final long transferred = FileIOUtils.transferRange(channel, range.getFirst(),
+          range.getSecond(), Channels.newChannel(out));
+      assertThat(transferred).isEqualTo(5);
+    }
+    assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("bc안");
+  }
+
   private byte[] createUTF8ByteArray(final String text) {
     byte[] textBytes = null;
     try {
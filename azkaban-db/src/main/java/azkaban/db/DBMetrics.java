@@ -19,6 +19,7 @@ package azkaban.db;
 import azkaban.metrics.MetricsManager;
 import com.codahale.metrics.Meter;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.dbcp2.BasicDataSource;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -28,6 +29,9 @@ import javax.inject.Singleton;
 @Singleton
 public class DBMetrics {
 
+  public static final String PRIMARY_POOL = "primary";
+  public static final String REPLICA_POOL = "replica";
+
   private final AtomicLong dbConnectionTime = new AtomicLong(0L);
   private final MetricsManager metricsManager;
   private Meter dbConnectionMeter;
@@ -35,6 +39,9 @@ public class DBMetrics {
   private Meter queryFailMeter;
   private Meter updateFailMeter;
   private Meter transactionFailMeter;
+  private Meter replicaConnectionMeter;
+  private Meter replicaQueryMeter;
+  private Meter replicaFallbackMeter;
 
   @Inject
   public DBMetrics(final MetricsManager metricsManager) {
@@ -49,6 +56,19 @@ public class DBMetrics {
     this.updateFailMeter = this.metricsManager.addMeter("DB-Fail-Update-meter");
     this.transactionFailMeter = this.metricsManager.addMeter("DB-Fail-Transaction-meter");
     this.metricsManager.addGauge("dbConnectionTime", this.dbConnectionTime::get);
+    this.replicaConnectionMeter = this.metricsManager.addMeter("DB-Replica-Connection-meter");
+    this.replicaQueryMeter = this.metricsManager.addMeter("DB-Replica-Query-meter");
+    this.replicaFallbackMeter = this.metricsManager.addMeter("DB-Replica-Fallback-meter");
+  }
+
+  /**
+   * Register connection pool gauges (active, idle and max connections) for the given data source,
+   * so that the primary and read replica pools can be monitored separately.
+   */
+  void registerPoolMetrics(final String poolName, final BasicDataSource dataSource) {
+    this.metricsManager.addGauge("DB-" + poolName + "-numActive", dataSource::getNumActive);
+    this.metricsManager.addGauge("DB-" + poolName + "-numIdle", dataSource::getNumIdle);
+    this.metricsManager.addGauge("DB-" + poolName + "-maxTotal", dataSource::getMaxTotal);
   }
 
   /**
@@ -94,6 +114,28 @@ public class DBMetrics {
   }
 
 
+  /**
+   * Mark the occurrence of a connection fetched from the read replica.
+   */
+  void markReplicaConnection() {
+    this.replicaConnectionMeter.mark();
+  }
+
+  /**
+   * Mark the occurrence of a read-only query served by the read replica.
+   */
+  void markReplicaQuery() {
+    this.replicaQueryMeter.mark();
+  }
+
+  /**
+   * Mark the occurrence when a read-only query failed on the replica and was retried on the
+   * primary data source.
+   */
+  void markReplicaFallback() {
+    this.replicaFallbackMeter.mark();
+  }
+
   void setDBConnectionTime(final long milliseconds) {
     this.dbConnectionTime.set(milliseconds);
   }
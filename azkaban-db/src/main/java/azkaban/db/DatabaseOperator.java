@@ -22,6 +22,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Arrays;
 import javax.inject.Inject;
+import javax.inject.Named;
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
@@ -36,10 +37,25 @@ import org.apache.log4j.Logger;
  */
 public class DatabaseOperator {
 
+  /**
+   * Binding name of the optional read replica {@link AzkabanDataSource}.
+   */
+  public static final String READ_REPLICA = "readReplica";
+
+  /**
+   * Time during which read-only queries go to the primary after a replica query failed.
+   */
+  private static final long READ_REPLICA_RETRY_INTERVAL_MS = 30000;
+
   private static final Logger logger = Logger.getLogger(DatabaseOperator.class);
 
   private final QueryRunner queryRunner;
 
+  // Null when no read replica is configured: read-only queries then go to the primary.
+  private QueryRunner readOnlyQueryRunner;
+  // Read-only queries are not sent to the replica before this time, 0 when the replica is healthy
+  private volatile long readReplicaRetryTime = 0;
+
   @Inject
   private DBMetrics dbMetrics;
 
@@ -77,6 +93,59 @@ public class DatabaseOperator {
     }
   }
 
+  /**
+   * Executes the given read-only SELECT SQL operation against the read replica, if one is
+   * configured. Only queries which can tolerate replication lag (e.g. history pages, event logs)
+   * should use this method; staleness-sensitive reads must keep using {@link #query}.
+   *
+   * If the replica query fails, the query is retried once against the primary data source, and the
+   * next read-only queries go to the primary for a while before the replica is tried again.
+   *
+   * @param baseQuery The SQL query statement to execute.
+   * @param resultHandler The handler used to create the result object
+   * @param params Initialize the PreparedStatement's IN parameters
+   * @param <T> The type of object that the qeury handler returns
+   * @return The object returned by the handler.
+   */
+  public <T> T queryReadOnly(final String baseQuery, final ResultSetHandler<T> resultHandler,
+      final Object... params)
+      throws SQLException {
+    if (this.readOnlyQueryRunner == null) {
+      return query(baseQuery, resultHandler, params);
+    }
+    final long retryTime = this.readReplicaRetryTime;
+    if (retryTime > System.currentTimeMillis()) {
+      if (this.dbMetrics != null) {
+        this.dbMetrics.markReplicaFallback();
+      }
+      return query(baseQuery, resultHandler, params);
+    }
+    try {
+      final T result = this.readOnlyQueryRunner.query(baseQuery, resultHandler, params);
+      if (retryTime != 0) {
+        logger.info("read replica recovered");
+        this.readReplicaRetryTime = 0;
+      }
+      if (this.dbMetrics != null) {
+        this.dbMetrics.markReplicaQuery();
+      }
+      return result;
+    } catch (final SQLException ex) {
+      // Only the first failure is logged in full, a dead replica would otherwise log every query
+      if (retryTime == 0) {
+        logger.warn("read replica query failed, falling back to primary for "
+            + READ_REPLICA_RETRY_INTERVAL_MS + " ms", ex);
+      } else {
+        logger.warn("read replica query failed again: " + ex.getMessage());
+      }
+      this.readReplicaRetryTime = System.currentTimeMillis() + READ_REPLICA_RETRY_INTERVAL_MS;
+      if (this.dbMetrics != null) {
+        this.dbMetrics.markReplicaFallback();
+      }
+      return query(baseQuery, resultHandler, params);
+    }
+  }
+
   /**
    * Provide a way to allow users define custom SQL operations without relying on fixed SQL
    * interface. The common use case is to group a sequence of SQL operations without commit every
@@ -170,6 +239,23 @@ public class DatabaseOperator {
     }
   }
 
+  /**
+   * Route {@link #queryReadOnly} calls to the given read replica. The binding is optional: when
+   * no replica is configured, this setter is never invoked.
+   */
+  @com.google.inject.Inject(optional = true)
+  public void setReadReplicaDataSource(
+      @Named(READ_REPLICA) final AzkabanDataSource readReplicaDataSource) {
+    this.readOnlyQueryRunner = new QueryRunner(readReplicaDataSource);
+  }
+
+  /**
+   * @return true if read-only queries are routed to a read replica.
+   */
+  public boolean hasReadReplica() {
+    return this.readOnlyQueryRunner != null;
+  }
+
   /**
    * @return datasource wrapped in the database operator.
    */
@@ -55,7 +55,10 @@ public class MySQLDataSource extends AzkabanDataSource {
     setMaxTotal(numConnections);
     setValidationQuery("/* ping */ select 1");
     setTestOnBorrow(true);
+
+    dbMetrics.registerPoolMetrics(DBMetrics.PRIMARY_POOL, this);
   }
+
   /**
    * This method overrides {@link BasicDataSource#getConnection()}, in order to have retry logics.
    * We don't make the call synchronized in order to guarantee normal cases performance.
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.db;
+
+import azkaban.utils.Props;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Data source pointing at a MySQL read replica. Only read-only DAO queries issued through
+ * {@link DatabaseOperator#queryReadOnly} are routed here.
+ *
+ * Unlike {@link MySQLDataSource}, connections are not required to be write-enabled and there is
+ * no blocking retry loop: if the replica can not serve a connection, the caller falls back to the
+ * primary data source instead. Borrowing a connection, connecting and reading from the replica are
+ * bounded by short timeouts, so that a hung replica fails queries rather than blocking them.
+ *
+ * Any "mysql.replica.*" property that is not set falls back to its "mysql.*" counterpart, so
+ * typically only "mysql.replica.host" needs to be configured.
+ */
+@Singleton
+public class MySQLReadReplicaDataSource extends AzkabanDataSource {
+
+  public static final String REPLICA_HOST = "mysql.replica.host";
+  public static final String REPLICA_MAX_WAIT_MS = "mysql.replica.max.wait.ms";
+  public static final String REPLICA_CONNECT_TIMEOUT_MS = "mysql.replica.connect.timeout.ms";
+  public static final String REPLICA_SOCKET_TIMEOUT_MS = "mysql.replica.socket.timeout.ms";
+  private static final long DEFAULT_REPLICA_MAX_WAIT_MS = 1000;
+  private static final int DEFAULT_REPLICA_CONNECT_TIMEOUT_MS = 1000;
+  private static final int DEFAULT_REPLICA_SOCKET_TIMEOUT_MS = 60000;
+
+  private final DBMetrics dbMetrics;
+
+  @Inject
+  public MySQLReadReplicaDataSource(final Props props, final DBMetrics dbMetrics) {
+    super();
+    this.dbMetrics = dbMetrics;
+
+    final int port = props.getInt("mysql.replica.port", props.getInt("mysql.port"));
+    final String host = props.getString(REPLICA_HOST);
+    final String dbName = props.getString("mysql.replica.database",
+        props.getString("mysql.database"));
+    final String user = props.getString("mysql.replica.user", props.getString("mysql.user"));
+    final String password = props.getString("mysql.replica.password",
+        props.getString("mysql.password"));
+    final int numConnections = props.getInt("mysql.replica.numconnections",
+        props.getInt("mysql.numconnections"));
+
+    final String url = "jdbc:mysql://" + (host + ":" + port + "/" + dbName);
+    addConnectionProperty("useUnicode", "yes");
+    addConnectionProperty("characterEncoding", "UTF-8");
+    addConnectionProperty("connectTimeout", String.valueOf(
+        props.getInt(REPLICA_CONNECT_TIMEOUT_MS, DEFAULT_REPLICA_CONNECT_TIMEOUT_MS)));
+    addConnectionProperty("socketTimeout", String.valueOf(
+        props.getInt(REPLICA_SOCKET_TIMEOUT_MS, DEFAULT_REPLICA_SOCKET_TIMEOUT_MS)));
+    setDriverClassName("com.mysql.cj.jdbc.Driver");
+    setUsername(user);
+    setPassword(password);
+    setUrl(url);
+    setMaxTotal(numConnections);
+    // The default is to wait for a connection indefinitely
+    setMaxWaitMillis(props.getLong(REPLICA_MAX_WAIT_MS, DEFAULT_REPLICA_MAX_WAIT_MS));
+    setValidationQuery("/* ping */ select 1");
+    setTestOnBorrow(true);
+    setDefaultReadOnly(true);
+
+    dbMetrics.registerPoolMetrics(DBMetrics.REPLICA_POOL, this);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    this.dbMetrics.markReplicaConnection();
+    return super.getConnection();
+  }
+
+  @Override
+  public String getDBType() {
+    return "mysql";
+  }
+
+  @Override
+  public boolean allowsOnDuplicateKey() {
+    return true;
+  }
+}
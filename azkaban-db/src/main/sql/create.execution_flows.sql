@@ -27,6 +27,10 @@ CREATE INDEX ex_flows_time_range
   ON execution_flows (start_time, end_time);
 CREATE INDEX ex_flows_flows
   ON execution_flows (project_id, flow_id);
+CREATE INDEX ex_flows_flow_id
+  ON execution_flows (flow_id);
+CREATE INDEX ex_flows_submit_user
+  ON execution_flows (submit_user);
 CREATE INDEX executor_id
   ON execution_flows (executor_id);
 CREATE INDEX ex_flows_staus
@@ -0,0 +1,6 @@
+-- Exec_id up to which each table was cleaned up by the execution retention engine.
+CREATE TABLE execution_retention_state (
+  name  VARCHAR(64) NOT NULL,
+  value BIGINT      NOT NULL,
+  PRIMARY KEY (name)
+);
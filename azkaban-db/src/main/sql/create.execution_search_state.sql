@@ -0,0 +1,6 @@
+-- Progress of the backfill of execution_search_terms from existing executions.
+CREATE TABLE execution_search_state (
+  name  VARCHAR(64) NOT NULL,
+  value BIGINT      NOT NULL,
+  PRIMARY KEY (name)
+);
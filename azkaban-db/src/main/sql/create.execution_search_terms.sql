@@ -0,0 +1,7 @@
+-- Distinct flow ids (field 1) and submit users (field 2) of executions, searched by the execution
+-- history page instead of scanning execution_flows with LIKE '%...%'.
+CREATE TABLE execution_search_terms (
+  field TINYINT      NOT NULL,
+  term  VARCHAR(128) NOT NULL,
+  PRIMARY KEY (field, term)
+);
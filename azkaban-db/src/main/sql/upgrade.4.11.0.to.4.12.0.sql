@@ -0,0 +1,25 @@
+-- DB Migration from release 4.11.0 to 4.12.0
+-- Exec_id up to which each table was cleaned up by the execution retention engine.
+CREATE TABLE execution_retention_state (
+  name  VARCHAR(64) NOT NULL,
+  value BIGINT      NOT NULL,
+  PRIMARY KEY (name)
+);
+
+-- Index the flow ids and submit users searched by the execution history page.
+CREATE TABLE execution_search_terms (
+  field TINYINT      NOT NULL,
+  term  VARCHAR(128) NOT NULL,
+  PRIMARY KEY (field, term)
+);
+
+CREATE TABLE execution_search_state (
+  name  VARCHAR(64) NOT NULL,
+  value BIGINT      NOT NULL,
+  PRIMARY KEY (name)
+);
+
+CREATE INDEX ex_flows_flow_id
+  ON execution_flows (flow_id);
+CREATE INDEX ex_flows_submit_user
+  ON execution_flows (submit_user);
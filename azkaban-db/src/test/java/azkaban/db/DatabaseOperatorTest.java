@@ -19,6 +19,8 @@ package azkaban.db;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -151,4 +153,45 @@ public class DatabaseOperatorTest {
     int[] res = this.dbOperator.batch(BATCH_COMMAND, BATCH_PARAMETERS);
     Assert.assertEquals(BATCH_COMMAND_RESULT, res);
   }
+
+  @Test
+  public void testQueryReadOnlyWithoutReplicaUsesPrimary() throws Exception {
+    Assert.assertFalse(this.dbOperator.hasReadReplica());
+    final int res = this.dbOperator
+        .queryReadOnly("select * from blah where ? = ?", this.handler, "id", 2);
+    Assert.assertEquals(15, res);
+    verify(this.queryRunner).query("select * from blah where ? = ?", this.handler, "id", 2);
+  }
+
+  @Test
+  public void testQueryReadOnlyUsesReplica() throws Exception {
+    this.dbOperator.setReadReplicaDataSource(this.datasource);
+    Assert.assertTrue(this.dbOperator.hasReadReplica());
+    final int res = this.dbOperator.queryReadOnly("select 42", this.handler);
+    Assert.assertEquals(42, res);
+    verify(this.queryRunner, never()).query("select 42", this.handler);
+  }
+
+  @Test
+  public void testQueryReadOnlyFallsBackToPrimary() throws Exception {
+    // The replica has no "blah" table, so the query fails there and is served by the primary.
+    this.dbOperator.setReadReplicaDataSource(this.datasource);
+    final int res = this.dbOperator
+        .queryReadOnly("select * from blah where ? = ?", this.handler, "id", 2);
+    Assert.assertEquals(15, res);
+    verify(this.queryRunner).query("select * from blah where ? = ?", this.handler, "id", 2);
+  }
+
+  @Test
+  public void testQueryReadOnlySkipsReplicaAfterFailure() throws Exception {
+    final AzkabanDataSource replica = spy(new AzDBTestUtility.EmbeddedH2BasicDataSource());
+    this.dbOperator.setReadReplicaDataSource(replica);
+    this.dbOperator.queryReadOnly("select * from blah where ? = ?", this.handler, "id", 2);
+    verify(replica).getConnection();
+
+    when(this.queryRunner.query("select 42", this.handler)).thenReturn(7);
+    final int res = this.dbOperator.queryReadOnly("select 42", this.handler);
+    Assert.assertEquals(7, res);
+    verify(replica).getConnection();
+  }
 }
@@ -22,11 +22,13 @@ import static azkaban.server.HttpRequestUtils.getParam;
 import static azkaban.server.HttpRequestUtils.hasParam;
 
 import azkaban.Constants;
+import azkaban.execapp.LogStreamer;
 import azkaban.executor.ConnectorParams;
 import azkaban.executor.ExecutorManagerException;
 import azkaban.utils.FileIOUtils;
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.Map;
 import javax.servlet.ServletConfig;
@@ -92,6 +94,9 @@ public class ContainerServlet extends HttpServlet implements ConnectorParams {
           case ConnectorParams.CANCEL_ACTION:
             handleAjaxCancel(respMap, execid, user);
             break;
+          case ConnectorParams.EXECUTE_ACTION:
+            handleAssignExecution(respMap, execid);
+            break;
           case ConnectorParams.METADATA_ACTION:
             handleFetchMetaDataEvent(execid, req, resp, respMap);
             break;
@@ -101,6 +106,10 @@ public class ContainerServlet extends HttpServlet implements ConnectorParams {
           case ConnectorParams.LOG_ACTION:
             handleFetchLogEvent(execid, req, resp, respMap);
             break;
+          case ConnectorParams.LOG_STREAM_ACTION:
+            // The log is written to the response as is, there is no JSON response.
+            handleStreamLogEvent(execid, req, resp);
+            return;
           default:
             respMap.put(ConnectorParams.RESPONSE_ERROR, "Unsupported action type: " + action);
             break;
@@ -135,6 +144,20 @@ public class ContainerServlet extends HttpServlet implements ConnectorParams {
     }
   }
 
+  /**
+   * Assign an execution to the flow container if it is on standby.
+   */
+  @VisibleForTesting
+  void handleAssignExecution(final Map<String, Object> respMap, final int execid) {
+    try {
+      this.flowContainer.assignExecution(execid);
+      respMap.put(ConnectorParams.STATUS_PARAM, ConnectorParams.RESPONSE_SUCCESS);
+    } catch (final ExecutorManagerException e) {
+      logger.error(e.getMessage(), e);
+      respMap.put(ConnectorParams.RESPONSE_ERROR, e.getMessage());
+    }
+  }
+
   private void handleFetchLogEvent(final int execId, final HttpServletRequest req,
       final HttpServletResponse resp, final Map<String, Object> respMap)
       throws ServletException {
@@ -169,6 +192,26 @@ public class ContainerServlet extends HttpServlet implements ConnectorParams {
     }
   }
 
+  private void handleStreamLogEvent(final int execId, final HttpServletRequest req,
+      final HttpServletResponse resp) throws IOException {
+    try (final FileChannel channel = "flow".equals(getParam(req, "type"))
+        ? this.flowContainer.openFlowLogChannel(execId)
+        : this.flowContainer.openJobLogChannel(execId, getParam(req, "jobId"),
+            getIntParam(req, "attempt", 0))) {
+      LogStreamer.streamLog(channel, req, resp, this.flowContainer::isFlowRunning);
+    } catch (final ServletException e) {
+      logger.error(e.getMessage(), e);
+      if (!resp.isCommitted()) {
+        resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      }
+    } catch (final ExecutorManagerException e) {
+      logger.error(e.getMessage(), e);
+      if (!resp.isCommitted()) {
+        resp.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+      }
+    }
+  }
+
   private void handleFetchMetaDataEvent(final int execId, final HttpServletRequest req,
       final HttpServletResponse resp, final Map<String, Object> respMap)
       throws ServletException {
@@ -23,6 +23,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 import azkaban.AzkabanCommonModule;
 import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.Constants.PluginManager;
 import azkaban.DispatchMethod;
 import azkaban.cluster.ClusterModule;
@@ -35,12 +36,14 @@ import azkaban.execapp.AbstractFlowPreparer;
 import azkaban.execapp.AzkabanExecutorServer;
 import azkaban.execapp.ExecMetrics;
 import azkaban.execapp.FlowRunner;
-import azkaban.execapp.TriggerManager;
+import azkaban.execapp.SlaTracker;
 import azkaban.execapp.event.FlowWatcher;
 import azkaban.execapp.event.JobCallbackManager;
 import azkaban.execapp.event.RemoteFlowWatcher;
 import azkaban.execapp.jmx.JmxJobMBeanManager;
 import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableFlowBase;
+import azkaban.executor.ExecutableNode;
 import azkaban.executor.ExecutionOptions;
 import azkaban.executor.ExecutorLoader;
 import azkaban.executor.ExecutorManagerException;
@@ -57,8 +60,8 @@ import azkaban.security.commons.HadoopSecurityManager;
 import azkaban.server.AzkabanServer;
 import azkaban.server.IMBeanRegistrable;
 import azkaban.server.MBeanRegistrationManager;
-import azkaban.sla.SlaOption;
 import azkaban.spi.AzkabanEventReporter;
+import azkaban.spi.EventType;
 import azkaban.storage.ProjectStorageManager;
 import azkaban.utils.DependencyTransferManager;
 import azkaban.utils.FileIOUtils;
@@ -69,16 +72,23 @@ import azkaban.utils.StdOutErrRedirect;
 import azkaban.utils.Utils;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.KeyStore;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -125,6 +135,15 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
   public static final String JOB_LOG_BACKUP_INDEX = "job.log.backup.index";
   public static final String PROXY_USER_LOCK_DOWN = "proxy.user.lock.down";
   private static final int SHUTDOWN_TIMEOUT_IN_SECONDS = 10;
+  // Startup phases
+  static final String PHASE_INJECTOR = "injector";
+  static final String PHASE_SERVER_START = "server-start";
+  static final String PHASE_FLOW_FETCH = "flow-fetch";
+  static final String PHASE_PROJECT_SETUP = "project-setup";
+  static final String PHASE_JOBTYPE_LOAD = "jobtype-load";
+  static final String PHASE_KEYSTORE_SETUP = "keystore-setup";
+  static final String PHASE_STANDBY_WAIT = "standby-wait";
+  static final String PHASE_TOTAL = "total";
 
 
   // Logging
@@ -134,10 +153,20 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
           new File(String.valueOf(ContainerizedFlowPreparer.getCurrentDir()), logFileName);
 
   private final ExecutorService executorService;
+  // Runs the independent startup phases concurrently
+  private final ExecutorService startupExecutorService;
+  private final StartupPhaseTimer startupPhaseTimer = new StartupPhaseTimer();
+  private final ExecMetrics execMetrics;
+  private final MetricsManager metricsManager;
   private final ExecutorLoader executorLoader;
   private final ProjectLoader projectLoader;
-  private final TriggerManager triggerManager;
-  private final JobTypeManager jobTypeManager;
+  private final SlaTracker slaTracker;
+  // Created once the flow is fetched, so that only its jobtypes are loaded, unless the flow
+  // container is a standby one
+  private volatile JobTypeManager jobTypeManager;
+  // Completed with the execution id once an execution is assigned to a standby flow container
+  private final CompletableFuture<Integer> assignedExecution = new CompletableFuture<>();
+  private long executionAssignTime = 0;
   private final ClusterRouter clusterRouter;
   private final AbstractFlowPreparer flowPreparer;
   private final Server jettyServer;
@@ -159,7 +188,8 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
   private final MBeanRegistrationManager mBeanRegistrationManager = new MBeanRegistrationManager();
 
   /**
-   * Constructor of FlowContainer. It sets up all the DAO, all the loaders and Azkaban KeyStore.
+   * Constructor of FlowContainer. It sets up all the DAO and the loaders. The jobtype plugins and
+   * the Azkaban KeyStore are set up when the flow is submitted.
    *
    * @param props Azkaban properties.
    * @param clusterRouter the router that decides which cluster a job should be submitted to
@@ -170,7 +200,9 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
       final ExecutorLoader executorLoader,
       final ProjectLoader projectLoader,
       final ClusterRouter clusterRouter,
-      final TriggerManager triggerManager,
+      final SlaTracker slaTracker,
+      final ExecMetrics execMetrics,
+      final MetricsManager metricsManager,
       @Nullable final AzkabanEventReporter eventReporter,
       @Named(EXEC_JETTY_SERVER) final Server jettyServer,
       @Named(EXEC_CONTAINER_CONTEXT) final Context context) throws ExecutorManagerException {
@@ -193,6 +225,11 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
 
     // setup executor service
     this.executorService = Executors.newSingleThreadExecutor();
+    this.startupExecutorService = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("azk-container-startup-%d").setDaemon(true)
+            .build());
+    this.execMetrics = execMetrics;
+    this.metricsManager = metricsManager;
 
     // jetty server
     this.jettyServer = jettyServer;
@@ -206,20 +243,10 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
     this.validateProxyUser = this.azKabanProps.getBoolean(PROXY_USER_LOCK_DOWN,
         DEFAULT_VALIDATE_PROXY_USER);
     this.clusterRouter = clusterRouter;
-    this.triggerManager = triggerManager;
-    this.triggerManager.setDispatchMethod(DispatchMethod.CONTAINERIZED);
-    this.jobTypeManager =
-        new JobTypeManager(
-            this.azKabanProps.getString(AzkabanExecutorServer.JOBTYPE_PLUGIN_DIR,
-                PluginManager.JOBTYPE_DEFAULTDIR),
-            this.globalProps, getClass().getClassLoader(), clusterRouter);
+    this.slaTracker = slaTracker;
+    this.slaTracker.setDispatchMethod(DispatchMethod.CONTAINERIZED);
 
     this.numJobThreadPerFlow = props.getInt(JOB_THREAD_COUNT, DEFAULT_JOB_TREAD_COUNT);
-    if (this.azKabanProps.getBoolean(Constants.USE_IN_MEMORY_KEYSTORE,
-        DEFAULT_USE_IN_MEMORY_KEYSTORE)) {
-      // Setting up the in-memory KeyStore for all the job executions in the flow.
-      setupKeyStore();
-    }
     // Create a flow preparer
     this.flowPreparer = new ContainerizedFlowPreparer(
         SERVICE_PROVIDER.getInstance(ProjectStorageManager.class),
@@ -238,8 +265,11 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
   public static void main(final String[] args) throws ExecutorManagerException {
     // Redirect all std out and err messages into slf4j
     StdOutErrRedirect.redirectOutAndErrToLog();
-    // Get the execution ID from the environment
-    final int execId = getExecutionId();
+    // A standby flow container is started before an execution is assigned to it, otherwise get
+    // the execution ID from the environment
+    final boolean standby = Boolean.parseBoolean(System.getenv(
+        Constants.ContainerizedDispatchManagerProperties.ENV_FLOW_CONTAINER_STANDBY));
+    final int execId = standby ? -1 : getExecutionId();
     final Path currentDir = ContainerizedFlowPreparer.getCurrentDir();
 
     // Set Azkaban props
@@ -247,18 +277,27 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
     final Props azkabanProps = setAzkabanProps(jobtypePluginPath);
 
     // Setup Injector
+    final long injectorStartTime = System.currentTimeMillis();
     setInjector(azkabanProps);
 
     // Constructor
     final FlowContainer flowContainer = SERVICE_PROVIDER.getInstance(FlowContainer.class);
+    flowContainer.startupPhaseTimer.record(PHASE_INJECTOR,
+        System.currentTimeMillis() - injectorStartTime);
 
-    // Setup the callback mechanism and start the jetty server.
-    flowContainer.start(azkabanProps);
+    // Setup the callback mechanism and start the jetty server while the flow is prepared.
+    final CompletableFuture<Void> serverStart = flowContainer.runStartupPhase(PHASE_SERVER_START,
+        () -> flowContainer.start(azkabanProps));
 
     // Once submitFlow is called, the shutdown must happen for clean exit.
     try {
       // execute the flow, this is a blocking call until flow finishes
-      flowContainer.submitFlow(execId);
+      if (standby) {
+        flowContainer.submitFlow(flowContainer.waitForExecution(), serverStart);
+      } else {
+        flowContainer.assignedExecution.complete(execId);
+        flowContainer.submitFlow(execId, serverStart);
+      }
     } catch (final ExecutorManagerException e) {
       // Log the cause
       logger.error("Flow execution failed due to ", e);
@@ -297,6 +336,61 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
     SERVICE_PROVIDER.setInjector(injector);
   }
 
+  /**
+   * Set up everything which doesn't depend on the execution while the flow container is on
+   * standby, then wait for an execution to be assigned. All the jobtype plugins are loaded since
+   * the jobtypes of the execution aren't known yet.
+   *
+   * @return the id of the assigned execution
+   * @throws ExecutorManagerException
+   */
+  @VisibleForTesting
+  int waitForExecution() throws ExecutorManagerException {
+    logger.info("Flow container is on standby");
+    try {
+      awaitStartupPhase(runStartupPhase(PHASE_JOBTYPE_LOAD, () -> createJobTypeManager(null)));
+      setupKeyStoreIfEnabled();
+    } catch (final ExecutorManagerException e) {
+      // Reported when the execution is assigned so that the failure is part of its startup
+      this.assignedExecution.completeExceptionally(e);
+    }
+    final long waitStartTime = System.currentTimeMillis();
+    final int execId;
+    try {
+      execId = this.assignedExecution.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorManagerException("Interrupted while waiting for an execution", e);
+    } catch (final ExecutionException e) {
+      throw new ExecutorManagerException("Flow container startup failed", e.getCause());
+    }
+    this.executionAssignTime = System.currentTimeMillis();
+    this.startupPhaseTimer.record(PHASE_STANDBY_WAIT, this.executionAssignTime - waitStartTime);
+    logger.info(String.format("Execution %d is assigned to the standby flow container", execId));
+    return execId;
+  }
+
+  /**
+   * Assign an execution to the flow container while it is on standby. Assigning the same
+   * execution again has no effect, so that the dispatch can be retried.
+   *
+   * @param execId Execution Id of the flow.
+   * @throws ExecutorManagerException if another execution is already assigned
+   */
+  public void assignExecution(final int execId) throws ExecutorManagerException {
+    this.assignedExecution.complete(execId);
+    final int assignedExecId;
+    try {
+      assignedExecId = this.assignedExecution.join();
+    } catch (final CompletionException e) {
+      throw new ExecutorManagerException("Flow container startup failed", e.getCause());
+    }
+    if (assignedExecId != execId) {
+      throw new ExecutorManagerException(
+          "Execution " + assignedExecId + " is already assigned to the flow container");
+    }
+  }
+
   /**
    * Submit flow Creates and submits the FlowRunner.
    *
@@ -306,7 +400,22 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
   @VisibleForTesting
   void submitFlow(final int execId)
       throws ExecutorManagerException {
+    submitFlow(execId, CompletableFuture.completedFuture(null));
+  }
+
+  /**
+   * Submit flow Creates and submits the FlowRunner once the other startup phases finished. The
+   * project setup and the jobtype plugin loading don't depend on each other and run concurrently.
+   *
+   * @param execId Execution Id of the flow.
+   * @param serverStart Startup phase of the jetty server.
+   * @throws ExecutorManagerException
+   */
+  private void submitFlow(final int execId, final CompletableFuture<Void> serverStart)
+      throws ExecutorManagerException {
+    final long fetchStartTime = System.currentTimeMillis();
     final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(execId);
+    this.startupPhaseTimer.record(PHASE_FLOW_FETCH, System.currentTimeMillis() - fetchStartTime);
     if (flow == null) {
       logger.error("Error loading flow with execution Id " + execId);
       throw new ExecutorManagerException("Error loading flow for exec: " + execId +
@@ -316,21 +425,116 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
     // Log the versionSet for this flow execution
     logVersionSet(flow);
 
+    // Prepare the flow with project dependencies.
+    final CompletableFuture<Void> projectSetup = runStartupPhase(PHASE_PROJECT_SETUP,
+        () -> this.flowPreparer.setup(flow));
+    try {
+      // The plugins of a standby flow container are already set up
+      if (this.jobTypeManager == null) {
+        awaitStartupPhase(runStartupPhase(PHASE_JOBTYPE_LOAD, () -> createJobTypeManager(flow)));
+        setupKeyStoreIfEnabled();
+      }
+      awaitStartupPhase(projectSetup);
+      awaitStartupPhase(serverStart);
+    } finally {
+      this.startupExecutorService.shutdown();
+    }
+
     createFlowRunner(flow);
+    recordStartupPhases();
     submitFlowRunner();
   }
 
   /**
-   * Create Flow Runner and setup the flow execution directory with project dependencies.
+   * Run a startup phase on the startup thread pool.
+   */
+  private CompletableFuture<Void> runStartupPhase(final String name,
+      final StartupPhaseTimer.Phase phase) {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        this.startupPhaseTimer.time(name, phase);
+      } catch (final ExecutorManagerException e) {
+        throw new CompletionException(e);
+      }
+    }, this.startupExecutorService);
+  }
+
+  private static void awaitStartupPhase(final CompletableFuture<Void> phase)
+      throws ExecutorManagerException {
+    try {
+      phase.join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof ExecutorManagerException) {
+        throw (ExecutorManagerException) e.getCause();
+      }
+      throw new ExecutorManagerException("Flow container startup failed", e.getCause());
+    }
+  }
+
+  private void setupKeyStoreIfEnabled() throws ExecutorManagerException {
+    if (this.azKabanProps.getBoolean(Constants.USE_IN_MEMORY_KEYSTORE,
+        DEFAULT_USE_IN_MEMORY_KEYSTORE)) {
+      // Setting up the in-memory KeyStore for all the job executions in the flow.
+      this.startupPhaseTimer.time(PHASE_KEYSTORE_SETUP, this::setupKeyStore);
+    }
+  }
+
+  /**
+   * Load the jobtype plugins. Unless configured otherwise, only the jobtypes used by the flow are
+   * loaded upfront.
+   *
+   * @param flow the flow to run, null to load all the jobtypes
+   */
+  private void createJobTypeManager(@Nullable final ExecutableFlow flow) {
+    Set<String> jobTypesToLoad = null;
+    if (flow != null && this.azKabanProps.getBoolean(
+        ConfigurationKeys.FLOW_CONTAINER_LOAD_USED_JOBTYPES_ONLY, true)) {
+      jobTypesToLoad = new HashSet<>();
+      addJobTypes(flow, jobTypesToLoad);
+      logger.info("Loading jobtypes " + jobTypesToLoad);
+    }
+    this.jobTypeManager =
+        new JobTypeManager(
+            this.azKabanProps.getString(AzkabanExecutorServer.JOBTYPE_PLUGIN_DIR,
+                PluginManager.JOBTYPE_DEFAULTDIR),
+            this.globalProps, getClass().getClassLoader(), this.clusterRouter,
+            this.azKabanProps.getBoolean(ConfigurationKeys.JOBTYPE_CLASSLOADER_CACHE_ENABLED,
+                false), jobTypesToLoad);
+  }
+
+  private static void addJobTypes(final ExecutableFlowBase flow, final Set<String> jobTypes) {
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      jobTypes.add(node.getType());
+      if (node instanceof ExecutableFlowBase) {
+        addJobTypes((ExecutableFlowBase) node, jobTypes);
+      }
+    }
+  }
+
+  /**
+   * Report the durations of the startup phases as metrics and in the flow events.
+   */
+  private void recordStartupPhases() {
+    // The startup of a standby flow container is measured from the assignment of the execution
+    final long totalTime = this.executionAssignTime > 0
+        ? System.currentTimeMillis() - this.executionAssignTime
+        : this.startupPhaseTimer.getTimeSinceJvmStart();
+    this.startupPhaseTimer.record(PHASE_TOTAL, totalTime);
+    this.startupPhaseTimer.getPhaseDurations()
+        .forEach(this.execMetrics::addFlowContainerStartupTime);
+    logger.info("Flow container started in " + totalTime + " ms: " + this.startupPhaseTimer);
+    this.flowRunner.setFlowCreateTime(totalTime);
+    this.flowRunner.setFlowContainerStartupPhases(this.startupPhaseTimer.toString());
+  }
+
+  /**
+   * Create Flow Runner for a flow whose execution directory is setup with the project
+   * dependencies.
    *
    * @param flow Executable flow object.
-   * @return FlowRunner object.
    * @throws ExecutorManagerException
    */
   private void createFlowRunner(final ExecutableFlow flow) throws ExecutorManagerException {
-    // Prepare the flow with project dependencies.
-    this.flowPreparer.setup(flow);
-
     // Setup flow watcher
     FlowWatcher watcher = null;
     final ExecutionOptions options = flow.getExecutionOptions();
@@ -420,6 +624,9 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
 
     ServerUtils.configureJobCallback(FlowContainer.logger, azkabanProps);
     configureMBeanServer();
+    if (azkabanProps.getBoolean(ConfigurationKeys.IS_METRICS_ENABLED, false)) {
+      this.metricsManager.startReporting("AZ-EXEC", azkabanProps);
+    }
     // Start the Jetty Server
     launchCtrlMsgListener(this);
   }
@@ -528,6 +735,47 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
     }
   }
 
+  /**
+   * Open the flow log for streaming.
+   */
+  public FileChannel openFlowLogChannel(final int execId) throws ExecutorManagerException {
+    return openLogChannel(execId, FlowContainer.logFile);
+  }
+
+  /**
+   * Open a job log for streaming.
+   */
+  public FileChannel openJobLogChannel(final int execId, final String jobId, final int attempt)
+      throws ExecutorManagerException {
+    if (this.flowRunner == null) {
+      throw new ExecutorManagerException("The flow has not launched yet!");
+    }
+    return openLogChannel(execId, this.flowRunner.getJobLogFile(jobId, attempt));
+  }
+
+  /**
+   * @return true while the flow has not finished, ie. its logs may still be appended to.
+   */
+  public boolean isFlowRunning() {
+    return this.flowRunner != null
+        && !Status.isStatusFinished(this.flowRunner.getExecutableFlow().getStatus());
+  }
+
+  private FileChannel openLogChannel(final int execId, final File logFile)
+      throws ExecutorManagerException {
+    if (logFile == null || !logFile.exists()) {
+      logger.warn(String.format("Log file does not exist for flow execId: %d", execId));
+      throw new ExecutorManagerException("Log file does not exist.");
+    }
+    try {
+      return FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+    } catch (final IOException e) {
+      logger.error(String.format("IOException while trying to open log file for flow execId: %d",
+          execId));
+      throw new ExecutorManagerException(e);
+    }
+  }
+
   /**
    * @param execId
    * @param jobId
@@ -702,10 +950,12 @@ public class FlowContainer implements IMBeanRegistrable, EventListener<Event> {
     if (event.getType().isFlowEventType()) {
       final FlowRunner flowRunner = (FlowRunner) event.getRunner();
       final ExecutableFlow flow = flowRunner.getExecutableFlow();
-      // Set Flow level SLA options for containerized executions
-      this.triggerManager
-          .addTrigger(flow.getExecutionId(), SlaOption.getFlowLevelSLAOptions(flow
-              .getExecutionOptions().getSlaOptions()));
+      // Track the flow level slas of containerized executions
+      if (event.getType() == EventType.FLOW_STARTED) {
+        this.slaTracker.onFlowStarted(flow);
+      } else if (event.getType() == EventType.FLOW_FINISHED) {
+        this.slaTracker.onFlowFinished(flow);
+      }
     }
   }
 
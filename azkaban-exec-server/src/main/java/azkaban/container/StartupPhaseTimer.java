@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.container;
+
+import azkaban.executor.ExecutorManagerException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.log4j.Logger;
+
+/**
+ * Records how long each phase of the startup of a flow container takes. Phases may run
+ * concurrently, so the durations are recorded in the order in which the phases finish.
+ */
+class StartupPhaseTimer {
+
+  private static final Logger logger = Logger.getLogger(StartupPhaseTimer.class);
+
+  private final Map<String, Long> phaseDurations =
+      Collections.synchronizedMap(new LinkedHashMap<>());
+
+  /**
+   * A phase of the startup.
+   */
+  @FunctionalInterface
+  interface Phase {
+
+    void run() throws ExecutorManagerException;
+  }
+
+  /**
+   * Run a phase and record its duration, even if it fails.
+   */
+  void time(final String name, final Phase phase) throws ExecutorManagerException {
+    final long startTime = System.currentTimeMillis();
+    try {
+      phase.run();
+    } finally {
+      record(name, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  void record(final String name, final long duration) {
+    logger.info(String.format("Startup phase %s took %d ms", name, duration));
+    this.phaseDurations.put(name, duration);
+  }
+
+  /**
+   * @return the duration in milliseconds of each phase which finished, by phase name.
+   */
+  Map<String, Long> getPhaseDurations() {
+    synchronized (this.phaseDurations) {
+      return new LinkedHashMap<>(this.phaseDurations);
+    }
+  }
+
+  /**
+   * @return the time elapsed since the JVM started, which includes the class loading and JIT
+   * warm up happening before the first phase.
+   */
+  long getTimeSinceJvmStart() {
+    return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+  }
+
+  @Override
+  public String toString() {
+    return getPhaseDurations().entrySet().stream()
+        .map(entry -> entry.getKey() + "=" + entry.getValue())
+        .collect(Collectors.joining(","));
+  }
+}
@@ -22,6 +22,7 @@ import azkaban.executor.ExecutorManagerException;
 import azkaban.project.ProjectFileHandler;
 import azkaban.spi.Dependency;
 import azkaban.spi.DependencyFile;
+import azkaban.storage.ProjectManifest;
 import azkaban.storage.ProjectStorageManager;
 import azkaban.utils.DependencyTransferException;
 import azkaban.utils.DependencyTransferManager;
@@ -55,6 +56,8 @@ public abstract class AbstractFlowPreparer {
   protected final DependencyTransferManager dependencyTransferManager;
   // Name of the file which keeps project directory size
   public static final String PROJECT_DIR_SIZE_FILE_NAME = "___azkaban_project_dir_size_in_bytes___";
+  // Name of the file which keeps the manifest of a project stored as deduplicated file blobs
+  public static final String PROJECT_MANIFEST_FILE_NAME = "___azkaban_project_manifest___";
 
   /**
    * Constructor
@@ -107,34 +110,89 @@ public abstract class AbstractFlowPreparer {
   }
 
 
+  /**
+   * Find a directory holding another version of the project which was materialized from a
+   * manifest, so that the files shared with the version to download can be linked to it.
+   *
+   * @param proj project to download
+   * @return the directory, or null if there is none.
+   */
+  protected File findCachedProjectDir(final ProjectDirectoryMetadata proj) {
+    return null;
+  }
+
   @VisibleForTesting
   public void downloadAndUnzipProject(final ProjectDirectoryMetadata proj, final int execId,
       final File dest) throws IOException {
     final long start = System.currentTimeMillis();
     final ProjectFileHandler projectFileHandler = requireNonNull(this.projectStorageManager
-            .getProjectFile(proj.getProjectId(), proj.getVersion()));
-    LOGGER.info("Downloading zip file for project {} when preparing execution [execid {}] " +
-            "completed in {} second(s)", proj, execId, (System.currentTimeMillis() - start) / 1000);
+            .getProjectFile(proj.getProjectId(), proj.getVersion(), false));
+    LOGGER.info("Downloading {} file for project {} when preparing execution [execid {}] " +
+            "completed in {} second(s)", projectFileHandler.getFileType(), proj, execId,
+        (System.currentTimeMillis() - start) / 1000);
 
     try {
-      checkState("zip".equalsIgnoreCase(projectFileHandler.getFileType()));
-      final File zipFile = requireNonNull(projectFileHandler.getLocalFile());
-      final ZipFile zip = new ZipFile(zipFile);
-      Utils.unzip(zip, dest);
+      // Size of the extracted project, known without walking the project dir for a zip file
+      Long extractedSizeInByte = null;
+      if (ProjectStorageManager.isManifest(projectFileHandler)) {
+        materializeProject(proj, execId, projectFileHandler.getLocalFile(), dest);
+      } else {
+        checkState("zip".equalsIgnoreCase(projectFileHandler.getFileType()));
+        final File zipFile = requireNonNull(projectFileHandler.getLocalFile());
+        final long unzipStart = System.currentTimeMillis();
+        try (final ZipFile zip = new ZipFile(zipFile)) {
+          extractedSizeInByte = Utils.unzip(zip, dest);
+        }
+        LOGGER.info("Unzipping {} bytes of project {} [execid {}] completed in {} ms",
+            extractedSizeInByte, proj, execId, System.currentTimeMillis() - unzipStart);
+      }
 
       // Download all startup dependencies. If this is a fat archive, it will be an empty set (so we won't download
       // anything). Note that we are getting our list of startup dependencies from the DB, NOT from the
       // startup-dependencies.json file contained in the archive. Both should be IDENTICAL, however we chose to get the
       // list from the DB because this will be consistent with how containerized executions determine the startup
       // dependency list.
-      downloadAllDependencies(proj, execId, dest, projectFileHandler.getStartupDependencies());
-
-      proj.setDirSizeInByte(calculateDirSizeAndSave(dest));
+      final Set<DependencyFile> depFiles = downloadAllDependencies(proj, execId, dest,
+          projectFileHandler.getStartupDependencies());
+
+      if (extractedSizeInByte != null) {
+        long sizeInByte = extractedSizeInByte;
+        for (final DependencyFile depFile : depFiles) {
+          sizeInByte += depFile.getFile().length();
+        }
+        FileIOUtils.dumpNumberToFile(Paths.get(dest.getPath(), PROJECT_DIR_SIZE_FILE_NAME),
+            sizeInByte);
+        proj.setDirSizeInByte(sizeInByte);
+      } else {
+        proj.setDirSizeInByte(calculateDirSizeAndSave(dest));
+      }
     } finally {
       projectFileHandler.deleteLocalFile();
     }
   }
 
+  private void materializeProject(final ProjectDirectoryMetadata proj, final int execId,
+      final File manifestFile, final File dest) throws IOException {
+    final long start = System.currentTimeMillis();
+    final ProjectManifest manifest = ProjectManifest.read(requireNonNull(manifestFile));
+    File baseDir = findCachedProjectDir(proj);
+    ProjectManifest baseManifest = null;
+    if (baseDir != null) {
+      try {
+        baseManifest = ProjectManifest.read(new File(baseDir, PROJECT_MANIFEST_FILE_NAME));
+      } catch (final IOException e) {
+        LOGGER.warn("Failed to read the manifest of cached project dir {}", baseDir, e);
+        baseDir = null;
+      }
+    }
+    final int linkCount = this.projectStorageManager
+        .materializeProject(proj.getProjectId(), manifest, dest, baseDir, baseManifest);
+    Files.copy(manifestFile.toPath(), Paths.get(dest.getPath(), PROJECT_MANIFEST_FILE_NAME));
+    LOGGER.info("Materializing {} files of project {} [{} linked to {}] when preparing "
+            + "execution [execid {}] completed in {} second(s)", manifest.getFiles().size(), proj,
+        linkCount, baseDir, execId, (System.currentTimeMillis() - start) / 1000);
+  }
+
   /**
    * Download necessary JAR dependencies from storage
    *
@@ -142,9 +200,10 @@ public abstract class AbstractFlowPreparer {
    * @param execId execution id number
    * @param folder root of unzipped project
    * @param dependencies the set of dependencies to download
+   * @return the downloaded dependency files
    */
-  private void downloadAllDependencies(final ProjectDirectoryMetadata proj, final int execId,
-      final File folder, final Set<Dependency> dependencies) {
+  private Set<DependencyFile> downloadAllDependencies(final ProjectDirectoryMetadata proj,
+      final int execId, final File folder, final Set<Dependency> dependencies) {
     // Download all of the dependencies from storage
     LOGGER.info("Downloading {} JAR dependencies... Project: {}, ExecId: {}",
             dependencies.size(), proj, execId);
@@ -164,6 +223,7 @@ public abstract class AbstractFlowPreparer {
               "project {}.", execId, proj);
       throw e;
     }
+    return depFiles;
   }
 
 }
@@ -17,6 +17,7 @@
 package azkaban.execapp;
 
 import azkaban.execapp.metric.ProjectCacheHitRatio;
+import azkaban.jobtype.JobTypeManager;
 import azkaban.metrics.MetricsManager;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Histogram;
@@ -44,6 +45,17 @@ public class ExecMetrics {
   public static final String JOB_SUCCESS_METER_NAME = "job-success-meter";
   public static final String JOB_KILLED_METER_NAME = "job-killed-meter";
   public static final String POLLING_FREQUENCY_METER_NAME = "polling-frequency-meter";
+  public static final String JOBTYPE_CLASSLOADER_COUNT_NAME = "jobtype-classloader-count";
+  public static final String JOBTYPE_CLASSLOADER_REFERENCE_COUNT_NAME =
+      "jobtype-classloader-reference-count";
+  public static final String JOBTYPE_CLASSLOADER_METASPACE_NAME =
+      "jobtype-classloader-avg-metaspace-bytes";
+  public static final String JOB_BUILD_TIME_HISTOGRAM_NAME = "job-build-time-histogram";
+  public static final String SLA_ACTIVE_COUNT_NAME = "sla-active-count";
+  public static final String SLA_DEADLINE_LAG_HISTOGRAM_NAME = "sla-deadline-lag-histogram";
+  public static final String SLA_MISSED_METER_NAME = "sla-missed-meter";
+  public static final String FLOW_CONTAINER_STARTUP_HISTOGRAM_NAME_PREFIX =
+      "flow-container-startup-";
 
   private final MetricsManager metricsManager;
   private final Timer flowSetupTimer;
@@ -57,6 +69,8 @@ public class ExecMetrics {
   private final Meter jobSuccessMeter;
   private final Meter jobKilledMeter;
   private final Meter pollingFrequencyMeter;
+  private final Histogram slaDeadlineLagHistogram;
+  private final Meter slaMissedMeter;
   // TODO ypadron-in: add metrics to measure the time between flow submission and flow execution
   // preparation/start after clock skew issues in execution times are resolved.
 
@@ -78,6 +92,9 @@ public class ExecMetrics {
     this.jobSuccessMeter = this.metricsManager.addMeter(JOB_SUCCESS_METER_NAME);
     this.jobKilledMeter = this.metricsManager.addMeter(JOB_KILLED_METER_NAME);
     this.pollingFrequencyMeter = this.metricsManager.addMeter(POLLING_FREQUENCY_METER_NAME);
+    this.slaDeadlineLagHistogram =
+        this.metricsManager.addHistogram(SLA_DEADLINE_LAG_HISTOGRAM_NAME);
+    this.slaMissedMeter = this.metricsManager.addMeter(SLA_MISSED_METER_NAME);
   }
 
   ProjectCacheHitRatio getProjectCacheHitRatio() {
@@ -91,6 +108,21 @@ public class ExecMetrics {
         .addGauge(NUM_QUEUED_FLOWS_NAME, flowRunnerManager::getNumQueuedFlows);
   }
 
+  public void addJobTypeManagerMetrics(final JobTypeManager jobTypeManager) {
+    this.metricsManager
+        .addGauge(JOBTYPE_CLASSLOADER_COUNT_NAME, jobTypeManager::getJobClassLoaderCount);
+    this.metricsManager.addGauge(JOBTYPE_CLASSLOADER_REFERENCE_COUNT_NAME,
+        jobTypeManager::getJobClassLoaderReferenceCount);
+    this.metricsManager.addGauge(JOBTYPE_CLASSLOADER_METASPACE_NAME,
+        jobTypeManager::getAverageMetaspacePerJobClassLoader);
+    jobTypeManager
+        .setJobBuildTimeHistogram(this.metricsManager.addHistogram(JOB_BUILD_TIME_HISTOGRAM_NAME));
+  }
+
+  public void addSlaTrackerMetrics(final SlaTracker slaTracker) {
+    this.metricsManager.addGauge(SLA_ACTIVE_COUNT_NAME, slaTracker::getActiveSlaCount);
+  }
+
   /**
    * @return the {@link Timer.Context} for the timer.
    */
@@ -170,4 +202,32 @@ public class ExecMetrics {
     this.pollingFrequencyMeter.mark();
   }
 
+  /**
+   * Add the delay between the deadline of an sla and its check.
+   *
+   * @param lag lag in milliseconds
+   */
+  public void addSlaDeadlineLag(final long lag) {
+    this.slaDeadlineLagHistogram.update(lag);
+  }
+
+  /**
+   * Record a missed sla event.
+   */
+  public void markSlaMissed() {
+    this.slaMissedMeter.mark();
+  }
+
+  /**
+   * Add the duration of a phase of the startup of a flow container.
+   *
+   * @param phase name of the phase
+   * @param time duration in milliseconds
+   */
+  public void addFlowContainerStartupTime(final String phase, final long time) {
+    this.metricsManager
+        .addHistogram(FLOW_CONTAINER_STARTUP_HISTOGRAM_NAME_PREFIX + phase + "-time")
+        .update(time);
+  }
+
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+/**
+ * How the execution dir of a flow is populated from the cached project dir.
+ */
+public enum ExecutionDirMaterialization {
+  // Hard link each file of the project
+  HARDLINK,
+  // Copy the project with reflinks, which shares the data blocks of the files without linking
+  // them. Falls back to HARDLINK if the file system of the project cache doesn't support it.
+  REFLINK;
+
+  /**
+   * @return the materialization with the given name, case insensitive
+   * @throws IllegalArgumentException if there is none
+   */
+  public static ExecutionDirMaterialization fromName(final String name) {
+    return valueOf(name.trim().toUpperCase());
+  }
+}
@@ -31,6 +31,7 @@ import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.JSONUtils;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -131,6 +132,10 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
             handleFetchMetaDataEvent(execid, req, resp, respMap);
           } else if (action.equals(ConnectorParams.LOG_ACTION)) {
             handleFetchLogEvent(execid, req, resp, respMap);
+          } else if (action.equals(ConnectorParams.LOG_STREAM_ACTION)) {
+            // The log is written to the response as is, there is no JSON response.
+            handleStreamLogEvent(execid, req, resp);
+            return;
           } else if (action.equals(ConnectorParams.ATTACHMENTS_ACTION)) {
             handleFetchAttachmentsEvent(execid, req, resp, respMap);
           } else if (action.equals(ConnectorParams.EXECUTE_ACTION)) {
@@ -278,6 +283,27 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
     }
   }
 
+  private void handleStreamLogEvent(final int execId, final HttpServletRequest req,
+      final HttpServletResponse resp) throws IOException {
+    try (final FileChannel channel = "flow".equals(getParam(req, "type"))
+        ? this.flowRunnerManager.openFlowLogChannel(execId)
+        : this.flowRunnerManager.openJobLogChannel(execId, getParam(req, "jobId"),
+            getIntParam(req, "attempt", 0))) {
+      LogStreamer.streamLog(channel, req, resp,
+          () -> this.flowRunnerManager.isFlowRunning(execId));
+    } catch (final ServletException e) {
+      logger.error(e.getMessage(), e);
+      if (!resp.isCommitted()) {
+        resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      }
+    } catch (final ExecutorManagerException e) {
+      logger.error(e.getMessage(), e);
+      if (!resp.isCommitted()) {
+        resp.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+      }
+    }
+  }
+
   private void handleFetchAttachmentsEvent(final int execId, final HttpServletRequest req,
       final HttpServletResponse resp, final Map<String, Object> respMap)
       throws ServletException {
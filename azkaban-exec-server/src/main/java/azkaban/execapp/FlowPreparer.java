@@ -22,6 +22,7 @@ import azkaban.executor.ExecutorManagerException;
 import azkaban.storage.ProjectStorageManager;
 import azkaban.utils.DependencyTransferManager;
 import azkaban.utils.FileIOUtils;
+import azkaban.utils.FileIOUtils.ReflinkNotSupportedException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.io.File;
@@ -49,16 +50,28 @@ public class FlowPreparer extends AbstractFlowPreparer {
   // Null if cache clean-up is disabled
   private final Optional<ProjectCacheCleaner> projectCacheCleaner;
   private final ProjectCacheHitRatio projectCacheHitRatio;
+  private final ExecutionDirMaterialization executionDirMaterialization;
+  // Set once the file system of the project cache turns out not to support reflinks
+  private volatile boolean reflinkUnsupported = false;
 
   FlowPreparer(final ProjectStorageManager projectStorageManager,
       final DependencyTransferManager dependencyTransferManager, final File projectsDir,
       final ProjectCacheCleaner cleaner, final ProjectCacheHitRatio projectCacheHitRatio,
       final File executionsDir) {
+    this(projectStorageManager, dependencyTransferManager, projectsDir, cleaner,
+        projectCacheHitRatio, executionsDir, ExecutionDirMaterialization.HARDLINK);
+  }
+
+  FlowPreparer(final ProjectStorageManager projectStorageManager,
+      final DependencyTransferManager dependencyTransferManager, final File projectsDir,
+      final ProjectCacheCleaner cleaner, final ProjectCacheHitRatio projectCacheHitRatio,
+      final File executionsDir, final ExecutionDirMaterialization executionDirMaterialization) {
     super(projectStorageManager, dependencyTransferManager);
 
     Preconditions.checkNotNull(executionsDir);
     Preconditions.checkNotNull(projectsDir);
     Preconditions.checkNotNull(projectCacheHitRatio);
+    Preconditions.checkNotNull(executionDirMaterialization);
 
     Preconditions.checkArgument(projectsDir.exists());
     Preconditions.checkArgument(executionsDir.exists());
@@ -67,6 +80,7 @@ public class FlowPreparer extends AbstractFlowPreparer {
     this.projectCacheDir = projectsDir;
     this.projectCacheCleaner = Optional.ofNullable(cleaner);
     this.projectCacheHitRatio = projectCacheHitRatio;
+    this.executionDirMaterialization = executionDirMaterialization;
   }
 
 
@@ -106,6 +120,7 @@ public class FlowPreparer extends AbstractFlowPreparer {
                   .deleteProjectDirsIfNecessary(project.getDirSizeInByte()));
           // Rename temp dir to a proper project directory name.
           Files.move(tempDir.toPath(), project.getInstalledDir().toPath());
+          this.projectCacheCleaner.ifPresent(cacheCleaner -> cacheCleaner.projectAdded(project));
         }
 
         final long start = System.currentTimeMillis();
@@ -134,6 +149,25 @@ public class FlowPreparer extends AbstractFlowPreparer {
     File execDir = null;
     try {
       execDir = createExecDir(flow);
+      if (this.executionDirMaterialization == ExecutionDirMaterialization.REFLINK
+          && !this.reflinkUnsupported) {
+        try {
+          FileIOUtils.createDeepReflink(dir.toFile(), execDir);
+          return execDir;
+        } catch (final IOException ex) {
+          if (ex instanceof ReflinkNotSupportedException) {
+            LOGGER.warn("Reflinks are not supported for project dir {}, hard linking the project "
+                + "files instead from now on", dir, ex);
+            this.reflinkUnsupported = true;
+          } else {
+            LOGGER.warn("Reflinking project dir {} failed, hard linking the project files instead",
+                dir, ex);
+          }
+          // Start over from an empty dir
+          FileIOUtils.deleteDirectorySilently(execDir);
+          execDir = createExecDir(flow);
+        }
+      }
       // Create hardlinks from the project
       FileIOUtils.createDeepHardlink(dir.toFile(), execDir);
       return execDir;
@@ -164,6 +198,34 @@ public class FlowPreparer extends AbstractFlowPreparer {
     return String.valueOf(proj.getProjectId()) + "." + String.valueOf(proj.getVersion());
   }
 
+  /**
+   * @return the cached dir of the latest version of the project which was materialized from a
+   * manifest, or null if there is none.
+   */
+  @Override
+  protected File findCachedProjectDir(final ProjectDirectoryMetadata proj) {
+    final String prefix = proj.getProjectId() + ".";
+    final File[] candidates = this.projectCacheDir.listFiles(
+        f -> f.isDirectory() && f.getName().startsWith(prefix)
+            && new File(f, PROJECT_MANIFEST_FILE_NAME).isFile());
+    File latest = null;
+    int latestVersion = -1;
+    if (candidates != null) {
+      for (final File candidate : candidates) {
+        try {
+          final int version = Integer.parseInt(candidate.getName().substring(prefix.length()));
+          if (version > latestVersion) {
+            latest = candidate;
+            latestVersion = version;
+          }
+        } catch (final NumberFormatException e) {
+          // not a project dir
+        }
+      }
+    }
+    return latest;
+  }
+
   private File createTempDir(final ProjectDirectoryMetadata proj) throws IOException {
     final String projectDir = generateProjectDirName(proj);
     final File tempDir = Files.createTempDirectory(
@@ -197,6 +259,8 @@ public class FlowPreparer extends AbstractFlowPreparer {
       // projects when performing project directory clean-up.
       updateLastModifiedTime(
           Paths.get(proj.getInstalledDir().getPath(), PROJECT_DIR_SIZE_FILE_NAME));
+      this.projectCacheCleaner.ifPresent(
+          cacheCleaner -> cacheCleaner.projectAccessed(proj.getInstalledDir()));
       return null;
     }
 
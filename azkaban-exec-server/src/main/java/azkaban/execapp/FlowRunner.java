@@ -22,8 +22,6 @@ import static azkaban.Constants.EventReporterConstants;
 import static azkaban.execapp.ConditionalWorkflowUtils.FAILED;
 import static azkaban.execapp.ConditionalWorkflowUtils.PENDING;
 import static azkaban.execapp.ConditionalWorkflowUtils.checkConditionOnJobStatus;
-import static azkaban.project.DirectoryYamlFlowLoader.CONDITION_ON_JOB_STATUS_PATTERN;
-import static azkaban.project.DirectoryYamlFlowLoader.CONDITION_VARIABLE_REPLACEMENT_PATTERN;
 
 import azkaban.Constants;
 import azkaban.Constants.ConfigurationKeys;
@@ -65,6 +63,8 @@ import azkaban.sla.SlaOption;
 import azkaban.spi.AzkabanEventReporter;
 import azkaban.spi.EventType;
 import azkaban.spi.ExecutorType;
+import azkaban.utils.ConditionExpression;
+import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.SwapQueue;
 import com.codahale.metrics.Timer;
@@ -77,10 +77,6 @@ import com.google.common.io.Files;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
-import java.security.AccessControlContext;
-import java.security.AccessController;
-import java.security.PrivilegedExceptionAction;
-import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -94,10 +90,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.regex.Matcher;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Appender;
 import org.apache.log4j.FileAppender;
@@ -134,6 +126,10 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
   private final FlowRunnerEventListener flowListener = new FlowRunnerEventListener();
   private final Set<JobRunner> activeJobRunners = Collections
       .newSetFromMap(new ConcurrentHashMap<>());
+  // Job runners created while progressing the graph, waiting for their rows to be registered in
+  // bulk. Only used when bulk job registration is enabled.
+  private final List<JobRunner> pendingJobRunners = new ArrayList<>();
+  private final boolean bulkJobRegistration;
   // Thread safe swap queue for finishedExecutions.
   private final SwapQueue<ExecutableNode> finishedNodes;
   private final AzkabanEventReporter azkabanEventReporter;
@@ -192,6 +188,8 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
   }
 
   private volatile long flowCreateTime = -1;
+  // Durations of the startup phases of the flow container running the flow, null otherwise
+  private volatile String flowContainerStartupPhases;
 
   // For flow related metrics
   private final CommonMetrics commonMetrics;
@@ -246,6 +244,8 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     this.executorService = executorService;
     this.finishedNodes = new SwapQueue<>();
     this.azkabanProps = azkabanProps;
+    this.bulkJobRegistration = azkabanProps != null && azkabanProps
+        .getBoolean(ConfigurationKeys.EXECUTOR_BULK_JOB_REGISTRATION_ENABLED, false);
     this.alerterHolder = alerterHolder;
     this.commonMetrics = commonMetrics;
     this.execMetrics = execMetrics;
@@ -286,6 +286,11 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     return this;
   }
 
+  public FlowRunner setFlowContainerStartupPhases(final String flowContainerStartupPhases) {
+    this.flowContainerStartupPhases = flowContainerStartupPhases;
+    return this;
+  }
+
   public File getExecutionDir() {
     return this.execDir;
   }
@@ -528,6 +533,7 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
   private void runFlow() throws Exception {
     this.logger.info("Starting flows");
     runReadyJob(this.flow);
+    submitPendingJobRunners();
     updateFlow();
 
     while (!this.flowFinished) {
@@ -584,6 +590,7 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
       runReadyJob(node);
     }
 
+    submitPendingJobRunners();
     updateFlow();
   }
 
@@ -649,6 +656,7 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
 
       jobsRun |= runReadyJob(node);
     }
+    submitPendingJobRunners();
 
     if (jobsRun || this.finishedNodes.getSize() > 0) {
       updateFlow();
@@ -1023,7 +1031,6 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     return flowFile;
   }
 
-  @SuppressWarnings("FutureReturnValueIgnored")
   private void runExecutableNode(final ExecutableNode node) throws IOException {
     // Collect output props from the job's dependencies.
     prepareJobProperties(node);
@@ -1051,7 +1058,42 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     }
 
     final JobRunner runner = createJobRunner(node);
-    this.logger.info("Submitting job '" + node.getNestedId() + "' to run.");
+    if (this.bulkJobRegistration) {
+      this.pendingJobRunners.add(runner);
+    } else {
+      submitJobRunner(runner);
+    }
+  }
+
+  /**
+   * Register the execution_jobs rows of all pending job runners with bulk inserts, then submit
+   * them. The runners whose rows could not be inserted in bulk insert their own row.
+   */
+  private void submitPendingJobRunners() {
+    if (this.pendingJobRunners.isEmpty()) {
+      return;
+    }
+    final List<Pair<ExecutableNode, Props>> nodes = new ArrayList<>();
+    for (final JobRunner runner : this.pendingJobRunners) {
+      nodes.add(new Pair<>(runner.getNode(), runner.getProps()));
+    }
+    final int registered = this.executorLoader.uploadExecutableNodes(nodes);
+    if (registered < nodes.size()) {
+      this.logger.warn("Registered " + registered + " of " + nodes.size() + " jobs, the others "
+          + "will register themselves");
+    }
+    for (int i = 0; i < registered; i++) {
+      this.pendingJobRunners.get(i).setNodeRegistered(true);
+    }
+    for (final JobRunner runner : this.pendingJobRunners) {
+      submitJobRunner(runner);
+    }
+    this.pendingJobRunners.clear();
+  }
+
+  @SuppressWarnings("FutureReturnValueIgnored")
+  private void submitJobRunner(final JobRunner runner) {
+    this.logger.info("Submitting job '" + runner.getNode().getNestedId() + "' to run.");
     try {
       // Job starts to queue
       runner.setTimeInQueue(System.currentTimeMillis());
@@ -1118,33 +1160,40 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
   }
 
   private Boolean isConditionOnRuntimeVariableMet(final ExecutableNode node) {
-    final String condition = node.getCondition();
-    if (condition == null) {
+    if (node.getCondition() == null) {
       return true;
     }
 
-    String replaced = condition;
-    // Replace the condition on job status macro with "true" to skip the evaluation by Script
-    // Engine since it has already been evaluated.
-    final Matcher jobStatusMatcher = CONDITION_ON_JOB_STATUS_PATTERN.matcher
-        (condition);
-    if (jobStatusMatcher.find()) {
-      replaced = condition.replace(jobStatusMatcher.group(1), "true");
-    }
-
-    final Matcher variableMatcher = CONDITION_VARIABLE_REPLACEMENT_PATTERN.matcher(replaced);
+    boolean result = false;
+    try {
+      result = node.getConditionExpression().isMet(new ConditionExpression.Context() {
+        @Override
+        public Object getIdentifier(final String name) {
+          // The condition on job status macro has already been evaluated
+          if (ConditionOnJobStatus.fromString(name) != null) {
+            return true;
+          }
+          throw new IllegalStateException("Unknown identifier " + name);
+        }
 
-    while (variableMatcher.find()) {
-      final String value = findValueForJobVariable(node, variableMatcher.group(1),
-          variableMatcher.group(2));
-      if (value != null) {
-        replaced = replaced.replace(variableMatcher.group(), "'" + value + "'");
-      }
-      this.logger.info("Resolved condition of " + node.getId() + " is " + replaced);
+        @Override
+        public Object getVariable(final String jobName, final String param) {
+          final String value = findValueForJobVariable(node, jobName, param);
+          if (value == null) {
+            throw new IllegalStateException(
+                "Variable ${" + jobName + ":" + param + "} can't be resolved");
+          }
+          FlowRunner.this.logger.info("Resolved variable ${" + jobName + ":" + param + "} of "
+              + node.getId() + " to " + value);
+          return value;
+        }
+      });
+    } catch (final RuntimeException e) {
+      this.logger.error("Failed to evaluate the condition " + node.getCondition(), e);
     }
 
-    // Evaluate string expression using script engine
-    return evaluateExpression(replaced);
+    this.logger.info("Condition is evaluated to " + result);
+    return result;
   }
 
   private String findValueForJobVariable(final ExecutableNode node, final String jobName, final
@@ -1165,34 +1214,6 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     return null;
   }
 
-  private boolean evaluateExpression(final String expression) {
-    boolean result = false;
-    final ScriptEngineManager sem = new ScriptEngineManager();
-    final ScriptEngine se = sem.getEngineByName("JavaScript");
-
-    // Restrict permission using the two-argument form of doPrivileged()
-    try {
-      final Object object = AccessController.doPrivileged(
-          new PrivilegedExceptionAction<Object>() {
-            @Override
-            public Object run() throws ScriptException {
-              return se.eval(expression);
-            }
-          },
-          new AccessControlContext(
-              new ProtectionDomain[]{new ProtectionDomain(null, null)}) // no permissions
-      );
-      if (object != null) {
-        result = (boolean) object;
-      }
-    } catch (final Exception e) {
-      this.logger.error("Failed to evaluate the condition.", e);
-    }
-
-    this.logger.info("Condition is evaluated to " + result);
-    return result;
-  }
-
   private Props collectOutputProps(final ExecutableNode node) {
     Props previousOutput = null;
     // Iterate the in nodes again and create the dependencies
@@ -1574,6 +1595,10 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
           String.valueOf(flowRunner.getFlowPauseDuration()));
       metaData.put(EventReporterConstants.FLOW_PREPARATION_DURATION,
           String.valueOf(flowRunner.flowCreateTime));
+      if (flowRunner.flowContainerStartupPhases != null) {
+        metaData.put(EventReporterConstants.FLOW_CONTAINER_STARTUP_PHASES,
+            flowRunner.flowContainerStartupPhases);
+      }
       // FLow SLA option string
       metaData.put(EventReporterConstants.SLA_OPTIONS, flow.getSlaOptionStr());
       // Flow executor type by versionSet
@@ -1721,6 +1746,8 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
         final ExecutableNode node = jobRunner.getNode();
 
         reportJobFinishedMetrics(node);
+        ServiceProvider.SERVICE_PROVIDER.getInstance(SlaTracker.class)
+            .onJobFinished(FlowRunner.this.flow, node.getNestedId());
 
         if (FlowRunner.this.azkabanEventReporter != null) {
           final Map<String, String> jobMetadata = getJobMetadata(jobRunner);
@@ -1765,13 +1792,9 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
           final JobRunner jobRunner = (JobRunner) event.getRunner();
           FlowRunner.this.azkabanEventReporter.report(event.getType(), getJobMetadata(jobRunner));
         }
-        // add job level checker
-        final TriggerManager triggerManager = ServiceProvider.SERVICE_PROVIDER
-            .getInstance(TriggerManager.class);
-        triggerManager
-            .addTrigger(FlowRunner.this.flow.getExecutionId(),
-                SlaOption.getJobLevelSLAOptions(
-                    FlowRunner.this.flow.getExecutionOptions().getSlaOptions()));
+        // track the job level slas of the started job
+        ServiceProvider.SERVICE_PROVIDER.getInstance(SlaTracker.class)
+            .onJobStarted(FlowRunner.this.flow);
       }
     }
 
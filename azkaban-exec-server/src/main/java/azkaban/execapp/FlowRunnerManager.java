@@ -42,7 +42,6 @@ import azkaban.metrics.CommonMetrics;
 import azkaban.project.ProjectLoader;
 import azkaban.project.ProjectWhitelist;
 import azkaban.project.ProjectWhitelist.WhitelistType;
-import azkaban.sla.SlaOption;
 import azkaban.spi.AzkabanEventReporter;
 import azkaban.spi.EventType;
 import azkaban.spi.Storage;
@@ -65,8 +64,10 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.lang.Thread.State;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -82,6 +83,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -138,7 +140,7 @@ public class FlowRunnerManager implements EventListener<Event>,
   private final ProjectLoader projectLoader;
   private final JobTypeManager jobtypeManager;
   private final FlowPreparer flowPreparer;
-  private final TriggerManager triggerManager;
+  private final SlaTracker slaTracker;
   private final FlowRampManager flowRampManager;
   private final AlerterHolder alerterHolder;
   private final AzkabanEventReporter azkabanEventReporter;
@@ -173,7 +175,7 @@ public class FlowRunnerManager implements EventListener<Event>,
       final ExecutorLoader executorLoader,
       final ProjectLoader projectLoader,
       final ProjectStorageManager projectStorageManager,
-      final TriggerManager triggerManager,
+      final SlaTracker slaTracker,
       final FlowRampManager flowRampManager,
       final AlerterHolder alerterHolder,
       final CommonMetrics commonMetrics,
@@ -203,7 +205,7 @@ public class FlowRunnerManager implements EventListener<Event>,
 
     this.executorLoader = executorLoader;
     this.projectLoader = projectLoader;
-    this.triggerManager = triggerManager;
+    this.slaTracker = slaTracker;
     this.alerterHolder = alerterHolder;
     this.commonMetrics = commonMetrics;
     this.execMetrics = execMetrics;
@@ -229,7 +231,8 @@ public class FlowRunnerManager implements EventListener<Event>,
     this.jobtypeManager =
         new JobTypeManager(props.getString(AzkabanExecutorServer.JOBTYPE_PLUGIN_DIR,
             Constants.PluginManager.JOBTYPE_DEFAULTDIR), this.globalProps,
-            getClass().getClassLoader(), this.clusterRouter);
+            getClass().getClassLoader(), this.clusterRouter,
+            props.getBoolean(ConfigurationKeys.JOBTYPE_CLASSLOADER_CACHE_ENABLED, false));
 
     ProjectCacheCleaner cleaner = null;
     this.LOGGER.info("Configuring Project Cache");
@@ -244,7 +247,9 @@ public class FlowRunnerManager implements EventListener<Event>,
           .info("Configuring Cache Cleaner with {} % as threshold", projectCacheSizePercentage);
       cleaner = new ProjectCacheCleaner(this.projectDirectory,
           projectCacheSizePercentage,
-          projectCacheThrottlePercentage);
+          projectCacheThrottlePercentage,
+          props.getDouble(ConfigurationKeys.PROJECT_CACHE_LOW_WATERMARK_PERCENTAGE,
+              projectCacheSizePercentage));
       this.LOGGER.info("ProjectCacheCleaner configured.");
     } catch (final UndefinedPropertyException ex) {
       if (projectCacheSizePercentage == 0.0) {
@@ -257,16 +262,22 @@ public class FlowRunnerManager implements EventListener<Event>,
         this.LOGGER
             .info("Property {} not set. Initializing with default value of Throttle Percentage",
                 ConfigurationKeys.PROJECT_CACHE_THROTTLE_PERCENTAGE);
-        cleaner = new ProjectCacheCleaner(this.projectDirectory, projectCacheSizePercentage);
+        cleaner = new ProjectCacheCleaner(this.projectDirectory, projectCacheSizePercentage,
+            ProjectCacheCleaner.DEFAULT_THROTTLE_PERCENTAGE,
+            props.getDouble(ConfigurationKeys.PROJECT_CACHE_LOW_WATERMARK_PERCENTAGE,
+                projectCacheSizePercentage));
       }
     }
 
     // Create a flow preparer
     this.flowPreparer = new FlowPreparer(projectStorageManager, this.dependencyTransferManager,
         this.projectDirectory, cleaner, this.execMetrics.getProjectCacheHitRatio(),
-        this.executionDirectory);
+        this.executionDirectory, ExecutionDirMaterialization.fromName(props.getString(
+            ConfigurationKeys.EXECUTION_DIR_MATERIALIZATION,
+            ExecutionDirMaterialization.HARDLINK.name())));
 
     this.execMetrics.addFlowRunnerManagerMetrics(this);
+    this.execMetrics.addJobTypeManagerMetrics(this.jobtypeManager);
 
     this.cleanerThread = new CleanerThread();
     this.cleanerThread.start();
@@ -280,9 +291,9 @@ public class FlowRunnerManager implements EventListener<Event>,
       this.pollingService = new PollingService(pollingIntervalMillis,
           new PollingCriteria(this.azkabanProps));
       this.pollingService.start();
-      this.triggerManager.setDispatchMethod(DispatchMethod.POLL);
+      this.slaTracker.setDispatchMethod(DispatchMethod.POLL);
     } else {
-      this.triggerManager.setDispatchMethod(DispatchMethod.PUSH);
+      this.slaTracker.setDispatchMethod(DispatchMethod.PUSH);
     }
   }
 
@@ -692,11 +703,9 @@ public class FlowRunnerManager implements EventListener<Event>,
             + " is finished. Adding it to recently finished flows list.");
         this.runningFlows.remove(flow.getExecutionId());
         this.deleteExecutionDir(flow.getExecutionId());
+        this.slaTracker.onFlowFinished(flow);
       } else if (event.getType() == EventType.FLOW_STARTED) {
-        // add flow level SLA checker
-        this.triggerManager
-            .addTrigger(flow.getExecutionId(), SlaOption.getFlowLevelSLAOptions(flow
-                .getExecutionOptions().getSlaOptions()));
+        this.slaTracker.onFlowStarted(flow);
       }
     }
   }
@@ -766,6 +775,62 @@ public class FlowRunnerManager implements EventListener<Event>,
         "Error reading file. Log directory doesn't exist.");
   }
 
+  /**
+   * Open the flow log of a running execution for streaming. The channel is opened while holding
+   * the execution dir deletion lock, but can be read after releasing it: the open file stays
+   * readable even if the execution dir is deleted in the meantime.
+   */
+  public FileChannel openFlowLogChannel(final int execId) throws ExecutorManagerException {
+    return openLogChannel(execId, FlowRunner::getFlowLogFile, "Flow");
+  }
+
+  /**
+   * Open a job log of a running execution for streaming.
+   *
+   * @see #openFlowLogChannel(int)
+   */
+  public FileChannel openJobLogChannel(final int execId, final String jobId, final int attempt)
+      throws ExecutorManagerException {
+    return openLogChannel(execId, runner -> runner.getJobLogFile(jobId, attempt), "Job");
+  }
+
+  /**
+   * @return true if the execution is still running on this executor, ie. its logs may still be
+   * appended to.
+   */
+  public boolean isFlowRunning(final int execId) {
+    return this.runningFlows.containsKey(execId);
+  }
+
+  private FileChannel openLogChannel(final int execId,
+      final Function<FlowRunner, File> logFileGetter, final String logType)
+      throws ExecutorManagerException {
+    final FlowRunner runner = this.runningFlows.get(execId);
+    if (runner == null) {
+      throw new ExecutorManagerException("Running flow " + execId + " not found.");
+    }
+
+    final File dir = runner.getExecutionDir();
+    if (dir == null || !dir.exists()) {
+      throw new ExecutorManagerException("Error reading file. Log directory doesn't exist.");
+    }
+    try {
+      synchronized (this.executionDirDeletionSync) {
+        if (!dir.exists()) {
+          throw new ExecutorManagerException(
+              "Execution dir file doesn't exist. Probably has been deleted");
+        }
+        final File logFile = logFileGetter.apply(runner);
+        if (logFile == null || !logFile.exists()) {
+          throw new ExecutorManagerException(logType + " log file doesn't exist.");
+        }
+        return FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+      }
+    } catch (final IOException e) {
+      throw new ExecutorManagerException(e);
+    }
+  }
+
   public List<Object> readJobAttachments(final int execId, final String jobId, final int attempt)
       throws ExecutorManagerException {
     final FlowRunner runner = this.runningFlows.get(execId);
@@ -954,7 +1019,7 @@ public class FlowRunnerManager implements EventListener<Event>,
       this.pollingService.shutdown();
     }
     this.executorService.shutdownNow();
-    this.triggerManager.shutdown();
+    this.slaTracker.shutdown();
   }
 
   private boolean isPollDispatchMethodEnabled() {
@@ -87,6 +87,7 @@ public class JobRunner extends EventHandler implements Runnable {
   private File logFile;
   private String attachmentFileName;
   private Job job;
+  private JobTypeManager.JobParams jobParams;
   private int executionId = -1;
   // Used by the job to watch and block against another flow
   private Integer pipelineLevel = null;
@@ -98,6 +99,8 @@ public class JobRunner extends EventHandler implements Runnable {
 
   private long delayStartMs = 0;
   private volatile boolean killed = false;
+  // True if the flow runner already inserted this node's execution_jobs row in bulk.
+  private volatile boolean nodeRegistered = false;
   private BlockingStatus currentBlockStatus = null;
   private final ClassLoader threadClassLoader;
 
@@ -288,6 +291,10 @@ public class JobRunner extends EventHandler implements Runnable {
     this.delayStartMs = delayMS;
   }
 
+  public void setNodeRegistered(final boolean nodeRegistered) {
+    this.nodeRegistered = nodeRegistered;
+  }
+
   public ExecutableNode getNode() {
     return this.node;
   }
@@ -464,6 +471,10 @@ public class JobRunner extends EventHandler implements Runnable {
             Event.create(this, EventType.JOB_STARTED,
                 new EventData(nodeStatus, this.node.getNestedId())));
         this.node.setEndTime(time);
+        if (this.nodeRegistered) {
+          // The row was already inserted in bulk, don't leave it behind as QUEUED.
+          writeStatus();
+        }
         fireEvent(
             Event
                 .create(this, EventType.JOB_FINISHED,
@@ -604,6 +615,9 @@ public class JobRunner extends EventHandler implements Runnable {
       throw e;
     } finally {
       Thread.currentThread().setContextClassLoader(this.threadClassLoader);
+      if (this.jobParams != null) {
+        this.jobtypeManager.releaseJobClassLoader(this.jobParams);
+      }
     }
   }
 
@@ -629,7 +643,9 @@ public class JobRunner extends EventHandler implements Runnable {
     // Start the node.
     this.node.setStartTime(System.currentTimeMillis());
     Status finalStatus = this.node.getStatus();
-    uploadExecutableNode();
+    if (!this.nodeRegistered) {
+      uploadExecutableNode();
+    }
     if (!errorFound && !isKilled()) {
       // End of job in queue and start of execution
       if (this.getTimeInQueue() != -1 && this.getQueueDuration() == 0) {
@@ -771,6 +787,7 @@ public class JobRunner extends EventHandler implements Runnable {
         long jobCreationStartMillis = System.currentTimeMillis();
         final JobTypeManager.JobParams jobParams = this.jobtypeManager
             .createJobParams(this.jobId, this.props, this.logger);
+        this.jobParams = jobParams;
         Thread.currentThread().setContextClassLoader(jobParams.contextClassLoader);
         this.job = JobTypeManager.createJob(this.jobId, jobParams, this.logger);
         this.logger.info(String.format("%s creation took %s milliseconds.",
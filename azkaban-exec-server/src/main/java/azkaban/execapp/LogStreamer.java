@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static azkaban.server.HttpRequestUtils.getBooleanParam;
+import static azkaban.server.HttpRequestUtils.getIntParam;
+import static azkaban.server.HttpRequestUtils.getLongParam;
+
+import azkaban.Constants;
+import azkaban.executor.ConnectorParams;
+import azkaban.utils.FileIOUtils;
+import azkaban.utils.Pair;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.function.BooleanSupplier;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.log4j.Logger;
+
+/**
+ * Serves a byte range of a log file as raw bytes, for {@link ConnectorParams#LOG_STREAM_ACTION}.
+ * Unlike {@link ConnectorParams#LOG_ACTION}, the log is neither decoded into a String nor wrapped
+ * in JSON: the range is aligned to UTF-8 character boundaries and written to the response with
+ * {@link FileChannel#transferTo}. Its actual offset and length are returned in the
+ * {@link ConnectorParams#LOG_OFFSET_HEADER} and {@link ConnectorParams#LOG_LENGTH_HEADER}
+ * headers.
+ *
+ * In follow mode, a request for a range at the end of the log waits until bytes are appended,
+ * the log stops being written or the follow timeout expires, whichever comes first.
+ */
+public final class LogStreamer {
+
+  private static final Logger logger = Logger.getLogger(LogStreamer.class);
+
+  @VisibleForTesting
+  static final long FOLLOW_POLL_INTERVAL_MS = 100L;
+  @VisibleForTesting
+  static final long MAX_FOLLOW_TIMEOUT_MS = 30 * 1000L;
+
+  private LogStreamer() {
+  }
+
+  /**
+   * Write the range given by the "offset" and "length" request params of the log to the response.
+   *
+   * @param isLogActive whether the log may still be appended to. Following stops once it is not.
+   */
+  public static void streamLog(final FileChannel channel, final HttpServletRequest req,
+      final HttpServletResponse resp, final BooleanSupplier isLogActive)
+      throws ServletException, IOException {
+    final long offset = getLongParam(req, "offset");
+    final int length = getIntParam(req, "length");
+    if (getBooleanParam(req, ConnectorParams.LOG_FOLLOW_PARAM, false)) {
+      final long timeoutMs = Math.min(MAX_FOLLOW_TIMEOUT_MS,
+          getLongParam(req, ConnectorParams.LOG_FOLLOW_TIMEOUT_PARAM, MAX_FOLLOW_TIMEOUT_MS));
+      awaitBytes(channel, offset, timeoutMs, isLogActive);
+    }
+
+    final Pair<Long, Integer> range = FileIOUtils.getUtf8Range(channel, offset, length);
+    resp.setContentType(Constants.CONTENT_TYPE_TEXT_PLAIN);
+    resp.setCharacterEncoding(Constants.CHARACTER_ENCODING_UTF_8);
+    resp.setHeader(ConnectorParams.LOG_OFFSET_HEADER, String.valueOf(range.getFirst()));
+    resp.setHeader(ConnectorParams.LOG_LENGTH_HEADER, String.valueOf(range.getSecond()));
+    resp.setContentLength(range.getSecond());
+
+    final long transferred = FileIOUtils.transferRange(channel, range.getFirst(),
+        range.getSecond(), Channels.newChannel(resp.getOutputStream()));
+    if (transferred < range.getSecond()) {
+      logger.warn("Transferred " + transferred + " of " + range.getSecond()
+          + " bytes of log range at offset " + range.getFirst());
+    }
+  }
+
+  /**
+   * Wait until the channel grows beyond the offset, the log stops being written or the timeout
+   * expires.
+   */
+  @VisibleForTesting
+  static void awaitBytes(final FileChannel channel, final long offset, final long timeoutMs,
+      final BooleanSupplier isLogActive) throws IOException {
+    final long deadline = System.currentTimeMillis() + timeoutMs;
+    while (channel.size() <= offset && isLogActive.getAsBoolean()
+        && System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(FOLLOW_POLL_INTERVAL_MS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+}
@@ -29,7 +29,8 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -47,6 +48,10 @@ import org.slf4j.LoggerFactory;
 /**
  * This class is responsible for deleting least recently accessed projects in the shared project
  * cache when there's no room to accommodate a new project.
+ * <p>
+ * The project dirs are indexed in memory in least recently used order, along with their total
+ * size. The index is loaded from the cache dir once, and then kept up to date as projects are
+ * added, accessed and deleted, so that finding the projects to delete doesn't scan the cache dir.
  */
 class ProjectCacheCleaner {
 
@@ -61,14 +66,24 @@ class ProjectCacheCleaner {
   // Number of threads in the cache cleanup service
   private static final int CLEANING_SERVICE_THREAD_NUM = 8;
 
-  private static final double DEFAULT_THROTTLE_PERCENTAGE = 0.92; // 92%
+  static final double DEFAULT_THROTTLE_PERCENTAGE = 0.92; // 92%
 
   // If space in Cache partition goes above this Percentage, incoming request must wait
   // till the current cache cleanup cycle is done
   private double throttlePercentage;
 
-  // Currently cached projects
-  private final Map<Path, ProjectDirectoryMetadata> cachedProjects = new HashMap<>();
+  // Once the eviction kicks in, projects are deleted until the cache size goes below this
+  // percentage, so that the eviction doesn't run again for each new project.
+  private final double lowWatermarkPercentage;
+
+  // Currently cached projects, ordered from the least to the most recently used. Guarded by this.
+  private final Map<Path, ProjectDirectoryMetadata> cachedProjects = new LinkedHashMap<>();
+
+  // Sum of the size of the cached projects. Guarded by this.
+  private long cachedProjectsSizeInBytes = 0;
+
+  // Whether the cached projects were loaded from the cache dir. Guarded by this.
+  private boolean cachedProjectsLoaded = false;
 
   // A record of projects under deletion
   private final ConcurrentMap<Path, File> projectsUnderDeletion = new ConcurrentHashMap<>();
@@ -91,15 +106,24 @@ class ProjectCacheCleaner {
 
   public ProjectCacheCleaner(final File projectCacheDir, final double percentageOfDisk,
       final double throttlePercentage) {
+    this(projectCacheDir, percentageOfDisk, throttlePercentage, percentageOfDisk);
+  }
+
+  public ProjectCacheCleaner(final File projectCacheDir, final double percentageOfDisk,
+      final double throttlePercentage, final double lowWatermarkPercentage) {
     Preconditions.checkNotNull(projectCacheDir);
     Preconditions.checkArgument(projectCacheDir.exists());
     Preconditions.checkArgument(percentageOfDisk > 0 && percentageOfDisk <= 1);
+    Preconditions.checkArgument(lowWatermarkPercentage > 0
+        && lowWatermarkPercentage <= percentageOfDisk);
     this.projectCacheDir = projectCacheDir;
     this.percentageOfDisk = percentageOfDisk;
     this.throttlePercentage = throttlePercentage;
+    this.lowWatermarkPercentage = lowWatermarkPercentage;
 
-    log.info("ProjectCacheCleaner constructor called. ProjectCacheDir = {}, thresh-hold = {} %, throttle at {} %",
-        projectCacheDir.toPath(), this.percentageOfDisk, this.throttlePercentage);
+    log.info("ProjectCacheCleaner constructor called. ProjectCacheDir = {}, thresh-hold = {} %, throttle at {} %, low watermark = {} %",
+        projectCacheDir.toPath(), this.percentageOfDisk, this.throttlePercentage,
+        this.lowWatermarkPercentage);
 
     emptyQCond = barrier.newCondition();
     deletionService = Executors.newFixedThreadPool(CLEANING_SERVICE_THREAD_NUM,
@@ -107,51 +131,50 @@ class ProjectCacheCleaner {
   }
 
   /**
-   * Get metadata from the OS for the underlying path, lastAccessTime is fetched from the OS
-   * regardless of whether the given project already exists, but the space calculation for a
-   * project directory is only performed one-time.
+   * Get metadata from the OS for the underlying path. It is only fetched when the cached projects
+   * are loaded, the cleaner keeps track of the projects afterwards.
    *
    * @param project path for the project cache. Project filepath encodes projectID & version
    *                within the filename
    *
-   * @return OS Metadata for the given path
+   * @return OS Metadata for the given path, null if it could not be fetched
    */
   private ProjectDirectoryMetadata fetchProjectMetadata(final Path project) {
-    ProjectDirectoryMetadata projectDirectoryMetadata = this.cachedProjects.get(project);
-
     try {
-      if (projectDirectoryMetadata == null) {
-        final String fileName = project.getFileName().toString();
-        final int projectId = Integer.parseInt(fileName.split("\\.")[0]);
-        final int versionNum = Integer.parseInt(fileName.split("\\.")[1]);
-        projectDirectoryMetadata = new ProjectDirectoryMetadata(projectId, versionNum, project.toFile());
-
-        /*
-         * Calculate used-space (Equivalent of du command) only if the metadata for
-         * this project was never fetched before. This optimization is important as
-         * recursive space calculation is a very expensive operation.
-         */
-        projectDirectoryMetadata.setDirSizeInByte(
-            AbstractFlowPreparer.calculateDirSizeAndSave(projectDirectoryMetadata.getInstalledDir()));
-      }
+      final String fileName = project.getFileName().toString();
+      final int projectId = Integer.parseInt(fileName.split("\\.")[0]);
+      final int versionNum = Integer.parseInt(fileName.split("\\.")[1]);
+      final ProjectDirectoryMetadata projectDirectoryMetadata =
+          new ProjectDirectoryMetadata(projectId, versionNum, project.toFile());
 
+      /*
+       * Calculate used-space (Equivalent of du command), which is saved in the project dir
+       * so that it is only calculated once.
+       */
+      projectDirectoryMetadata.setDirSizeInByte(
+          AbstractFlowPreparer.calculateDirSizeAndSave(projectDirectoryMetadata.getInstalledDir()));
+      // The size file is touched when the project is accessed
       projectDirectoryMetadata.setLastAccessTime(
           Files.getLastModifiedTime(Paths.get(projectDirectoryMetadata.getInstalledDir().toString(),
               AbstractFlowPreparer.PROJECT_DIR_SIZE_FILE_NAME)));
-
+      return projectDirectoryMetadata;
     } catch (final Exception e) {
       log.warn("Error while loading project dir metadata for project {}",
           project.getFileName(), e);
+      return null;
     }
-    return projectDirectoryMetadata;
   }
 
   /**
-   * Browse Cache root directory to fetch all valid projects and unclean files. If a project
-   * already exists in the cache, don't bother to re-fetch the OS metadata again.
+   * Browse Cache root directory to fetch all valid projects and unclean files, and index them in
+   * least recently used order. This is only done the first time the cached projects are needed.
    */
-  private void loadAllProjects() {
-    final List<Path> projects = new ArrayList<>();
+  private synchronized void loadAllProjectsIfNecessary() {
+    if (this.cachedProjectsLoaded) {
+      return;
+    }
+    final long start = System.currentTimeMillis();
+    final List<ProjectDirectoryMetadata> projects = new ArrayList<>();
     for (final File project : Objects
         .requireNonNull(this.projectCacheDir.listFiles(new FilenameFilter() {
           String pattern = "[0-9]+\\.[0-9]+";
@@ -164,21 +187,64 @@ class ProjectCacheCleaner {
           !projectsUnderDeletion.containsKey(project.toPath())) {
         ProjectDirectoryMetadata projectDirectoryMetadata = fetchProjectMetadata(project.toPath());
         if (projectDirectoryMetadata != null) {
-            cachedProjects.put(project.toPath(), projectDirectoryMetadata);
+          projects.add(projectDirectoryMetadata);
         }
       }
     } // end of for loop
+    projects.sort(Comparator.comparing(ProjectDirectoryMetadata::getLastAccessTime));
+    projects.forEach(this::putCachedProject);
+    this.cachedProjectsLoaded = true;
+    log.info("Loading {} project dirs metadata completed in {} msecs",
+        this.cachedProjects.size(), System.currentTimeMillis() - start);
   }
 
   /**
-   * @return sum of the size of all project dirs
+   * Add a project to the cached projects as the most recently used one.
+   */
+  private synchronized void putCachedProject(final ProjectDirectoryMetadata project) {
+    removeCachedProject(project.getInstalledDir().toPath());
+    this.cachedProjects.put(project.getInstalledDir().toPath(), project);
+    this.cachedProjectsSizeInBytes += project.getDirSizeInByte();
+  }
+
+  private synchronized void removeCachedProject(final Path project) {
+    final ProjectDirectoryMetadata removed = this.cachedProjects.remove(project);
+    if (removed != null) {
+      this.cachedProjectsSizeInBytes -= removed.getDirSizeInByte();
+    }
+  }
+
+  /**
+   * Record that a project was added to the cache.
+   *
+   * @param project the added project, with its installed dir and size set
+   */
+  public synchronized void projectAdded(final ProjectDirectoryMetadata project) {
+    Preconditions.checkNotNull(project.getInstalledDir());
+    Preconditions.checkNotNull(project.getDirSizeInByte());
+    // Loaded first, otherwise the loading would count the project twice
+    loadAllProjectsIfNecessary();
+    putCachedProject(project);
+  }
+
+  /**
+   * Record that a cached project was accessed, making it the most recently used one.
+   *
+   * @param projectDir the installed dir of the project
    */
-  private long getProjectDirsTotalSizeInBytes() {
-    long totalSizeInBytes = 0;
-    for (ProjectDirectoryMetadata metadata : cachedProjects.values()) {
-      totalSizeInBytes += metadata.getDirSizeInByte();
+  public synchronized void projectAccessed(final File projectDir) {
+    final ProjectDirectoryMetadata project = this.cachedProjects.remove(projectDir.toPath());
+    if (project != null) {
+      this.cachedProjects.put(projectDir.toPath(), project);
     }
-    return totalSizeInBytes;
+  }
+
+  /**
+   * @return sum of the size of all project dirs
+   */
+  @VisibleForTesting
+  synchronized long getProjectDirsTotalSizeInBytes() {
+    return this.cachedProjectsSizeInBytes;
   }
 
   private void addToDeletionQueue(final File toDelete) {
@@ -220,24 +286,19 @@ class ProjectCacheCleaner {
 
   /**
    *
-   * Delete least recently used projects to free up space
+   * Delete least recently used projects to free up space. The projects are removed from the cached
+   * projects right away and deleted asynchronously.
    *
    * @param sizeToFreeInBytes space to free up
    */
-  private void deleteLeastRecentlyUsedProjects(long sizeToFreeInBytes) {
-
-    final List<ProjectDirectoryMetadata> lruList = new ArrayList<>(cachedProjects.values());
-    lruList.sort(Comparator.comparing(ProjectDirectoryMetadata::getLastAccessTime));
-    for (ProjectDirectoryMetadata lruEntry : lruList) {
-      if (sizeToFreeInBytes > 0) {
-        if (lruEntry.getInstalledDir() != null) {
-          cachedProjects.remove(lruEntry.getInstalledDir().toPath());
-          submitProjectForDeletion(lruEntry.getInstalledDir());
-          sizeToFreeInBytes -= lruEntry.getDirSizeInByte();
-        }
-      } else {
-        break;
-      }
+  private synchronized void deleteLeastRecentlyUsedProjects(long sizeToFreeInBytes) {
+    final Iterator<ProjectDirectoryMetadata> lruIterator = this.cachedProjects.values().iterator();
+    while (sizeToFreeInBytes > 0 && lruIterator.hasNext()) {
+      final ProjectDirectoryMetadata lruEntry = lruIterator.next();
+      lruIterator.remove();
+      this.cachedProjectsSizeInBytes -= lruEntry.getDirSizeInByte();
+      submitProjectForDeletion(lruEntry.getInstalledDir());
+      sizeToFreeInBytes -= lruEntry.getDirSizeInByte();
     }
   }
 
@@ -277,7 +338,9 @@ class ProjectCacheCleaner {
    * 2. Calculates high water mark & throttle water marks based on the above number.
    * 3. If the occupied bytes > high water mark, lazy (Non-blocking) LRU eviction kicks in
    * 4. If the occupied bytes > throttle water mark, the method will block until LRU eviction is complete.
-   * In each case, LRU eviction attempts to keep the occupied space below high water mark.
+   * In each case, LRU eviction attempts to bring the occupied space down to the low water mark.
+   * <p>
+   * The occupied space is tracked in memory, only the usable space of the partition is queried.
    *
    * @param newProjectSizeInBytes space in bytes the new project will add to the existing cache
    */
@@ -285,16 +348,14 @@ class ProjectCacheCleaner {
     final long cachePartitionSize = this.projectCacheDir.getTotalSpace();
     final long availablePartitionSize = this.projectCacheDir.getUsableSpace();
 
-    final long start = System.currentTimeMillis();
-    loadAllProjects();
-    log.info("Loading {} project dirs metadata completed in {} msecs",
-        cachedProjects.size(), System.currentTimeMillis() - start);
+    loadAllProjectsIfNecessary();
 
     final long currentCacheSize = getProjectDirsTotalSizeInBytes();
     final long projectCacheDirCapacity = currentCacheSize + availablePartitionSize;
     boolean throttleAfterDeletion = false;
 
     final long highWatermark = (long) (projectCacheDirCapacity * this.percentageOfDisk);
+    final long lowWatermark = (long) (projectCacheDirCapacity * this.lowWatermarkPercentage);
     final long throttleWatermark = (long) (projectCacheDirCapacity * this.throttlePercentage);
 
     long projectedCacheSize = currentCacheSize + newProjectSizeInBytes;
@@ -304,8 +365,9 @@ class ProjectCacheCleaner {
         bytesToMB(projectCacheDirCapacity),
         bytesToMB(currentCacheSize),
         bytesToMB(projectedCacheSize));
-    log.info("High Watermark = {} MB, Throttle Watermark = {} MB",
+    log.info("High Watermark = {} MB, Low Watermark = {} MB, Throttle Watermark = {} MB",
         bytesToMB(highWatermark),
+        bytesToMB(lowWatermark),
         bytesToMB(throttleWatermark));
 
     if (projectedCacheSize >= throttleWatermark) {
@@ -314,7 +376,7 @@ class ProjectCacheCleaner {
 
     if (projectedCacheSize >= highWatermark) {
       log.info("Projected cache size exceeds High Watermark. LRU Eviction will kick in");
-      deleteLeastRecentlyUsedProjects(projectedCacheSize - highWatermark);
+      deleteLeastRecentlyUsedProjects(projectedCacheSize - lowWatermark);
     }
 
     if (throttleAfterDeletion) {
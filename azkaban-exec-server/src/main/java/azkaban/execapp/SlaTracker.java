@@ -0,0 +1,266 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.DispatchMethod;
+import azkaban.execapp.action.KillExecutionAction;
+import azkaban.execapp.action.KillJobAction;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.Status;
+import azkaban.sla.SlaOption;
+import azkaban.sla.SlaType.ComponentType;
+import azkaban.sla.SlaType.StatusType;
+import azkaban.trigger.TriggerAction;
+import azkaban.trigger.builtin.SlaAlertAction;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.log4j.Logger;
+
+/**
+ * Tracks the SLAs of the executions running on this executor.
+ * <p>
+ * The deadline of an SLA is scheduled when the flow or the job it applies to starts. The SLA is
+ * resolved from the in-memory execution when its deadline passes or when the execution reaches a
+ * terminal status, so that the execution is never read from the database. The alert and kill
+ * actions are only taken for the SLAs which are missed.
+ */
+@Singleton
+public class SlaTracker {
+
+  private static final int SCHEDULED_THREAD_POOL_SIZE = 4;
+  private static final Logger logger = Logger.getLogger(SlaTracker.class);
+
+  private final ScheduledExecutorService scheduledService;
+  private final ExecMetrics execMetrics;
+  private final Map<Integer, List<TrackedSla>> slasByExecution = new ConcurrentHashMap<>();
+  private final AtomicInteger activeSlaCount = new AtomicInteger();
+  private volatile DispatchMethod dispatchMethod;
+
+  @Inject
+  public SlaTracker(final ExecMetrics execMetrics) {
+    this.execMetrics = execMetrics;
+    this.scheduledService = Executors.newScheduledThreadPool(SCHEDULED_THREAD_POOL_SIZE,
+        new ThreadFactoryBuilder().setNameFormat("azk-sla-tracker-%d").build());
+    this.execMetrics.addSlaTrackerMetrics(this);
+  }
+
+  /**
+   * Start tracking the flow level SLAs of an execution which started.
+   */
+  public void onFlowStarted(final ExecutableFlow flow) {
+    final List<TrackedSla> slas = getTrackedSlas(flow.getExecutionId());
+    for (final SlaOption slaOption : SlaOption.getFlowLevelSLAOptions(
+        flow.getExecutionOptions().getSlaOptions())) {
+      final TrackedSla sla = new TrackedSla(flow, slaOption);
+      slas.add(sla);
+      schedule(sla, flow.getStartTime());
+    }
+  }
+
+  /**
+   * Start tracking the job level SLAs of the jobs of an execution which started.
+   */
+  public void onJobStarted(final ExecutableFlow flow) {
+    final List<TrackedSla> slas = getTrackedSlas(flow.getExecutionId());
+    for (final SlaOption slaOption : SlaOption.getJobLevelSLAOptions(
+        flow.getExecutionOptions().getSlaOptions())) {
+      final ExecutableNode node = flow.getExecutableNode(slaOption.getJobName());
+      if (node == null || node.getStartTime() < 0 || isTracked(slas, slaOption)) {
+        continue;
+      }
+      final TrackedSla sla = new TrackedSla(flow, slaOption);
+      slas.add(sla);
+      schedule(sla, node.getStartTime());
+    }
+  }
+
+  /**
+   * Resolve the job level SLAs met by a job which finished. The SLAs of a job which failed are
+   * resolved when their deadline passes or when the flow finishes, since the job may be retried.
+   */
+  public void onJobFinished(final ExecutableFlow flow, final String jobId) {
+    final List<TrackedSla> slas = this.slasByExecution.get(flow.getExecutionId());
+    if (slas == null) {
+      return;
+    }
+    for (final TrackedSla sla : slas) {
+      if (sla.slaOption.getType().getComponent() == ComponentType.JOB
+          && sla.slaOption.getJobName().equals(jobId) && isSlaMet(sla)) {
+        resolve(sla, false, false);
+      }
+    }
+  }
+
+  /**
+   * Resolve all the SLAs of an execution which finished. The missed SLAs are alerted right away
+   * instead of waiting for their deadline.
+   */
+  public void onFlowFinished(final ExecutableFlow flow) {
+    final List<TrackedSla> slas = this.slasByExecution.remove(flow.getExecutionId());
+    if (slas == null) {
+      return;
+    }
+    for (final TrackedSla sla : slas) {
+      // The execution is finished, there is nothing to kill
+      resolve(sla, !isSlaMet(sla), false);
+    }
+  }
+
+  private List<TrackedSla> getTrackedSlas(final int execId) {
+    return this.slasByExecution.computeIfAbsent(execId, id -> new CopyOnWriteArrayList<>());
+  }
+
+  private static boolean isTracked(final List<TrackedSla> slas, final SlaOption slaOption) {
+    return slas.stream().anyMatch(sla -> sla.slaOption == slaOption);
+  }
+
+  @SuppressWarnings("FutureReturnValueIgnored")
+  private void schedule(final TrackedSla sla, final long startTime) {
+    final long now = System.currentTimeMillis();
+    sla.deadline = (startTime > 0 ? startTime : now) + sla.slaOption.getDuration().toMillis();
+    this.activeSlaCount.incrementAndGet();
+    if (sla.resolved.get()) {
+      // The execution finished while the sla was being added
+      return;
+    }
+    logger.info("Tracking sla " + sla.slaOption + " of execution " + sla.flow.getExecutionId()
+        + ", deadline in " + (sla.deadline - now) / 1000 + " seconds");
+    sla.deadlineFuture = this.scheduledService.schedule(() -> onDeadline(sla),
+        Math.max(0, sla.deadline - now), TimeUnit.MILLISECONDS);
+  }
+
+  private void onDeadline(final TrackedSla sla) {
+    this.execMetrics.addSlaDeadlineLag(System.currentTimeMillis() - sla.deadline);
+    resolve(sla, !isSlaMet(sla), true);
+    final List<TrackedSla> slas = this.slasByExecution.get(sla.flow.getExecutionId());
+    if (slas != null) {
+      slas.remove(sla);
+    }
+  }
+
+  /**
+   * Resolve an SLA once, taking its actions if it is missed.
+   */
+  private void resolve(final TrackedSla sla, final boolean missed, final boolean kill) {
+    if (!sla.resolved.compareAndSet(false, true)) {
+      return;
+    }
+    // Every tracked sla is counted once by schedule() and uncounted once here, even if it is
+    // resolved before its deadline is scheduled.
+    this.activeSlaCount.decrementAndGet();
+    if (sla.deadlineFuture != null) {
+      sla.deadlineFuture.cancel(false);
+    }
+    if (!missed) {
+      logger.info("Sla " + sla.slaOption + " of execution " + sla.flow.getExecutionId()
+          + " is met");
+      return;
+    }
+    logger.info("Sla " + sla.slaOption + " of execution " + sla.flow.getExecutionId()
+        + " is missed");
+    this.execMetrics.markSlaMissed();
+    for (final TriggerAction action : createActions(sla.flow, sla.slaOption, kill)) {
+      try {
+        action.doAction();
+      } catch (final Exception e) {
+        logger.error("Failed to do action " + action.getDescription()
+            + " for execution " + sla.flow.getExecutionId(), e);
+      }
+    }
+  }
+
+  private boolean isSlaMet(final TrackedSla sla) {
+    final Status status;
+    if (sla.slaOption.getType().getComponent() == ComponentType.FLOW) {
+      status = sla.flow.getStatus();
+    } else {
+      status = sla.flow.getExecutableNode(sla.slaOption.getJobName()).getStatus();
+    }
+    if (sla.slaOption.getType().getStatus() == StatusType.SUCCEED) {
+      return status == Status.SUCCEEDED;
+    }
+    return status == Status.SUCCEEDED || status == Status.FAILED || status == Status.KILLED;
+  }
+
+  @VisibleForTesting
+  List<TriggerAction> createActions(final ExecutableFlow flow, final SlaOption sla,
+      final boolean kill) {
+    final int execId = flow.getExecutionId();
+    final List<TriggerAction> actions = new ArrayList<>();
+    if (sla.hasAlert()) {
+      actions.add(new SlaAlertAction(SlaOption.ACTION_ALERT, sla, flow));
+    }
+    if (kill && sla.hasKill()) {
+      switch (sla.getType().getComponent()) {
+        case FLOW:
+          actions.add(new KillExecutionAction(SlaOption.ACTION_CANCEL_FLOW, execId,
+              this.dispatchMethod));
+          break;
+        case JOB:
+          actions.add(new KillJobAction(SlaOption.ACTION_KILL_JOB, execId, sla.getJobName()));
+          break;
+        default:
+          logger.info("Unknown action type " + sla.getType().getComponent());
+          break;
+      }
+    }
+    return actions;
+  }
+
+  /**
+   * @return the number of SLAs whose deadline is scheduled.
+   */
+  public int getActiveSlaCount() {
+    return this.activeSlaCount.get();
+  }
+
+  public void setDispatchMethod(final DispatchMethod dispatchMethod) {
+    this.dispatchMethod = dispatchMethod;
+  }
+
+  public void shutdown() {
+    this.scheduledService.shutdownNow();
+  }
+
+  private static class TrackedSla {
+
+    private final ExecutableFlow flow;
+    private final SlaOption slaOption;
+    private final AtomicBoolean resolved = new AtomicBoolean();
+    private volatile long deadline;
+    private volatile ScheduledFuture<?> deadlineFuture;
+
+    private TrackedSla(final ExecutableFlow flow, final SlaOption slaOption) {
+      this.flow = flow;
+      this.slaOption = slaOption;
+    }
+  }
+}
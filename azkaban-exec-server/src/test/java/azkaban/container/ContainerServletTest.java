@@ -61,6 +61,17 @@ public class ContainerServletTest {
     this.baos.reset();
   }
 
+  @Test
+  public void testAssignExecution() throws IOException {
+    init();
+    Mockito.when(this.mockHttpServletRequest.getParameter(ConnectorParams.ACTION_PARAM))
+        .thenReturn(ConnectorParams.EXECUTE_ACTION);
+    this.mockContainerServlet.handleRequest(this.mockHttpServletRequest,
+        this.mockHttpServletResponse);
+    Mockito.verify(this.mockContainerServlet, Mockito.times(1))
+        .handleAssignExecution(Mockito.any(), Mockito.eq(7));
+  }
+
   @Test
   public void testUnsupportedActions() throws IOException {
     init();
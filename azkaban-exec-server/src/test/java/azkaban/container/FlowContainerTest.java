@@ -24,6 +24,7 @@ import azkaban.execapp.AzkabanExecutorServerTest;
 import azkaban.execapp.event.JobCallbackManager;
 import azkaban.executor.ExecutableFlow;
 import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
 import azkaban.project.ProjectFileHandler;
 import azkaban.project.ProjectLoader;
 import azkaban.spi.AzkabanEventReporter;
@@ -35,6 +36,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import org.apache.log4j.Logger;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -47,6 +51,7 @@ import static azkaban.ServiceProvider.*;
 import static azkaban.container.FlowContainer.*;
 import static azkaban.utils.TestUtils.*;
 import static java.util.Objects.*;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 public class FlowContainerTest {
@@ -133,6 +138,44 @@ public class FlowContainerTest {
     startFlowContainer();
   }
 
+  /**
+   * The flow container is a singleton, a new injector gives a flow container on standby.
+   */
+  private FlowContainer createStandbyFlowContainer() {
+    SERVICE_PROVIDER.unsetInjector();
+    FlowContainer.setInjector(props);
+    return SERVICE_PROVIDER.getInstance(FlowContainer.class);
+  }
+
+  @Test
+  public void testWaitForExecution() throws Exception {
+    this.flowContainer = createStandbyFlowContainer();
+    final CompletableFuture<Integer> execId = CompletableFuture.supplyAsync(() -> {
+      try {
+        return this.flowContainer.waitForExecution();
+      } catch (final ExecutorManagerException e) {
+        throw new CompletionException(e);
+      }
+    });
+
+    this.flowContainer.assignExecution(3);
+    assertEquals(3, execId.get(10, TimeUnit.SECONDS).intValue());
+  }
+
+  @Test
+  public void testAssignExecution() throws Exception {
+    this.flowContainer = createStandbyFlowContainer();
+    this.flowContainer.assignExecution(3);
+    // The dispatch may retry the assignment
+    this.flowContainer.assignExecution(3);
+    try {
+      this.flowContainer.assignExecution(4);
+      fail("Another execution must not be assigned");
+    } catch (final ExecutorManagerException e) {
+      // expected
+    }
+  }
+
   @Test
   public void testDeleteFile() throws Exception {
     // Create a file
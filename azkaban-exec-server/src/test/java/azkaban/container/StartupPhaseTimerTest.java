@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.container;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azkaban.executor.ExecutorManagerException;
+import org.junit.Test;
+
+public class StartupPhaseTimerTest {
+
+  @Test
+  public void testPhasesAreRecordedInOrder() throws Exception {
+    final StartupPhaseTimer timer = new StartupPhaseTimer();
+    timer.record(FlowContainer.PHASE_INJECTOR, 10);
+    timer.time(FlowContainer.PHASE_PROJECT_SETUP, () -> {
+      try {
+        Thread.sleep(20);
+      } catch (final InterruptedException e) {
+        throw new ExecutorManagerException(e);
+      }
+    });
+
+    assertThat(timer.getPhaseDurations()).containsOnlyKeys(FlowContainer.PHASE_INJECTOR,
+        FlowContainer.PHASE_PROJECT_SETUP);
+    assertThat(timer.getPhaseDurations().get(FlowContainer.PHASE_PROJECT_SETUP))
+        .isGreaterThanOrEqualTo(20);
+    assertThat(timer.toString()).startsWith(FlowContainer.PHASE_INJECTOR + "=10,"
+        + FlowContainer.PHASE_PROJECT_SETUP + "=");
+    assertThat(timer.getTimeSinceJvmStart()).isPositive();
+  }
+
+  @Test
+  public void testFailedPhaseIsRecorded() {
+    final StartupPhaseTimer timer = new StartupPhaseTimer();
+    assertThatThrownBy(() -> timer.time(FlowContainer.PHASE_FLOW_FETCH, () -> {
+      throw new ExecutorManagerException("failed");
+    })).isInstanceOf(ExecutorManagerException.class);
+    assertThat(timer.getPhaseDurations()).containsOnlyKeys(FlowContainer.PHASE_FLOW_FETCH);
+  }
+}
@@ -93,7 +93,7 @@ public class AzkabanExecutorServerTest {
     assertNotNull(injector.getInstance(Emailer.class));
     assertNotNull(injector.getInstance(AlerterHolder.class));
 
-    assertSingleton(TriggerManager.class, injector);
+    assertSingleton(SlaTracker.class, injector);
     assertSingleton(FlowRunnerManager.class, injector);
     assertSingleton(AzkabanExecutorServer.class, injector);
   }
@@ -114,6 +114,24 @@ public class FlowPreparerTest extends FlowPreparerTestBase {
     assertThat(tmp).isNull();
   }
 
+  @Test
+  public void testSetupExecutionDirWithReflinks() throws Exception {
+    final FlowPreparer reflinkPreparer = new FlowPreparer(createMockStorageManager(),
+        this.dependencyTransferManager, this.projectsDir, null, new ProjectCacheHitRatio(),
+        this.executionsDir, ExecutionDirMaterialization.REFLINK);
+    final ProjectDirectoryMetadata proj = new ProjectDirectoryMetadata(FAT_PROJECT_ID, 34,
+        new File(this.projectsDir, SAMPLE_FLOW_01));
+    final File tmp = reflinkPreparer.downloadProjectIfNotExists(proj, 127);
+    Files.move(tmp.toPath(), proj.getInstalledDir().toPath());
+
+    // Hard links are used instead if the file system doesn't support reflinks
+    final File execDir = reflinkPreparer.setupExecutionDir(proj.getInstalledDir().toPath(),
+        mockExecutableFlow(127, FAT_PROJECT_ID, 34));
+    assertThat(execDir.list()).containsOnly(proj.getInstalledDir().list());
+    assertThat(new File(execDir, SAMPLE_FLOW_01).list())
+        .containsOnly(new File(proj.getInstalledDir(), SAMPLE_FLOW_01).list());
+  }
+
   @Test
   public void testSetupFlowByMultipleThreads() throws IOException {
     final int threadNum = 4;
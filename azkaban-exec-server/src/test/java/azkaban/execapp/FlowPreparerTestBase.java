@@ -28,6 +28,7 @@ import org.junit.Rule;
 import org.junit.rules.TemporaryFolder;
 
 
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -62,8 +63,8 @@ public class FlowPreparerTestBase {
     when(projectFileHandlerTHIN.getStartupDependencies()).thenReturn(ThinArchiveTestUtils.getDepSetAB());
 
     final ProjectStorageManager projectStorageManager = mock(ProjectStorageManager.class);
-    when(projectStorageManager.getProjectFile(eq(FAT_PROJECT_ID), anyInt())).thenReturn(projectFileHandlerFAT);
-    when(projectStorageManager.getProjectFile(eq(THIN_PROJECT_ID), anyInt())).thenReturn(projectFileHandlerTHIN);
+    when(projectStorageManager.getProjectFile(eq(FAT_PROJECT_ID), anyInt(), anyBoolean())).thenReturn(projectFileHandlerFAT);
+    when(projectStorageManager.getProjectFile(eq(THIN_PROJECT_ID), anyInt(), anyBoolean())).thenReturn(projectFileHandlerTHIN);
     return projectStorageManager;
   }
 
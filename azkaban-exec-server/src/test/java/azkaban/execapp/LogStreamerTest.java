@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogStreamerTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testAwaitBytesReturnsWhenBytesAreAppended() throws Exception {
+    final File log = this.temp.newFile("job.log");
+    Files.write(log.toPath(), "line1\n".getBytes(StandardCharsets.UTF_8));
+
+    final Thread writer = new Thread(() -> {
+      try {
+        Thread.sleep(200);
+        Files.write(log.toPath(), "line2\n".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+      } catch (final Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    writer.start();
+
+    try (final FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+      final long start = System.currentTimeMillis();
+      LogStreamer.awaitBytes(channel, 6, LogStreamer.MAX_FOLLOW_TIMEOUT_MS, () -> true);
+      assertThat(System.currentTimeMillis() - start).isLessThan(LogStreamer.MAX_FOLLOW_TIMEOUT_MS);
+      assertThat(channel.size()).isEqualTo(12);
+    }
+    writer.join();
+  }
+
+  @Test
+  public void testAwaitBytesReturnsWhenLogIsNotActive() throws Exception {
+    final File log = this.temp.newFile("flow.log");
+    try (final FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+      final long start = System.currentTimeMillis();
+      LogStreamer.awaitBytes(channel, 0, LogStreamer.MAX_FOLLOW_TIMEOUT_MS, () -> false);
+      assertThat(System.currentTimeMillis() - start).isLessThan(LogStreamer.FOLLOW_POLL_INTERVAL_MS);
+    }
+  }
+
+  @Test
+  public void testAwaitBytesTimesOut() throws Exception {
+    final File log = this.temp.newFile("flow.log");
+    try (final FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+      final long start = System.currentTimeMillis();
+      LogStreamer.awaitBytes(channel, 0, 300, () -> true);
+      assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(300);
+    }
+  }
+}
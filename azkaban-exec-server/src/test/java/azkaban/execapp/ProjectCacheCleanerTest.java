@@ -122,6 +122,43 @@ public class ProjectCacheCleanerTest {
     assertThat(this.cacheDir.list()).contains("2.1");
   }
 
+  @Test
+  /**
+   * Deleting least recently used items until the cache size is below the low watermark.
+   */
+  public void testDeletingDownToLowWatermark() {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.7, 0.92, 0.5);
+    cleaner.deleteProjectDirsIfNecessary(2000000);
+    cleaner.finishPendingCleanup();
+    assertThat(this.cacheDir.list()).containsOnly("3.1");
+    assertThat(cleaner.getProjectDirsTotalSizeInBytes()).isEqualTo(3000000);
+  }
+
+  @Test
+  /**
+   * The projects added and accessed after the cache is loaded are tracked in memory.
+   */
+  public void testTrackingAddedAndAccessedProjects() throws Exception {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.9);
+    cleaner.deleteProjectDirsIfNecessary(1);
+    assertThat(cleaner.getProjectDirsTotalSizeInBytes()).isEqualTo(6000000);
+
+    final File newProjectDir = new File(this.cacheDir, "4.1");
+    assertThat(newProjectDir.mkdir()).isTrue();
+    final ProjectDirectoryMetadata newProject = new ProjectDirectoryMetadata(4, 1, newProjectDir);
+    newProject.setDirSizeInByte(500000L);
+    cleaner.projectAdded(newProject);
+    assertThat(cleaner.getProjectDirsTotalSizeInBytes()).isEqualTo(6500000);
+
+    // 1.1 becomes the most recently used project, 2.1 and 3.1 are the least recently used ones
+    cleaner.projectAccessed(new File(this.cacheDir, "1.1"));
+    when(this.cacheDir.getUsableSpace()).thenReturn((long) (3500000));
+    cleaner.deleteProjectDirsIfNecessary(6000000);
+    cleaner.finishPendingCleanup();
+    assertThat(this.cacheDir.list()).containsOnly("1.1", "4.1");
+    assertThat(cleaner.getProjectDirsTotalSizeInBytes()).isEqualTo(1500000);
+  }
+
   @Test
   /**
    * Put enough items in the cache to invoke throttle condition.
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.ExecutionOptions;
+import azkaban.executor.Status;
+import azkaban.metrics.MetricsManager;
+import azkaban.metrics.MetricsTestUtility;
+import azkaban.sla.SlaAction;
+import azkaban.sla.SlaOption;
+import azkaban.sla.SlaType;
+import azkaban.trigger.TriggerAction;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableSet;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SlaTrackerTest {
+
+  private static final String FLOW_NAME = "flow";
+  private static final String JOB_NAME = "job";
+
+  private final List<String> actions = new CopyOnWriteArrayList<>();
+  private MetricsTestUtility testUtil;
+  private SlaTracker slaTracker;
+  private CountDownLatch actionLatch;
+
+  @Before
+  public void setUp() {
+    final MetricRegistry metricRegistry = new MetricRegistry();
+    this.testUtil = new MetricsTestUtility(metricRegistry);
+    this.actionLatch = new CountDownLatch(1);
+    this.slaTracker = new SlaTracker(new ExecMetrics(new MetricsManager(metricRegistry))) {
+      @Override
+      List<TriggerAction> createActions(final ExecutableFlow flow, final SlaOption sla,
+          final boolean kill) {
+        SlaTrackerTest.this.actions.add(sla.getType() + (kill ? " kill" : " alert"));
+        SlaTrackerTest.this.actionLatch.countDown();
+        return Collections.emptyList();
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    this.slaTracker.shutdown();
+  }
+
+  private static SlaOption createSlaOption(final SlaType type, final String jobName,
+      final Duration duration) {
+    return new SlaOption(type, FLOW_NAME, jobName, duration,
+        ImmutableSet.of(SlaAction.ALERT, SlaAction.KILL), Collections.emptyList());
+  }
+
+  private static ExecutableFlow createFlow(final SlaOption slaOption, final ExecutableNode node) {
+    final ExecutionOptions options = new ExecutionOptions();
+    options.setSlaOptions(Collections.singletonList(slaOption));
+    final ExecutableFlow flow = mock(ExecutableFlow.class);
+    when(flow.getExecutionId()).thenReturn(1);
+    when(flow.getExecutionOptions()).thenReturn(options);
+    when(flow.getStartTime()).thenReturn(System.currentTimeMillis());
+    when(flow.getStatus()).thenReturn(Status.RUNNING);
+    when(flow.getExecutableNode(JOB_NAME)).thenReturn(node);
+    return flow;
+  }
+
+  @Test
+  public void testMissedDeadlineTakesActions() throws Exception {
+    final ExecutableFlow flow = createFlow(
+        createSlaOption(SlaType.FLOW_FINISH, null, Duration.ofMillis(100)), null);
+    this.slaTracker.onFlowStarted(flow);
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(1);
+
+    assertThat(this.actionLatch.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(this.actions).containsExactly("FLOW_FINISH kill");
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(0);
+    assertThat(this.testUtil.getMeterValue(ExecMetrics.SLA_MISSED_METER_NAME)).isEqualTo(1);
+    assertThat(this.testUtil.getHistogramSnapshot(ExecMetrics.SLA_DEADLINE_LAG_HISTOGRAM_NAME)
+        .size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testFlowFinishedBeforeDeadline() {
+    final ExecutableFlow flow = createFlow(
+        createSlaOption(SlaType.FLOW_FINISH, null, Duration.ofHours(1)), null);
+    this.slaTracker.onFlowStarted(flow);
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(1);
+
+    when(flow.getStatus()).thenReturn(Status.FAILED);
+    this.slaTracker.onFlowFinished(flow);
+    assertThat(this.actions).isEmpty();
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testFlowFailedBeforeDeadlineAlertsAtOnce() {
+    final ExecutableFlow flow = createFlow(
+        createSlaOption(SlaType.FLOW_SUCCEED, null, Duration.ofHours(1)), null);
+    this.slaTracker.onFlowStarted(flow);
+
+    when(flow.getStatus()).thenReturn(Status.FAILED);
+    this.slaTracker.onFlowFinished(flow);
+    assertThat(this.actions).containsExactly("FLOW_SUCCEED alert");
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testJobSlaTrackedFromJobStart() {
+    final ExecutableNode node = mock(ExecutableNode.class);
+    when(node.getStartTime()).thenReturn(-1L);
+    when(node.getStatus()).thenReturn(Status.READY);
+    final ExecutableFlow flow = createFlow(
+        createSlaOption(SlaType.JOB_SUCCEED, JOB_NAME, Duration.ofHours(1)), node);
+    this.slaTracker.onFlowStarted(flow);
+    this.slaTracker.onJobStarted(flow);
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(0);
+
+    when(node.getStartTime()).thenReturn(System.currentTimeMillis());
+    when(node.getStatus()).thenReturn(Status.RUNNING);
+    this.slaTracker.onJobStarted(flow);
+    // Another job starting doesn't track the sla twice
+    this.slaTracker.onJobStarted(flow);
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(1);
+
+    when(node.getStatus()).thenReturn(Status.SUCCEEDED);
+    this.slaTracker.onJobFinished(flow, JOB_NAME);
+    assertThat(this.slaTracker.getActiveSlaCount()).isEqualTo(0);
+
+    this.slaTracker.onFlowFinished(flow);
+    assertThat(this.actions).isEmpty();
+  }
+}
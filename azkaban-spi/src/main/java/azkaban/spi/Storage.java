@@ -17,6 +17,7 @@
 
 package azkaban.spi;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -58,6 +59,32 @@ public interface Storage {
    */
   InputStream getDependency(Dependency dep) throws IOException;
 
+  /**
+   * Get an InputStream object for a dependency starting at an offset, to resume a download which
+   * failed after reading some bytes. The default implementation reads and discards the bytes before
+   * the offset, storages which can seek should override it.
+   *
+   * @param dep the dependency to fetch
+   * @param offset the number of bytes to skip
+   * @return InputStream for fetching the blob from the offset.
+   */
+  default InputStream getDependency(final Dependency dep, final long offset) throws IOException {
+    final InputStream in = getDependency(dep);
+    long remaining = offset;
+    while (remaining > 0) {
+      final long skipped = in.skip(remaining);
+      if (skipped > 0) {
+        remaining -= skipped;
+      } else if (in.read() != -1) {
+        remaining--;
+      } else {
+        in.close();
+        throw new EOFException("Dependency " + dep.getFileName() + " is shorter than " + offset);
+      }
+    }
+    return in;
+  }
+
   /**
    * Get root path of dependency location (should be http://...) OR if thin archives is not enabled, will be null.
    */
@@ -75,4 +102,44 @@ public interface Storage {
    * @return true if delete was successful. false if there was nothing to delete.
    */
   boolean deleteProject(String key);
+
+  /**
+   * See if the storage can keep the files of projects as blobs addressed by their content, so that
+   * the files shared by versions of a project are stored once.
+   */
+  default boolean supportsProjectBlobs() {
+    return false;
+  }
+
+  /**
+   * Put the content of a project file, unless a blob with the same hash exists already.
+   *
+   * @param projectId the project the file belongs to
+   * @param hash the hex SHA1 hash of the file content
+   * @param localFile Read data from a local file
+   * @return true if the blob was written, false if it existed already.
+   */
+  default boolean putProjectBlob(final int projectId, final String hash, final File localFile) {
+    throw new UnsupportedOperationException("Project blobs are not supported by this storage.");
+  }
+
+  /**
+   * Get an InputStream object for the content of a project file.
+   *
+   * @param projectId the project the file belongs to
+   * @param hash the hex SHA1 hash of the file content
+   * @return InputStream for fetching the blob.
+   */
+  default InputStream getProjectBlob(final int projectId, final String hash) throws IOException {
+    throw new UnsupportedOperationException("Project blobs are not supported by this storage.");
+  }
+
+  /**
+   * Delete the content of a project file from Storage.
+   *
+   * @return true if delete was successful. false if there was nothing to delete.
+   */
+  default boolean deleteProjectBlob(final int projectId, final String hash) {
+    throw new UnsupportedOperationException("Project blobs are not supported by this storage.");
+  }
 }
@@ -29,6 +29,7 @@ import azkaban.imagemgmt.exception.ImageMgmtException;
 import azkaban.imagemgmt.exception.ImageMgmtValidationException;
 import azkaban.imagemgmt.models.ImageRampup.StabilityTag;
 import azkaban.imagemgmt.models.ImageRampupPlan;
+import azkaban.imagemgmt.rampup.ImageRampupManager;
 import azkaban.imagemgmt.utils.ValidatorUtils;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -54,12 +55,15 @@ public class ImageRampupServiceImpl implements ImageRampupService {
   private static final Logger log = LoggerFactory.getLogger(ImageRampupServiceImpl.class);
 
   private final ImageRampupDao imageRampupDao;
+  private final ImageRampupManager imageRampupManager;
   private final Converter<ImageRampupPlanRequestDTO, ImageRampupPlanResponseDTO, ImageRampupPlan> converter;
 
   @Inject
   public ImageRampupServiceImpl(final ImageRampupDao imageRampupDao,
+      final ImageRampupManager imageRampupManager,
       @Named(IMAGE_RAMPUP_PLAN) final Converter converter) {
     this.imageRampupDao = imageRampupDao;
+    this.imageRampupManager = imageRampupManager;
     this.converter = converter;
   }
 
@@ -78,8 +82,11 @@ public class ImageRampupServiceImpl implements ImageRampupService {
     vaidateRampup(imageRampupPlanRequest);
 
     // Invoke DAO method to create rampup plan and rampup details
-    return this.imageRampupDao
+    final int rampupPlanId = this.imageRampupDao
         .createImageRampupPlan(this.converter.convertToDataModel(imageRampupPlanRequest));
+    // The dispatches must select versions from the new rampup plan
+    this.imageRampupManager.invalidateCache();
+    return rampupPlanId;
   }
 
   @Override
@@ -110,6 +117,7 @@ public class ImageRampupServiceImpl implements ImageRampupService {
       vaidateRampup(imageRampupPlanRequest);
     }
     this.imageRampupDao.updateImageRampupPlan(this.converter.convertToDataModel(imageRampupPlanRequest));
+    this.imageRampupManager.invalidateCache();
   }
 
   /**
@@ -21,6 +21,7 @@ import static azkaban.webapp.servlet.AbstractAzkabanServlet.HTTP_HEADER_VALUE_AZ
 
 import azkaban.metrics.AzkabanAPIMetrics;
 import azkaban.server.AzkabanAPI;
+import azkaban.webapp.metrics.RouteMetrics;
 import azkaban.webapp.servlet.AbstractAzkabanServlet;
 import azkaban.webapp.servlet.LoginAbstractAzkabanServlet;
 import java.io.IOException;
@@ -34,17 +35,33 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
- * Servlet filter in charge of recording all api endpoint metrics.
+ * Servlet filter in charge of recording all api endpoint metrics, and of admitting the requests to
+ * routes guarded by a {@link RequestBulkhead}.
  */
 public class APIMetricsFilter implements Filter {
 
+  // There is no constant for "Too Many Requests" in the servlet api
+  static final int SC_TOO_MANY_REQUESTS = 429;
+
   private FilterConfig filterConfig;
   private final Map<String, AbstractAzkabanServlet> routesMap;
+  private final Map<String, RouteMetrics> routeMetricsMap;
+  private final Map<String, RequestBulkhead> bulkheadsMap;
 
-  public APIMetricsFilter(final Map<String, AbstractAzkabanServlet> routesMap) {
+  /**
+   * @param routesMap the servlet of each route
+   * @param routeMetricsMap the metrics of each route
+   * @param bulkheadsMap the bulkhead of each route which has one
+   */
+  public APIMetricsFilter(final Map<String, AbstractAzkabanServlet> routesMap,
+      final Map<String, RouteMetrics> routeMetricsMap,
+      final Map<String, RequestBulkhead> bulkheadsMap) {
     this.routesMap = routesMap;
+    this.routeMetricsMap = routeMetricsMap;
+    this.bulkheadsMap = bulkheadsMap;
   }
 
   @Override
@@ -57,7 +74,55 @@ public class APIMetricsFilter implements Filter {
 
     final String requestURI = req.getRequestURI();
     final AbstractAzkabanServlet servlet = this.routesMap.get(requestURI);
-    if (servlet != null) {
+    if (servlet == null) {
+      // Skip URIs not registered with the filter
+      chain.doFilter(request, response);
+      return;
+    }
+
+    final RouteMetrics routeMetrics = this.routeMetricsMap.get(requestURI);
+    final RequestBulkhead bulkhead = this.bulkheadsMap.get(requestURI);
+    if (bulkhead == null) {
+      filterRoute(chain, req, response, servlet, routeMetrics);
+      return;
+    }
+
+    final long queueTime;
+    try {
+      queueTime = bulkhead.acquire();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServletException("Interrupted while waiting for bulkhead " + bulkhead.getName(),
+          e);
+    }
+    if (queueTime < 0) {
+      if (routeMetrics != null) {
+        routeMetrics.markRejectedRequest();
+      }
+      final HttpServletResponse resp = (HttpServletResponse) response;
+      resp.setHeader("Retry-After", String.valueOf(bulkhead.getRetryAfterSeconds()));
+      resp.sendError(SC_TOO_MANY_REQUESTS,
+          "Too many concurrent requests to " + requestURI + ", please retry later.");
+      return;
+    }
+    try {
+      if (routeMetrics != null) {
+        routeMetrics.addQueueTime(queueTime);
+      }
+      filterRoute(chain, req, response, servlet, routeMetrics);
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  private void filterRoute(
+      final FilterChain chain,
+      final HttpServletRequest req,
+      final ServletResponse response,
+      final AbstractAzkabanServlet servlet,
+      final RouteMetrics routeMetrics) throws IOException, ServletException {
+    final long startTime = System.currentTimeMillis();
+    try {
       if (servlet instanceof LoginAbstractAzkabanServlet) {
         final LoginAbstractAzkabanServlet loginServlet = (LoginAbstractAzkabanServlet) servlet;
         if (loginServlet.isUserAuthenticated(req)) {
@@ -71,9 +136,10 @@ public class APIMetricsFilter implements Filter {
         // Process /status calls
         recordMetrics(chain, req, response, servlet);
       }
-    } else {
-      // Skip URIs not registered with the filter
-      chain.doFilter(request, response);
+    } finally {
+      if (routeMetrics != null) {
+        routeMetrics.addServiceTime(System.currentTimeMillis() - startTime);
+      }
     }
   }
 
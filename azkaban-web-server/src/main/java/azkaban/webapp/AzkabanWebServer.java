@@ -27,6 +27,8 @@ import azkaban.Constants;
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.DispatchMethod;
 import azkaban.database.AzkabanDatabaseSetup;
+import azkaban.executor.ExecutableFlowCache;
+import azkaban.executor.ExecutionSearchIndex;
 import azkaban.executor.ExecutionController;
 import azkaban.executor.ExecutorManager;
 import azkaban.executor.ExecutorManagerAdapter;
@@ -72,6 +74,7 @@ import azkaban.utils.Props;
 import azkaban.utils.PropsUtils;
 import azkaban.utils.StdOutErrRedirect;
 import azkaban.utils.Utils;
+import azkaban.webapp.metrics.RouteMetrics;
 import azkaban.webapp.metrics.WebMetrics;
 import azkaban.webapp.plugin.PluginRegistry;
 import azkaban.webapp.plugin.TriggerPlugin;
@@ -104,9 +107,11 @@ import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TimeZone;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -484,8 +489,30 @@ public class AzkabanWebServer extends AzkabanServer implements IMBeanRegistrable
       }
     }
 
+    // Set up route metrics and bulkheads
+    final Map<String, RouteMetrics> routeMetricsMap = new HashMap<>();
+    for (final String route : routesMap.keySet()) {
+      final String name = route.replace("/", "").replace("*", "");
+      routeMetricsMap
+          .put(route, this.webMetrics.setUpRouteMetrics(name.isEmpty() ? "root" : name));
+    }
+    final Map<String, RequestBulkhead> bulkheadsMap =
+        RequestBulkhead.createByRoute(this.props, routesMap.keySet());
+    final Set<RequestBulkhead> bulkheads = new HashSet<>(bulkheadsMap.values());
+    bulkheads.forEach(this.webMetrics::setUpBulkheadMetrics);
+    final int bulkheadThreads = bulkheads.stream().mapToInt(RequestBulkhead::getMaxConcurrent)
+        .sum();
+    final int maxThreads = this.props.getInt(ConfigurationKeys.JETTY_MAX_THREADS,
+        Constants.DEFAULT_JETTY_MAX_THREAD_COUNT);
+    logger.info("Request bulkheads: " + bulkheadsMap);
+    if (!bulkheads.isEmpty() && bulkheadThreads >= maxThreads) {
+      logger.warn(String.format("Request bulkheads admit %d concurrent requests, which leaves no "
+          + "jetty thread out of %d to the other routes.", bulkheadThreads, maxThreads));
+    }
+
     // Configure api metrics filter
-    final FilterHolder metricsFilter = new FilterHolder(new APIMetricsFilter(routesMap));
+    final FilterHolder metricsFilter = new FilterHolder(
+        new APIMetricsFilter(routesMap, routeMetricsMap, bulkheadsMap));
     final FilterMapping metricsFilterMapping = new FilterMapping();
     metricsFilterMapping.setFilterName(metricsFilter.getName());
     final String[] servletPaths = routesMap.keySet().stream().toArray(String[]::new);
@@ -538,6 +565,7 @@ public class AzkabanWebServer extends AzkabanServer implements IMBeanRegistrable
   private void prepareAndStartServer() throws Exception {
     this.executorManagerAdapter.start();
     this.executionLogsCleaner.start();
+    getExecutionSearchIndex().startBackfill();
 
     configureRoutes();
     startWebMetrics();
@@ -762,6 +790,9 @@ public class AzkabanWebServer extends AzkabanServer implements IMBeanRegistrable
     this.mbeanRegistrationManager.closeMBeans();
     this.scheduleManager.shutdown();
     this.executorManagerAdapter.shutdown();
+    getExecutionUpdateHub().shutdown();
+    getExecutionSearchIndex().shutdown();
+    this.executionLogsCleaner.shutdown();
     try {
       this.server.stop();
     } catch (final Exception e) {
@@ -775,6 +806,18 @@ public class AzkabanWebServer extends AzkabanServer implements IMBeanRegistrable
     return this.objectMapper;
   }
 
+  public ExecutableFlowCache getExecutableFlowCache() {
+    return SERVICE_PROVIDER.getInstance(ExecutableFlowCache.class);
+  }
+
+  public ExecutionUpdateHub getExecutionUpdateHub() {
+    return SERVICE_PROVIDER.getInstance(ExecutionUpdateHub.class);
+  }
+
+  public ExecutionSearchIndex getExecutionSearchIndex() {
+    return SERVICE_PROVIDER.getInstance(ExecutionSearchIndex.class);
+  }
+
   public ImageTypeService getImageTypeService() {
     return SERVICE_PROVIDER.getInstance(ImageTypeService.class);
   }
@@ -1,6 +1,7 @@
 package azkaban.webapp;
 
 import azkaban.Constants.ConfigurationKeys;
+import azkaban.executor.ExecutionRetentionEngine;
 import azkaban.executor.ExecutorLoader;
 import azkaban.utils.Props;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -20,6 +21,7 @@ public class ExecutionLogsCleaner {
    private static final Logger logger = LoggerFactory.getLogger(ExecutionLogsCleaner.class);
    private final ScheduledExecutorService scheduler;
    private final ExecutorLoader executorLoader;
+   private final ExecutionRetentionEngine retentionEngine;
    private final Props azkProps;
    private long executionLogsRetentionMs;
    // 12 weeks
@@ -34,9 +36,11 @@ public class ExecutionLogsCleaner {
    private int executionLogCleanupRecordLimit;
 
    @Inject
-   public ExecutionLogsCleaner(final Props azkProps, final ExecutorLoader executorLoader) {
+   public ExecutionLogsCleaner(final Props azkProps, final ExecutorLoader executorLoader,
+       final ExecutionRetentionEngine retentionEngine) {
       this.azkProps = azkProps;
       this.executorLoader = executorLoader;
+      this.retentionEngine = retentionEngine;
       this.scheduler =
           Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(
               "azk-execlog-cleaner").build());
@@ -57,7 +61,24 @@ public class ExecutionLogsCleaner {
           TimeUnit.SECONDS);
    }
 
+   /**
+    * Stop the clean up thread, and the retention pass it may be running after the current batch.
+    */
+   public void shutdown() {
+      logger.info("Shutting down execution logs clean up thread");
+      this.retentionEngine.shutdown();
+      this.scheduler.shutdownNow();
+   }
+
    private void cleanExecutionLogs() {
+      if (this.retentionEngine.isEnabled()) {
+         logger.info("Running exec_id range based execution retention");
+         final long startMs = System.currentTimeMillis();
+         this.retentionEngine.runOnce();
+         logger.info("execution retention time: " + (System.currentTimeMillis() - startMs)
+             + " ms.");
+         return;
+      }
       logger.info("Cleaning old logs from execution_logs");
       final long cutoff = System.currentTimeMillis() - this.executionLogsRetentionMs;
       logger.info("Cleaning old log files before "
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.webapp;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableFlowBase;
+import azkaban.executor.ExecutableFlowCache;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.Status;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.JSONUtils;
+import azkaban.utils.Props;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes status updates of executions to execution pages which long-poll for them, instead of
+ * each page polling the DB and building its own update.
+ *
+ * There is one feed per watched execution. A single thread re-reads the flow of every feed with
+ * subscribers each poll interval, through the {@link ExecutableFlowCache}, and publishes it to the
+ * waiting subscribers if its update time or status changed. The node-level delta of a published
+ * flow since a given update time is built and serialized to JSON once, and shared by all
+ * subscribers which last saw that update time.
+ *
+ * Every waiting subscriber holds a web server thread, so their number is bounded by
+ * {@link ConfigurationKeys#WEBSERVER_EXECUTION_UPDATES_MAX_SUBSCRIBERS}, which should be well
+ * below the size of the Jetty thread pool. Long-polling is disabled when it is 0, the default.
+ */
+@Singleton
+public class ExecutionUpdateHub {
+
+  public static final long MAX_WAIT_MS = 30 * 1000L;
+
+  private static final Logger logger = LoggerFactory.getLogger(ExecutionUpdateHub.class);
+  private static final long DEFAULT_POLL_INTERVAL_MS = 1000L;
+  private static final int DEFAULT_MAX_SUBSCRIBERS = 0;
+  // A feed without subscribers is kept for a while, so that the next long-poll of a page reuses
+  // it.
+  private static final long IDLE_FEED_EXPIRY_MS = 60 * 1000L;
+
+  private final ExecutableFlowCache flowCache;
+  private final long pollIntervalMs;
+  private final int maxSubscribers;
+  private final ConcurrentMap<Integer, Feed> feeds = new ConcurrentHashMap<>();
+  private final AtomicInteger subscribers = new AtomicInteger();
+  private final Histogram fanOutLatencyMs;
+  private final Histogram refreshTimeMs;
+  private final Meter rejectedMeter;
+  private final ScheduledExecutorService poller;
+
+  @Inject
+  public ExecutionUpdateHub(final Props props, final ExecutableFlowCache flowCache,
+      final MetricsManager metricsManager) {
+    this.flowCache = flowCache;
+    this.pollIntervalMs = props.getLong(
+        ConfigurationKeys.WEBSERVER_EXECUTION_UPDATES_POLL_INTERVAL_MS, DEFAULT_POLL_INTERVAL_MS);
+    this.maxSubscribers = props.getInt(
+        ConfigurationKeys.WEBSERVER_EXECUTION_UPDATES_MAX_SUBSCRIBERS, DEFAULT_MAX_SUBSCRIBERS);
+    this.fanOutLatencyMs = metricsManager.addHistogram("ExecutionUpdateHub-fanOutLatencyMs");
+    this.refreshTimeMs = metricsManager.addHistogram("ExecutionUpdateHub-refreshTimeMs");
+    this.rejectedMeter = metricsManager.addMeter("ExecutionUpdateHub-rejected-meter");
+    metricsManager.addGauge("ExecutionUpdateHub-subscribers", this.subscribers::get);
+    metricsManager.addGauge("ExecutionUpdateHub-feeds", this.feeds::size);
+
+    if (isEnabled()) {
+      this.poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+          .setNameFormat("azk-execution-update-hub").setDaemon(true).build());
+      this.poller.scheduleWithFixedDelay(this::refreshFeeds, this.pollIntervalMs,
+          this.pollIntervalMs, TimeUnit.MILLISECONDS);
+    } else {
+      this.poller = null;
+    }
+  }
+
+  /**
+   * Build the update of a flow since the given update time: the status and times of the flow, and
+   * the nodes updated after lastUpdateTime along with the sub-flows containing them.
+   */
+  public static Map<String, Object> getExecutableFlowUpdateInfo(final ExecutableFlow flow,
+      final long lastUpdateTime) {
+    final Map<String, Object> map = getNodeUpdateInfo(flow, lastUpdateTime);
+    map.put("status", flow.getStatus());
+    map.put("startTime", flow.getStartTime());
+    map.put("endTime", flow.getEndTime());
+    map.put("updateTime", flow.getUpdateTime());
+    return map;
+  }
+
+  private static Map<String, Object> getNodeUpdateInfo(final ExecutableNode node,
+      final long lastUpdateTime) {
+    final HashMap<String, Object> nodeObj = new HashMap<>();
+    if (node instanceof ExecutableFlowBase) {
+      final ExecutableFlowBase base = (ExecutableFlowBase) node;
+      final List<Map<String, Object>> nodeList = new ArrayList<>();
+
+      for (final ExecutableNode subNode : base.getExecutableNodes()) {
+        final Map<String, Object> subNodeObj = getNodeUpdateInfo(subNode, lastUpdateTime);
+        if (!subNodeObj.isEmpty()) {
+          nodeList.add(subNodeObj);
+        }
+      }
+
+      if (!nodeList.isEmpty()) {
+        nodeObj.put("flow", base.getFlowId());
+        nodeObj.put("nodes", nodeList);
+      }
+    }
+
+    if (node.getUpdateTime() > lastUpdateTime || !nodeObj.isEmpty()) {
+      nodeObj.put("id", node.getId());
+      nodeObj.put("status", node.getStatus());
+      nodeObj.put("startTime", node.getStartTime());
+      nodeObj.put("endTime", node.getEndTime());
+      nodeObj.put("updateTime", node.getUpdateTime());
+
+      nodeObj.put("attempt", node.getAttempt());
+      if (node.getAttempt() > 0) {
+        nodeObj.put("pastAttempts", node.getAttemptObjects());
+      }
+    }
+
+    return nodeObj;
+  }
+
+  public boolean isEnabled() {
+    return this.maxSubscribers > 0;
+  }
+
+  /**
+   * Subscribe to the updates of an execution. The subscription must be closed once the caller is
+   * done waiting.
+   *
+   * @throws ExecutorManagerException if long-polling is disabled, the max number of subscribers
+   *     is reached or the flow can't be read.
+   */
+  public Subscription subscribe(final int execId) throws ExecutorManagerException {
+    if (!isEnabled()) {
+      throw new ExecutorManagerException("Execution updates are disabled");
+    }
+    if (this.subscribers.incrementAndGet() > this.maxSubscribers) {
+      this.subscribers.decrementAndGet();
+      this.rejectedMeter.mark();
+      throw new ExecutorManagerException("Too many subscribers to execution updates");
+    }
+
+    Feed feed;
+    while (true) {
+      feed = this.feeds.computeIfAbsent(execId, Feed::new);
+      synchronized (feed) {
+        if (!feed.closed) {
+          feed.subscribers++;
+          break;
+        }
+      }
+    }
+
+    final Subscription subscription = new Subscription(feed);
+    try {
+      refreshIfStale(feed);
+    } catch (final ExecutorManagerException | RuntimeException e) {
+      subscription.close();
+      throw e;
+    }
+    return subscription;
+  }
+
+  public void shutdown() {
+    if (this.poller != null) {
+      this.poller.shutdownNow();
+    }
+  }
+
+  @VisibleForTesting
+  int getFeedCount() {
+    return this.feeds.size();
+  }
+
+  @VisibleForTesting
+  void refreshFeeds() {
+    final long now = System.currentTimeMillis();
+    for (final Feed feed : this.feeds.values()) {
+      synchronized (feed) {
+        if (feed.subscribers == 0) {
+          if (now - feed.idleSinceMs > IDLE_FEED_EXPIRY_MS) {
+            feed.closed = true;
+            this.feeds.remove(feed.execId, feed);
+          }
+          continue;
+        }
+        if (feed.latest != null && Status.isStatusFinished(feed.latest.flow.getStatus())) {
+          continue;
+        }
+      }
+      try {
+        refresh(feed);
+      } catch (final Exception e) {
+        logger.warn("Failed to refresh the flow of execution " + feed.execId, e);
+      }
+    }
+  }
+
+  private void refreshIfStale(final Feed feed) throws ExecutorManagerException {
+    synchronized (feed.refreshLock) {
+      if (feed.latest == null
+          || System.currentTimeMillis() - feed.lastRefreshMs >= this.pollIntervalMs) {
+        refresh(feed);
+      }
+    }
+  }
+
+  private void refresh(final Feed feed) throws ExecutorManagerException {
+    synchronized (feed.refreshLock) {
+      final long startMs = System.currentTimeMillis();
+      final ExecutableFlow flow = this.flowCache.getExecutableFlow(feed.execId);
+      this.refreshTimeMs.update(System.currentTimeMillis() - startMs);
+      feed.lastRefreshMs = startMs;
+      if (flow == null) {
+        return;
+      }
+      final Update latest = feed.latest;
+      if (latest != null && latest.flow.getUpdateTime() == flow.getUpdateTime()
+          && latest.flow.getStatus() == flow.getStatus()) {
+        return;
+      }
+      synchronized (feed) {
+        feed.latest = new Update(flow);
+        feed.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * A published version of the flow of an execution.
+   */
+  public static final class Update {
+
+    private final ExecutableFlow flow;
+    private final long publishedNanos = System.nanoTime();
+    private final ConcurrentMap<Long, byte[]> jsonBySince = new ConcurrentHashMap<>();
+
+    private Update(final ExecutableFlow flow) {
+      this.flow = flow;
+    }
+
+    /**
+     * @return the flow, which must not be modified.
+     */
+    public ExecutableFlow getFlow() {
+      return this.flow;
+    }
+
+    /**
+     * @return the JSON of {@link #getExecutableFlowUpdateInfo} of the flow since lastUpdateTime,
+     *     which is shared by all subscribers asking for the same update time.
+     */
+    public byte[] toJson(final long lastUpdateTime) {
+      return this.jsonBySince.computeIfAbsent(lastUpdateTime,
+          since -> JSONUtils.toJSON(getExecutableFlowUpdateInfo(this.flow, since))
+              .getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * A subscriber's handle on the feed of an execution.
+   */
+  public final class Subscription implements AutoCloseable {
+
+    private final Feed feed;
+    private boolean closed;
+
+    private Subscription(final Feed feed) {
+      this.feed = feed;
+    }
+
+    /**
+     * @return the latest flow of the execution, or null if the execution doesn't exist.
+     */
+    public ExecutableFlow getFlow() {
+      final Update latest = this.feed.latest;
+      return latest == null ? null : latest.flow;
+    }
+
+    /**
+     * Wait until a flow updated after lastUpdateTime is published, the execution finishes or the
+     * timeout, capped at {@link #MAX_WAIT_MS}, expires.
+     *
+     * @return the latest update, or null if the execution doesn't exist.
+     */
+    public Update await(final long lastUpdateTime, final long timeoutMs)
+        throws ExecutorManagerException {
+      final long deadline = System.currentTimeMillis() + Math.min(timeoutMs, MAX_WAIT_MS);
+      boolean waited = false;
+      Update update;
+      synchronized (this.feed) {
+        update = this.feed.latest;
+        while (update != null && update.flow.getUpdateTime() <= lastUpdateTime
+            && !Status.isStatusFinished(update.flow.getStatus())) {
+          final long remainingMs = deadline - System.currentTimeMillis();
+          if (remainingMs <= 0) {
+            break;
+          }
+          try {
+            this.feed.wait(remainingMs);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorManagerException("Interrupted while waiting for execution updates",
+                e);
+          }
+          waited = true;
+          update = this.feed.latest;
+        }
+      }
+      if (waited && update != null && update.flow.getUpdateTime() > lastUpdateTime) {
+        ExecutionUpdateHub.this.fanOutLatencyMs.update(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - update.publishedNanos));
+      }
+      return update;
+    }
+
+    @Override
+    public void close() {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      synchronized (this.feed) {
+        if (--this.feed.subscribers == 0) {
+          this.feed.idleSinceMs = System.currentTimeMillis();
+        }
+      }
+      ExecutionUpdateHub.this.subscribers.decrementAndGet();
+    }
+  }
+
+  private static final class Feed {
+
+    private final int execId;
+    private final Object refreshLock = new Object();
+    // Guarded by this.
+    private int subscribers;
+    private boolean closed;
+    private long idleSinceMs;
+    // Written under both refreshLock and this.
+    private volatile Update latest;
+    private volatile long lastRefreshMs;
+
+    private Feed(final int execId) {
+      this.execId = execId;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.webapp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Props;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of requests to a group of routes served at a time, so that slow routes can't
+ * take all the threads of the jetty pool from the others. Requests wait in a bounded queue for at
+ * most a given time to be admitted, and are rejected otherwise.
+ */
+public class RequestBulkhead {
+
+  static final String ROUTES = ".routes";
+  static final String MAX_CONCURRENT = ".max.concurrent";
+  static final String MAX_QUEUED = ".max.queued";
+  static final String MAX_WAIT_MS = ".max.wait.ms";
+
+  private static final int DEFAULT_MAX_CONCURRENT = 10;
+  private static final int DEFAULT_MAX_QUEUED = 0;
+  private static final long DEFAULT_MAX_WAIT_MS = 1000;
+
+  private final String name;
+  private final int maxConcurrent;
+  private final int maxQueued;
+  private final long maxWaitMs;
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+
+  public RequestBulkhead(final String name, final int maxConcurrent, final int maxQueued,
+      final long maxWaitMs) {
+    checkArgument(maxConcurrent > 0, "Bulkhead %s must admit at least one request", name);
+    checkArgument(maxQueued >= 0 && maxWaitMs >= 0, "Invalid queue of bulkhead %s", name);
+    this.name = name;
+    this.maxConcurrent = maxConcurrent;
+    this.maxQueued = maxQueued;
+    this.maxWaitMs = maxWaitMs;
+    this.permits = new Semaphore(maxConcurrent, true);
+  }
+
+  /**
+   * Create the bulkheads configured by {@link ConfigurationKeys#AZKABAN_WEBSERVER_BULKHEADS}.
+   *
+   * @param routes the servlet paths of the web server
+   * @return the bulkhead of each route which has one
+   */
+  public static Map<String, RequestBulkhead> createByRoute(final Props props,
+      final Collection<String> routes) {
+    final Map<String, RequestBulkhead> bulkheads = new HashMap<>();
+    for (final String name : props.getStringList(ConfigurationKeys.AZKABAN_WEBSERVER_BULKHEADS)) {
+      final String prefix = ConfigurationKeys.AZKABAN_WEBSERVER_BULKHEAD_PREFIX + name;
+      final RequestBulkhead bulkhead = new RequestBulkhead(name,
+          props.getInt(prefix + MAX_CONCURRENT, DEFAULT_MAX_CONCURRENT),
+          props.getInt(prefix + MAX_QUEUED, DEFAULT_MAX_QUEUED),
+          props.getLong(prefix + MAX_WAIT_MS, DEFAULT_MAX_WAIT_MS));
+      for (final String route : props.getStringList(prefix + ROUTES)) {
+        checkArgument(routes.contains(route), "Unknown route %s of bulkhead %s", route, name);
+        final RequestBulkhead previous = bulkheads.put(route, bulkhead);
+        checkArgument(previous == null, "Route %s is in bulkheads %s and %s", route,
+            previous == null ? null : previous.getName(), name);
+      }
+    }
+    return bulkheads;
+  }
+
+  /**
+   * Wait for the bulkhead to admit a request. An admitted request must {@link #release()} it.
+   *
+   * @return the time waited in milliseconds, or -1 if the request is rejected.
+   */
+  public long acquire() throws InterruptedException {
+    if (this.permits.tryAcquire()) {
+      return 0;
+    }
+    if (this.queued.incrementAndGet() > this.maxQueued) {
+      this.queued.decrementAndGet();
+      return -1;
+    }
+    final long start = System.currentTimeMillis();
+    try {
+      if (!this.permits.tryAcquire(this.maxWaitMs, TimeUnit.MILLISECONDS)) {
+        return -1;
+      }
+    } finally {
+      this.queued.decrementAndGet();
+    }
+    return System.currentTimeMillis() - start;
+  }
+
+  public void release() {
+    this.permits.release();
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public int getMaxConcurrent() {
+    return this.maxConcurrent;
+  }
+
+  /**
+   * @return the number of requests being served.
+   */
+  public int getActiveCount() {
+    return this.maxConcurrent - this.permits.availablePermits();
+  }
+
+  /**
+   * @return the number of requests waiting to be admitted.
+   */
+  public int getQueuedCount() {
+    return this.queued.get();
+  }
+
+  /**
+   * @return the number of seconds after which a rejected request is advised to be retried.
+   */
+  public long getRetryAfterSeconds() {
+    return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(this.maxWaitMs));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s[maxConcurrent=%d, maxQueued=%d, maxWaitMs=%d]", this.name,
+        this.maxConcurrent, this.maxQueued, this.maxWaitMs);
+  }
+}
@@ -17,8 +17,14 @@
 
 package azkaban.webapp;
 
+import static azkaban.Constants.ConfigurationKeys.JETTY_ACCEPTORS;
+import static azkaban.Constants.ConfigurationKeys.JETTY_ACCEPT_QUEUE_SIZE;
+import static azkaban.Constants.ConfigurationKeys.JETTY_CONNECTOR_MAX_IDLE_TIME_MS;
+import static azkaban.Constants.ConfigurationKeys.JETTY_MAX_THREADS;
+import static azkaban.Constants.ConfigurationKeys.JETTY_MIN_THREADS;
 import static azkaban.Constants.ConfigurationKeys.JETTY_PORT;
 import static azkaban.Constants.ConfigurationKeys.JETTY_SSL_PORT;
+import static azkaban.Constants.ConfigurationKeys.JETTY_THREAD_MAX_IDLE_TIME_MS;
 import static azkaban.Constants.ConfigurationKeys.JETTY_USE_SSL;
 import static azkaban.Constants.DEFAULT_JETTY_MAX_THREAD_COUNT;
 import static azkaban.Constants.DEFAULT_PORT_NUMBER;
@@ -30,6 +36,7 @@ import azkaban.utils.Props;
 import com.google.inject.Provider;
 import javax.inject.Inject;
 import org.apache.log4j.Logger;
+import org.mortbay.jetty.AbstractConnector;
 import org.mortbay.jetty.Connector;
 import org.mortbay.jetty.Server;
 import org.mortbay.thread.QueuedThreadPool;
@@ -63,18 +70,49 @@ public class WebServerProvider implements Provider<Server> {
 
     // Configure the ThreadPool
     final int maxThreads = this.props
-        .getInt("jetty.maxThreads", DEFAULT_JETTY_MAX_THREAD_COUNT);
+        .getInt(JETTY_MAX_THREADS, DEFAULT_JETTY_MAX_THREAD_COUNT);
     final QueuedThreadPool threadPool = new QueuedThreadPool(maxThreads);
+    if (this.props.containsKey(JETTY_MIN_THREADS)) {
+      threadPool.setMinThreads(Math.min(this.props.getInt(JETTY_MIN_THREADS), maxThreads));
+    }
+    if (this.props.containsKey(JETTY_THREAD_MAX_IDLE_TIME_MS)) {
+      threadPool.setMaxIdleTimeMs(this.props.getInt(JETTY_THREAD_MAX_IDLE_TIME_MS));
+    }
     server.setThreadPool(threadPool);
 
     // setting stats configuration for connectors
     setStatsOnConnectors(server);
+    configureConnectors(server);
 
     logger.info(String.format(
         "Starting %sserver on port: %d # Max threads: %d", useSsl ? "SSL " : "", port, maxThreads));
     return server;
   }
 
+  /**
+   * Apply the optional connector settings. Jetty defaults are kept for the settings not given.
+   */
+  private void configureConnectors(final Server server) {
+    for (final Connector connector : server.getConnectors()) {
+      if (!(connector instanceof AbstractConnector)) {
+        continue;
+      }
+      final AbstractConnector abstractConnector = (AbstractConnector) connector;
+      if (this.props.containsKey(JETTY_ACCEPT_QUEUE_SIZE)) {
+        abstractConnector.setAcceptQueueSize(this.props.getInt(JETTY_ACCEPT_QUEUE_SIZE));
+      }
+      if (this.props.containsKey(JETTY_ACCEPTORS)) {
+        abstractConnector.setAcceptors(this.props.getInt(JETTY_ACCEPTORS));
+      }
+      if (this.props.containsKey(JETTY_CONNECTOR_MAX_IDLE_TIME_MS)) {
+        abstractConnector.setMaxIdleTime(this.props.getInt(JETTY_CONNECTOR_MAX_IDLE_TIME_MS));
+      }
+      logger.info(String.format("Connector %s: accept queue size: %d acceptors: %d max idle "
+              + "time: %d ms", abstractConnector.getName(), abstractConnector.getAcceptQueueSize(),
+          abstractConnector.getAcceptors(), abstractConnector.getMaxIdleTime()));
+    }
+  }
+
   private void setStatsOnConnectors(final Server server) {
     final boolean isStatsOn = this.props.getBoolean("jetty.connector.stats", true);
     logger.info("Setting up connector with stats on: " + isStatsOn);
@@ -18,6 +18,7 @@ package azkaban.webapp.metrics;
 
 import azkaban.metrics.AzkabanAPIMetrics;
 import azkaban.utils.Props;
+import azkaban.webapp.RequestBulkhead;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,4 +70,25 @@ public class DummyWebMetricsImpl implements WebMetrics {
       }
     };
   }
+
+  @Override
+  public RouteMetrics setUpRouteMetrics(final String route) {
+    return new RouteMetrics(null, null, null) {
+      @Override
+      public void addQueueTime(final long time) {
+      }
+
+      @Override
+      public void addServiceTime(final long time) {
+      }
+
+      @Override
+      public void markRejectedRequest() {
+      }
+    };
+  }
+
+  @Override
+  public void setUpBulkheadMetrics(final RequestBulkhead bulkhead) {
+  }
 }
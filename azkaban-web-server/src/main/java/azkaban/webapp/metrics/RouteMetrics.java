@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.webapp.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+
+/**
+ * Defines the metrics of the requests to a route of the web server.
+ */
+public class RouteMetrics {
+
+  private final Histogram queueTimeHistogram;
+  private final Histogram serviceTimeHistogram;
+  private final Meter rejectedRequestMeter;
+
+  public RouteMetrics(
+      final Histogram queueTimeHistogram,
+      final Histogram serviceTimeHistogram,
+      final Meter rejectedRequestMeter) {
+    this.queueTimeHistogram = queueTimeHistogram;
+    this.serviceTimeHistogram = serviceTimeHistogram;
+    this.rejectedRequestMeter = rejectedRequestMeter;
+  }
+
+  /**
+   * Record the time a request waited to be admitted by the bulkhead of the route.
+   */
+  public void addQueueTime(final long time) {
+    this.queueTimeHistogram.update(time);
+  }
+
+  public void addServiceTime(final long time) {
+    this.serviceTimeHistogram.update(time);
+  }
+
+  /**
+   * Mark a request rejected since the bulkhead of the route was saturated.
+   */
+  public void markRejectedRequest() {
+    this.rejectedRequestMeter.mark();
+  }
+}
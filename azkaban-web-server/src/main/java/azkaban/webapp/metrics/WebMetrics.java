@@ -18,6 +18,7 @@ package azkaban.webapp.metrics;
 
 import azkaban.metrics.AzkabanAPIMetrics;
 import azkaban.utils.Props;
+import azkaban.webapp.RequestBulkhead;
 
 /**
  * Defines all the metrics the Web server can emit.
@@ -30,6 +31,13 @@ public interface WebMetrics {
 
   AzkabanAPIMetrics setUpAzkabanAPIMetrics(final String endpointUri);
 
+  RouteMetrics setUpRouteMetrics(final String route);
+
+  /**
+   * Set up the gauges of the requests served and queued by a bulkhead.
+   */
+  void setUpBulkheadMetrics(final RequestBulkhead bulkhead);
+
   void markWebGetCall();
 
   void markWebPostCall();
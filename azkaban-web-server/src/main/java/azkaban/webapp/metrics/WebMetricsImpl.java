@@ -20,6 +20,7 @@ import azkaban.metrics.AzkabanAPIMetrics;
 import azkaban.metrics.CounterGauge;
 import azkaban.metrics.MetricsManager;
 import azkaban.utils.Props;
+import azkaban.webapp.RequestBulkhead;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import javax.inject.Inject;
@@ -100,4 +101,20 @@ public class WebMetricsImpl implements WebMetrics {
         nonAppPostRequestCount, responseTimeHistogram);
   }
 
+  @Override
+  public RouteMetrics setUpRouteMetrics(final String route) {
+    final String metricName = "route-" + route;
+    return new RouteMetrics(
+        this.metricsManager.addHistogram(metricName + "--queue-time-histogram"),
+        this.metricsManager.addHistogram(metricName + "--service-time-histogram"),
+        this.metricsManager.addMeter(metricName + "--rejected-req-meter"));
+  }
+
+  @Override
+  public void setUpBulkheadMetrics(final RequestBulkhead bulkhead) {
+    final String metricName = "bulkhead-" + bulkhead.getName();
+    this.metricsManager.addGauge(metricName + "--num-active-req", bulkhead::getActiveCount);
+    this.metricsManager.addGauge(metricName + "--num-queued-req", bulkhead::getQueuedCount);
+  }
+
 }
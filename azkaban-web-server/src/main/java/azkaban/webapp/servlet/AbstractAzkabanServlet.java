@@ -30,6 +30,7 @@ import azkaban.webapp.plugin.PluginRegistry;
 import azkaban.webapp.plugin.TriggerPlugin;
 import azkaban.webapp.plugin.ViewerPlugin;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -44,6 +45,7 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.codehaus.jackson.JsonGenerator;
 import org.joda.time.DateTime;
 
 /**
@@ -77,6 +79,7 @@ public abstract class AbstractAzkabanServlet extends HttpServlet {
   private List<TriggerPlugin> triggerPlugins;
 
   private int displayExecutionPageSize;
+  private boolean responseCompressionEnabled;
 
   private final List<AzkabanAPI> apiEndpoints;
 
@@ -119,6 +122,8 @@ public abstract class AbstractAzkabanServlet extends HttpServlet {
     this.depth = props.getString("azkaban.depth", "2");
     this.passwordPlaceholder = props.getString("azkaban.password.placeholder", "Password");
     this.displayExecutionPageSize = props.getInt(ConfigurationKeys.DISPLAY_EXECUTION_PAGE_SIZE, 16);
+    this.responseCompressionEnabled = props.getBoolean(
+        ConfigurationKeys.WEBSERVER_RESPONSE_COMPRESSION_ENABLED, true);
 
     this.viewerPlugins = PluginRegistry.getRegistry().getViewerPlugins();
     this.triggerPlugins = new ArrayList<>(this.application.getTriggerPlugins().values());
@@ -381,7 +386,29 @@ public abstract class AbstractAzkabanServlet extends HttpServlet {
   protected void writeJSON(final HttpServletResponse resp, final Object obj, final boolean pretty)
       throws IOException {
     resp.setContentType(JSON_MIME_TYPE);
-    JSONUtils.toJSON(obj, resp.getOutputStream(), true);
+    JSONUtils.toJSON(obj, resp.getOutputStream(), pretty);
+  }
+
+  /**
+   * Writes compact json out to the stream, compressed if the client accepts it.
+   */
+  protected void writeJSON(final HttpServletRequest req, final HttpServletResponse resp,
+      final Object obj) throws IOException {
+    writeJSON(req, resp, generator -> generator.writeObject(obj));
+  }
+
+  /**
+   * Streams compact json out to the stream, compressed if the client accepts it. Large responses
+   * can be written field by field with the generator instead of being built as maps first.
+   */
+  protected void writeJSON(final HttpServletRequest req, final HttpServletResponse resp,
+      final JsonWriter writer) throws IOException {
+    resp.setContentType(JSON_MIME_TYPE);
+    try (final OutputStream out = this.responseCompressionEnabled
+        ? ResponseCompression.open(req, resp) : resp.getOutputStream();
+        final JsonGenerator generator = JSONUtils.createGenerator(out)) {
+      writer.write(generator);
+    }
   }
 
   protected int getDisplayExecutionPageSize() {
@@ -405,6 +432,15 @@ public abstract class AbstractAzkabanServlet extends HttpServlet {
     return JSONUtils.toJSON(response);
   }
 
+  /**
+   * Writes a json response field by field.
+   */
+  @FunctionalInterface
+  protected interface JsonWriter {
+
+    void write(JsonGenerator generator) throws IOException;
+  }
+
   public Optional<AzkabanAPI> getAzkabanAPI(final HttpServletRequest request) {
     // Inspect parameters contained in the query string or posted form data
     for (final AzkabanAPI api : getApiEndpoints()) {
@@ -16,10 +16,12 @@
 package azkaban.webapp.servlet;
 
 import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.executor.ClusterInfo;
 import azkaban.executor.ConnectorParams;
 import azkaban.executor.ExecutableFlow;
 import azkaban.executor.ExecutableFlowBase;
+import azkaban.executor.ExecutableFlowCache;
 import azkaban.executor.ExecutableNode;
 import azkaban.executor.ExecutionOptions;
 import azkaban.executor.ExecutionOptions.FailureAction;
@@ -50,14 +52,20 @@ import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.webapp.AzkabanWebServer;
+import azkaban.webapp.ExecutionUpdateHub;
 import azkaban.webapp.plugin.PluginRegistry;
 import azkaban.webapp.plugin.ViewerPlugin;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -71,11 +79,13 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
 
   private static final String API_FETCH_EXEC_FLOW = "fetchexecflow";
   private static final String API_FETCH_EXEC_FLOW_UPDATE = "fetchexecflowupdate";
+  private static final String API_AWAIT_EXEC_FLOW_UPDATE = "awaitexecflowupdate";
   private static final String API_CANCEL_FLOW = "cancelFlow";
   private static final String API_PAUSE_FLOW = "pauseFlow";
   private static final String API_RESUME_FLOW = "resumeFlow";
   private static final String API_FETCH_EXEC_FLOW_LOGS = "fetchExecFlowLogs";
   private static final String API_FETCH_EXEC_JOB_LOGS = "fetchExecJobLogs";
+  private static final String API_STREAM_EXEC_LOGS = "streamExecLogs";
   private static final String API_FETCH_EXEC_JOB_STATS = "fetchExecJobStats";
   private static final String API_RETRY_FAILED_JOBS = "retryFailedJobs";
   private static final String API_FLOW_INFO = "flowInfo";
@@ -88,13 +98,24 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
   private static final String API_RAMP = "ramp";
   private static final String API_UPDATE_PROP = "updateProp";
 
+  // Actions which only read the execution, and so may be served from the ExecutableFlowCache.
+  private static final Set<String> READ_ONLY_EXEC_APIS = ImmutableSet.of(API_FETCH_EXEC_FLOW,
+      API_FETCH_EXEC_FLOW_UPDATE, API_FETCH_EXEC_FLOW_LOGS, API_FETCH_EXEC_JOB_LOGS,
+      API_STREAM_EXEC_LOGS, API_FETCH_EXEC_JOB_STATS, API_FLOW_INFO);
+
   private static final Logger logger = LoggerFactory.getLogger(ExecutorServlet.class.getName());
+  private static final int DEFAULT_MAX_LOG_FOLLOWERS = 5;
+  private static final int SC_TOO_MANY_REQUESTS = 429;
+  private static final long LOG_FOLLOW_RETRY_AFTER_SECONDS = 5;
   private static final long serialVersionUID = 1L;
   private ProjectManager projectManager;
   private FlowTriggerService flowTriggerService;
   private ExecutorManagerAdapter executorManagerAdapter;
+  private ExecutableFlowCache executableFlowCache;
+  private ExecutionUpdateHub executionUpdateHub;
   private ScheduleManager scheduleManager;
   private UserManager userManager;
+  private Semaphore logFollowers;
 
   public ExecutorServlet() {
     super(createAPIEndpoints());
@@ -107,19 +128,25 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     this.userManager = server.getUserManager();
     this.projectManager = server.getProjectManager();
     this.executorManagerAdapter = server.getExecutorManager();
+    this.executableFlowCache = server.getExecutableFlowCache();
+    this.executionUpdateHub = server.getExecutionUpdateHub();
     this.scheduleManager = server.getScheduleManager();
     this.flowTriggerService = server.getFlowTriggerService();
+    this.logFollowers = new Semaphore(server.getServerProps().getInt(
+        ConfigurationKeys.WEBSERVER_LOG_STREAM_MAX_FOLLOWERS, DEFAULT_MAX_LOG_FOLLOWERS));
   }
 
   private static List<AzkabanAPI> createAPIEndpoints() {
     final List<AzkabanAPI> apiEndpoints = new ArrayList<>();
     apiEndpoints.add(new AzkabanAPI("ajax", API_FETCH_EXEC_FLOW));
     apiEndpoints.add(new AzkabanAPI("ajax", API_FETCH_EXEC_FLOW_UPDATE));
+    apiEndpoints.add(new AzkabanAPI("ajax", API_AWAIT_EXEC_FLOW_UPDATE));
     apiEndpoints.add(new AzkabanAPI("ajax", API_CANCEL_FLOW));
     apiEndpoints.add(new AzkabanAPI("ajax", API_PAUSE_FLOW));
     apiEndpoints.add(new AzkabanAPI("ajax", API_RESUME_FLOW));
     apiEndpoints.add(new AzkabanAPI("ajax", API_FETCH_EXEC_FLOW_LOGS));
     apiEndpoints.add(new AzkabanAPI("ajax", API_FETCH_EXEC_JOB_LOGS));
+    apiEndpoints.add(new AzkabanAPI("ajax", API_STREAM_EXEC_LOGS));
     apiEndpoints.add(new AzkabanAPI("ajax", API_FETCH_EXEC_JOB_STATS));
     apiEndpoints.add(new AzkabanAPI("ajax", API_RETRY_FAILED_JOBS));
     apiEndpoints.add(new AzkabanAPI("ajax", API_FLOW_INFO));
@@ -157,12 +184,17 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     final HashMap<String, Object> ret = new HashMap<>();
     final String ajaxName = getParam(req, "ajax");
 
-    if (hasParam(req, "execid")) {
+    if (API_AWAIT_EXEC_FLOW_UPDATE.equals(ajaxName)) {
+      if (ajaxAwaitExecutableFlowUpdate(req, resp, ret, session.getUser())) {
+        // The shared JSON of the update has been written to the response.
+        return;
+      }
+    } else if (hasParam(req, "execid")) {
       final int execid = getIntParam(req, "execid");
       ExecutableFlow exFlow = null;
 
       try {
-        exFlow = this.executorManagerAdapter.getExecutableFlow(execid);
+        exFlow = fetchExecutableFlow(ajaxName, execid);
       } catch (final ExecutorManagerException e) {
         ret.put("error",
             "Error fetching execution '" + execid + "': " + e.getMessage());
@@ -172,7 +204,10 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
         ret.put("error", "Cannot find execution '" + execid + "'");
       } else {
         if (API_FETCH_EXEC_FLOW.equals(ajaxName)) {
-          ajaxFetchExecutableFlow(req, resp, ret, session.getUser(), exFlow);
+          if (ajaxFetchExecutableFlow(req, resp, ret, session.getUser(), exFlow)) {
+            // The flow has been streamed to the response.
+            return;
+          }
         } else if (API_FETCH_EXEC_FLOW_UPDATE.equals(ajaxName)) {
           ajaxFetchExecutableFlowUpdate(req, resp, ret, session.getUser(),
               exFlow);
@@ -186,6 +221,11 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
           ajaxFetchExecFlowLogs(req, resp, ret, session.getUser(), exFlow);
         } else if (API_FETCH_EXEC_JOB_LOGS.equals(ajaxName)) {
           ajaxFetchJobLogs(req, resp, ret, session.getUser(), exFlow);
+        } else if (API_STREAM_EXEC_LOGS.equals(ajaxName)) {
+          if (ajaxStreamExecLogs(req, resp, ret, session.getUser(), exFlow)) {
+            // The log has been written to the response as plain text.
+            return;
+          }
         } else if (API_FETCH_EXEC_JOB_STATS.equals(ajaxName)) {
           ajaxFetchJobStats(req, resp, ret, session.getUser(), exFlow);
         } else if (API_RETRY_FAILED_JOBS.equals(ajaxName)) {
@@ -225,7 +265,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       }
     }
     if (ret != null) {
-      this.writeJSON(resp, ret);
+      this.writeJSON(req, resp, ret);
     }
   }
 
@@ -287,8 +327,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       ret.put("projectId", exFlow.getProjectId());
       ret.put("project", project.getName());
       FlowUtils.applyDisabledJobs(executionOptions.getDisabledJobs(), exFlow);
-      final Map<String, Object> flowObj = getExecutableNodeInfo(exFlow);
-      ret.putAll(flowObj);
+      JsonFields.fill(ret, exFlow, ExecutorServlet::fillExecutableNodeInfo);
     } catch (final ScheduleManagerException ex) {
       throw new ServletException(ex);
     }
@@ -624,6 +663,87 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     }
   }
 
+  /**
+   * Read-only actions are served from the ExecutableFlowCache if it is enabled. Actions which may
+   * modify the flow always read it from the DB.
+   */
+  private ExecutableFlow fetchExecutableFlow(final String ajaxName, final int execId)
+      throws ExecutorManagerException {
+    if (this.executableFlowCache != null && this.executableFlowCache.isEnabled()
+        && READ_ONLY_EXEC_APIS.contains(ajaxName)) {
+      return this.executableFlowCache.getExecutableFlow(execId);
+    }
+    return this.executorManagerAdapter.getExecutableFlow(execId);
+  }
+
+  /**
+   * Streams a byte range of the flow log, or of a job log if jobId is set, as plain text. Unlike
+   * fetchExecFlowLogs and fetchExecJobLogs, the log is passed through from the executor without
+   * being decoded or wrapped in JSON, and the offset and length of the returned range are sent in
+   * response headers. With follow=true, a request at the end of the log of a running execution
+   * returns as soon as bytes are appended. As a follower holds a thread of this server and one of
+   * the executor while it waits, the number of followers served at a time is bounded by
+   * {@link ConfigurationKeys#WEBSERVER_LOG_STREAM_MAX_FOLLOWERS} and further ones are rejected
+   * with 429.
+   *
+   * @return false if nothing was written to the response and ret holds the error.
+   */
+  private boolean ajaxStreamExecLogs(final HttpServletRequest req,
+      final HttpServletResponse resp, final HashMap<String, Object> ret, final User user,
+      final ExecutableFlow exFlow) throws ServletException, IOException {
+    final Project project = getProjectAjaxByPermission(ret, exFlow.getProjectId(), user, Type.READ);
+    if (project == null) {
+      return false;
+    }
+
+    final int offset = this.getIntParam(req, "offset");
+    final int length = this.getIntParam(req, "length");
+    final boolean follow = HttpRequestUtils.getBooleanParam(req, "follow", false);
+    final String jobId = this.getParam(req, "jobId", null);
+    int attempt = 0;
+    if (jobId != null) {
+      final ExecutableNode node = exFlow.getExecutableNodePath(jobId);
+      if (node == null) {
+        ret.put("error", "Job " + jobId + " doesn't exist in " + exFlow.getExecutionId());
+        return false;
+      }
+      attempt = this.getIntParam(req, "attempt", node.getAttempt());
+    }
+
+    if (follow && !this.logFollowers.tryAcquire()) {
+      resp.setHeader("Retry-After", String.valueOf(LOG_FOLLOW_RETRY_AFTER_SECONDS));
+      resp.sendError(SC_TOO_MANY_REQUESTS,
+          "Too many clients are following logs, please retry later or without follow.");
+      return true;
+    }
+    final AtomicBoolean opened = new AtomicBoolean(false);
+    try {
+      this.executorManagerAdapter.streamExecutionLog(exFlow, jobId, offset, length, attempt,
+          follow, (rangeOffset, rangeLength) -> {
+            opened.set(true);
+            resp.setContentType(Constants.CONTENT_TYPE_TEXT_PLAIN);
+            resp.setCharacterEncoding(Constants.CHARACTER_ENCODING_UTF_8);
+            resp.setHeader("X-Content-Type-Options", "nosniff");
+            resp.setHeader(ConnectorParams.LOG_OFFSET_HEADER, String.valueOf(rangeOffset));
+            resp.setHeader(ConnectorParams.LOG_LENGTH_HEADER, String.valueOf(rangeLength));
+            resp.setContentLength(rangeLength);
+            return resp.getOutputStream();
+          });
+      return true;
+    } catch (final ExecutorManagerException e) {
+      if (opened.get()) {
+        logger.error("Failed to stream logs of execution " + exFlow.getExecutionId(), e);
+        return true;
+      }
+      ret.put("error", e.getMessage());
+      return false;
+    } finally {
+      if (follow) {
+        this.logFollowers.release();
+      }
+    }
+  }
+
   private Map<String, Object> appendLogData(final LogData data, final int defaultOffset) {
     final Map<String, Object> parameters = new HashMap<>();
 
@@ -831,89 +951,45 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     }
   }
 
-  private Map<String, Object> getExecutableFlowUpdateInfo(final ExecutableNode node,
-      final long lastUpdateTime) {
-    final HashMap<String, Object> nodeObj = new HashMap<>();
-    if (node instanceof ExecutableFlowBase) {
-      final ExecutableFlowBase base = (ExecutableFlowBase) node;
-      final ArrayList<Map<String, Object>> nodeList =
-          new ArrayList<>();
-
-      for (final ExecutableNode subNode : base.getExecutableNodes()) {
-        final Map<String, Object> subNodeObj =
-            getExecutableFlowUpdateInfo(subNode, lastUpdateTime);
-        if (!subNodeObj.isEmpty()) {
-          nodeList.add(subNodeObj);
-        }
-      }
-
-      if (!nodeList.isEmpty()) {
-        nodeObj.put("flow", base.getFlowId());
-        nodeObj.put("nodes", nodeList);
-      }
-    }
-
-    if (node.getUpdateTime() > lastUpdateTime || !nodeObj.isEmpty()) {
-      nodeObj.put("id", node.getId());
-      nodeObj.put("status", node.getStatus());
-      nodeObj.put("startTime", node.getStartTime());
-      nodeObj.put("endTime", node.getEndTime());
-      nodeObj.put("updateTime", node.getUpdateTime());
-
-      nodeObj.put("attempt", node.getAttempt());
-      if (node.getAttempt() > 0) {
-        nodeObj.put("pastAttempts", node.getAttemptObjects());
-      }
-    }
-
-    return nodeObj;
-  }
-
-  private Map<String, Object> getExecutableNodeInfo(final ExecutableNode node) {
-    final HashMap<String, Object> nodeObj = new HashMap<>();
-    nodeObj.put("id", node.getId());
-    nodeObj.put("status", node.getStatus());
-    nodeObj.put("startTime", node.getStartTime());
-    nodeObj.put("endTime", node.getEndTime());
-    nodeObj.put("updateTime", node.getUpdateTime());
-    nodeObj.put("type", node.getType());
+  /**
+   * Fill the fields of the node, and of its sub-nodes if it is a flow. Both the map built by
+   * fetchscheduledflowgraph and the json streamed by fetchexecflow are filled by this method.
+   */
+  @VisibleForTesting
+  static void fillExecutableNodeInfo(final ExecutableNode node, final JsonFields fields)
+      throws IOException {
+    fields.put("id", node.getId());
+    fields.put("status", node.getStatus());
+    fields.put("startTime", node.getStartTime());
+    fields.put("endTime", node.getEndTime());
+    fields.put("updateTime", node.getUpdateTime());
+    fields.put("type", node.getType());
     if (node.getCondition() != null) {
-      nodeObj.put("condition", node.getCondition());
+      fields.put("condition", node.getCondition());
     }
-    nodeObj.put("nestedId", node.getNestedId());
+    fields.put("nestedId", node.getNestedId());
 
-    nodeObj.put("attempt", node.getAttempt());
+    fields.put("attempt", node.getAttempt());
     if (node.getAttempt() > 0) {
-      nodeObj.put("pastAttempts", node.getAttemptObjects());
+      fields.put("pastAttempts", node.getAttemptObjects());
     }
 
     if (node.getInNodes() != null && !node.getInNodes().isEmpty()) {
-      nodeObj.put("in", node.getInNodes());
+      fields.put("in", node.getInNodes());
     }
 
     if (node instanceof ExecutableFlowBase) {
       final ExecutableFlowBase base = (ExecutableFlowBase) node;
-      final ArrayList<Map<String, Object>> nodeList =
-          new ArrayList<>();
-
-      for (final ExecutableNode subNode : base.getExecutableNodes()) {
-        final Map<String, Object> subNodeObj = getExecutableNodeInfo(subNode);
-        if (!subNodeObj.isEmpty()) {
-          nodeList.add(subNodeObj);
-        }
-      }
-
-      nodeObj.put("flow", base.getFlowId());
-      nodeObj.put("nodes", nodeList);
-      nodeObj.put("flowId", base.getFlowId());
+      fields.putObjects("nodes", base.getExecutableNodes(),
+          ExecutorServlet::fillExecutableNodeInfo);
+      fields.put("flow", base.getFlowId());
+      fields.put("flowId", base.getFlowId());
     } else {
-      ClusterInfo cluster = node.getClusterInfo();
+      final ClusterInfo cluster = node.getClusterInfo();
       if (cluster != null && cluster.hadoopClusterURL != null) {
-        nodeObj.put("cluster", cluster.hadoopClusterURL);
+        fields.put("cluster", cluster.hadoopClusterURL);
       }
     }
-
-    return nodeObj;
   }
 
   private void ajaxFetchExecutableFlowUpdate(final HttpServletRequest req,
@@ -928,34 +1004,79 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       return;
     }
 
-    final Map<String, Object> map =
-        getExecutableFlowUpdateInfo(exFlow, lastUpdateTime);
-    map.put("status", exFlow.getStatus());
-    map.put("startTime", exFlow.getStartTime());
-    map.put("endTime", exFlow.getEndTime());
-    map.put("updateTime", exFlow.getUpdateTime());
-    ret.putAll(map);
+    ret.putAll(ExecutionUpdateHub.getExecutableFlowUpdateInfo(exFlow, lastUpdateTime));
+  }
+
+  /**
+   * Long-polling variant of fetchexecflowupdate: waits until the execution is updated after
+   * lastUpdateTime, it finishes or timeoutMs expires, then returns the same update. The update is
+   * published by the {@link ExecutionUpdateHub}, which reads each watched execution once for all
+   * its subscribers.
+   *
+   * @return false if nothing was written to the response and ret holds the error.
+   */
+  private boolean ajaxAwaitExecutableFlowUpdate(final HttpServletRequest req,
+      final HttpServletResponse resp, final HashMap<String, Object> ret, final User user)
+      throws ServletException, IOException {
+    final int execId = getIntParam(req, "execid");
+    final long lastUpdateTime = getLongParam(req, "lastUpdateTime");
+    final long timeoutMs = getLongParam(req, "timeoutMs", ExecutionUpdateHub.MAX_WAIT_MS);
+
+    final ExecutionUpdateHub.Update update;
+    try (final ExecutionUpdateHub.Subscription subscription =
+        this.executionUpdateHub.subscribe(execId)) {
+      final ExecutableFlow exFlow = subscription.getFlow();
+      if (exFlow == null) {
+        ret.put("error", "Cannot find execution '" + execId + "'");
+        return false;
+      }
+      if (getProjectAjaxByPermission(ret, exFlow.getProjectId(), user, Type.READ) == null) {
+        return false;
+      }
+      update = subscription.await(lastUpdateTime, timeoutMs);
+    } catch (final ExecutorManagerException e) {
+      ret.put("error", e.getMessage());
+      return false;
+    }
+
+    resp.setContentType(JSON_MIME_TYPE);
+    resp.getOutputStream().write(update.toJson(lastUpdateTime));
+    return true;
   }
 
-  private void ajaxFetchExecutableFlow(final HttpServletRequest req,
+  /**
+   * Streams the flow of the execution to the response, without building its nodes as maps first.
+   * Finished executions don't change anymore, so they are tagged for browsers to revalidate.
+   *
+   * @return false if nothing was written to the response and ret holds the error.
+   */
+  private boolean ajaxFetchExecutableFlow(final HttpServletRequest req,
       final HttpServletResponse resp, final HashMap<String, Object> ret, final User user,
-      final ExecutableFlow exFlow) throws ServletException {
+      final ExecutableFlow exFlow) throws ServletException, IOException {
     logger.info("Fetching " + exFlow.getExecutionId());
 
     final Project project =
         getProjectAjaxByPermission(ret, exFlow.getProjectId(), user, Type.READ);
     if (project == null) {
-      return;
+      return false;
     }
 
-    ret.put("submitTime", exFlow.getSubmitTime());
-    ret.put("submitUser", exFlow.getSubmitUser());
-    ret.put("execid", exFlow.getExecutionId());
-    ret.put("projectId", exFlow.getProjectId());
-    ret.put("project", project.getName());
+    if (Status.isStatusFinished(exFlow.getStatus()) && ResponseCompression.checkNotModified(
+        req, resp, "exec-" + exFlow.getExecutionId() + "-" + exFlow.getUpdateTime())) {
+      return true;
+    }
 
-    final Map<String, Object> flowObj = getExecutableNodeInfo(exFlow);
-    ret.putAll(flowObj);
+    writeJSON(req, resp, generator -> {
+      generator.writeStartObject();
+      generator.writeNumberField("submitTime", exFlow.getSubmitTime());
+      generator.writeStringField("submitUser", exFlow.getSubmitUser());
+      generator.writeNumberField("execid", exFlow.getExecutionId());
+      generator.writeNumberField("projectId", exFlow.getProjectId());
+      generator.writeStringField("project", project.getName());
+      JsonFields.write(generator, exFlow, ExecutorServlet::fillExecutableNodeInfo);
+      generator.writeEndObject();
+    });
+    return true;
   }
 
   private void ajaxExecuteFlow(final HttpServletRequest req,
@@ -86,7 +86,7 @@ public class HistoryServlet extends LoginAbstractAzkabanServlet {
     }
 
     if (ret != null) {
-      this.writeJSON(resp, ret);
+      this.writeJSON(req, resp, ret);
     }
   }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.webapp.servlet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.codehaus.jackson.JsonGenerator;
+
+/**
+ * The fields of a json object, which are either put into a map or streamed with a
+ * {@link JsonGenerator}. Responses which are built both ways fill their fields through this class,
+ * so that the map and the streamed json always hold the same fields.
+ */
+abstract class JsonFields {
+
+  /**
+   * Fills the fields of the json object of an item.
+   */
+  @FunctionalInterface
+  interface Filler<T> {
+
+    void fill(T item, JsonFields fields) throws IOException;
+  }
+
+  /**
+   * Put the fields of the item into the map.
+   */
+  static <T> void fill(final Map<String, Object> map, final T item, final Filler<T> filler) {
+    try {
+      filler.fill(item, new MapFields(map));
+    } catch (final IOException e) {
+      // Only the generator writes any IO.
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Write the fields of the item into the current object of the generator.
+   */
+  static <T> void write(final JsonGenerator generator, final T item, final Filler<T> filler)
+      throws IOException {
+    filler.fill(item, new GeneratorFields(generator));
+  }
+
+  abstract void put(String name, Object value) throws IOException;
+
+  /**
+   * Put an array with the json object of each item, filled by the filler.
+   */
+  abstract <T> void putObjects(String name, Iterable<T> items, Filler<T> filler)
+      throws IOException;
+
+  private static class MapFields extends JsonFields {
+
+    private final Map<String, Object> map;
+
+    MapFields(final Map<String, Object> map) {
+      this.map = map;
+    }
+
+    @Override
+    void put(final String name, final Object value) {
+      this.map.put(name, value);
+    }
+
+    @Override
+    <T> void putObjects(final String name, final Iterable<T> items, final Filler<T> filler)
+        throws IOException {
+      final List<Map<String, Object>> objects = new ArrayList<>();
+      for (final T item : items) {
+        final Map<String, Object> object = new HashMap<>();
+        filler.fill(item, new MapFields(object));
+        objects.add(object);
+      }
+      this.map.put(name, objects);
+    }
+  }
+
+  private static class GeneratorFields extends JsonFields {
+
+    private final JsonGenerator generator;
+
+    GeneratorFields(final JsonGenerator generator) {
+      this.generator = generator;
+    }
+
+    @Override
+    void put(final String name, final Object value) throws IOException {
+      this.generator.writeObjectField(name, value);
+    }
+
+    @Override
+    <T> void putObjects(final String name, final Iterable<T> items, final Filler<T> filler)
+        throws IOException {
+      this.generator.writeArrayFieldStart(name);
+      for (final T item : items) {
+        this.generator.writeStartObject();
+        filler.fill(item, this);
+        this.generator.writeEndObject();
+      }
+      this.generator.writeEndArray();
+    }
+  }
+}
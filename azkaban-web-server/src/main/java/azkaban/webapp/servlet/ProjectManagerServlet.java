@@ -34,6 +34,7 @@ import azkaban.project.ProjectLogEvent;
 import azkaban.project.ProjectLogEvent.EventType;
 import azkaban.project.ProjectManager;
 import azkaban.project.ProjectManagerException;
+import azkaban.project.ProjectUploadTimer;
 import azkaban.project.ProjectWhitelist;
 import azkaban.project.validator.ValidationReport;
 import azkaban.project.validator.ValidatorConfigs;
@@ -326,8 +327,10 @@ public class ProjectManagerServlet extends LoginAbstractAzkabanServlet {
           ajaxFetchFlowDetails(project, ret, req);
         }
       } else if (API_FETCH_FLOW_GRAPH.equals(ajaxName)) {
-        if (handleAjaxPermission(project, user, Type.READ, ret)) {
-          ajaxFetchFlowGraph(project, ret, req);
+        if (handleAjaxPermission(project, user, Type.READ, ret)
+            && ajaxFetchFlowGraph(project, ret, req, resp)) {
+          // The graph has been streamed to the response.
+          return;
         }
       } else if (API_FETCH_FLOW_NODE_DATA.equals(ajaxName)) {
         if (handleAjaxPermission(project, user, Type.READ, ret)) {
@@ -887,58 +890,82 @@ public class ProjectManagerServlet extends LoginAbstractAzkabanServlet {
     ret.put("flows", flowList);
   }
 
-  private void ajaxFetchFlowGraph(final Project project, final HashMap<String, Object> ret,
-      final HttpServletRequest req) throws ServletException {
+  /**
+   * Streams the graph of the flow to the response, without building its nodes as maps first. The
+   * graph only changes with the project version, which tags the response for browsers to
+   * revalidate.
+   *
+   * @return false if nothing was written to the response and ret holds the error.
+   */
+  private boolean ajaxFetchFlowGraph(final Project project, final HashMap<String, Object> ret,
+      final HttpServletRequest req, final HttpServletResponse resp)
+      throws ServletException, IOException {
     final String flowId = getParam(req, "flow");
+    if (project.getFlow(flowId) == null) {
+      ret.put(ERROR_PARAM,
+          "Flow " + flowId + " not found in project " + project.getName());
+      return false;
+    }
+
+    if (ResponseCompression.checkNotModified(req, resp,
+        "flowgraph-" + project.getId() + "-" + project.getVersion() + "-" + flowId)) {
+      return true;
+    }
 
-    fillFlowInfo(project, flowId, ret);
+    writeJSON(req, resp, generator -> {
+      generator.writeStartObject();
+      for (final Map.Entry<String, Object> entry : ret.entrySet()) {
+        generator.writeObjectField(entry.getKey(), entry.getValue());
+      }
+      JsonFields.write(generator, flowId, (id, fields) -> fillFlowInfo(project, id, fields));
+      generator.writeEndObject();
+    });
+    return true;
   }
 
   private void fillFlowInfo(final Project project, final String flowId,
       final HashMap<String, Object> ret) {
+    JsonFields.fill(ret, flowId, (id, fields) -> fillFlowInfo(project, id, fields));
+  }
+
+  /**
+   * Fill the graph of the flow, sorted by node id. Both the map built by fetchflownodedata and the
+   * json streamed by fetchflowgraph are filled by this method.
+   */
+  @VisibleForTesting
+  static void fillFlowInfo(final Project project, final String flowId, final JsonFields fields)
+      throws IOException {
     final Flow flow = project.getFlow(flowId);
     if (flow == null) {
-      ret.put(ERROR_PARAM,
-          "Flow " + flowId + " not found in project " + project.getName());
+      fields.put(ERROR_PARAM, "Flow " + flowId + " not found in project " + project.getName());
       return;
     }
 
-    final ArrayList<Map<String, Object>> nodeList =
-        new ArrayList<>();
-    for (final Node node : flow.getNodes()) {
-      final HashMap<String, Object> nodeObj = new HashMap<>();
-      nodeObj.put("id", node.getId());
-      nodeObj.put("type", node.getType());
+    final List<Node> nodes = new ArrayList<>(flow.getNodes());
+    nodes.sort(Comparator.comparing(Node::getId));
+
+    fields.put("flow", flowId);
+    fields.putObjects("nodes", nodes, (node, nodeFields) -> {
+      nodeFields.put("id", node.getId());
+      nodeFields.put("type", node.getType());
       if (node.getCondition() != null) {
-        nodeObj.put("condition", node.getCondition());
+        nodeFields.put("condition", node.getCondition());
       }
       if (node.getEmbeddedFlowId() != null) {
-        nodeObj.put(FLOW_ID_PARAM, node.getEmbeddedFlowId());
-        fillFlowInfo(project, node.getEmbeddedFlowId(), nodeObj);
+        nodeFields.put(FLOW_ID_PARAM, node.getEmbeddedFlowId());
+        fillFlowInfo(project, node.getEmbeddedFlowId(), nodeFields);
       }
 
-      nodeList.add(nodeObj);
       final Set<Edge> inEdges = flow.getInEdges(node.getId());
       if (inEdges != null && !inEdges.isEmpty()) {
-        final ArrayList<String> inEdgesList = new ArrayList<>();
+        final List<String> inEdgesList = new ArrayList<>();
         for (final Edge edge : inEdges) {
           inEdgesList.add(edge.getSourceId());
         }
         Collections.sort(inEdgesList);
-        nodeObj.put("in", inEdgesList);
-      }
-    }
-
-    Collections.sort(nodeList, new Comparator<Map<String, Object>>() {
-      @Override
-      public int compare(final Map<String, Object> o1, final Map<String, Object> o2) {
-        final String id = (String) o1.get("id");
-        return id.compareTo((String) o2.get("id"));
+        nodeFields.put("in", inEdgesList);
       }
     });
-
-    ret.put("flow", flowId);
-    ret.put("nodes", nodeList);
   }
 
   private void ajaxFetchFlowNodeData(final Project project,
@@ -1915,8 +1942,11 @@ public class ProjectManagerServlet extends LoginAbstractAzkabanServlet {
       // get the locked flows for the project, so that they can be locked again after upload
       final List<Pair<String, String>> lockedFlows = getLockedFlows(project);
 
+      final ProjectUploadTimer timer = new ProjectUploadTimer();
       final Map<String, ValidationReport> reports = this.projectManager
-          .uploadProject(project, archiveFile, lowercaseExtension, user, props, uploaderIPAddr);
+          .uploadProject(project, archiveFile, lowercaseExtension, user, props, uploaderIPAddr,
+              timer);
+      ret.put("phaseTimesMs", timer.getPhaseTimesMs());
       if (this.enableQuartz) {
         this.scheduler.schedule(project, user.getUserId());
       }
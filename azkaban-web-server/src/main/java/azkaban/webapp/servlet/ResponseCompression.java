@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.webapp.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Content-Encoding negotiation and ETag validation for servlet responses.
+ */
+public final class ResponseCompression {
+
+  public static final String GZIP = "gzip";
+  public static final String DEFLATE = "deflate";
+
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  private ResponseCompression() {
+  }
+
+  /**
+   * Pick the encoding of the response from an Accept-Encoding header. gzip is preferred over
+   * deflate when both are accepted, and an encoding with q=0 is not accepted.
+   *
+   * @return {@link #GZIP}, {@link #DEFLATE} or null for the identity encoding.
+   */
+  static String negotiate(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    boolean gzip = false;
+    boolean deflate = false;
+    for (final String part : acceptEncoding.split(",")) {
+      final String[] tokens = part.trim().split(";");
+      final String coding = tokens[0].trim().toLowerCase();
+      if (!isAccepted(tokens)) {
+        continue;
+      }
+      if (GZIP.equals(coding) || "x-gzip".equals(coding) || "*".equals(coding)) {
+        gzip = true;
+      } else if (DEFLATE.equals(coding)) {
+        deflate = true;
+      }
+    }
+    return gzip ? GZIP : deflate ? DEFLATE : null;
+  }
+
+  private static boolean isAccepted(final String[] tokens) {
+    for (int i = 1; i < tokens.length; i++) {
+      final String param = tokens[i].trim();
+      if (param.startsWith("q=")) {
+        try {
+          return Double.parseDouble(param.substring(2)) > 0;
+        } catch (final NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Open the response body, compressed with the encoding negotiated from the request's
+   * Accept-Encoding header. The stream must be closed to finish the compressed body.
+   */
+  public static OutputStream open(final HttpServletRequest req, final HttpServletResponse resp)
+      throws IOException {
+    resp.addHeader("Vary", "Accept-Encoding");
+    final String encoding = negotiate(req.getHeader("Accept-Encoding"));
+    if (GZIP.equals(encoding)) {
+      resp.setHeader("Content-Encoding", GZIP);
+      return new GZIPOutputStream(resp.getOutputStream(), BUFFER_SIZE);
+    } else if (DEFLATE.equals(encoding)) {
+      // HTTP deflate is the zlib format, which is what the default Deflater writes.
+      resp.setHeader("Content-Encoding", DEFLATE);
+      return new DeflaterOutputStream(resp.getOutputStream());
+    }
+    return resp.getOutputStream();
+  }
+
+  /**
+   * Set the ETag of the response, and reply 304 Not Modified if the request's If-None-Match
+   * header matches it. The tag is weak, as the gzip, deflate and identity bodies of a response
+   * are the same content but not the same bytes.
+   *
+   * @param etag an opaque tag which changes whenever the response content does.
+   * @return true if the response is complete and no body must be written.
+   */
+  public static boolean checkNotModified(final HttpServletRequest req,
+      final HttpServletResponse resp, final String etag) {
+    final String quotedEtag = "\"" + etag + "\"";
+    resp.setHeader("ETag", "W/" + quotedEtag);
+    // Let browsers store the response, but revalidate it on every use.
+    resp.setHeader("Cache-Control", "private, no-cache");
+
+    final String ifNoneMatch = req.getHeader("If-None-Match");
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (final String candidate : ifNoneMatch.split(",")) {
+      final String tag = candidate.trim();
+      if ("*".equals(tag) || quotedEtag.equals(tag) || ("W/" + quotedEtag).equals(tag)) {
+        resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -31,6 +31,7 @@ import azkaban.imagemgmt.dto.ImageRampupPlanResponseDTO;
 import azkaban.imagemgmt.exception.ImageMgmtException;
 import azkaban.imagemgmt.exception.ImageMgmtValidationException;
 import azkaban.imagemgmt.models.ImageRampupPlan;
+import azkaban.imagemgmt.rampup.ImageRampupManager;
 import azkaban.imagemgmt.utils.ConverterUtils;
 import azkaban.utils.JSONUtils;
 import java.io.IOException;
@@ -43,6 +44,7 @@ import org.mockito.ArgumentCaptor;
 public class ImageRampupServiceImplTest {
 
   private ImageRampupDao imageRampupDao;
+  private ImageRampupManager imageRampupManager;
   private ObjectMapper objectMapper;
   private ImageRampupService imageRampupService;
   private ConverterUtils converterUtils;
@@ -54,7 +56,9 @@ public class ImageRampupServiceImplTest {
     this.imageRampupDao = mock(ImageRampupDaoImpl.class);
     this.converterUtils = new ConverterUtils(this.objectMapper);
     this.converter = new ImageRampupPlanConverter();
-    this.imageRampupService = new ImageRampupServiceImpl(this.imageRampupDao, this.converter);
+    this.imageRampupManager = mock(ImageRampupManager.class);
+    this.imageRampupService = new ImageRampupServiceImpl(this.imageRampupDao,
+        this.imageRampupManager, this.converter);
   }
 
   @Test
@@ -80,6 +84,7 @@ public class ImageRampupServiceImplTest {
     Assert.assertEquals("azkaban", capturedImageRampupPlanRequest.getCreatedBy());
     Assert.assertEquals(2, capturedImageRampupPlanRequest.getImageRampups().size());
     Assert.assertEquals(100, imageRampupPlanId);
+    verify(this.imageRampupManager).invalidateCache();
   }
 
   @Test(expected = ImageMgmtValidationException.class)
@@ -31,6 +31,7 @@ import azkaban.imagemgmt.exception.ImageMgmtException;
 import azkaban.imagemgmt.exception.ImageMgmtInvalidInputException;
 import azkaban.imagemgmt.exception.ImageMgmtValidationException;
 import azkaban.imagemgmt.models.ImageVersion;
+import azkaban.imagemgmt.rampup.ImageRampupManager;
 import azkaban.imagemgmt.utils.ConverterUtils;
 import azkaban.utils.JSONUtils;
 import java.io.IOException;
@@ -54,7 +55,8 @@ public class ImageVersionServiceImplTest {
     this.imageVersionDao = mock(ImageVersionDaoImpl.class);
     this.converterUtils = new ConverterUtils(this.objectMapper);
     this.converter = new ImageVersionConverter();
-    this.imageVersionService = new ImageVersionServiceImpl(this.imageVersionDao, this.converter);
+    this.imageVersionService = new ImageVersionServiceImpl(this.imageVersionDao,
+        mock(ImageRampupManager.class), this.converter);
   }
 
   @Test
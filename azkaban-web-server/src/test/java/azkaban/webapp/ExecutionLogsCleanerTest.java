@@ -4,8 +4,11 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
 
 import azkaban.Constants.ConfigurationKeys;
+import azkaban.executor.ExecutionRetentionEngine;
 import azkaban.executor.ExecutorLoader;
 import azkaban.utils.Props;
 import java.util.concurrent.TimeUnit;
@@ -16,6 +19,7 @@ import org.mockito.Mockito;
 public class ExecutionLogsCleanerTest {
   private Props props;
   private ExecutorLoader loader;
+  private ExecutionRetentionEngine retentionEngine;
   private ExecutionLogsCleaner executionLogsCleaner;
 
   @Before
@@ -24,7 +28,9 @@ public class ExecutionLogsCleanerTest {
     /* This config will set the thread to run every 2 seconds */
     this.props.put(ConfigurationKeys.EXECUTION_LOGS_CLEANUP_INTERVAL_SECONDS, 2);
     this.loader = mock(ExecutorLoader.class);
-    this.executionLogsCleaner = new ExecutionLogsCleaner(this.props, this.loader);
+    this.retentionEngine = mock(ExecutionRetentionEngine.class);
+    this.executionLogsCleaner = new ExecutionLogsCleaner(this.props, this.loader,
+        this.retentionEngine);
   }
 
   @Test
@@ -33,4 +39,19 @@ public class ExecutionLogsCleanerTest {
     TimeUnit.SECONDS.sleep(5);
     Mockito.verify(this.loader, atLeast(2)).removeExecutionLogsByTime(anyLong(), anyInt());
   }
+
+  @Test
+  public void checkIfRetentionEngineGetsTriggeredWhenEnabled() throws Exception {
+    when(this.retentionEngine.isEnabled()).thenReturn(true);
+    executionLogsCleaner.start();
+    TimeUnit.SECONDS.sleep(5);
+    Mockito.verify(this.retentionEngine, atLeast(2)).runOnce();
+    Mockito.verify(this.loader, never()).removeExecutionLogsByTime(anyLong(), anyInt());
+  }
+
+  @Test
+  public void checkIfShutdownStopsTheRetentionEngine() throws Exception {
+    executionLogsCleaner.shutdown();
+    Mockito.verify(this.retentionEngine).shutdown();
+  }
 }
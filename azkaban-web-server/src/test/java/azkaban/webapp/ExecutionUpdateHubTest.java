@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.webapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableFlowCache;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.Status;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutionUpdateHubTest {
+
+  private static final int EXEC_ID = 1;
+  // Long enough for the poller to never run during a test, which calls refreshFeeds itself.
+  private static final long POLL_INTERVAL_MS = 60 * 60 * 1000L;
+
+  private ExecutableFlowCache flowCache;
+  private ExecutionUpdateHub hub;
+  private ExecutorService pool;
+
+  private static ExecutableFlow createFlow(final long updateTime, final Status status) {
+    final ExecutableFlow flow = new ExecutableFlow();
+    flow.setExecutionId(EXEC_ID);
+    flow.setUpdateTime(updateTime);
+    flow.setStatus(status);
+    return flow;
+  }
+
+  private ExecutionUpdateHub createHub(final int maxSubscribers) {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.WEBSERVER_EXECUTION_UPDATES_POLL_INTERVAL_MS,
+        String.valueOf(POLL_INTERVAL_MS));
+    props.put(ConfigurationKeys.WEBSERVER_EXECUTION_UPDATES_MAX_SUBSCRIBERS,
+        String.valueOf(maxSubscribers));
+    return new ExecutionUpdateHub(props, this.flowCache,
+        new MetricsManager(new MetricRegistry()));
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.flowCache = mock(ExecutableFlowCache.class);
+    when(this.flowCache.getExecutableFlow(EXEC_ID))
+        .thenReturn(createFlow(100L, Status.RUNNING));
+    this.hub = createHub(10);
+    this.pool = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    this.hub.shutdown();
+    this.pool.shutdownNow();
+  }
+
+  private Future<ExecutionUpdateHub.Update> awaitAsync(final long lastUpdateTime) {
+    return this.pool.submit(() -> {
+      try (final ExecutionUpdateHub.Subscription subscription = this.hub.subscribe(EXEC_ID)) {
+        return subscription.await(lastUpdateTime, ExecutionUpdateHub.MAX_WAIT_MS);
+      }
+    });
+  }
+
+  @Test
+  public void testReturnsNewerFlowImmediately() throws Exception {
+    try (final ExecutionUpdateHub.Subscription subscription = this.hub.subscribe(EXEC_ID)) {
+      assertThat(subscription.getFlow().getUpdateTime()).isEqualTo(100L);
+      final ExecutionUpdateHub.Update update = subscription.await(50L, 0);
+      assertThat(update.getFlow().getUpdateTime()).isEqualTo(100L);
+      // The JSON of an update since a given time is built once for all subscribers.
+      assertThat(update.toJson(50L)).isSameAs(update.toJson(50L));
+    }
+  }
+
+  @Test
+  public void testSubscribersShareOneRead() throws Exception {
+    final Future<ExecutionUpdateHub.Update> first = awaitAsync(100L);
+    final Future<ExecutionUpdateHub.Update> second = awaitAsync(100L);
+    // Let both subscribers start waiting.
+    Thread.sleep(200);
+    assertThat(first.isDone()).isFalse();
+    assertThat(second.isDone()).isFalse();
+
+    when(this.flowCache.getExecutableFlow(EXEC_ID))
+        .thenReturn(createFlow(200L, Status.SUCCEEDED));
+    this.hub.refreshFeeds();
+
+    final ExecutionUpdateHub.Update update = first.get(10, TimeUnit.SECONDS);
+    assertThat(update.getFlow().getUpdateTime()).isEqualTo(200L);
+    assertThat(second.get(10, TimeUnit.SECONDS)).isSameAs(update);
+    // One read when the feed was created, and one by the poller.
+    verify(this.flowCache, times(2)).getExecutableFlow(EXEC_ID);
+    assertThat(this.hub.getFeedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testTimeoutReturnsLatestFlow() throws Exception {
+    try (final ExecutionUpdateHub.Subscription subscription = this.hub.subscribe(EXEC_ID)) {
+      final ExecutionUpdateHub.Update update = subscription.await(100L, 100L);
+      assertThat(update.getFlow().getUpdateTime()).isEqualTo(100L);
+    }
+  }
+
+  @Test
+  public void testMissingExecution() throws Exception {
+    when(this.flowCache.getExecutableFlow(EXEC_ID)).thenReturn(null);
+    try (final ExecutionUpdateHub.Subscription subscription = this.hub.subscribe(EXEC_ID)) {
+      assertThat(subscription.getFlow()).isNull();
+      assertThat(subscription.await(0L, 0L)).isNull();
+    }
+  }
+
+  @Test
+  public void testMaxSubscribers() throws Exception {
+    this.hub.shutdown();
+    this.hub = createHub(1);
+    try (final ExecutionUpdateHub.Subscription subscription = this.hub.subscribe(EXEC_ID)) {
+      assertThatThrownBy(() -> this.hub.subscribe(EXEC_ID))
+          .isInstanceOf(ExecutorManagerException.class);
+    }
+    // The slot is released when the subscription is closed.
+    this.hub.subscribe(EXEC_ID).close();
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    this.hub.shutdown();
+    this.hub = createHub(0);
+    assertThat(this.hub.isEnabled()).isFalse();
+    assertThatThrownBy(() -> this.hub.subscribe(EXEC_ID))
+        .isInstanceOf(ExecutorManagerException.class);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.webapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Props;
+import azkaban.webapp.metrics.DummyWebMetricsImpl;
+import azkaban.webapp.metrics.RouteMetrics;
+import azkaban.webapp.servlet.AbstractAzkabanServlet;
+import azkaban.webapp.servlet.StatusServlet;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Test;
+
+public class RequestBulkheadTest {
+
+  private static final String PREFIX = ConfigurationKeys.AZKABAN_WEBSERVER_BULKHEAD_PREFIX;
+
+  @Test
+  public void testRejectsWhenSaturated() throws Exception {
+    final RequestBulkhead bulkhead = new RequestBulkhead("test", 2, 0, 0);
+    assertThat(bulkhead.acquire()).isEqualTo(0);
+    assertThat(bulkhead.acquire()).isEqualTo(0);
+    assertThat(bulkhead.getActiveCount()).isEqualTo(2);
+    assertThat(bulkhead.acquire()).isEqualTo(-1);
+
+    bulkhead.release();
+    assertThat(bulkhead.acquire()).isEqualTo(0);
+  }
+
+  @Test
+  public void testQueuedRequestIsAdmittedOnRelease() throws Exception {
+    final RequestBulkhead bulkhead = new RequestBulkhead("test", 1, 1, 60_000);
+    assertThat(bulkhead.acquire()).isEqualTo(0);
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Future<Long> queued = executor.submit(bulkhead::acquire);
+      while (bulkhead.getQueuedCount() == 0) {
+        Thread.sleep(10);
+      }
+      // The queue is full
+      assertThat(bulkhead.acquire()).isEqualTo(-1);
+
+      bulkhead.release();
+      assertThat(queued.get()).isGreaterThanOrEqualTo(0);
+      assertThat(bulkhead.getQueuedCount()).isEqualTo(0);
+      assertThat(bulkhead.getActiveCount()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testQueuedRequestTimesOut() throws Exception {
+    final RequestBulkhead bulkhead = new RequestBulkhead("test", 1, 1, 50);
+    assertThat(bulkhead.acquire()).isEqualTo(0);
+    assertThat(bulkhead.acquire()).isEqualTo(-1);
+    assertThat(bulkhead.getQueuedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testCreateByRoute() {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.AZKABAN_WEBSERVER_BULKHEADS, "slow, status");
+    props.put(PREFIX + "slow.routes", "/manager,/history");
+    props.put(PREFIX + "slow.max.concurrent", "5");
+    props.put(PREFIX + "status.routes", "/status");
+
+    final Map<String, RequestBulkhead> bulkheads = RequestBulkhead
+        .createByRoute(props, ImmutableSet.of("/manager", "/history", "/status", "/executor"));
+
+    assertThat(bulkheads.keySet()).containsOnly("/manager", "/history", "/status");
+    assertThat(bulkheads.get("/manager")).isSameAs(bulkheads.get("/history"));
+    assertThat(bulkheads.get("/manager").getMaxConcurrent()).isEqualTo(5);
+    assertThat(bulkheads.get("/status").getName()).isEqualTo("status");
+
+    props.put(PREFIX + "status.routes", "/status,/manager");
+    assertThatThrownBy(() -> RequestBulkhead.createByRoute(props,
+        ImmutableSet.of("/manager", "/history", "/status")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testFilterShedsRequestsWhenSaturated() throws Exception {
+    final StatusServlet servlet = new StatusServlet(mock(StatusService.class));
+    servlet.getApiEndpoints().get(0)
+        .setMetrics(new DummyWebMetricsImpl().setUpAzkabanAPIMetrics("status"));
+    final RequestBulkhead bulkhead = new RequestBulkhead("status", 1, 0, 0);
+    final RouteMetrics routeMetrics = mock(RouteMetrics.class);
+    final APIMetricsFilter filter = new APIMetricsFilter(
+        ImmutableMap.<String, AbstractAzkabanServlet>of("/status", servlet),
+        ImmutableMap.of("/status", routeMetrics), ImmutableMap.of("/status", bulkhead));
+
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getRequestURI()).thenReturn("/status");
+    when(request.getMethod()).thenReturn("GET");
+
+    // A request holds the only permit of the bulkhead
+    final CountDownLatch served = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Future<?> first = executor.submit(() -> {
+        filter.doFilter(request, mock(HttpServletResponse.class), (req, resp) -> {
+          served.countDown();
+          try {
+            release.await();
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+        return null;
+      });
+      served.await();
+
+      final HttpServletResponse rejected = mock(HttpServletResponse.class);
+      final FilterChain chain = mock(FilterChain.class);
+      filter.doFilter(request, rejected, chain);
+      verify(rejected).sendError(eq(APIMetricsFilter.SC_TOO_MANY_REQUESTS), anyString());
+      verify(rejected).setHeader("Retry-After", "1");
+      verify(chain, never()).doFilter(request, rejected);
+      verify(routeMetrics).markRejectedRequest();
+
+      release.countDown();
+      first.get();
+      assertThat(bulkhead.getActiveCount()).isEqualTo(0);
+
+      final HttpServletResponse admitted = mock(HttpServletResponse.class);
+      filter.doFilter(request, admitted, chain);
+      verify(chain).doFilter(request, admitted);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
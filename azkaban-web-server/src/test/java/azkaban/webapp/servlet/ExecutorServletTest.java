@@ -18,9 +18,13 @@ package azkaban.webapp.servlet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.executor.container.ContainerizedDispatchManager;
 import azkaban.executor.DummyEventListener;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.LogStreamHandler;
 import azkaban.metrics.DummyContainerizationMetricsImpl;
+import azkaban.project.Project;
 import azkaban.sla.SlaAction;
 import azkaban.sla.SlaOption;
 import azkaban.sla.SlaType;
@@ -128,6 +132,53 @@ public class ExecutorServletTest extends LoginAbstractAzkabanServletTestBase {
     assertEquals("Cannot find execution '123'", this.res.getResponseJson().path("error").asText());
   }
 
+  /**
+   * Log followers beyond the configured max are rejected with 429 without reaching the executor,
+   * and a follower frees its slot once it returns.
+   */
+  @Test
+  public void getAjaxStreamExecLogsRejectsTooManyFollowers() throws Exception {
+    Mockito.when(this.azkabanWebServer.getServerProps())
+        .thenReturn(Props.of(ConfigurationKeys.WEBSERVER_LOG_STREAM_MAX_FOLLOWERS, "1"));
+    this.executorServlet.init(this.servletConfig);
+    final ExecutableFlow flow = new ExecutableFlow();
+    flow.setExecutionId(123);
+    flow.setProjectId(11);
+    Mockito.when(this.executorManager.getExecutableFlow(123)).thenReturn(flow);
+    Mockito.when(this.projectManager.getProject(11)).thenReturn(new Project(11, "testProject"));
+
+    final AzkabanMockHttpServletResponse rejected = new AzkabanMockHttpServletResponse();
+    Mockito.doAnswer(invocation -> {
+      // A second follower arrives while the first one is waiting.
+      this.executorServlet.handleGet(createStreamLogRequest(), rejected, this.session);
+      invocation.getArgument(6, LogStreamHandler.class).open(0, 0);
+      return null;
+    }).doNothing().when(this.executorManager).streamExecutionLog(Mockito.eq(flow),
+        Mockito.isNull(), Mockito.eq(0), Mockito.eq(100), Mockito.eq(0), Mockito.eq(true),
+        Mockito.any());
+
+    this.executorServlet.handleGet(createStreamLogRequest(), this.res, this.session);
+    assertEquals(200, this.res.getStatus());
+    assertEquals(429, rejected.getStatus());
+    assertEquals("5", rejected.getHeader("Retry-After"));
+
+    this.executorServlet.handleGet(createStreamLogRequest(), new AzkabanMockHttpServletResponse(),
+        this.session);
+    Mockito.verify(this.executorManager, Mockito.times(2)).streamExecutionLog(Mockito.eq(flow),
+        Mockito.isNull(), Mockito.eq(0), Mockito.eq(100), Mockito.eq(0), Mockito.eq(true),
+        Mockito.any());
+  }
+
+  private AzkabanMockHttpServletRequest createStreamLogRequest() {
+    final AzkabanMockHttpServletRequest request = new AzkabanMockHttpServletRequest();
+    request.addParameter("ajax", "streamExecLogs");
+    request.addParameter("execid", "123");
+    request.addParameter("offset", "0");
+    request.addParameter("length", "100");
+    request.addParameter("follow", "true");
+    return request;
+  }
+
   @Test
   public void testPostAjaxUpdateProperty() throws Exception {
     ContainerizedDispatchManager containerizedDispatchManager = new ContainerizedDispatchManager(
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.webapp.servlet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.Status;
+import azkaban.project.DirectoryYamlFlowLoader;
+import azkaban.project.Project;
+import azkaban.test.executions.ExecutionsTestUtil;
+import azkaban.utils.JSONUtils;
+import azkaban.utils.Props;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The json streamed by fetchexecflow and fetchflowgraph must be the same as the one built from
+ * maps by the other APIs returning executions and flow graphs.
+ */
+public class JsonFieldsTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String PROJECT_DIR = "embeddedflowyamltest";
+  private static final String FLOW_NAME = "embedded_flow";
+
+  private Project project;
+
+  private static <T> JsonNode buildFromMap(final T item, final JsonFields.Filler<T> filler)
+      throws Exception {
+    final Map<String, Object> map = new HashMap<>();
+    JsonFields.fill(map, item, filler);
+    return MAPPER.readTree(JSONUtils.toJSON(map));
+  }
+
+  private static <T> JsonNode stream(final T item, final JsonFields.Filler<T> filler)
+      throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final JsonGenerator generator = JSONUtils.createGenerator(out)) {
+      generator.writeStartObject();
+      JsonFields.write(generator, item, filler);
+      generator.writeEndObject();
+    }
+    return MAPPER.readTree(out.toByteArray());
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.project = new Project(11, PROJECT_DIR);
+    final DirectoryYamlFlowLoader loader = new DirectoryYamlFlowLoader(new Props());
+    loader.loadProjectFlow(this.project, ExecutionsTestUtil.getFlowDir(PROJECT_DIR));
+    this.project.setFlows(loader.getFlowMap());
+  }
+
+  @Test
+  public void testStreamedExecutableFlowEqualsMap() throws Exception {
+    final ExecutableFlow flow = new ExecutableFlow(this.project, this.project.getFlow(FLOW_NAME));
+    flow.setStatus(Status.RUNNING);
+    flow.getExecutableNode("shell_pwd").setStatus(Status.SUCCEEDED);
+    flow.getExecutableNode("shell_pwd").setStartTime(1000L);
+
+    final JsonNode expected = buildFromMap(flow, ExecutorServlet::fillExecutableNodeInfo);
+    assertThat(expected.path("nodes").size()).isEqualTo(4);
+    assertThat(stream(flow, ExecutorServlet::fillExecutableNodeInfo)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testStreamedFlowGraphEqualsMap() throws Exception {
+    final JsonFields.Filler<String> filler =
+        (flowId, fields) -> ProjectManagerServlet.fillFlowInfo(this.project, flowId, fields);
+
+    final JsonNode expected = buildFromMap(FLOW_NAME, filler);
+    assertThat(expected.path("nodes").size()).isEqualTo(4);
+    assertThat(stream(FLOW_NAME, filler)).isEqualTo(expected);
+
+    final JsonNode missing = buildFromMap("missing_flow", filler);
+    assertThat(missing.path("error").isTextual()).isTrue();
+    assertThat(stream("missing_flow", filler)).isEqualTo(missing);
+  }
+}
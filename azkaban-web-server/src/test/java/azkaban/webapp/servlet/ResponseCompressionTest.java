@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package azkaban.webapp.servlet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ResponseCompressionTest {
+
+  private static final String BODY = "{\"nodes\":[]}";
+
+  @Test
+  public void testNegotiate() {
+    assertThat(ResponseCompression.negotiate(null)).isNull();
+    assertThat(ResponseCompression.negotiate("identity")).isNull();
+    assertThat(ResponseCompression.negotiate("gzip, deflate, br")).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("deflate")).isEqualTo("deflate");
+    assertThat(ResponseCompression.negotiate("GZIP;q=0.5")).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("gzip;q=0, deflate")).isEqualTo("deflate");
+    assertThat(ResponseCompression.negotiate("*")).isEqualTo("gzip");
+  }
+
+  @Test
+  public void testGzip() throws Exception {
+    final MockHttpServletRequest req = new MockHttpServletRequest();
+    req.addHeader("Accept-Encoding", "gzip, deflate");
+    final MockHttpServletResponse resp = new MockHttpServletResponse();
+    try (final OutputStream out = ResponseCompression.open(req, resp)) {
+      out.write(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(resp.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(resp.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    final byte[] body = IOUtils.toByteArray(
+        new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())));
+    assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(BODY);
+  }
+
+  @Test
+  public void testDeflate() throws Exception {
+    final MockHttpServletRequest req = new MockHttpServletRequest();
+    req.addHeader("Accept-Encoding", "deflate");
+    final MockHttpServletResponse resp = new MockHttpServletResponse();
+    try (final OutputStream out = ResponseCompression.open(req, resp)) {
+      out.write(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(resp.getHeader("Content-Encoding")).isEqualTo("deflate");
+    final byte[] body = IOUtils.toByteArray(
+        new InflaterInputStream(new ByteArrayInputStream(resp.getContentAsByteArray())));
+    assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(BODY);
+  }
+
+  @Test
+  public void testIdentity() throws Exception {
+    final MockHttpServletRequest req = new MockHttpServletRequest();
+    final MockHttpServletResponse resp = new MockHttpServletResponse();
+    try (final OutputStream out = ResponseCompression.open(req, resp)) {
+      out.write(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(resp.getHeader("Content-Encoding")).isNull();
+    assertThat(resp.getContentAsString()).isEqualTo(BODY);
+  }
+
+  @Test
+  public void testCheckNotModified() {
+    final MockHttpServletRequest req = new MockHttpServletRequest();
+    MockHttpServletResponse resp = new MockHttpServletResponse();
+    assertThat(ResponseCompression.checkNotModified(req, resp, "v1")).isFalse();
+    assertThat(resp.getHeader("ETag")).isEqualTo("W/\"v1\"");
+    assertThat(resp.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+
+    req.addHeader("If-None-Match", "\"v0\", \"v1\"");
+    resp = new MockHttpServletResponse();
+    assertThat(ResponseCompression.checkNotModified(req, resp, "v1")).isTrue();
+    assertThat(resp.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+
+    final MockHttpServletRequest weakReq = new MockHttpServletRequest();
+    weakReq.addHeader("If-None-Match", "W/\"v1\"");
+    resp = new MockHttpServletResponse();
+    assertThat(ResponseCompression.checkNotModified(weakReq, resp, "v1")).isTrue();
+    assertThat(resp.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+
+    resp = new MockHttpServletResponse();
+    assertThat(ResponseCompression.checkNotModified(req, resp, "v2")).isFalse();
+    assertThat(resp.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+  }
+}
@@ -531,6 +531,58 @@ var updaterFunction = function () {
   }
 }
 
+// Same statuses as Status.isStatusFinished on the server.
+var finishedStatuses = ["FAILED", "KILLED", "SUCCEEDED", "SKIPPED",
+  "FAILED_SUCCEEDED", "CANCELLED"];
+
+// Minimum time between two long-poll requests, so that a server which answers right away
+// (e.g. a flow updating very often) is not polled in a tight loop.
+var minWatchIntervalMs = 1000;
+
+// Long-polls the web server for status updates while the flow is running. Falls back to
+// periodic polling with updaterFunction if long-polling is disabled or fails.
+var watcherFunction = function () {
+  var oldData = graphModel.get("data");
+  if (finishedStatuses.indexOf(oldData.status) != -1) {
+    console.log("Flow finished, so no more updates");
+    return;
+  }
+
+  var requestTime = new Date().getTime();
+  var requestData = {
+    "execid": execId,
+    "ajax": "awaitexecflowupdate",
+    "lastUpdateTime": oldData.updateTime ? oldData.updateTime : 0
+  };
+  $.ajax({
+    url: contextURL + "/executor",
+    data: requestData,
+    dataType: "json",
+    success: function (data) {
+      if (data.error) {
+        console.log("Long-polling unavailable: " + data.error);
+        updaterFunction();
+        return;
+      }
+      if (data.updateTime) {
+        updateGraph(oldData, data);
+
+        graphModel.set({"update": data});
+        graphModel.trigger("change:update");
+      }
+      var elapsed = new Date().getTime() - requestTime;
+      setTimeout(function () {
+        watcherFunction();
+      }, Math.max(0, minWatchIntervalMs - elapsed));
+    },
+    error: function () {
+      setTimeout(function () {
+        updaterFunction();
+      }, 5 * 1000);
+    }
+  });
+}
+
 var logUpdaterFunction = function () {
   var oldData = graphModel.get("data");
   var keepRunning =
@@ -647,7 +699,7 @@ $(function () {
     } else {
       flowTabView.handleGraphLinkClick();
     }
-    updaterFunction();
+    watcherFunction();
     logUpdaterFunction();
   };
   ajaxCall(requestURL, requestData, successHandler);
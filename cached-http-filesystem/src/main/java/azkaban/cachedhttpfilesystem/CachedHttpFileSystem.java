@@ -18,15 +18,25 @@
 
 package azkaban.cachedhttpfilesystem;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -86,6 +96,22 @@ import static java.util.Objects.*;
  * .open() is called on CachedHttpFileSystem with URI: chttp://www.example.com/jars/some/lib/coollib-1.0.0.jar
  * the URI for this file on the cache will be: hdfs://localhost:9000/dependencies/some/lib/coollib-1.0.0.jar
  * and the necessary directories will be created in order to put the file there.
+ *
+ * OPTIONAL NODE-LOCAL TIER:
+ * If LOCAL_CACHE_DIR is specified, files are also cached on the local disk, in front of the cache FileSystem, up to
+ * LOCAL_CACHE_MAX_BYTES (least recently used files are deleted first). A file found in the local tier is opened
+ * without any call to the cache FileSystem or the origin. On a local miss the file is copied from the cache
+ * FileSystem, or downloaded from the origin and persisted in both tiers. A LOCAL_CACHE_DIR is used by a single
+ * process, so that LOCAL_CACHE_MAX_BYTES holds: the local tier is disabled in a process which finds the directory
+ * used by another one.
+ *
+ * Concurrent misses for the same file in a process are loaded once: the first caller loads the file while the others
+ * wait for it and then read it from the cache. The sizes of files are remembered for STATUS_CACHE_TTL_MS. If
+ * MISSING_STATUS_CACHE_TTL_MS is set, files which the origin doesn't have are remembered for this long, so that
+ * opening them again fails without any remote call.
+ *
+ * When a cache is enabled, a file is loaded whole into it before it is opened, so seeking in it never reaches the
+ * origin. A download from the origin which breaks is resumed from the last byte received with a range request.
  */
 public class CachedHttpFileSystem extends FileSystem {
   // CACHE_ENABLED_FLAG is TRUE by default. When it is true, caching is enabled and the CACHE_ROOT_URI
@@ -93,6 +119,19 @@ public class CachedHttpFileSystem extends FileSystem {
   // pull directly from the origin. CACHE_ROOT_URI is not used when caching is disabled.
   public static final String CACHE_ROOT_URI = "cachedhttpfilesystem.cache_root_uri";
   public static final String CACHE_ENABLED_FLAG = "cachedhttpfilesystem.caching_enabled";
+  // Directory of the optional node-local cache tier, which is disabled if it is not set.
+  public static final String LOCAL_CACHE_DIR = "cachedhttpfilesystem.local_cache_dir";
+  public static final String LOCAL_CACHE_MAX_BYTES = "cachedhttpfilesystem.local_cache_max_bytes";
+  // How long the size of a file is remembered.
+  public static final String STATUS_CACHE_TTL_MS = "cachedhttpfilesystem.status_cache_ttl_ms";
+  // How long a file which the origin doesn't have is remembered. It is not remembered by default, since the file may
+  // be uploaded right after.
+  public static final String MISSING_STATUS_CACHE_TTL_MS = "cachedhttpfilesystem.missing_status_cache_ttl_ms";
+
+  private static final long DEFAULT_LOCAL_CACHE_MAX_BYTES = 10L * 1024 * 1024 * 1024;
+  private static final long DEFAULT_STATUS_CACHE_TTL_MS = 60 * 1000;
+  private static final long DEFAULT_MISSING_STATUS_CACHE_TTL_MS = 0;
+  private static final int MAX_STATUS_CACHE_ENTRIES = 10000;
 
   private static final long DEFAULT_BLOCK_SIZE = 4096;
   private static final Path WORKING_DIR = new Path("/");
@@ -107,6 +146,16 @@ public class CachedHttpFileSystem extends FileSystem {
   private FileSystem cacheFS;
   private URI rootCachedURI;
   private URI rootOriginURI;
+  private LocalDiskCache localCache;
+  private StatusCache statusCache;
+  // Latches of the files being loaded into the cache, by key
+  private final ConcurrentMap<String, CountDownLatch> loading = new ConcurrentHashMap<>();
+
+  private final LongAdder localHits = new LongAdder();
+  private final LongAdder remoteHits = new LongAdder();
+  private final LongAdder originDownloads = new LongAdder();
+  private final LongAdder negativeHits = new LongAdder();
+  private final LongAdder loadWaits = new LongAdder();
 
   @Override
   public void initialize(final URI name, final Configuration conf) throws IOException {
@@ -130,6 +179,18 @@ public class CachedHttpFileSystem extends FileSystem {
       this.rootCachedURI = URI.create(addTrailingForwardSlash(cacheRootUri));
       this.cacheFS = FileSystem.get(rootCachedURI, conf);
     }
+
+    final String localCacheDir = conf.get(LOCAL_CACHE_DIR);
+    if (localCacheDir != null) {
+      try {
+        this.localCache = new LocalDiskCache(new File(localCacheDir),
+            conf.getLong(LOCAL_CACHE_MAX_BYTES, DEFAULT_LOCAL_CACHE_MAX_BYTES), conf);
+      } catch (LocalDiskCache.DirectoryLockedException e) {
+        this.log.warn("The local cache is disabled: " + e.getMessage());
+      }
+    }
+    this.statusCache = new StatusCache(conf.getLong(STATUS_CACHE_TTL_MS, DEFAULT_STATUS_CACHE_TTL_MS),
+        conf.getLong(MISSING_STATUS_CACHE_TTL_MS, DEFAULT_MISSING_STATUS_CACHE_TTL_MS));
   }
 
   // If the base URIs don't have a trailing forward slash the resolving and relativization can get messed up.
@@ -142,6 +203,17 @@ public class CachedHttpFileSystem extends FileSystem {
     return "chttp";
   }
 
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      if (this.localCache != null) {
+        this.localCache.close();
+      }
+    }
+  }
+
   @Override
   public URI getUri() {
     return this.uri;
@@ -149,59 +221,231 @@ public class CachedHttpFileSystem extends FileSystem {
 
   @Override
   public FSDataInputStream open(final Path path, final int bufferSize) throws IOException {
+    URI relativeURI = relativize(path);
+    String key = relativeURI.getPath();
+    URI resolvedOriginURI = this.rootOriginURI.resolve(relativeURI);
+
+    FSDataInputStream cachedInputStream = openFromCache(key, relativeURI, bufferSize);
+    if (cachedInputStream != null) {
+      return cachedInputStream;
+    }
+    if (!this.cachingEnabled && this.localCache == null) {
+      // If caching is disabled, just return from the origin.
+      this.log.info("CACHE MISS (cache is disabled): " + resolvedOriginURI.toString());
+      return downloadFromOriginOrRecordMissing(key, resolvedOriginURI);
+    }
+
+    CountDownLatch load = new CountDownLatch(1);
+    CountDownLatch inFlightLoad = this.loading.putIfAbsent(key, load);
+    if (inFlightLoad != null) {
+      // Another thread is loading this file, wait for it and then read the file from the cache.
+      this.loadWaits.increment();
+      try {
+        inFlightLoad.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the load of " + key);
+      }
+      return open(path, bufferSize);
+    }
+    try {
+      return this.localCache != null
+          ? loadIntoLocalCache(key, relativeURI, resolvedOriginURI, bufferSize)
+          : loadIntoCache(key, relativeURI, resolvedOriginURI, bufferSize);
+    } finally {
+      this.loading.remove(key, load);
+      load.countDown();
+    }
+  }
+
+  private URI relativize(final Path path) throws IOException {
     URI relativeURI = this.uri.relativize(path.toUri());
     if (relativeURI.isAbsolute()) {
       throw new IOException("Path must be relative or have same prefix as root origin URI.");
     }
+    return relativeURI;
+  }
 
-    URI resolvedOriginURI = this.rootOriginURI.resolve(relativeURI);
+  /**
+   * Open a file from the first cache tier which has it, without loading it into the cache.
+   *
+   * @return the stream, null if the file must be loaded.
+   * @throws FileNotFoundException if the origin was recently found not to have the file.
+   */
+  private FSDataInputStream openFromCache(final String key, final URI relativeURI, final int bufferSize)
+      throws IOException {
+    if (this.statusCache.isMissing(key)) {
+      this.negativeHits.increment();
+      throw new FileNotFoundException("File was not found at the origin recently: " + key);
+    }
+    if (this.localCache != null) {
+      FSDataInputStream localInputStream = this.localCache.open(key, bufferSize);
+      if (localInputStream != null) {
+        this.localHits.increment();
+        return localInputStream;
+      }
+      // The copy from the cache FileSystem to the local cache is a load
+      return null;
+    }
     if (!this.cachingEnabled) {
-      // If caching is disabled, just return from the origin.
-      this.log.info("CACHE MISS (cache is disabled): " + resolvedOriginURI.toString());
-      return downloadFromOrigin(resolvedOriginURI);
+      return null;
     }
 
     Path resolvedCachePath = new Path(this.rootCachedURI.resolve(relativeURI));
     try {
       // Try to pull from cache
-      FSDataInputStream cachedInputStream =  this.cacheFS.open(resolvedCachePath, bufferSize);
+      FSDataInputStream cachedInputStream = this.cacheFS.open(resolvedCachePath, bufferSize);
       this.log.info("CACHE HIT: " + resolvedCachePath.toString());
+      this.remoteHits.increment();
       return cachedInputStream;
     } catch (FileNotFoundException e) {
       this.log.info("CACHE MISS: " + resolvedCachePath.toString());
-      // Cache miss, let's download from the origin
-      FSDataInputStream originInputStream = downloadFromOrigin(resolvedOriginURI);
+      return null;
+    }
+  }
+
+  /**
+   * Copy a file into the local cache from the cache FileSystem or from the origin, and persist it in the cache
+   * FileSystem if it came from the origin.
+   */
+  private FSDataInputStream loadIntoLocalCache(final String key, final URI relativeURI,
+      final URI resolvedOriginURI, final int bufferSize) throws IOException {
+    // Another thread may have loaded it since it was looked up
+    FSDataInputStream localInputStream = this.localCache.open(key, bufferSize);
+    if (localInputStream != null) {
+      this.localHits.increment();
+      return localInputStream;
+    }
 
-      // Let's persist to the cache
-      Path folderInCacheForFile = resolvedCachePath.getParent();
-      Path tempCacheFile = new Path(folderInCacheForFile, String.format(CACHE_TMP_FILE_TEMPLATE, RAND.nextInt()));
-      FSDataOutputStream outStreamToTmpFile;
+    Path resolvedCachePath = null;
+    InputStream source = null;
+    if (this.cachingEnabled) {
+      resolvedCachePath = new Path(this.rootCachedURI.resolve(relativeURI));
       try {
-        this.cacheFS.mkdirs(folderInCacheForFile);
-        outStreamToTmpFile = this.cacheFS.create(tempCacheFile, false);
-      } catch (IOException e2) {
-        // We failed to create the output stream, so just return the stream from the origin
-        this.log.warn("Failed to persist file to cache, returning stream from origin: " +
-            resolvedOriginURI.toString(), e2);
-        return originInputStream;
+        source = this.cacheFS.open(resolvedCachePath);
+        this.log.info("LOCAL CACHE MISS, CACHE HIT: " + resolvedCachePath.toString());
+        this.remoteHits.increment();
+      } catch (FileNotFoundException e) {
+        this.log.info("CACHE MISS: " + resolvedCachePath.toString());
       }
+    } else {
+      this.log.info("LOCAL CACHE MISS: " + key);
+    }
+    boolean fromOrigin = source == null;
+    if (fromOrigin) {
+      source = downloadFromOriginOrRecordMissing(key, resolvedOriginURI);
+    }
 
-      // Copy from origin to tmp file in cache
-      IOUtils.copy(originInputStream, outStreamToTmpFile);
-      originInputStream.close();
-      outStreamToTmpFile.close();
-
+    CountingInputStream countingSource = new CountingInputStream(source);
+    try {
+      // The stream stays readable if the loads of other files evict this one
+      localInputStream = this.localCache.put(key, countingSource, bufferSize);
+    } finally {
+      source.close();
+    }
+    this.statusCache.putSize(key, countingSource.getByteCount());
+    if (fromOrigin && this.cachingEnabled) {
       try {
-        // Rename the temporary file to the final file name
-        this.cacheFS.rename(tempCacheFile, resolvedCachePath);
-      } catch (FileAlreadyExistsException e2) {
-        this.log.info("Another process already persisted this file: " + resolvedCachePath.toString());
-        // Another process beat us to the race - no problem though, that means the file already exists so we
-        // can just swallow this error and return the stream like usual!
+        persistToCache(localInputStream, resolvedCachePath, resolvedOriginURI);
+      } catch (IOException e) {
+        localInputStream.close();
+        throw e;
+      }
+    }
+    return localInputStream;
+  }
+
+  /**
+   * Download a file from the origin into the cache FileSystem. If it can't be persisted, the stream from the origin is
+   * returned.
+   */
+  private FSDataInputStream loadIntoCache(final String key, final URI relativeURI,
+      final URI resolvedOriginURI, final int bufferSize) throws IOException {
+    Path resolvedCachePath = new Path(this.rootCachedURI.resolve(relativeURI));
+    // Cache miss, let's download from the origin
+    FSDataInputStream originInputStream = downloadFromOriginOrRecordMissing(key, resolvedOriginURI);
+
+    // Let's persist to the cache
+    Path folderInCacheForFile = resolvedCachePath.getParent();
+    Path tempCacheFile = new Path(folderInCacheForFile, String.format(CACHE_TMP_FILE_TEMPLATE, RAND.nextInt()));
+    FSDataOutputStream outStreamToTmpFile;
+    try {
+      this.cacheFS.mkdirs(folderInCacheForFile);
+      outStreamToTmpFile = this.cacheFS.create(tempCacheFile, false);
+    } catch (IOException e2) {
+      // We failed to create the output stream, so just return the stream from the origin
+      this.log.warn("Failed to persist file to cache, returning stream from origin: " +
+          resolvedOriginURI.toString(), e2);
+      return originInputStream;
+    }
+
+    // Copy from origin to tmp file in cache
+    long size;
+    try (InputStream in = originInputStream; FSDataOutputStream out = outStreamToTmpFile) {
+      size = IOUtils.copyLarge(in, out);
+    } catch (IOException e) {
+      deleteTmpFile(tempCacheFile);
+      throw e;
+    }
+
+    try {
+      // Rename the temporary file to the final file name
+      this.cacheFS.rename(tempCacheFile, resolvedCachePath);
+    } catch (FileAlreadyExistsException e2) {
+      this.log.info("Another process already persisted this file: " + resolvedCachePath.toString());
+      // Another process beat us to the race - no problem though, that means the file already exists so we
+      // can just swallow this error and return the stream like usual!
+      deleteTmpFile(tempCacheFile);
+    }
+    this.statusCache.putSize(key, size);
+
+    // Return input stream from cache
+    return this.cacheFS.open(resolvedCachePath, bufferSize);
+  }
+
+  /**
+   * Persist a file of the local cache in the cache FileSystem, so that other nodes don't download it from the origin.
+   * Failures are logged and swallowed since the file is already cached locally. The stream of the local file is
+   * rewound afterwards.
+   *
+   * @throws IOException if the stream of the local file can't be rewound.
+   */
+  private void persistToCache(final FSDataInputStream localInputStream, final Path resolvedCachePath,
+      final URI resolvedOriginURI) throws IOException {
+    Path folderInCacheForFile = resolvedCachePath.getParent();
+    Path tempCacheFile = new Path(folderInCacheForFile, String.format(CACHE_TMP_FILE_TEMPLATE, RAND.nextInt()));
+    try {
+      this.cacheFS.mkdirs(folderInCacheForFile);
+      try (FSDataOutputStream out = this.cacheFS.create(tempCacheFile, false)) {
+        IOUtils.copyLarge(localInputStream, out);
       }
+      this.cacheFS.rename(tempCacheFile, resolvedCachePath);
+    } catch (FileAlreadyExistsException e) {
+      this.log.info("Another process already persisted this file: " + resolvedCachePath.toString());
+      deleteTmpFile(tempCacheFile);
+    } catch (IOException e) {
+      this.log.warn("Failed to persist file to cache, it is only cached locally: " + resolvedOriginURI.toString(), e);
+      deleteTmpFile(tempCacheFile);
+    }
+    localInputStream.seek(0);
+  }
 
-      // Return input stream from cache
-      return this.cacheFS.open(resolvedCachePath, bufferSize);
+  private void deleteTmpFile(final Path tempCacheFile) {
+    try {
+      this.cacheFS.delete(tempCacheFile, false);
+    } catch (IOException e) {
+      this.log.warn("Failed to delete temporary file from cache: " + tempCacheFile.toString(), e);
+    }
+  }
+
+  private FSDataInputStream downloadFromOriginOrRecordMissing(final String key, final URI resolvedOriginURI)
+      throws IOException {
+    this.originDownloads.increment();
+    try {
+      return downloadFromOrigin(resolvedOriginURI);
+    } catch (FileNotFoundException e) {
+      this.statusCache.putMissing(key);
+      throw e;
     }
   }
 
@@ -251,14 +495,210 @@ public class CachedHttpFileSystem extends FileSystem {
 
   @Override
   public FileStatus getFileStatus(final Path path) throws IOException {
+    URI relativeURI = this.uri.relativize(path.toUri());
+    if (!relativeURI.isAbsolute()) {
+      String key = relativeURI.getPath();
+      if (this.statusCache.isMissing(key)) {
+        this.negativeHits.increment();
+        throw new FileNotFoundException("File was not found at the origin recently: " + key);
+      }
+      Long size = this.localCache != null ? this.localCache.getSize(key) : null;
+      if (size == null) {
+        size = this.statusCache.getSize(key);
+      }
+      if (size != null) {
+        return new FileStatus(size, false, 1, DEFAULT_BLOCK_SIZE, 0, path);
+      }
+    }
+    // The size is unknown until the file is opened
     return new FileStatus(-1, false, 1, DEFAULT_BLOCK_SIZE, 0, path);
   }
 
+  /**
+   * @return the number of opens served by the node-local cache tier.
+   */
+  public long getLocalHitCount() {
+    return this.localHits.sum();
+  }
+
+  /**
+   * @return the number of opens served by the cache FileSystem.
+   */
+  public long getCacheHitCount() {
+    return this.remoteHits.sum();
+  }
+
+  /**
+   * @return the number of downloads from the origin.
+   */
+  public long getOriginDownloadCount() {
+    return this.originDownloads.sum();
+  }
+
+  /**
+   * @return the number of opens and status lookups which failed because the origin recently didn't have the file.
+   */
+  public long getNegativeHitCount() {
+    return this.negativeHits.sum();
+  }
+
+  /**
+   * @return the number of opens which waited for the load of the same file by another thread.
+   */
+  public long getLoadWaitCount() {
+    return this.loadWaits.sum();
+  }
+
+  /**
+   * @return the size of the files in the node-local cache tier, 0 if it is disabled.
+   */
+  public long getLocalCacheSizeInBytes() {
+    return this.localCache != null ? this.localCache.getSizeInBytes() : 0;
+  }
+
+  /**
+   * Remembers the size of files, and which files the origin doesn't have, for a limited time.
+   */
+  private static class StatusCache {
+    private final long ttlMs;
+    private final long missingTtlMs;
+    // Ordered from the least to the most recently used, to drop the least recently used above the maximum
+    private final Map<String, CachedStatus> entries = new LinkedHashMap<String, CachedStatus>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CachedStatus> eldest) {
+        return size() > MAX_STATUS_CACHE_ENTRIES;
+      }
+    };
+
+    StatusCache(final long ttlMs, final long missingTtlMs) {
+      this.ttlMs = ttlMs;
+      this.missingTtlMs = missingTtlMs;
+    }
+
+    synchronized boolean isMissing(final String key) {
+      Long size = get(key);
+      return size != null && size < 0;
+    }
+
+    synchronized Long getSize(final String key) {
+      Long size = get(key);
+      return size != null && size >= 0 ? size : null;
+    }
+
+    synchronized void putSize(final String key, final long size) {
+      put(key, size, this.ttlMs);
+    }
+
+    synchronized void putMissing(final String key) {
+      put(key, -1L, this.missingTtlMs);
+    }
+
+    private void put(final String key, final long size, final long ttlMs) {
+      if (ttlMs > 0) {
+        this.entries.put(key, new CachedStatus(size, System.currentTimeMillis() + ttlMs));
+      }
+    }
+
+    private Long get(final String key) {
+      CachedStatus entry = this.entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expireTime < System.currentTimeMillis()) {
+        this.entries.remove(key);
+        return null;
+      }
+      return entry.size;
+    }
+
+    private static class CachedStatus {
+      // -1 if the origin doesn't have the file
+      private final long size;
+      private final long expireTime;
+
+      CachedStatus(final long size, final long expireTime) {
+        this.size = size;
+        this.expireTime = expireTime;
+      }
+    }
+  }
+
+  /**
+   * Stream of a file downloaded from the HTTP origin. Seeking re-opens the connection with a range
+   * request, so that an interrupted download can be resumed without fetching the bytes read
+   * already. If the origin ignores the range, the bytes before the target position are skipped.
+   *
+   * A read which fails is resumed the same way from the current position, up to
+   * MAX_READ_RESUMES times, so that a download which is copied into the cache doesn't restart
+   * from the first byte either.
+   */
   static class HttpDataInputStream extends FilterInputStream
       implements Seekable, PositionedReadable {
 
+    static final int MAX_READ_RESUMES = 3;
+
+    private final URI uri;
+    private long pos = 0;
+    private int resumes = 0;
+
     HttpDataInputStream(final InputStream in) {
+      this(in, null);
+    }
+
+    HttpDataInputStream(final InputStream in, final URI uri) {
       super(in);
+      this.uri = uri;
+    }
+
+    @Override
+    public int read() throws IOException {
+      while (true) {
+        try {
+          final int b = super.read();
+          if (b != -1) {
+            this.pos++;
+          }
+          return b;
+        } catch (final IOException e) {
+          resumeAfter(e);
+        }
+      }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      while (true) {
+        try {
+          final int n = super.read(b, off, len);
+          if (n > 0) {
+            this.pos += n;
+          }
+          return n;
+        } catch (final IOException e) {
+          resumeAfter(e);
+        }
+      }
+    }
+
+    private void resumeAfter(final IOException e) throws IOException {
+      if (this.uri == null || this.resumes >= MAX_READ_RESUMES) {
+        throw e;
+      }
+      this.resumes++;
+      log.warn("Reading " + this.uri + " failed at byte " + this.pos + ", resuming: " + e);
+      reopen(this.pos);
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      this.pos += skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
     }
 
     @Override
@@ -279,13 +719,41 @@ public class CachedHttpFileSystem extends FileSystem {
     }
 
     @Override
-    public void seek(final long pos) throws IOException {
-      throw new UnsupportedOperationException();
+    public void seek(final long target) throws IOException {
+      if (target == this.pos) {
+        return;
+      }
+      if (this.uri == null || target < 0) {
+        throw new UnsupportedOperationException();
+      }
+      reopen(target);
+    }
+
+    private void reopen(final long target) throws IOException {
+      final URLConnection conn = this.uri.toURL().openConnection();
+      conn.setRequestProperty("Range", "bytes=" + target + "-");
+      final InputStream rangeIn = conn.getInputStream();
+      final boolean isPartial = conn instanceof HttpURLConnection
+          && ((HttpURLConnection) conn).getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+      try {
+        this.in.close();
+      } catch (final IOException e) {
+        // The connection may be broken already
+      }
+      this.in = rangeIn;
+      this.pos = 0;
+      if (isPartial) {
+        this.pos = target;
+      } else {
+        log.info("Range requests are not supported by the origin, skipping to " + target + ": "
+            + this.uri);
+        IOUtils.skipFully(this, target);
+      }
     }
 
     @Override
     public long getPos() throws IOException {
-      throw new UnsupportedOperationException();
+      return this.pos;
     }
 
     @Override
@@ -297,6 +765,6 @@ public class CachedHttpFileSystem extends FileSystem {
   FSDataInputStream downloadFromOrigin(final URI uri) throws IOException {
     URLConnection conn = uri.toURL().openConnection();
     InputStream in = conn.getInputStream();
-    return new FSDataInputStream(new HttpDataInputStream(in));
+    return new FSDataInputStream(new HttpDataInputStream(in, uri));
   }
 }
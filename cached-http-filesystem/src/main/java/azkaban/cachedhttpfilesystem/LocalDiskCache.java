@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package azkaban.cachedhttpfilesystem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.log4j.Logger;
+
+
+/**
+ * Node-local disk tier of CachedHttpFileSystem. Files are stored under a root directory at their path relative to the
+ * origin, and the least recently used files are deleted when the total size goes above a maximum.
+ *
+ * The index of the files is kept in memory, so that a lookup doesn't touch the disk. It is rebuilt from the directory
+ * when the cache is created, ordered by last modification time. Files are written to a temporary file which is then
+ * renamed, so that a reader never sees a partial file.
+ *
+ * As the index and the size limit are per process, a directory is used by a single process at a time: the cache holds
+ * a lock on a file of the directory until it is closed, and a cache can't be created on a directory locked by another
+ * one. Temporary files found when the cache is created were therefore left over by a process which died.
+ */
+class LocalDiskCache implements Closeable {
+  private static final String TMP_FILE_PREFIX = ".download";
+  private static final String TMP_FILE_SUFFIX = ".tmp";
+  private static final String LOCK_FILE_NAME = ".lock";
+
+  private static final Logger log = Logger.getLogger(LocalDiskCache.class);
+
+  private final File root;
+  private final long maxBytes;
+  private final RawLocalFileSystem localFS = new RawLocalFileSystem();
+  private final FileChannel lockChannel;
+
+  // Size of the cached files by key, ordered from the least to the most recently used
+  private final Map<String, Long> fileSizes = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes = 0;
+
+  LocalDiskCache(final File root, final long maxBytes, final Configuration conf) throws IOException {
+    this.root = root.getCanonicalFile();
+    this.maxBytes = maxBytes;
+    this.localFS.initialize(URI.create("file:///"), conf);
+    if (!this.root.isDirectory() && !this.root.mkdirs()) {
+      throw new IOException("Unable to create the local cache directory " + this.root);
+    }
+    this.lockChannel = lock(new File(this.root, LOCK_FILE_NAME));
+    try {
+      load();
+    } catch (final IOException | RuntimeException e) {
+      this.lockChannel.close();
+      throw e;
+    }
+  }
+
+  private static FileChannel lock(final File lockFile) throws IOException {
+    final FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (final OverlappingFileLockException e) {
+      // Locked by another cache of this process
+      lock = null;
+    } catch (final IOException e) {
+      channel.close();
+      throw e;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new DirectoryLockedException("The local cache directory " + lockFile.getParent()
+          + " is used by another cache");
+    }
+    return channel;
+  }
+
+  private synchronized void load() throws IOException {
+    final java.nio.file.Path lockFile = this.root.toPath().resolve(LOCK_FILE_NAME);
+    final List<java.nio.file.Path> files;
+    try (final Stream<java.nio.file.Path> stream = Files.walk(this.root.toPath())) {
+      files = stream.filter(Files::isRegularFile)
+          .filter(p -> !p.equals(lockFile))
+          .sorted(Comparator.comparingLong(p -> p.toFile().lastModified()))
+          .collect(Collectors.toList());
+    }
+    for (final java.nio.file.Path file : files) {
+      if (file.getFileName().toString().endsWith(TMP_FILE_SUFFIX)) {
+        // Left over by a write of a process which died
+        Files.deleteIfExists(file);
+        continue;
+      }
+      final long size = Files.size(file);
+      this.fileSizes.put(this.root.toPath().relativize(file).toString(), size);
+      this.totalBytes += size;
+    }
+    evict(null);
+    log.info(String.format("Loaded %d files with %d bytes from the local cache %s",
+        this.fileSizes.size(), this.totalBytes, this.root));
+  }
+
+  /**
+   * Open a cached file and mark it as the most recently used.
+   *
+   * @return the stream, null if the file is not cached.
+   */
+  synchronized FSDataInputStream open(final String key, final int bufferSize) throws IOException {
+    if (this.fileSizes.get(key) == null) {
+      return null;
+    }
+    try {
+      // The stream stays readable if the file is evicted, since eviction only unlinks it
+      return this.localFS.open(new Path(getFile(key).toURI()), bufferSize);
+    } catch (final FileNotFoundException e) {
+      // Deleted by something else than the cache
+      this.totalBytes -= this.fileSizes.remove(key);
+      return null;
+    }
+  }
+
+  /**
+   * @return the size of a cached file, null if the file is not cached.
+   */
+  synchronized Long getSize(final String key) {
+    return this.fileSizes.get(key);
+  }
+
+  /**
+   * Write the content of a stream to the cache, and evict the least recently used files if the cache is too large. The
+   * stream is not closed.
+   *
+   * @return a stream of the cached file, opened before the eviction so that it stays readable if the file is evicted.
+   */
+  FSDataInputStream put(final String key, final InputStream in, final int bufferSize) throws IOException {
+    final File target = getFile(key);
+    final File parent = target.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Unable to create directory " + parent);
+    }
+    final File tmpFile = File.createTempFile(TMP_FILE_PREFIX, TMP_FILE_SUFFIX, parent);
+    try {
+      try (final OutputStream out = new FileOutputStream(tmpFile)) {
+        IOUtils.copyLarge(in, out);
+      }
+      Files.move(tmpFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile.toPath());
+    }
+
+    synchronized (this) {
+      final FSDataInputStream cachedInputStream = this.localFS.open(new Path(target.toURI()), bufferSize);
+      final long size = target.length();
+      final Long previousSize = this.fileSizes.put(key, size);
+      this.totalBytes += size - (previousSize == null ? 0 : previousSize);
+      evict(key);
+      return cachedInputStream;
+    }
+  }
+
+  /**
+   * Delete the least recently used files until the cache fits in its maximum size. The file just added is kept, even
+   * if it is larger than the maximum size on its own.
+   */
+  private void evict(final String keep) {
+    final Iterator<Map.Entry<String, Long>> iterator = this.fileSizes.entrySet().iterator();
+    while (this.totalBytes > this.maxBytes && iterator.hasNext()) {
+      final Map.Entry<String, Long> entry = iterator.next();
+      if (entry.getKey().equals(keep)) {
+        continue;
+      }
+      try {
+        Files.deleteIfExists(getFile(entry.getKey()).toPath());
+      } catch (final IOException e) {
+        log.warn("Failed to delete " + entry.getKey() + " from the local cache", e);
+      }
+      this.totalBytes -= entry.getValue();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Release the directory. The cache must not be used anymore.
+   */
+  @Override
+  public void close() throws IOException {
+    this.lockChannel.close();
+  }
+
+  synchronized long getSizeInBytes() {
+    return this.totalBytes;
+  }
+
+  synchronized int getFileCount() {
+    return this.fileSizes.size();
+  }
+
+  private File getFile(final String key) throws IOException {
+    final File file = new File(this.root, key).getCanonicalFile();
+    if (!file.toPath().startsWith(this.root.toPath()) || file.equals(this.root)
+        || file.equals(new File(this.root, LOCK_FILE_NAME))) {
+      throw new IOException("Path is not inside the local cache: " + key);
+    }
+    return file;
+  }
+
+  /**
+   * Thrown when the directory of the cache is used by another cache.
+   */
+  static class DirectoryLockedException extends IOException {
+
+    DirectoryLockedException(final String message) {
+      super(message);
+    }
+  }
+}
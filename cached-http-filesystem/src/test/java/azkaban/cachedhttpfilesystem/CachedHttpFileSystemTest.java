@@ -22,6 +22,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -196,4 +202,190 @@ public class CachedHttpFileSystemTest {
     // This should be a cache miss BUT should still succeed (the error renaming the file should be swallowed)
     assertInputStreamIsJarContent(this.cachedHttpFileSystem.open(new Path(this.chttpAbsoluteJarURI)));
   }
+
+  @Test
+  public void testSeekOriginStream() throws Exception {
+    // The origin doesn't answer with partial content, so the stream is re-opened and skipped to the
+    // target position.
+    final File originFile = TEMP_DIR.newFile("origin.jar");
+    FileUtils.writeStringToFile(originFile, JAR_CONTENT);
+    final URI originURI = originFile.toURI();
+    try (final FSDataInputStream in = new FSDataInputStream(new CachedHttpFileSystem
+        .HttpDataInputStream(originURI.toURL().openStream(), originURI))) {
+      assertEquals(JAR_CONTENT.charAt(0), in.read());
+      assertEquals(1, in.getPos());
+      in.seek(11);
+      assertEquals(11, in.getPos());
+      assertEquals(JAR_CONTENT.substring(11), IOUtils.toString(in));
+    }
+  }
+
+  private CachedHttpFileSystem createFileSystemWithLocalCache() throws Exception {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean("fs.chttp.impl.disable.cache", true);
+    conf.set("fs.chttp.impl", azkaban.cachedhttpfilesystem.CachedHttpFileSystem.class.getName());
+    conf.set("fs.file.impl", org.apache.hadoop.fs.LocalFileSystem.class.getName());
+    conf.set(CachedHttpFileSystem.CACHE_ROOT_URI, this.cacheRootURI.toString());
+    conf.set(CachedHttpFileSystem.LOCAL_CACHE_DIR, TEMP_DIR.newFolder("local").getCanonicalPath());
+
+    CachedHttpFileSystem fs = spy((CachedHttpFileSystem) FileSystem.get(chttpRootURI, conf));
+    configureMockResponseFromHttpOrigin(fs, this.originAbsoluteJarURI);
+    return fs;
+  }
+
+  @Test
+  public void testLocalCacheMissThenHit() throws Exception {
+    CachedHttpFileSystem fs = createFileSystemWithLocalCache();
+
+    // This should be a miss in both tiers, which populates both of them
+    assertInputStreamIsJarContent(fs.open(new Path(this.chttpAbsoluteJarURI)));
+    verify(fs).downloadFromOrigin(any());
+    assertTrue(this.expectedLocallyCachedJar.exists());
+    assertEquals(JAR_CONTENT.length(), fs.getLocalCacheSizeInBytes());
+    assertEquals(JAR_CONTENT.length(), fs.getFileStatus(new Path(this.chttpAbsoluteJarURI)).getLen());
+
+    // The local tier serves the file without the cache FileSystem or the origin
+    FileUtils.forceDelete(this.expectedLocallyCachedJar);
+    assertInputStreamIsJarContent(fs.open(new Path(this.chttpAbsoluteJarURI)));
+    verify(fs).downloadFromOrigin(any());
+    assertEquals(1, fs.getLocalHitCount());
+    assertEquals(0, fs.getCacheHitCount());
+    assertEquals(1, fs.getOriginDownloadCount());
+  }
+
+  @Test
+  public void testLocalCacheMissCacheHit() throws Exception {
+    // The file is in the cache FileSystem only, it is copied to the local tier
+    FileUtils.writeStringToFile(this.expectedLocallyCachedJar, JAR_CONTENT);
+    CachedHttpFileSystem fs = createFileSystemWithLocalCache();
+
+    assertInputStreamIsJarContent(fs.open(new Path(this.chttpAbsoluteJarURI)));
+    assertInputStreamIsJarContent(fs.open(new Path(this.chttpAbsoluteJarURI)));
+
+    verify(fs, never()).downloadFromOrigin(any());
+    assertEquals(1, fs.getCacheHitCount());
+    assertEquals(1, fs.getLocalHitCount());
+  }
+
+  private static void openMissingFile(CachedHttpFileSystem fs, URI missingJarURI) throws Exception {
+    try {
+      fs.open(new Path(missingJarURI));
+      fail("Expected FileNotFoundException");
+    } catch (FileNotFoundException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testMissingFileIsRemembered() throws Exception {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean("fs.chttp.impl.disable.cache", true);
+    conf.set("fs.chttp.impl", azkaban.cachedhttpfilesystem.CachedHttpFileSystem.class.getName());
+    conf.set("fs.file.impl", org.apache.hadoop.fs.LocalFileSystem.class.getName());
+    conf.set(CachedHttpFileSystem.CACHE_ROOT_URI, this.cacheRootURI.toString());
+    conf.setLong(CachedHttpFileSystem.MISSING_STATUS_CACHE_TTL_MS, 60 * 1000);
+    CachedHttpFileSystem fs = spy((CachedHttpFileSystem) FileSystem.get(chttpRootURI, conf));
+    URI missingJarURI = this.chttpRootURI.resolve("jars/missing.jar");
+    doThrow(new FileNotFoundException()).when(fs).downloadFromOrigin(any());
+
+    openMissingFile(fs, missingJarURI);
+    openMissingFile(fs, missingJarURI);
+    assertFalse(fs.exists(new Path(missingJarURI)));
+
+    // The origin is only asked once, the second open and the status lookup fail from memory
+    verify(fs).downloadFromOrigin(any());
+    assertEquals(2, fs.getNegativeHitCount());
+  }
+
+  @Test
+  public void testMissingFileIsNotRememberedByDefault() throws Exception {
+    URI missingJarURI = this.chttpRootURI.resolve("jars/missing.jar");
+    doThrow(new FileNotFoundException()).when(this.cachedHttpFileSystem).downloadFromOrigin(any());
+
+    openMissingFile(this.cachedHttpFileSystem, missingJarURI);
+    openMissingFile(this.cachedHttpFileSystem, missingJarURI);
+
+    verify(this.cachedHttpFileSystem, times(2)).downloadFromOrigin(any());
+    assertEquals(0, this.cachedHttpFileSystem.getNegativeHitCount());
+  }
+
+  @Test
+  public void testInterruptedDownloadIsResumedIntoCache() throws Exception {
+    final File originFile = TEMP_DIR.newFile("origin.jar");
+    FileUtils.writeStringToFile(originFile, JAR_CONTENT);
+    final URI originURI = originFile.toURI();
+    // The connection breaks after the first 5 bytes.
+    final InputStream breakingStream = new InputStream() {
+      private final InputStream in = IOUtils.toInputStream(JAR_CONTENT.substring(0, 5));
+
+      @Override
+      public int read() throws IOException {
+        final int b = this.in.read();
+        if (b == -1) {
+          throw new IOException("Connection reset");
+        }
+        return b;
+      }
+    };
+    doReturn(new FSDataInputStream(new CachedHttpFileSystem.HttpDataInputStream(breakingStream,
+        originURI))).when(this.cachedHttpFileSystem).downloadFromOrigin(this.originAbsoluteJarURI);
+
+    assertInputStreamIsJarContent(this.cachedHttpFileSystem.open(new Path(this.chttpAbsoluteJarURI)));
+    assertEquals(JAR_CONTENT, FileUtils.readFileToString(this.expectedLocallyCachedJar));
+    verify(this.cachedHttpFileSystem).downloadFromOrigin(any());
+  }
+
+  @Test
+  public void testFailedDownloadDoesNotLeaveTmpFile() throws Exception {
+    FSDataInputStream failingStream = new FSDataInputStream(new CachedHttpFileSystem.HttpDataInputStream(
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Connection reset");
+          }
+        }));
+    doReturn(failingStream).when(this.cachedHttpFileSystem).downloadFromOrigin(this.originAbsoluteJarURI);
+
+    try {
+      this.cachedHttpFileSystem.open(new Path(this.chttpAbsoluteJarURI));
+      fail("Expected IOException");
+    } catch (IOException e) {
+      // expected
+    }
+
+    assertFalse(this.expectedLocallyCachedJar.exists());
+    assertArrayEquals(new String[0], this.expectedLocallyCachedJar.getParentFile().list());
+  }
+
+  @Test
+  public void testConcurrentMissesDownloadOnce() throws Exception {
+    doAnswer(i -> {
+      // Hold the download until the other open waits for it
+      long deadline = System.currentTimeMillis() + 10000;
+      while (this.cachedHttpFileSystem.getLoadWaitCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      return stringToFSDataInputStream(JAR_CONTENT);
+    }).when(this.cachedHttpFileSystem).downloadFromOrigin(this.originAbsoluteJarURI);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<String>> contents = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        contents.add(executor.submit(() -> {
+          try (InputStream in = this.cachedHttpFileSystem.open(new Path(this.chttpAbsoluteJarURI))) {
+            return IOUtils.toString(in);
+          }
+        }));
+      }
+      for (Future<String> content : contents) {
+        assertEquals(JAR_CONTENT, content.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(this.cachedHttpFileSystem).downloadFromOrigin(any());
+    assertEquals(1, this.cachedHttpFileSystem.getLoadWaitCount());
+  }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package azkaban.cachedhttpfilesystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+
+public class LocalDiskCacheTest {
+  @Rule
+  public final TemporaryFolder TEMP_DIR = new TemporaryFolder();
+
+  private File root;
+
+  @Before
+  public void setup() throws Exception {
+    this.root = TEMP_DIR.newFolder("local");
+  }
+
+  private static void put(final LocalDiskCache cache, final String key, final String content) throws IOException {
+    cache.put(key, new ByteArrayInputStream(content.getBytes()), 4096).close();
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws Exception {
+    LocalDiskCache cache = new LocalDiskCache(this.root, 10, new Configuration(false));
+    put(cache, "jars/a.jar", "aaaaa");
+    put(cache, "jars/b.jar", "bbbbb");
+    // a.jar becomes the most recently used
+    try (InputStream in = cache.open("jars/a.jar", 4096)) {
+      assertEquals("aaaaa", IOUtils.toString(in));
+    }
+
+    put(cache, "other/c.jar", "ccc");
+
+    assertNull(cache.open("jars/b.jar", 4096));
+    assertFalse(new File(this.root, "jars/b.jar").exists());
+    assertEquals(Long.valueOf(5), cache.getSize("jars/a.jar"));
+    assertEquals(Long.valueOf(3), cache.getSize("other/c.jar"));
+    assertEquals(8, cache.getSizeInBytes());
+  }
+
+  @Test
+  public void testKeepFileLargerThanMaxSize() throws Exception {
+    LocalDiskCache cache = new LocalDiskCache(this.root, 4, new Configuration(false));
+    put(cache, "jars/a.jar", "aa");
+    put(cache, "jars/big.jar", "bigger than the cache");
+
+    assertNull(cache.getSize("jars/a.jar"));
+    assertEquals(1, cache.getFileCount());
+    try (InputStream in = cache.open("jars/big.jar", 4096)) {
+      assertEquals("bigger than the cache", IOUtils.toString(in));
+    }
+  }
+
+  @Test
+  public void testPutStreamIsReadableAfterEviction() throws Exception {
+    LocalDiskCache cache = new LocalDiskCache(this.root, 5, new Configuration(false));
+    try (InputStream in = cache.put("jars/a.jar", new ByteArrayInputStream("aaaaa".getBytes()), 4096)) {
+      put(cache, "jars/b.jar", "bbbbb");
+
+      assertNull(cache.getSize("jars/a.jar"));
+      assertEquals("aaaaa", IOUtils.toString(in));
+    }
+  }
+
+  @Test
+  public void testLoadExistingFiles() throws Exception {
+    FileUtils.writeStringToFile(new File(this.root, "jars/a.jar"), "aaaaa");
+    FileUtils.writeStringToFile(new File(this.root, "jars/.download123.tmp"), "partial");
+
+    LocalDiskCache cache = new LocalDiskCache(this.root, 100, new Configuration(false));
+
+    assertEquals(1, cache.getFileCount());
+    assertEquals(5, cache.getSizeInBytes());
+    assertFalse(new File(this.root, "jars/.download123.tmp").exists());
+  }
+
+  @Test
+  public void testDirectoryIsUsedByOneCacheAtATime() throws Exception {
+    LocalDiskCache cache = new LocalDiskCache(this.root, 100, new Configuration(false));
+    put(cache, "jars/a.jar", "aaaaa");
+    try {
+      new LocalDiskCache(this.root, 100, new Configuration(false));
+      fail("Expected DirectoryLockedException");
+    } catch (LocalDiskCache.DirectoryLockedException e) {
+      // expected
+    }
+    assertTrue(new File(this.root, "jars/a.jar").exists());
+
+    cache.close();
+    LocalDiskCache reopened = new LocalDiskCache(this.root, 100, new Configuration(false));
+    assertEquals(1, reopened.getFileCount());
+    reopened.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectPathOutsideOfRoot() throws Exception {
+    LocalDiskCache cache = new LocalDiskCache(this.root, 100, new Configuration(false));
+    put(cache, "../escaped.jar", "x");
+  }
+}